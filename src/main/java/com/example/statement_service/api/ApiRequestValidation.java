@@ -21,7 +21,7 @@ final class ApiRequestValidation {
             "createdAt", "customerId", "action", "statementId"
     );
     private static final Set<String> AUDIT_ACTIONS = Set.of(
-            "UPLOAD", "GENERATE_LINK", "DOWNLOAD", "REVOKE"
+            "UPLOAD", "IMPORT", "GENERATE_LINK", "DOWNLOAD", "REVOKE"
     );
 
     private ApiRequestValidation() {
@@ -0,0 +1,18 @@
+package com.example.statement_service.api;
+
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HttpServerConfig {
+
+    /**
+     * Sends {@code 100 Continue} when a handler first reads the request body rather than before it runs, so a raw
+     * upload answered from its declared digest is never transmitted by clients that wait for the interim response.
+     */
+    @Bean
+    TomcatConnectorCustomizer continueOnBodyRead() {
+        return connector -> connector.setProperty("continueResponseTiming", "onRead");
+    }
+}
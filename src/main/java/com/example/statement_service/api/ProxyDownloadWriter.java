@@ -0,0 +1,121 @@
+package com.example.statement_service.api;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.service.DownloadLinkAuthorizer;
+import com.example.statement_service.service.ProxyDownloads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes a proxied statement download: the HTTP side of {@link ProxyDownloads}.
+ * <p>
+ * The entity tag is the statement's SHA-256, which never changes for a statement, so it is a strong validator.
+ * {@code If-None-Match} answers 304, and a single {@code Range} answers 206 unless an {@code If-Range} names another
+ * entity tag. Multiple ranges are served as the whole object, which RFC 9110 allows.
+ */
+@Component
+public class ProxyDownloadWriter {
+
+    private static final String PDF = "application/pdf";
+
+    private final ProxyDownloads proxyDownloads;
+    private final StatementMetrics metrics;
+
+    public ProxyDownloadWriter(ProxyDownloads proxyDownloads, StatementMetrics metrics) {
+        this.proxyDownloads = proxyDownloads;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Whether downloads are proxied when the request does not say.
+     */
+    public boolean byDefault() {
+        return proxyDownloads.byDefault();
+    }
+
+    /**
+     * Streams an authorized download to the response.
+     */
+    public void write(DownloadLinkAuthorizer.Grant grant, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String etag = "\"" + grant.sha256() + "\"";
+        long length = grant.sizeBytes();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long first = -1;
+        long last = length - 1;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            try {
+                first = range.getRangeStart(length);
+                last = range.getRangeEnd(length);
+            } catch (IllegalArgumentException unsatisfiable) {
+                first = length;
+            }
+            if (first >= length || first > last) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        try (ProxyDownloads.Transfer transfer = proxyDownloads.begin()) {
+            transfer.open(grant.objectKey(), first, last);
+            response.setContentType(PDF);
+            if (first >= 0) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + length);
+                response.setContentLengthLong(last - first + 1);
+            } else {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentLengthLong(length);
+            }
+            transfer.copyTo(response.getOutputStream());
+        }
+        metrics.downloadProxied();
+    }
+
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.getFirst() : null;
+        } catch (IllegalArgumentException malformed) {
+            return null;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
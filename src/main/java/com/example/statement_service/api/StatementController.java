@@ -1,14 +1,19 @@
 package com.example.statement_service.api;
 
+import java.io.IOException;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import com.example.statement_service.observability.StatementMetrics;
 import com.example.statement_service.ratelimit.RateLimiter;
-import com.example.statement_service.service.TooManyRequestsException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
@@ -22,14 +27,37 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import com.example.statement_service.api.dto.BatchDownloadLinkRequest;
+import com.example.statement_service.api.dto.BatchDownloadLinkResponse;
+import com.example.statement_service.api.dto.BulkUploadManifestEntry;
+import com.example.statement_service.api.dto.BulkUploadResponse;
 import com.example.statement_service.api.dto.DownloadLinkRequest;
 import com.example.statement_service.api.dto.DownloadLinkResponse;
+import com.example.statement_service.api.dto.FinalizeUploadRequest;
+import com.example.statement_service.api.dto.PresignedUploadRequest;
+import com.example.statement_service.api.dto.PresignedUploadResponse;
+import com.example.statement_service.api.dto.StatementArchiveRequest;
 import com.example.statement_service.api.dto.StatementResponse;
 import com.example.statement_service.domain.Statement;
 import com.example.statement_service.security.CurrentCustomer;
+import com.example.statement_service.service.AsyncUploadService;
 import com.example.statement_service.service.AuditService;
+import com.example.statement_service.service.BulkUploadItem;
+import com.example.statement_service.service.BulkUploadResult;
+import com.example.statement_service.service.BulkUploadService;
+import com.example.statement_service.service.DirectUploadService;
+import com.example.statement_service.service.DownloadLinkAuthorizer;
+import com.example.statement_service.service.DownloadTickets;
+import com.example.statement_service.service.DownloadUrlService;
+import com.example.statement_service.service.NotFoundException;
+import com.example.statement_service.service.PresignedDownload;
+import com.example.statement_service.service.ProxyDownloads;
+import com.example.statement_service.service.RevokedStatements;
+import com.example.statement_service.service.StatementArchives;
 import com.example.statement_service.service.StatementService;
+import com.example.statement_service.service.TooManyRequestsException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 /**
@@ -43,31 +71,63 @@ public class StatementController {
 
     private static final Logger log = LoggerFactory.getLogger(StatementController.class);
     private static final Duration REDIRECT_DOWNLOAD_TTL = Duration.ofMinutes(1);
+    private static final String STATEMENT_SHA256_HEADER = "X-Statement-Sha256";
 
     private final StatementService statementService;
+    private final AsyncUploadService asyncUploadService;
+    private final BulkUploadService bulkUploadService;
+    private final DirectUploadService directUploadService;
+    private final DownloadUrlService downloadUrlService;
     private final AuditService auditService;
     private final CurrentCustomer currentCustomer;
     private final RateLimiter rateLimiter;
+    private final DownloadLinkAuthorizer downloadAuthorizer;
+    private final DownloadTickets downloadTickets;
+    private final RevokedStatements revokedStatements;
+    private final ProxyDownloadWriter proxyDownloads;
+    private final StatementArchives archives;
     private final StatementMetrics metrics;
 
     /**
      * Constructs a new StatementController with the required services.
      *
-     * @param statementService the service for statement operations
+     * @param statementService    the service for statement operations
+     * @param asyncUploadService  the service for asynchronous uploads
+     * @param bulkUploadService   the service for bulk uploads
+     * @param directUploadService the service for presigned direct-to-S3 uploads
+     * @param downloadUrlService  the service for presigning download URLs
      * @param auditService     the service for logging audit events
      * @param currentCustomer the helper for getting the current customer from authentication
      */
     public StatementController(
             StatementService statementService,
+            AsyncUploadService asyncUploadService,
+            BulkUploadService bulkUploadService,
+            DirectUploadService directUploadService,
+            DownloadUrlService downloadUrlService,
             AuditService auditService,
             CurrentCustomer currentCustomer,
             RateLimiter rateLimiter,
+            DownloadLinkAuthorizer downloadAuthorizer,
+            DownloadTickets downloadTickets,
+            RevokedStatements revokedStatements,
+            ProxyDownloadWriter proxyDownloads,
+            StatementArchives archives,
             StatementMetrics metrics
     ) {
         this.statementService = statementService;
+        this.asyncUploadService = asyncUploadService;
+        this.bulkUploadService = bulkUploadService;
+        this.directUploadService = directUploadService;
+        this.downloadUrlService = downloadUrlService;
         this.auditService = auditService;
         this.currentCustomer = currentCustomer;
         this.rateLimiter = rateLimiter;
+        this.downloadAuthorizer = downloadAuthorizer;
+        this.downloadTickets = downloadTickets;
+        this.revokedStatements = revokedStatements;
+        this.proxyDownloads = proxyDownloads;
+        this.archives = archives;
         this.metrics = metrics;
     }
 
@@ -100,12 +160,192 @@ public class StatementController {
         Statement s = statementService.upload(customerId, accountId, periodStart, periodEnd, file);
         auditService.log(customerId, "UPLOAD", s.getId(), req.getRemoteAddr(), req.getHeader("User-Agent"));
 
-        var location = uriBuilder
-                .path("/api/v1/statements/{id}")
-                .buildAndExpand(s.getId())
-                .toUri();
+        return created(s, uriBuilder);
+    }
+
+    /**
+     * Uploads a new statement from a raw {@code application/pdf} request body. Restricted to users with 'admin' scope.
+     * <p>
+     * Metadata is passed as query parameters so the body can be streamed to storage in a single pass without
+     * multipart spooling. A {@code Content-Length} header is required. A client that sends the body's SHA-256 in
+     * {@code X-Statement-Sha256} together with {@code Expect: 100-continue} gets a duplicate answered before it
+     * sends the body.
+     *
+     * @param customerId  the ID of the customer the statement belongs to
+     * @param accountId   the ID of the account the statement belongs to
+     * @param periodStart the start date of the statement period
+     * @param periodEnd   the end date of the statement period
+     * @param sha256      the optional hex-encoded SHA-256 of the body
+     * @param req         the HTTP request whose body is the PDF, also used for auditing purposes
+     * @return the metadata of the uploaded statement
+     * @throws IOException if the request body cannot be opened
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping(consumes = "application/pdf")
+    public ResponseEntity<StatementResponse> uploadStream(
+            @RequestParam("customerId") String customerId,
+            @RequestParam("accountId") String accountId,
+            @RequestParam("periodStart") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodStart,
+            @RequestParam("periodEnd") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodEnd,
+            @RequestHeader(name = STATEMENT_SHA256_HEADER, required = false) String sha256,
+            HttpServletRequest req,
+            UriComponentsBuilder uriBuilder
+    ) throws IOException {
+        ApiRequestValidation.validateCustomerId(customerId);
+        ApiRequestValidation.validateAccountId(accountId);
+        ApiRequestValidation.validatePeriodRange(periodStart, periodEnd);
+
+        Statement s = statementService.uploadStream(
+                customerId, accountId, periodStart, periodEnd,
+                req.getContentType(), req.getContentLengthLong(), sha256, req.getInputStream()
+        );
+        auditService.log(customerId, "UPLOAD", s.getId(), req.getRemoteAddr(), req.getHeader("User-Agent"));
+
+        return created(s, uriBuilder);
+    }
+
+    /**
+     * Uploads many statements in one request. Restricted to users with 'admin' scope.
+     * <p>
+     * The {@code manifest} part is a JSON array describing each statement and naming the multipart part that holds
+     * its PDF. Items succeed or fail independently; the response lists one result per manifest entry, in order.
+     *
+     * @param manifest the statement metadata, one entry per PDF part
+     * @param req      the multipart request holding the PDF parts, also used for auditing purposes
+     * @return the per-statement results
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping(path = "/bulk", consumes = "multipart/form-data")
+    public BulkUploadResponse uploadBulk(
+            @RequestPart("manifest") List<BulkUploadManifestEntry> manifest,
+            MultipartHttpServletRequest req
+    ) {
+        List<BulkUploadItem> items = manifest.stream()
+                .map(entry -> new BulkUploadItem(
+                        entry.file(),
+                        entry.customerId(),
+                        entry.accountId(),
+                        entry.periodStart(),
+                        entry.periodEnd(),
+                        entry.file() == null ? null : req.getFile(entry.file())
+                ))
+                .toList();
+
+        List<BulkUploadResult> results = bulkUploadService.uploadBulk(items);
+        auditService.logAll(
+                results.stream()
+                        .filter(BulkUploadResult::stored)
+                        .map(r -> new AuditService.Entry(r.statement().getCustomerId(), "UPLOAD", r.statement().getId()))
+                        .toList(),
+                req.getRemoteAddr(),
+                req.getHeader("User-Agent")
+        );
+        return BulkUploadResponse.from(results);
+    }
+
+    /**
+     * Accepts a raw {@code application/pdf} upload for asynchronous storage. Restricted to users with 'admin' scope.
+     * <p>
+     * Returns 202 once the body is staged and a {@code PENDING} statement exists. The statement becomes
+     * {@code ACTIVE} when the background upload to storage finishes, or {@code FAILED} if it does not; poll the
+     * {@code Location} URL for the outcome. A {@code Content-Length} header is required. {@code X-Statement-Sha256}
+     * works as for the synchronous raw upload.
+     *
+     * @param customerId  the ID of the customer the statement belongs to
+     * @param accountId   the ID of the account the statement belongs to
+     * @param periodStart the start date of the statement period
+     * @param periodEnd   the end date of the statement period
+     * @param sha256      the optional hex-encoded SHA-256 of the body
+     * @param req         the HTTP request whose body is the PDF, also used for auditing purposes
+     * @return the metadata of the accepted statement
+     * @throws IOException if the request body cannot be opened
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping(path = "/async", consumes = "application/pdf")
+    public ResponseEntity<StatementResponse> uploadAsync(
+            @RequestParam("customerId") String customerId,
+            @RequestParam("accountId") String accountId,
+            @RequestParam("periodStart") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodStart,
+            @RequestParam("periodEnd") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodEnd,
+            @RequestHeader(name = STATEMENT_SHA256_HEADER, required = false) String sha256,
+            HttpServletRequest req,
+            UriComponentsBuilder uriBuilder
+    ) throws IOException {
+        ApiRequestValidation.validateCustomerId(customerId);
+        ApiRequestValidation.validateAccountId(accountId);
+        ApiRequestValidation.validatePeriodRange(periodStart, periodEnd);
+
+        Statement s = asyncUploadService.uploadAsync(
+                customerId, accountId, periodStart, periodEnd,
+                req.getContentType(), req.getContentLengthLong(), sha256, req.getInputStream()
+        );
+        auditService.log(customerId, "UPLOAD", s.getId(), req.getRemoteAddr(), req.getHeader("User-Agent"));
+
+        return ResponseEntity.accepted()
+                .location(statementLocation(s, uriBuilder))
+                .body(StatementResponse.from(s));
+    }
+
+    /**
+     * Issues a presigned S3 PUT so an admin client can upload a statement directly to storage. Restricted to users
+     * with 'admin' scope.
+     * <p>
+     * The client must send the returned headers unchanged with the PUT, then call
+     * {@link #finalizeUpload} to create the statement.
+     *
+     * @param request the statement metadata and the size and SHA-256 of the PDF to upload
+     * @return the upload ID, presigned URL, required headers and expiration time
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping("/uploads")
+    public PresignedUploadResponse presignUpload(@Valid @RequestBody PresignedUploadRequest request) {
+        ApiRequestValidation.validateCustomerId(request.customerId());
+        ApiRequestValidation.validateAccountId(request.accountId());
+        ApiRequestValidation.validatePeriodRange(request.periodStart(), request.periodEnd());
+
+        return PresignedUploadResponse.from(directUploadService.presignUpload(
+                request.customerId(),
+                request.accountId(),
+                request.periodStart(),
+                request.periodEnd(),
+                request.sizeBytes(),
+                request.sha256(),
+                Duration.ofSeconds(request.ttlSeconds())
+        ));
+    }
+
+    /**
+     * Creates the statement for an object uploaded through a presigned PUT. Restricted to users with 'admin' scope.
+     *
+     * @param uploadId the upload ID returned when the upload was presigned
+     * @param request  the statement metadata and the size and SHA-256 of the uploaded PDF
+     * @param req      the HTTP request for auditing purposes
+     * @return the metadata of the uploaded statement
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping("/uploads/{uploadId}/finalize")
+    public ResponseEntity<StatementResponse> finalizeUpload(
+            @PathVariable UUID uploadId,
+            @Valid @RequestBody FinalizeUploadRequest request,
+            HttpServletRequest req,
+            UriComponentsBuilder uriBuilder
+    ) {
+        ApiRequestValidation.validateCustomerId(request.customerId());
+        ApiRequestValidation.validateAccountId(request.accountId());
+        ApiRequestValidation.validatePeriodRange(request.periodStart(), request.periodEnd());
 
-        return ResponseEntity.created(location).body(StatementResponse.from(s));
+        Statement s = directUploadService.finalizePresignedUpload(
+                uploadId,
+                request.customerId(),
+                request.accountId(),
+                request.periodStart(),
+                request.periodEnd(),
+                request.sizeBytes(),
+                request.sha256()
+        );
+        auditService.log(s.getCustomerId(), "UPLOAD", s.getId(), req.getRemoteAddr(), req.getHeader("User-Agent"));
+
+        return created(s, uriBuilder);
     }
 
     /**
@@ -163,41 +403,185 @@ public class StatementController {
             HttpServletRequest http
     ) {
         log.info("Generating download link statementId={} ttlSeconds={}", id, request.ttlSeconds());
-        Statement s = statementForDownload(auth, id);
-        statementService.validateDownloadable(s);
-        consumeDownloadQuota(id);
+        DownloadLinkAuthorizer.Grant grant = authorizeDownload(auth, id, "GENERATE_LINK", http);
+
+        PresignedDownload link = downloadUrlService.presignDownloadUrl(
+                grant.statementId(), grant.objectKey(), Duration.ofSeconds(request.ttlSeconds())
+        );
+        metrics.downloadLinkGenerated();
+
+        String ticket = downloadTickets.enabled()
+                ? downloadTickets.issue(grant.statementId(), grant.customerId(), grant.objectKey(), link.expiresAt())
+                : null;
+        return new DownloadLinkResponse(link.url(), link.expiresAt(), ticket);
+    }
+
+    /**
+     * Generates presigned download links for several statements at once. Customers can access their own statements;
+     * admins can access any statement.
+     * <p>
+     * Ownership is checked with one query, the download-link quota of every statement is consumed in one transaction,
+     * and the audit events are written as one batch. Items succeed or fail independently; the response lists one
+     * result per distinct requested statement, in request order.
+     *
+     * @param auth    the authentication object
+     * @param request the statements to link and the TTL for every link
+     * @param http    the HTTP request for auditing purposes
+     * @return the per-statement links or errors
+     */
+    @PreAuthorize("hasAuthority('SCOPE_customer') or hasAuthority('SCOPE_admin')")
+    @PostMapping("/download-links")
+    public BatchDownloadLinkResponse downloadLinks(
+            Authentication auth,
+            @Valid @RequestBody BatchDownloadLinkRequest request,
+            HttpServletRequest http
+    ) {
+        List<UUID> ids = request.statementIds().stream().distinct().toList();
+        log.info("Generating download links statements={} ttlSeconds={}", ids.size(), request.ttlSeconds());
+        Map<UUID, Statement> statements = statementService.findForDownload(
+                ids,
+                currentCustomer.isAdmin(auth) ? null : currentCustomer.customerId(auth)
+        );
+        Set<String> allowed = rateLimiter.tryConsumeAll(ids.stream()
+                .filter(id -> statements.containsKey(id) && statementService.isDownloadable(statements.get(id)))
+                .map(DownloadLinkAuthorizer::quotaKey)
+                .toList());
 
         Duration ttl = Duration.ofSeconds(request.ttlSeconds());
-        String url = statementService.presignDownloadUrl(s, ttl);
+        List<BatchDownloadLinkResponse.Item> items = new ArrayList<>(ids.size());
+        List<AuditService.Entry> audits = new ArrayList<>();
+        for (UUID id : ids) {
+            Statement s = statements.get(id);
+            if (s == null) {
+                items.add(failedLink(id, BatchDownloadLinkResponse.Outcome.NOT_FOUND, "Statement not found"));
+            } else if (!statementService.isDownloadable(s)) {
+                items.add(failedLink(id, BatchDownloadLinkResponse.Outcome.NOT_DOWNLOADABLE, "Statement is not available for download"));
+            } else if (!allowed.contains(DownloadLinkAuthorizer.quotaKey(id))) {
+                metrics.downloadLinkRateLimited();
+                items.add(failedLink(id, BatchDownloadLinkResponse.Outcome.RATE_LIMITED, "Too many download-link requests, please retry later."));
+            } else {
+                PresignedDownload link = downloadUrlService.presignDownloadUrl(id, s.getObjectKey(), ttl);
+                audits.add(new AuditService.Entry(s.getCustomerId(), "GENERATE_LINK", id));
+                metrics.downloadLinkGenerated();
+                items.add(new BatchDownloadLinkResponse.Item(
+                        id, BatchDownloadLinkResponse.Outcome.GENERATED, link.url(), link.expiresAt(), null
+                ));
+            }
+        }
+        auditService.logAll(audits, http.getRemoteAddr(), http.getHeader("User-Agent"));
 
-        auditService.log(s.getCustomerId(), "GENERATE_LINK", s.getId(), http.getRemoteAddr(), http.getHeader("User-Agent"));
-        metrics.downloadLinkGenerated();
+        return new BatchDownloadLinkResponse(items);
+    }
 
-        return new DownloadLinkResponse(url, Instant.now().plus(ttl));
+    /**
+     * Streams several statements as one ZIP archive, for example every statement of an account for a year as listed
+     * by {@code GET /api/v1/statements}. Customers can archive their own statements; admins can archive any.
+     * <p>
+     * The request is all or nothing: every statement must exist and be downloadable, and the download-link quota of
+     * every statement is consumed before anything is written. If any statement's quota is used up, none is consumed.
+     * Entries are streamed from S3 as they arrive, so the response has no {@code Content-Length}; an archive that fails
+     * part-way ends without its central directory.
+     *
+     * @param auth     the authentication object
+     * @param request  the statements to archive, in archive order
+     * @param http     the HTTP request for auditing purposes
+     * @param response the response the archive is streamed to
+     */
+    @PreAuthorize("hasAuthority('SCOPE_customer') or hasAuthority('SCOPE_admin')")
+    @PostMapping("/archive")
+    public void archive(
+            Authentication auth,
+            @Valid @RequestBody StatementArchiveRequest request,
+            HttpServletRequest http,
+            HttpServletResponse response
+    ) throws IOException {
+        List<UUID> ids = request.statementIds().stream().distinct().toList();
+        log.info("Archiving statements count={}", ids.size());
+        Map<UUID, Statement> found = statementService.findForDownload(
+                ids,
+                currentCustomer.isAdmin(auth) ? null : currentCustomer.customerId(auth)
+        );
+        List<Statement> statements = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Statement s = found.get(id);
+            if (s == null) {
+                throw new NotFoundException("Statement not found: " + id);
+            }
+            statementService.validateDownloadable(s);
+            statements.add(s);
+        }
+        if (!rateLimiter.tryConsumeAllOrNothing(ids.stream().map(DownloadLinkAuthorizer::quotaKey).toList())) {
+            metrics.downloadLinkRateLimited();
+            throw new TooManyRequestsException("Too many download-link requests, please retry later.");
+        }
+
+        try (ProxyDownloads.Transfer transfer = archives.begin()) {
+            auditService.logAll(
+                    statements.stream()
+                            .map(s -> new AuditService.Entry(s.getCustomerId(), "DOWNLOAD", s.getId()))
+                            .toList(),
+                    http.getRemoteAddr(),
+                    http.getHeader("User-Agent")
+            );
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=\"statements.zip\"");
+            response.setHeader("Cache-Control", "private");
+            archives.write(statements, transfer, response.getOutputStream());
+        }
+        metrics.downloadArchived();
     }
 
     /**
-     * Downloads a statement by redirecting to a presigned URL. Customers can access their own statements; admins can access any statement.
+     * Downloads a statement by redirecting to a presigned URL, or by streaming it through the service in proxy mode.
+     * Customers can access their own statements; admins can access any statement.
+     * <p>
+     * Proxy mode is for clients that cannot reach the S3 endpoint. It supports {@code Range}, {@code If-Range} and
+     * {@code If-None-Match} against an entity tag derived from the statement's SHA-256, and ignores tickets.
+     * <p>
+     * With a ticket from {@code POST /{id}/download-link}, the redirect is presigned from the ticket without touching
+     * the database; the ticket's issue was already rate-limited and audited. Expired tickets, or tickets that cannot
+     * be checked for revocation locally, fall back to the regular checks.
      *
-     * @param auth the authentication object
-     * @param id   the UUID of the statement
-     * @param http the HTTP request for auditing purposes
-     * @return a redirect to the presigned S3 URL
+     * @param auth     the authentication object
+     * @param id       the UUID of the statement
+     * @param ticket   an optional signed download ticket for the statement
+     * @param proxy    whether to stream the statement instead of redirecting; defaults to the configured mode
+     * @param http     the HTTP request for auditing purposes
+     * @param response the response a proxied download is streamed to
+     * @return a redirect to the presigned S3 URL, or {@code null} once a proxied download was written
      */
     @PreAuthorize("hasAuthority('SCOPE_customer') or hasAuthority('SCOPE_admin')")
     @GetMapping("/{id}/download")
     public ResponseEntity<Void> download(
             Authentication auth,
             @PathVariable UUID id,
-            HttpServletRequest http
-    ) {
-        log.info("Downloading statement id={}", id);
-        Statement s = statementForDownload(auth, id);
-        statementService.validateDownloadable(s);
-        consumeDownloadQuota(id);
+            @RequestParam(value = "ticket", required = false) String ticket,
+            @RequestParam(value = "proxy", required = false) Boolean proxy,
+            HttpServletRequest http,
+            HttpServletResponse response
+    ) throws IOException {
+        if (proxy != null ? proxy : proxyDownloads.byDefault()) {
+            log.info("Proxying statement download id={}", id);
+            proxyDownloads.write(authorizeDownload(auth, id, "DOWNLOAD", http), http, response);
+            return null;
+        }
 
-        String url = statementService.presignDownloadUrl(s, REDIRECT_DOWNLOAD_TTL);
-        auditService.log(s.getCustomerId(), "DOWNLOAD", s.getId(), http.getRemoteAddr(), http.getHeader("User-Agent"));
+        log.info("Downloading statement id={} ticket={}", id, ticket != null);
+        Optional<DownloadTickets.Ticket> redeemed = ticket == null
+                ? Optional.empty()
+                : downloadTickets.redeem(ticket, id, currentCustomer.isAdmin(auth) ? null : currentCustomer.customerId(auth));
+        String url;
+        if (redeemed.isPresent()) {
+            metrics.downloadTicketRedeemed();
+            url = downloadUrlService.presignDownloadUrl(id, redeemed.get().objectKey(), REDIRECT_DOWNLOAD_TTL).url();
+        } else {
+            if (ticket != null) {
+                metrics.downloadTicketFallback();
+            }
+            DownloadLinkAuthorizer.Grant grant = authorizeDownload(auth, id, "DOWNLOAD", http);
+            url = downloadUrlService.presignDownloadUrl(grant.statementId(), grant.objectKey(), REDIRECT_DOWNLOAD_TTL).url();
+        }
         metrics.downloadLinkGenerated();
 
         return ResponseEntity.status(HttpStatus.FOUND)
@@ -219,19 +603,32 @@ public class StatementController {
             HttpServletRequest req
     ) {
         var s = statementService.revoke(id);
+        revokedStatements.add(id);
         auditService.log(s.getCustomerId(), "REVOKE", s.getId(), req.getRemoteAddr(), req.getHeader("User-Agent"));
     }
 
-    private Statement statementForDownload(Authentication auth, UUID id) {
-        return currentCustomer.isAdmin(auth)
-                ? statementService.getForAdmin(id)
-                : statementService.getForCustomer(id, currentCustomer.customerId(auth));
+    private ResponseEntity<StatementResponse> created(Statement s, UriComponentsBuilder uriBuilder) {
+        return ResponseEntity.created(statementLocation(s, uriBuilder)).body(StatementResponse.from(s));
     }
 
-    private void consumeDownloadQuota(UUID id) {
-        if (!rateLimiter.tryConsume("download-link:" + id)) {
-            metrics.downloadLinkRateLimited();
-            throw new TooManyRequestsException("Too many download-link requests, please retry later.");
-        }
+    private static java.net.URI statementLocation(Statement s, UriComponentsBuilder uriBuilder) {
+        return uriBuilder
+                .path("/api/v1/statements/{id}")
+                .buildAndExpand(s.getId())
+                .toUri();
+    }
+
+    private DownloadLinkAuthorizer.Grant authorizeDownload(Authentication auth, UUID id, String action, HttpServletRequest http) {
+        return downloadAuthorizer.authorize(
+                id,
+                currentCustomer.isAdmin(auth) ? null : currentCustomer.customerId(auth),
+                action,
+                http.getRemoteAddr(),
+                http.getHeader("User-Agent")
+        );
+    }
+
+    private static BatchDownloadLinkResponse.Item failedLink(UUID id, BatchDownloadLinkResponse.Outcome outcome, String error) {
+        return new BatchDownloadLinkResponse.Item(id, outcome, null, null, error);
     }
 }
@@ -0,0 +1,61 @@
+package com.example.statement_service.api;
+
+import java.util.UUID;
+
+import com.example.statement_service.api.dto.StatementImportRequest;
+import com.example.statement_service.api.dto.StatementImportResponse;
+import com.example.statement_service.domain.StatementImport;
+import com.example.statement_service.service.StatementImportService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * REST controller for server-side imports of PDFs already staged in the statements bucket.
+ * <p>
+ * Imports copy objects into the statement key layout inside S3, so no payload is sent through the service.
+ * All endpoints are restricted to users with 'admin' scope.
+ */
+@RestController
+@RequestMapping("/api/v1/statements/imports")
+public class StatementImportController {
+
+    private final StatementImportService importService;
+
+    public StatementImportController(StatementImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Starts importing every object under a staging prefix. Returns 202 with a {@code Location} URL to poll for
+     * progress.
+     *
+     * @param request the staging prefix to import
+     * @return the running import
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @PostMapping
+    public ResponseEntity<StatementImportResponse> start(
+            @Valid @RequestBody StatementImportRequest request,
+            UriComponentsBuilder uriBuilder
+    ) {
+        StatementImport job = importService.start(request.prefix());
+        return ResponseEntity.accepted()
+                .location(uriBuilder.path("/api/v1/statements/imports/{id}").buildAndExpand(job.getId()).toUri())
+                .body(StatementImportResponse.from(job));
+    }
+
+    /**
+     * Retrieves the progress of an import.
+     *
+     * @param id the UUID of the import
+     * @return the import progress
+     */
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @GetMapping("/{id}")
+    public StatementImportResponse get(@PathVariable UUID id) {
+        return StatementImportResponse.from(importService.get(id));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.statement_service.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for generating presigned download links for several statements at once.
+ *
+ * @param statementIds the statements to link, at most 100; repeated IDs are linked once
+ * @param ttlSeconds   the time-to-live for every link in seconds, between 30 and 900
+ */
+public record BatchDownloadLinkRequest(
+        @NotEmpty @Size(max = 100) List<@NotNull UUID> statementIds,
+        @Min(30) @Max(900) int ttlSeconds
+) {}
@@ -0,0 +1,41 @@
+package com.example.statement_service.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a batch of download links, with one item per distinct requested statement in request order.
+ *
+ * @param items the per-statement results
+ */
+public record BatchDownloadLinkResponse(List<Item> items) {
+
+    /**
+     * The result for one statement.
+     *
+     * @param statementId the requested statement
+     * @param outcome     whether a link was generated
+     * @param url         the presigned URL, or {@code null} if no link was generated
+     * @param expiresAt   the instant when the link expires, or {@code null}
+     * @param error       why no link was generated, or {@code null}
+     */
+    public record Item(
+            UUID statementId,
+            Outcome outcome,
+            String url,
+            Instant expiresAt,
+            String error
+    ) {}
+
+    public enum Outcome {
+        /** A link was generated. */
+        GENERATED,
+        /** The statement does not exist or belongs to another customer. */
+        NOT_FOUND,
+        /** The statement exists but cannot be downloaded, for example because it was revoked. */
+        NOT_DOWNLOADABLE,
+        /** The statement's download-link quota is used up; retry later. */
+        RATE_LIMITED
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.statement_service.api.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One entry of a bulk upload manifest, naming the multipart part that holds the statement PDF.
+ * Entries are validated per item, so an invalid entry is reported in its result instead of failing the request.
+ *
+ * @param file        the name of the multipart part holding the PDF
+ * @param customerId  the ID of the customer the statement belongs to
+ * @param accountId   the ID of the account the statement belongs to
+ * @param periodStart the start date of the statement period
+ * @param periodEnd   the end date of the statement period
+ */
+public record BulkUploadManifestEntry(
+        String file,
+        String customerId,
+        String accountId,
+        LocalDate periodStart,
+        LocalDate periodEnd
+) {}
@@ -0,0 +1,41 @@
+package com.example.statement_service.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.service.BulkUploadResult;
+
+/**
+ * Response DTO for a bulk statement upload, with one result per manifest entry in manifest order.
+ *
+ * @param items the per-statement results
+ */
+public record BulkUploadResponse(List<Item> items) {
+
+    /**
+     * The result of one manifest entry.
+     *
+     * @param file        the name of the multipart part holding the PDF
+     * @param outcome     what happened to the statement
+     * @param statementId the ID of the created or existing statement, or {@code null} if it was not stored
+     * @param error       why the statement was not stored, or {@code null}
+     */
+    public record Item(
+            String file,
+            BulkUploadResult.Outcome outcome,
+            UUID statementId,
+            String error
+    ) {}
+
+    /**
+     * Converts bulk upload results to a {@link BulkUploadResponse} DTO.
+     *
+     * @param results the bulk upload results
+     * @return the bulk upload response DTO
+     */
+    public static BulkUploadResponse from(List<BulkUploadResult> results) {
+        return new BulkUploadResponse(results.stream()
+                .map(r -> new Item(r.file(), r.outcome(), r.stored() ? r.statement().getId() : null, r.error()))
+                .toList());
+    }
+}
@@ -7,8 +7,11 @@ import java.time.Instant;
  *
  * @param url       the presigned URL
  * @param expiresAt the instant when the link expires
+ * @param ticket    a signed ticket for {@code GET /{id}/download?ticket=...} valid until {@code expiresAt}, or
+ *                  {@code null} when tickets are disabled
  */
 public record DownloadLinkResponse(
         String url,
-        Instant expiresAt
+        Instant expiresAt,
+        String ticket
 ) {}
@@ -0,0 +1,26 @@
+package com.example.statement_service.api.dto;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Request DTO for finalizing a presigned statement upload. The values must match the presign request.
+ *
+ * @param customerId  the ID of the customer the statement belongs to
+ * @param accountId   the ID of the account the statement belongs to
+ * @param periodStart the start date of the statement period
+ * @param periodEnd   the end date of the statement period
+ * @param sizeBytes   the size of the uploaded PDF
+ * @param sha256      the hex-encoded SHA-256 of the uploaded PDF
+ */
+public record FinalizeUploadRequest(
+        @NotBlank String customerId,
+        @NotBlank String accountId,
+        @NotNull LocalDate periodStart,
+        @NotNull LocalDate periodEnd,
+        @Positive long sizeBytes,
+        @NotBlank String sha256
+) {}
@@ -0,0 +1,30 @@
+package com.example.statement_service.api.dto;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Request DTO for issuing a presigned statement upload.
+ *
+ * @param customerId  the ID of the customer the statement belongs to
+ * @param accountId   the ID of the account the statement belongs to
+ * @param periodStart the start date of the statement period
+ * @param periodEnd   the end date of the statement period
+ * @param sizeBytes   the exact size of the PDF that will be uploaded
+ * @param sha256      the hex-encoded SHA-256 of the PDF that will be uploaded
+ * @param ttlSeconds  the time-to-live for the upload URL in seconds, between 30 and 600
+ */
+public record PresignedUploadRequest(
+        @NotBlank String customerId,
+        @NotBlank String accountId,
+        @NotNull LocalDate periodStart,
+        @NotNull LocalDate periodEnd,
+        @Positive long sizeBytes,
+        @NotBlank String sha256,
+        @Min(30) @Max(600) int ttlSeconds
+) {}
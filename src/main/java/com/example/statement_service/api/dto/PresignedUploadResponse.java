@@ -0,0 +1,33 @@
+package com.example.statement_service.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.statement_service.service.PresignedUpload;
+
+/**
+ * Response DTO containing a presigned statement upload.
+ *
+ * @param uploadId  the ID to pass to the finalize endpoint; it becomes the statement ID
+ * @param url       the presigned PUT URL
+ * @param headers   the headers the client must send unchanged with the PUT
+ * @param expiresAt the instant when the URL expires
+ */
+public record PresignedUploadResponse(
+        UUID uploadId,
+        String url,
+        Map<String, List<String>> headers,
+        Instant expiresAt
+) {
+    /**
+     * Converts a {@link PresignedUpload} to a {@link PresignedUploadResponse} DTO.
+     *
+     * @param upload the presigned upload
+     * @return the presigned upload response DTO
+     */
+    public static PresignedUploadResponse from(PresignedUpload upload) {
+        return new PresignedUploadResponse(upload.uploadId(), upload.url(), upload.headers(), upload.expiresAt());
+    }
+}
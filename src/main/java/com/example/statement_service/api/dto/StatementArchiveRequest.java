@@ -0,0 +1,17 @@
+package com.example.statement_service.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for downloading several statements as one ZIP archive.
+ *
+ * @param statementIds the statements to archive, at most 100, in archive order; repeated IDs are archived once
+ */
+public record StatementArchiveRequest(
+        @NotEmpty @Size(max = 100) List<@NotNull UUID> statementIds
+) {}
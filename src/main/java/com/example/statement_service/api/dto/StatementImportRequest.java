@@ -0,0 +1,12 @@
+package com.example.statement_service.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Request DTO for starting a server-side import of staged PDFs.
+ *
+ * @param prefix the bucket prefix the upstream producer staged the PDFs under
+ */
+public record StatementImportRequest(
+        @NotBlank String prefix
+) {}
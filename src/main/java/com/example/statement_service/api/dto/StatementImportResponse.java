@@ -0,0 +1,61 @@
+package com.example.statement_service.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.example.statement_service.domain.StatementImport;
+import com.example.statement_service.domain.StatementImportStatus;
+
+/**
+ * Response DTO for the progress of a server-side import. Counters cover every page checkpointed so far.
+ *
+ * @param id            the UUID of the import
+ * @param prefix        the staging prefix being imported
+ * @param status        the current status of the import
+ * @param objectsListed the number of staged objects processed
+ * @param imported      the number of statements created
+ * @param existing      the number of objects that matched an existing statement
+ * @param rejected      the number of objects that failed validation
+ * @param failed        the number of objects that could not be imported and may succeed when retried
+ * @param createdAt     the timestamp when the import was started
+ * @param updatedAt     the timestamp of the last checkpoint
+ * @param completedAt   the timestamp when the import completed or failed, or {@code null} while it runs
+ * @param lastError     why the import failed, or {@code null}
+ */
+public record StatementImportResponse(
+        UUID id,
+        String prefix,
+        StatementImportStatus status,
+        long objectsListed,
+        long imported,
+        long existing,
+        long rejected,
+        long failed,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant completedAt,
+        String lastError
+) {
+    /**
+     * Converts a {@link StatementImport} domain entity to a {@link StatementImportResponse} DTO.
+     *
+     * @param i the import entity
+     * @return the import response DTO
+     */
+    public static StatementImportResponse from(StatementImport i) {
+        return new StatementImportResponse(
+                i.getId(),
+                i.getPrefix(),
+                i.getStatus(),
+                i.getObjectsListed(),
+                i.getImported(),
+                i.getExisting(),
+                i.getRejected(),
+                i.getFailed(),
+                i.getCreatedAt(),
+                i.getUpdatedAt(),
+                i.getCompletedAt(),
+                i.getLastError()
+        );
+    }
+}
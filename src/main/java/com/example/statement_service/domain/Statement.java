@@ -52,6 +52,9 @@ public class Statement {
     @Column(name = "status", nullable = false, length = 32)
     private StatementStatus status;
 
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
     /**
      * Default constructor for JPA.
      */
@@ -109,11 +112,15 @@ public class Statement {
     public String getSha256() { return sha256; }
     public Instant getUploadedAt() { return uploadedAt; }
     public StatementStatus getStatus() { return status; }
+    public Instant getRevokedAt() { return revokedAt; }
 
     /**
-     * Revokes the statement, changing its status to {@link StatementStatus#REVOKED}.
+     * Revokes the statement, changing its status to {@link StatementStatus#REVOKED} and recording when.
      */
     public void revoke() {
         this.status = StatementStatus.REVOKED;
+        if (this.revokedAt == null) {
+            this.revokedAt = Instant.now();
+        }
     }
 }
\ No newline at end of file
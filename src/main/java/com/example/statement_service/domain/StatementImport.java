@@ -0,0 +1,124 @@
+package com.example.statement_service.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+
+/**
+ * A server-side import of staged PDFs under a bucket prefix.
+ * <p>
+ * The job checkpoints after each listed page: {@code continuationToken} is where a resumed run continues, and the
+ * counters cover every page before it. {@code updatedAt} doubles as the heartbeat used to detect stalled runs, and
+ * {@code version} changes whenever another run claims the job, so a run that lost it can no longer write.
+ */
+@Entity
+@Table(name = "statement_imports")
+@Getter
+public class StatementImport {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "prefix", nullable = false)
+    private String prefix;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 32)
+    private StatementImportStatus status;
+
+    @Column(name = "continuation_token")
+    private String continuationToken;
+
+    @Column(name = "objects_listed", nullable = false)
+    private long objectsListed;
+
+    @Column(name = "imported", nullable = false)
+    private long imported;
+
+    @Column(name = "existing", nullable = false)
+    private long existing;
+
+    @Column(name = "rejected", nullable = false)
+    private long rejected;
+
+    @Column(name = "failed", nullable = false)
+    private long failed;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    protected StatementImport() {
+    }
+
+    private StatementImport(String prefix, Instant createdAt) {
+        this.id = UUID.randomUUID();
+        this.prefix = prefix;
+        this.status = StatementImportStatus.RUNNING;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public static StatementImport start(String prefix, Instant createdAt) {
+        return new StatementImport(prefix, createdAt);
+    }
+
+    public void checkpoint(
+            String nextContinuationToken,
+            long listed,
+            long imported,
+            long existing,
+            long rejected,
+            long failed,
+            Instant at
+    ) {
+        this.continuationToken = nextContinuationToken;
+        this.objectsListed += listed;
+        this.imported += imported;
+        this.existing += existing;
+        this.rejected += rejected;
+        this.failed += failed;
+        this.updatedAt = at;
+    }
+
+    public void markCompleted(Instant at) {
+        this.status = StatementImportStatus.COMPLETED;
+        this.continuationToken = null;
+        this.updatedAt = at;
+        this.completedAt = at;
+    }
+
+    public void markFailed(String error, Instant at) {
+        this.status = StatementImportStatus.FAILED;
+        this.updatedAt = at;
+        this.completedAt = at;
+        this.lastError = trim(error);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() <= 2000 ? value : value.substring(0, 2000);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.statement_service.domain;
+
+public enum StatementImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
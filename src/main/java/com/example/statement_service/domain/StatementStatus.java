@@ -4,6 +4,11 @@ package com.example.statement_service.domain;
  * Represents the status of a bank statement.
  */
 public enum StatementStatus {
+    /**
+     * The statement was accepted for asynchronous upload and is not yet stored in S3.
+     */
+    PENDING,
+
     /**
      * The statement is active and can be downloaded.
      */
@@ -12,5 +17,10 @@ public enum StatementStatus {
     /**
      * The statement has been revoked and is no longer available for download.
      */
-    REVOKED
+    REVOKED,
+
+    /**
+     * The asynchronous upload of the statement failed; the statement never became downloadable.
+     */
+    FAILED
 }
@@ -1,13 +1,19 @@
 package com.example.statement_service.observability;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StatementMetrics {
 
     private final MeterRegistry registry;
+    private final Map<String, AtomicLong> rateLimitTableBytes = new ConcurrentHashMap<>();
 
     public StatementMetrics(MeterRegistry registry) {
         this.registry = registry;
@@ -21,6 +27,22 @@ public class StatementMetrics {
         increment("statement.upload.failure", "upload", "failure");
     }
 
+    public void uploadAccepted() {
+        increment("statement.upload.accepted", "upload", "accepted");
+    }
+
+    public void uploadDeduplicated() {
+        increment("statement.upload.deduplicated", "upload", "deduplicated");
+    }
+
+    public void uploadCoalesced() {
+        increment("statement.upload.coalesced", "upload", "coalesced");
+    }
+
+    public void uploadQueueFull() {
+        increment("statement.upload.rejected", "upload", "queue_full");
+    }
+
     public void downloadLinkGenerated() {
         increment("statement.download_link.generated", "download_link", "success");
     }
@@ -29,6 +51,50 @@ public class StatementMetrics {
         increment("statement.download_link.rate_limited", "download_link", "rate_limited");
     }
 
+    public void downloadUrlCacheHit() {
+        increment("statement.download_url_cache.hit", "download_url_cache", "hit");
+    }
+
+    public void downloadUrlCacheMiss() {
+        increment("statement.download_url_cache.miss", "download_url_cache", "miss");
+    }
+
+    public void downloadUrlCacheEviction() {
+        increment("statement.download_url_cache.eviction", "download_url_cache", "eviction");
+    }
+
+    public void statementCacheHit() {
+        increment("statement.metadata_cache.hit", "metadata_cache", "hit");
+    }
+
+    public void statementCacheMiss() {
+        increment("statement.metadata_cache.miss", "metadata_cache", "miss");
+    }
+
+    public void statementCacheEviction() {
+        increment("statement.metadata_cache.eviction", "metadata_cache", "eviction");
+    }
+
+    public void statementIdFilterRejected() {
+        increment("statement.id_filter.rejected", "id_filter", "rejected");
+    }
+
+    public void downloadProxied() {
+        increment("statement.download.proxied", "download", "proxied");
+    }
+
+    public void downloadArchived() {
+        increment("statement.download.archived", "download", "archived");
+    }
+
+    public void downloadTicketRedeemed() {
+        increment("statement.download_ticket.redeemed", "download_ticket", "redeemed");
+    }
+
+    public void downloadTicketFallback() {
+        increment("statement.download_ticket.fallback", "download_ticket", "fallback");
+    }
+
     public void authUnauthorized() {
         increment("statement.auth.failure", "auth", "unauthorized");
     }
@@ -41,6 +107,22 @@ public class StatementMetrics {
         increment("statement.revoke.success", "revoke", "success");
     }
 
+    public void rateLimitRowsReaped(String table, long rows) {
+        Counter.builder("statement.rate_limit.reaped")
+                .tag("operation", "rate_limit")
+                .tag("outcome", "reaped")
+                .tag("table", table)
+                .register(registry)
+                .increment(rows);
+    }
+
+    public void rateLimitTableBytes(String table, long bytes) {
+        rateLimitTableBytes.computeIfAbsent(
+                table,
+                t -> registry.gauge("statement.rate_limit.table_bytes", Tags.of("table", t), new AtomicLong())
+        ).set(bytes);
+    }
+
     private void increment(String name, String operation, String outcome) {
         Counter.builder(name)
                 .tag("operation", operation)
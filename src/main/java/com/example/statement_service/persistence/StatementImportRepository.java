@@ -0,0 +1,54 @@
+package com.example.statement_service.persistence;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.StatementImport;
+import com.example.statement_service.domain.StatementImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StatementImportRepository extends JpaRepository<StatementImport, UUID> {
+
+    List<StatementImport> findByStatusAndUpdatedAtBefore(StatementImportStatus status, Instant cutoff);
+
+    /**
+     * Claims a stalled running import by moving its heartbeat and version, unless another instance already did. The
+     * new version makes any later write of the previous run fail.
+     *
+     * @param id            the ID of the import
+     * @param seenUpdatedAt the heartbeat the caller saw when it found the import stalled
+     * @param now           the new heartbeat
+     * @return {@code 1} if this caller now owns the import, otherwise {@code 0}
+     */
+    @Modifying
+    @Query("""
+            update StatementImport i
+            set i.updatedAt = :now, i.version = i.version + 1
+            where i.id = :id
+              and i.status = com.example.statement_service.domain.StatementImportStatus.RUNNING
+              and i.updatedAt = :seenUpdatedAt
+            """)
+    int claimStalled(@Param("id") UUID id, @Param("seenUpdatedAt") Instant seenUpdatedAt, @Param("now") Instant now);
+
+    /**
+     * Moves the heartbeat of a running import while a page is in progress, as long as no other run claimed it.
+     *
+     * @param id      the ID of the import
+     * @param version the version the caller last wrote or loaded
+     * @param now     the new heartbeat
+     * @return {@code 1} if the caller still owns the import, otherwise {@code 0}
+     */
+    @Modifying
+    @Query("""
+            update StatementImport i
+            set i.updatedAt = :now
+            where i.id = :id
+              and i.status = com.example.statement_service.domain.StatementImportStatus.RUNNING
+              and i.version = :version
+            """)
+    int heartbeat(@Param("id") UUID id, @Param("version") Long version, @Param("now") Instant now);
+}
@@ -1,14 +1,21 @@
 package com.example.statement_service.persistence;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
 
 /**
  * Repository interface for {@link Statement} entities.
@@ -33,13 +40,79 @@ public interface StatementRepository extends JpaRepository<Statement, UUID> {
      */
     Optional<Statement> findByIdAndCustomerId(UUID id, String customerId);
 
+    /**
+     * Finds those of the given statements that belong to a customer, in a single query.
+     *
+     * @param ids        the UUIDs of the statements
+     * @param customerId the ID of the customer
+     * @return the customer's statements among {@code ids}, in no particular order
+     */
+    List<Statement> findByIdInAndCustomerId(Collection<UUID> ids, String customerId);
+
+    /**
+     * Finds the statement holding the idempotency key for an upload.
+     * Failed asynchronous uploads do not hold the key, so the same file can be uploaded again.
+     *
+     * @return an {@link Optional} containing the statement if found
+     */
+    @Query("""
+            select s from Statement s
+            where s.customerId = :customerId
+              and s.accountId = :accountId
+              and s.periodStart = :periodStart
+              and s.periodEnd = :periodEnd
+              and s.sha256 = :sha256
+              and s.status <> com.example.statement_service.domain.StatementStatus.FAILED
+            """)
     Optional<Statement> findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
-            String customerId,
-            String accountId,
-            LocalDate periodStart,
-            LocalDate periodEnd,
-            String sha256
+            @Param("customerId") String customerId,
+            @Param("accountId") String accountId,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("periodEnd") LocalDate periodEnd,
+            @Param("sha256") String sha256
+    );
+
+    /**
+     * Finds statements that may hold the idempotency key of any of a batch of uploads in a single query.
+     * Callers match the full key; failed asynchronous uploads are excluded as in
+     * {@link #findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256}.
+     *
+     * @param customerIds the customers of the uploads
+     * @param sha256s     the SHA-256 digests of the uploads
+     * @return the matching statements
+     */
+    @Query("""
+            select s from Statement s
+            where s.customerId in :customerIds
+              and s.sha256 in :sha256s
+              and s.status <> com.example.statement_service.domain.StatementStatus.FAILED
+            """)
+    List<Statement> findIdempotencyCandidates(
+            @Param("customerIds") Collection<String> customerIds,
+            @Param("sha256s") Collection<String> sha256s
     );
 
+    /**
+     * Moves a statement from one status to another only if it is still in the expected status.
+     *
+     * @return the number of updated rows, 0 if the statement was changed concurrently
+     */
+    @Modifying
+    @Query("update Statement s set s.status = :to where s.id = :id and s.status = :from")
+    int updateStatus(@Param("id") UUID id, @Param("from") StatementStatus from, @Param("to") StatementStatus to);
+
+    /**
+     * Marks asynchronous uploads accepted before the cutoff that never completed as failed.
+     *
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("""
+            update Statement s set s.status = com.example.statement_service.domain.StatementStatus.FAILED
+            where s.status = com.example.statement_service.domain.StatementStatus.PENDING
+              and s.uploadedAt < :cutoff
+            """)
+    int failPendingUploadedBefore(@Param("cutoff") Instant cutoff);
+
     boolean existsByObjectKey(String objectKey);
 }
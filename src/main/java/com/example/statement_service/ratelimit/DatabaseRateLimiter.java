@@ -3,16 +3,35 @@ package com.example.statement_service.ratelimit;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Rate limiter whose fixed windows live in the database, so all instances share them.
+ * <p>
+ * In {@code TRANSACTION} mode a request locks its row of {@code rate_limit_windows} with {@code SELECT ... FOR UPDATE}
+ * and then updates or inserts it. In {@code UPSERT} mode it is one {@link RateLimitUpsert} statement in autocommit,
+ * whose keys are {@link RateLimitKeys#idOf UUIDs}: one round-trip, a row lock held only for that statement, and a
+ * 16-byte primary key. Sliding windows and GCRA are always counted that way.
+ */
 @Service
+@ConditionalOnProperty(name = "app.ratelimit.download-link.backend", havingValue = "DATABASE", matchIfMissing = true)
 public class DatabaseRateLimiter implements RateLimiter {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseRateLimiter.class);
@@ -24,6 +43,7 @@ public class DatabaseRateLimiter implements RateLimiter {
     private final TransactionTemplate transactionTemplate;
     private final RateLimitProperties props;
     private final Clock clock;
+    private final RateLimitUpsert upsert;
 
     @Autowired
     public DatabaseRateLimiter(
@@ -44,11 +64,15 @@ public class DatabaseRateLimiter implements RateLimiter {
         this.transactionTemplate = transactionTemplate;
         this.props = props;
         this.clock = clock;
+        this.upsert = new RateLimitUpsert(props);
     }
 
     @Override
     public boolean tryConsume(String key) {
         try {
+            if (props.countsWithUpsert()) {
+                return !upsertCounters(List.of(key)).isEmpty();
+            }
             return tryConsumeWithRetry(key);
         } catch (RuntimeException e) {
             boolean allowed = props.failureMode() == RateLimitProperties.FailureMode.ALLOW;
@@ -57,6 +81,91 @@ public class DatabaseRateLimiter implements RateLimiter {
         }
     }
 
+    /**
+     * Consumes one request from each key's quota in a single transaction: one locking read of all windows, then one
+     * batch of inserts and one batch of updates. Keys are locked in sorted order so overlapping batches cannot deadlock.
+     */
+    @Override
+    public Set<String> tryConsumeAll(Collection<String> keys) {
+        List<String> sorted = keys.stream().distinct().sorted().toList();
+        if (sorted.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            if (props.countsWithUpsert()) {
+                return upsertCounters(sorted);
+            }
+            try {
+                return consumeAllInTransaction(sorted);
+            } catch (DuplicateKeyException duplicateFirstRequestRace) {
+                return consumeAllInTransaction(sorted);
+            }
+        } catch (RuntimeException e) {
+            boolean allowed = props.failureMode() == RateLimitProperties.FailureMode.ALLOW;
+            log.warn("Rate limiter storage failure keys={} failureMode={} allowed={}", sorted.size(), props.failureMode(), allowed);
+            return allowed ? new HashSet<>(sorted) : Set.of();
+        }
+    }
+
+    /**
+     * Consumes one request from each key's quota like {@link #tryConsumeAll}, but in one transaction that is rolled
+     * back if any key was refused, so a refused batch costs no quota. In {@code UPSERT} mode the upsert then holds its
+     * row locks until the transaction ends instead of for one statement.
+     */
+    @Override
+    public boolean tryConsumeAllOrNothing(Collection<String> keys) {
+        List<String> sorted = keys.stream().distinct().sorted().toList();
+        if (sorted.isEmpty()) {
+            return true;
+        }
+        try {
+            try {
+                return consumeAllOrNothingInTransaction(sorted);
+            } catch (DuplicateKeyException duplicateFirstRequestRace) {
+                return consumeAllOrNothingInTransaction(sorted);
+            }
+        } catch (RuntimeException e) {
+            boolean allowed = props.failureMode() == RateLimitProperties.FailureMode.ALLOW;
+            log.warn("Rate limiter storage failure keys={} failureMode={} allowed={}", sorted.size(), props.failureMode(), allowed);
+            return allowed;
+        }
+    }
+
+    private boolean consumeAllOrNothingInTransaction(List<String> keys) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Set<String> allowed = props.countsWithUpsert() ? upsertCounters(keys) : consumeAllInTransaction(keys);
+            if (allowed.size() < keys.size()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Counts one request for each key with a single autocommit statement. Rows are upserted in key order, so
+     * overlapping batches cannot deadlock, and a first-request race resolves inside {@code ON CONFLICT}. Keys the
+     * statement does not return were refused.
+     */
+    private Set<String> upsertCounters(Collection<String> keys) {
+        Map<UUID, List<String>> keysById = new HashMap<>();
+        for (String key : keys) {
+            keysById.computeIfAbsent(RateLimitKeys.idOf(key), id -> new ArrayList<>()).add(key);
+        }
+        Instant now = clock.instant();
+        Set<String> allowed = new HashSet<>();
+        jdbc.query(
+                upsert.sql("SELECT unnest(?) AS key_id ORDER BY key_id"),
+                ps -> upsert.bind(ps, 1, now, ps.getConnection().createArrayOf("uuid", keysById.keySet().toArray())),
+                rs -> {
+                    if (rs.getInt("request_count") <= props.limit()) {
+                        allowed.addAll(keysById.get(rs.getObject("key_id", UUID.class)));
+                    }
+                }
+        );
+        return allowed;
+    }
+
     private boolean tryConsumeWithRetry(String key) {
         try {
             return consumeInTransaction(key);
@@ -81,20 +190,81 @@ public class DatabaseRateLimiter implements RateLimiter {
                     key
             );
 
+            Window next = advance(window, now);
             if (window == null) {
-                insertWindow(key, now);
-                return true;
+                insertWindow(key, next.startedAt());
+            } else {
+                updateWindow(key, next.startedAt(), next.requestCount());
             }
+            return next.requestCount() <= props.limit();
+        }));
+    }
 
-            if (now.isAfter(window.startedAt().plusSeconds(props.windowSeconds()))) {
-                updateWindow(key, now, 1);
-                return true;
+    private Set<String> consumeAllInTransaction(List<String> keys) {
+        Set<String> allowed = transactionTemplate.execute(status -> {
+            Instant now = clock.instant();
+            Map<String, Window> windows = new HashMap<>();
+            jdbc.query(
+                    """
+                    SELECT rate_limit_key, window_started_at, request_count
+                    FROM rate_limit_windows
+                    WHERE rate_limit_key IN (%s)
+                    ORDER BY rate_limit_key
+                    FOR UPDATE
+                    """.formatted(String.join(", ", Collections.nCopies(keys.size(), "?"))),
+                    rs -> {
+                        windows.put(
+                                rs.getString("rate_limit_key"),
+                                new Window(rs.getTimestamp("window_started_at").toInstant(), rs.getInt("request_count"))
+                        );
+                    },
+                    keys.toArray()
+            );
+
+            Set<String> consumed = new HashSet<>();
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            for (String key : keys) {
+                Window window = windows.get(key);
+                Window next = advance(window, now);
+                if (window == null) {
+                    inserts.add(new Object[]{key, Timestamp.from(next.startedAt()), next.requestCount()});
+                } else {
+                    updates.add(new Object[]{Timestamp.from(next.startedAt()), next.requestCount(), key});
+                }
+                if (next.requestCount() <= props.limit()) {
+                    consumed.add(key);
+                }
             }
+            if (!inserts.isEmpty()) {
+                jdbc.batchUpdate(
+                        """
+                        INSERT INTO rate_limit_windows (rate_limit_key, window_started_at, request_count)
+                        VALUES (?, ?, ?)
+                        """,
+                        inserts
+                );
+            }
+            if (!updates.isEmpty()) {
+                jdbc.batchUpdate(
+                        """
+                        UPDATE rate_limit_windows
+                        SET window_started_at = ?, request_count = ?, updated_at = CURRENT_TIMESTAMP
+                        WHERE rate_limit_key = ?
+                        """,
+                        updates
+                );
+            }
+            return consumed;
+        });
+        return allowed == null ? Set.of() : allowed;
+    }
 
-            int newCount = window.requestCount() + 1;
-            updateWindow(key, window.startedAt(), newCount);
-            return newCount <= props.limit();
-        }));
+    private Window advance(Window window, Instant now) {
+        if (window == null || now.isAfter(window.startedAt().plusSeconds(props.windowSeconds()))) {
+            return new Window(now, 1);
+        }
+        return new Window(window.startedAt(), window.requestCount() + 1);
     }
 
     private void insertWindow(String key, Instant startedAt) {
@@ -0,0 +1,322 @@
+package com.example.statement_service.ratelimit;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rate limiter that keeps its counters in process memory, for single-node deployments or ones whose load balancer
+ * routes each statement to the same instance. No request touches the database.
+ * <p>
+ * Each key's state is one long, so counting a request is a single compare-and-set. For {@code GCRA} it is the time in
+ * microseconds at which the key's token bucket, of {@code limit} tokens refilling at {@code limit} per
+ * {@code windowSeconds}, is full again. For the window algorithms it packs the index of the current window and the
+ * counts of that window and the previous one; windows are aligned to the limiter's start. The states live in an
+ * open-addressing table of {@link AtomicLongArray}s with linear probing, keyed by the two longs of the key's
+ * {@link RateLimitKeys#idOf UUID}.
+ * <p>
+ * Idle keys are evicted by generation. Once the table holds {@code memoryMaxKeys} keys, an empty table replaces it and
+ * states move over when their keys are used again. Once a state left behind can no longer refuse a request, which is
+ * a window later or two for the sliding window, the old table is dropped. If the new table fills up before then,
+ * requests for keys it does not know follow the failure mode.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ratelimit.download-link.backend", havingValue = "MEMORY")
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryRateLimiter.class);
+
+    private static final long EMPTY = 0;
+    private static final long CLAIMED = Long.MIN_VALUE;
+    private static final long MOVED = Long.MIN_VALUE + 1;
+    private static final long REFUSED = -1;
+    private static final int TABLE_FULL = Integer.MIN_VALUE;
+    private static final int MAX_WINDOW_COUNT = 0xFFFF;
+
+    private record Generations(Table current, Table previous, long rotatedAt) {
+    }
+
+    private final RateLimitProperties props;
+    private final Clock clock;
+    private final long intervalMicros;
+    private final long burstMicros;
+    private final long windowMicros;
+    private final long startedAt;
+    private final long retentionMicros;
+    private final AtomicReference<Generations> generations;
+
+    @Autowired
+    public InMemoryRateLimiter(RateLimitProperties props) {
+        this(props, Clock.systemUTC());
+    }
+
+    InMemoryRateLimiter(RateLimitProperties props, Clock clock) {
+        this.props = props;
+        this.clock = clock;
+        this.intervalMicros = Math.max(1, props.windowSeconds() * 1_000_000L / props.limit());
+        this.burstMicros = intervalMicros * props.limit();
+        this.windowMicros = props.windowSeconds() * 1_000_000L;
+        this.startedAt = micros(clock.instant());
+        this.retentionMicros = props.algorithm() == RateLimitProperties.Algorithm.SLIDING_WINDOW
+                ? 2 * windowMicros
+                : windowMicros;
+        if (props.algorithm() != RateLimitProperties.Algorithm.GCRA && props.limit() > MAX_WINDOW_COUNT) {
+            throw new IllegalStateException("The in-memory window rate limits count at most " + MAX_WINDOW_COUNT + " requests");
+        }
+        this.generations = new AtomicReference<>(new Generations(new Table(props.memoryMaxKeys()), null, 0));
+    }
+
+    @Override
+    public boolean tryConsume(String key) {
+        UUID id = RateLimitKeys.idOf(key);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long now = micros(clock.instant());
+
+        retry:
+        while (true) {
+            Generations g = generations(now);
+            int slot = g.current().findOrClaim(msb, lsb);
+            if (slot == TABLE_FULL) {
+                if (g.previous() == null) {
+                    generations.compareAndSet(g, new Generations(new Table(props.memoryMaxKeys()), g.current(), now));
+                    continue;
+                }
+                boolean allowed = props.failureMode() == RateLimitProperties.FailureMode.ALLOW;
+                log.warn("In-memory rate limiter is full key={} failureMode={} allowed={}", key, props.failureMode(), allowed);
+                return allowed;
+            }
+            AtomicLongArray states = g.current().states;
+            if (slot < 0) {
+                slot = ~slot;
+                long moved = g.previous() == null ? EMPTY : g.previous().moveOut(msb, lsb);
+                states.set(slot, moved == EMPTY ? initialState(now) : moved);
+            }
+            while (true) {
+                long state = states.get(slot);
+                if (state == MOVED) {
+                    // Another request moved this key's state to a newer table after we read the generations.
+                    continue retry;
+                }
+                long next = nextState(state, now);
+                if (next == REFUSED) {
+                    return false;
+                }
+                if (states.compareAndSet(slot, state, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes the keys one at a time and, once one is refused, returns the requests already counted for the others.
+     */
+    @Override
+    public boolean tryConsumeAllOrNothing(Collection<String> keys) {
+        List<String> consumed = new ArrayList<>();
+        for (String key : keys.stream().distinct().toList()) {
+            if (!tryConsume(key)) {
+                consumed.forEach(this::refund);
+                return false;
+            }
+            consumed.add(key);
+        }
+        return true;
+    }
+
+    /**
+     * Takes back one request counted for the key. A key whose state has moved to a newer table keeps the request.
+     */
+    private void refund(String key) {
+        UUID id = RateLimitKeys.idOf(key);
+        Table table = generations.get().current();
+        int slot = table.find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return;
+        }
+        AtomicLongArray states = table.states;
+        while (true) {
+            long state = states.get(slot);
+            if (state == MOVED || state == CLAIMED || state == EMPTY) {
+                return;
+            }
+            if (states.compareAndSet(slot, state, previousState(state))) {
+                return;
+            }
+        }
+    }
+
+    private long initialState(long now) {
+        return props.algorithm() == RateLimitProperties.Algorithm.GCRA ? now : window(now) << 32;
+    }
+
+    /**
+     * Returns the state after counting a request, or {@link #REFUSED}.
+     */
+    private long nextState(long state, long now) {
+        if (props.algorithm() == RateLimitProperties.Algorithm.GCRA) {
+            long next = Math.max(state, now) + intervalMicros;
+            return next - now > burstMicros ? REFUSED : next;
+        }
+        long stateWindow = state >>> 32;
+        long window = Math.max(window(now), stateWindow);
+        int current = (int) (state >>> 16) & MAX_WINDOW_COUNT;
+        int previous = (int) state & MAX_WINDOW_COUNT;
+        if (window != stateWindow) {
+            previous = window == stateWindow + 1 ? current : 0;
+            current = 0;
+        }
+        double estimate = current;
+        if (props.algorithm() == RateLimitProperties.Algorithm.SLIDING_WINDOW) {
+            estimate += previous * (1 - (double) (Math.max(0, now - startedAt) % windowMicros) / windowMicros);
+        }
+        if (estimate + 1 > props.limit()) {
+            return REFUSED;
+        }
+        return window << 32 | (long) (current + 1) << 16 | previous;
+    }
+
+    /**
+     * Returns the state before the last counted request.
+     */
+    private long previousState(long state) {
+        if (props.algorithm() == RateLimitProperties.Algorithm.GCRA) {
+            return state - intervalMicros;
+        }
+        int current = (int) (state >>> 16) & MAX_WINDOW_COUNT;
+        return current == 0 ? state : state - (1L << 16);
+    }
+
+    /**
+     * The index of the window containing {@code now}, counted from one so that no state is {@link #EMPTY}.
+     */
+    private long window(long now) {
+        return Math.max(0, now - startedAt) / windowMicros + 1;
+    }
+
+    private Generations generations(long now) {
+        Generations g = generations.get();
+        if (g.previous() != null && now - g.rotatedAt() >= retentionMicros) {
+            generations.compareAndSet(g, new Generations(g.current(), null, g.rotatedAt()));
+            g = generations.get();
+        }
+        return g;
+    }
+
+    private static long micros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+    }
+
+    private static long spread(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * One generation of key states. A slot's state is {@link #EMPTY}, {@link #CLAIMED} while its key is being written,
+     * {@link #MOVED} once the key lives in a newer table, or otherwise the key's positive state. Slots are never freed;
+     * the whole table is dropped instead.
+     */
+    private static final class Table {
+
+        private final int maxKeys;
+        private final int mask;
+        private final AtomicLongArray keys;
+        private final AtomicLongArray states;
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Table(int maxKeys) {
+            int capacity = Integer.highestOneBit(2 * maxKeys - 1) << 1;
+            this.maxKeys = maxKeys;
+            this.mask = capacity - 1;
+            this.keys = new AtomicLongArray(2 * capacity);
+            this.states = new AtomicLongArray(capacity);
+        }
+
+        /**
+         * Returns the key's slot, or its complement if the slot was just claimed and its state must still be set.
+         */
+        private int findOrClaim(long msb, long lsb) {
+            int slot = (int) spread(msb, lsb) & mask;
+            for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+                if (states.get(slot) == EMPTY) {
+                    if (size.get() >= maxKeys) {
+                        return TABLE_FULL;
+                    }
+                    if (states.compareAndSet(slot, EMPTY, CLAIMED)) {
+                        keys.set(2 * slot, msb);
+                        keys.set(2 * slot + 1, lsb);
+                        size.incrementAndGet();
+                        return ~slot;
+                    }
+                }
+                if (matches(slot, msb, lsb)) {
+                    return slot;
+                }
+            }
+            return TABLE_FULL;
+        }
+
+        /**
+         * Returns the key's slot, or {@code -1} if the table does not hold the key.
+         */
+        private int find(long msb, long lsb) {
+            int slot = (int) spread(msb, lsb) & mask;
+            for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+                if (states.get(slot) == EMPTY) {
+                    return -1;
+                }
+                if (matches(slot, msb, lsb)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Marks the key's state as moved and returns it, or {@link #EMPTY} if there is none.
+         */
+        private long moveOut(long msb, long lsb) {
+            int slot = (int) spread(msb, lsb) & mask;
+            for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+                if (states.get(slot) == EMPTY) {
+                    return EMPTY;
+                }
+                if (matches(slot, msb, lsb)) {
+                    while (true) {
+                        long state = states.get(slot);
+                        if (state == MOVED) {
+                            return EMPTY;
+                        }
+                        if (states.compareAndSet(slot, state, MOVED)) {
+                            return state;
+                        }
+                    }
+                }
+            }
+            return EMPTY;
+        }
+
+        private boolean matches(int slot, long msb, long lsb) {
+            while (states.get(slot) == CLAIMED) {
+                Thread.onSpinWait();
+            }
+            return keys.get(2 * slot) == msb && keys.get(2 * slot + 1) == lsb;
+        }
+    }
+}
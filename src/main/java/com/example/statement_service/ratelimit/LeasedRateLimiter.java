@@ -0,0 +1,300 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rate limiter that shares the fixed windows of {@code rate_limit_windows} with the other instances but admits most
+ * requests from memory.
+ * <p>
+ * When an instance has no quota left for a key, it leases a slice of up to {@code lease.size} requests: it adds the
+ * slice to the window's {@code request_count} with one upsert and then admits that many requests without the
+ * database. Leases of several keys share one statement, which also records each slice in {@code leased_count} so it
+ * can return the slice without a locking read first. The database count therefore always covers every admitted
+ * request, and no instance admits more than the limit between them. The cost is the other way: a slice an instance
+ * holds but does not use is refused to the others. Every {@code lease.syncIntervalMillis}, unused slices of keys that
+ * were idle for that long are returned in one batch, and an instance that was refused a lease asks again only after
+ * that interval. Leases are slices of fixed windows, so this backend only counts with {@code FIXED_WINDOW}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ratelimit.download-link.backend", havingValue = "LEASED")
+public class LeasedRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedRateLimiter.class);
+
+    private static final String LEASE_SQL = """
+            INSERT INTO rate_limit_windows AS w (rate_limit_key, window_started_at, request_count, leased_count)
+            SELECT source.rate_limit_key, ?, {slice}, {slice}
+            FROM unnest(?) AS source(rate_limit_key)
+            ORDER BY source.rate_limit_key
+            ON CONFLICT (rate_limit_key) DO UPDATE
+            SET window_started_at = CASE
+                    WHEN w.window_started_at < EXCLUDED.window_started_at - INTERVAL '{window} seconds'
+                        THEN EXCLUDED.window_started_at
+                    ELSE w.window_started_at
+                END,
+                leased_count = CASE
+                    WHEN w.window_started_at < EXCLUDED.window_started_at - INTERVAL '{window} seconds' THEN {slice}
+                    ELSE LEAST({size}, GREATEST({limit} - w.request_count, 0))
+                END,
+                request_count = CASE
+                    WHEN w.window_started_at < EXCLUDED.window_started_at - INTERVAL '{window} seconds' THEN {slice}
+                    ELSE w.request_count + LEAST({size}, GREATEST({limit} - w.request_count, 0))
+                END,
+                updated_at = CURRENT_TIMESTAMP
+            RETURNING rate_limit_key, window_started_at, leased_count
+            """;
+
+    private record Grant(Instant windowStartedAt, int granted) {
+    }
+
+    private enum Admission {
+        ALLOWED,
+        REFUSED,
+        NEEDS_LEASE
+    }
+
+    private final JdbcTemplate jdbc;
+    private final RateLimitProperties props;
+    private final Clock clock;
+    private final String leaseSql;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LeasedRateLimiter(JdbcTemplate jdbc, RateLimitProperties props) {
+        this(jdbc, props, Clock.systemUTC());
+    }
+
+    LeasedRateLimiter(JdbcTemplate jdbc, RateLimitProperties props, Clock clock) {
+        this.jdbc = jdbc;
+        this.props = props;
+        this.clock = clock;
+        if (props.algorithm() != RateLimitProperties.Algorithm.FIXED_WINDOW) {
+            throw new IllegalStateException("The LEASED rate-limit backend only supports the FIXED_WINDOW algorithm");
+        }
+        this.leaseSql = LEASE_SQL
+                .replace("{slice}", Integer.toString(Math.min(props.lease().size(), props.limit())))
+                .replace("{size}", Integer.toString(props.lease().size()))
+                .replace("{limit}", Integer.toString(props.limit()))
+                .replace("{window}", Integer.toString(props.windowSeconds()));
+    }
+
+    @Override
+    public boolean tryConsume(String key) {
+        return !tryConsumeAll(List.of(key)).isEmpty();
+    }
+
+    /**
+     * Admits what the local leases cover, then leases the other keys with one statement.
+     */
+    @Override
+    public Set<String> tryConsumeAll(Collection<String> keys) {
+        Instant now = clock.instant();
+        Set<String> allowed = new LinkedHashSet<>();
+        List<String> toLease = new ArrayList<>();
+        for (String key : keys.stream().distinct().toList()) {
+            switch (admitLocally(key, now)) {
+                case ALLOWED -> allowed.add(key);
+                case NEEDS_LEASE -> toLease.add(key);
+                case REFUSED -> {
+                }
+            }
+        }
+        if (toLease.isEmpty()) {
+            return allowed;
+        }
+
+        Map<String, Grant> grants;
+        try {
+            grants = lease(toLease, now);
+        } catch (RuntimeException e) {
+            boolean allowedOnFailure = props.failureMode() == RateLimitProperties.FailureMode.ALLOW;
+            log.warn("Rate limiter storage failure keys={} failureMode={} allowed={}", toLease.size(), props.failureMode(), allowedOnFailure);
+            if (allowedOnFailure) {
+                allowed.addAll(toLease);
+            }
+            return allowed;
+        }
+        for (String key : toLease) {
+            if (admitFromGrant(key, grants.get(key), now)) {
+                allowed.add(key);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Admits the keys like {@link #tryConsumeAll} and, if any was refused, returns the admitted requests to this
+     * instance's slices of their keys.
+     */
+    @Override
+    public boolean tryConsumeAllOrNothing(Collection<String> keys) {
+        List<String> distinct = keys.stream().distinct().toList();
+        Set<String> allowed = tryConsumeAll(distinct);
+        if (allowed.size() == distinct.size()) {
+            return true;
+        }
+        allowed.forEach(this::refund);
+        return false;
+    }
+
+    private void refund(String key) {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            return;
+        }
+        synchronized (lease) {
+            if (!lease.evicted && lease.windowStartedAt != null) {
+                lease.available++;
+            }
+        }
+    }
+
+    /**
+     * Returns the unused slices of keys that were idle for a sync interval and forgets those keys.
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.download-link.lease.sync-interval-millis:1000}")
+    public void releaseIdleLeases() {
+        Instant now = clock.instant();
+        Instant idleBefore = now.minus(props.lease().syncInterval());
+        List<Object[]> releases = new ArrayList<>();
+        for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+            Lease lease = entry.getValue();
+            synchronized (lease) {
+                if (lease.lastUsedAt.isAfter(idleBefore)) {
+                    continue;
+                }
+                lease.expireIfOver(now, props.windowSeconds());
+                if (lease.available > 0) {
+                    releases.add(new Object[]{lease.available, entry.getKey(), Timestamp.from(lease.windowStartedAt)});
+                }
+                lease.evicted = true;
+                leases.remove(entry.getKey(), lease);
+            }
+        }
+        if (releases.isEmpty()) {
+            return;
+        }
+        try {
+            jdbc.batchUpdate(
+                    """
+                    UPDATE rate_limit_windows
+                    SET request_count = GREATEST(request_count - ?, 0), updated_at = CURRENT_TIMESTAMP
+                    WHERE rate_limit_key = ? AND window_started_at = ?
+                    """,
+                    releases
+            );
+        } catch (RuntimeException e) {
+            log.warn("Failed to return unused rate-limit leases keys={}, they stay reserved until their windows end",
+                    releases.size(), e);
+        }
+    }
+
+    private Admission admitLocally(String key, Instant now) {
+        while (true) {
+            Lease lease = leases.computeIfAbsent(key, k -> new Lease(now));
+            synchronized (lease) {
+                if (lease.evicted) {
+                    continue;
+                }
+                lease.lastUsedAt = now;
+                lease.expireIfOver(now, props.windowSeconds());
+                if (lease.available > 0) {
+                    lease.available--;
+                    return Admission.ALLOWED;
+                }
+                return lease.refusedUntil != null && now.isBefore(lease.refusedUntil)
+                        ? Admission.REFUSED
+                        : Admission.NEEDS_LEASE;
+            }
+        }
+    }
+
+    private boolean admitFromGrant(String key, Grant grant, Instant now) {
+        while (true) {
+            Lease lease = leases.computeIfAbsent(key, k -> new Lease(now));
+            synchronized (lease) {
+                if (lease.evicted) {
+                    continue;
+                }
+                if (!grant.windowStartedAt().equals(lease.windowStartedAt)) {
+                    // Whatever was left belongs to a window the database has already reset.
+                    lease.windowStartedAt = grant.windowStartedAt();
+                    lease.available = 0;
+                }
+                lease.available += grant.granted();
+                if (lease.available > 0) {
+                    lease.available--;
+                    lease.refusedUntil = null;
+                    return true;
+                }
+                lease.refusedUntil = now.plus(props.lease().syncInterval());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Leases a slice of each key's current window, starting a new window where the last one is over. The statement
+     * runs in autocommit and locks the rows in key order, so overlapping batches cannot deadlock and a first-request
+     * race resolves inside {@code ON CONFLICT}.
+     */
+    private Map<String, Grant> lease(List<String> keys, Instant now) {
+        Map<String, Grant> grants = new HashMap<>();
+        jdbc.query(
+                leaseSql,
+                ps -> {
+                    ps.setTimestamp(1, Timestamp.from(now));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", keys.toArray()));
+                },
+                rs -> {
+                    grants.put(
+                            rs.getString("rate_limit_key"),
+                            new Grant(rs.getTimestamp("window_started_at").toInstant(), rs.getInt("leased_count"))
+                    );
+                }
+        );
+        return grants;
+    }
+
+    /**
+     * This instance's slice of one key's window. Guarded by its own monitor.
+     */
+    private static final class Lease {
+
+        private Instant windowStartedAt;
+        private int available;
+        private Instant lastUsedAt;
+        private Instant refusedUntil;
+        private boolean evicted;
+
+        private Lease(Instant now) {
+            this.lastUsedAt = now;
+        }
+
+        private void expireIfOver(Instant now, int windowSeconds) {
+            if (windowStartedAt != null && now.isAfter(windowStartedAt.plusSeconds(windowSeconds))) {
+                windowStartedAt = null;
+                available = 0;
+                refusedUntil = null;
+            }
+        }
+    }
+}
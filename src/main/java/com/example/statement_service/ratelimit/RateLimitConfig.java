@@ -10,7 +10,8 @@ import org.springframework.context.annotation.Configuration;
  * This class integrates the rate-limiting properties defined in {@link RateLimitProperties}
  * with the Spring application context. It enables the configuration properties prefixed
  * with "app.ratelimit.download-link" to be loaded and used by the shared database-backed
- * rate limiter.
+ * rate limiter or, depending on {@code backend}, by the per-instance {@link InMemoryRateLimiter} or the
+ * {@link LeasedRateLimiter}.
  * <p>
  * Key Features:
  * - Automatically binds the externalized configuration properties related to rate-limiting
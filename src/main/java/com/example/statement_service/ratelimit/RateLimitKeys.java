@@ -0,0 +1,29 @@
+package com.example.statement_service.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Maps rate-limit keys to UUIDs for the backends that store keys natively.
+ * <p>
+ * Every key of the download-link quota ends in the statement ID, so that ID is the key. The quota is the only one these
+ * backends serve, so the prefix before it is not kept. Any other key becomes a name-based UUID of its text.
+ */
+final class RateLimitKeys {
+
+    private static final int UUID_LENGTH = 36;
+
+    private RateLimitKeys() {
+    }
+
+    static UUID idOf(String key) {
+        if (key.length() >= UUID_LENGTH) {
+            try {
+                return UUID.fromString(key.substring(key.length() - UUID_LENGTH));
+            } catch (IllegalArgumentException notUuid) {
+                // Hashed below.
+            }
+        }
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.statement_service.ratelimit;
 
+import java.time.Duration;
+
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +18,15 @@ import org.springframework.validation.annotation.Validated;
  * Properties:
  * - {@code limit}: The maximum number of requests allowed within the defined time window.
  * - {@code windowSeconds}: The size of the time window, in seconds, during which the request limit is enforced.
+ * - {@code backend}: Where the counters live; {@code DATABASE} shares them between instances, {@code MEMORY} keeps
+ *   them in each instance, and {@code LEASED} shares them but lets each instance admit requests from leased slices.
+ * - {@code memoryMaxKeys}: How many keys the in-memory backend tracks per generation.
+ * - {@code lease}: How the leased backend takes and returns slices of each key's quota.
+ * - {@code databaseMode}: How the database backend counts; {@code TRANSACTION} locks and rewrites a row of
+ *   {@code rate_limit_windows}, {@code UPSERT} counts in {@code rate_limit_counters} with one autocommit statement.
+ * - {@code algorithm}: How requests are counted; {@code FIXED_WINDOW} resets the count every window,
+ *   {@code SLIDING_WINDOW} also weighs in the previous window's count, and {@code GCRA} spaces requests evenly with a
+ *   burst of {@code limit}.
  * <p>
  * This class is designed to work with Spring's {@code @ConfigurationProperties} to provide
  * type-safe access to configuration values.
@@ -26,17 +38,90 @@ public record RateLimitProperties(
         int limit,
         @Min(1)
         int windowSeconds,
-        FailureMode failureMode
+        FailureMode failureMode,
+        Backend backend,
+        @Max(1 << 28)
+        int memoryMaxKeys,
+        Lease lease,
+        DatabaseMode databaseMode,
+        Algorithm algorithm
 ) {
 
     public RateLimitProperties {
         if (failureMode == null) {
             failureMode = FailureMode.DENY;
         }
+        if (backend == null) {
+            backend = Backend.DATABASE;
+        }
+        if (memoryMaxKeys <= 0) {
+            memoryMaxKeys = 100000;
+        }
+        if (lease == null) {
+            lease = new Lease(0, 0);
+        }
+        if (databaseMode == null) {
+            databaseMode = DatabaseMode.TRANSACTION;
+        }
+        if (algorithm == null) {
+            algorithm = Algorithm.FIXED_WINDOW;
+        }
+    }
+
+    /**
+     * Whether the database backend counts with {@link RateLimitUpsert}. Only fixed windows can also be counted in a
+     * locking transaction.
+     */
+    public boolean countsWithUpsert() {
+        return databaseMode == DatabaseMode.UPSERT || algorithm != Algorithm.FIXED_WINDOW;
     }
 
     public enum FailureMode {
         ALLOW,
         DENY
     }
+
+    public enum Backend {
+        DATABASE,
+        MEMORY,
+        LEASED
+    }
+
+    public enum DatabaseMode {
+        TRANSACTION,
+        UPSERT
+    }
+
+    public enum Algorithm {
+        FIXED_WINDOW,
+        SLIDING_WINDOW,
+        GCRA
+    }
+
+    /**
+     * Slices of each key's quota that an instance reserves in {@code rate_limit_windows} and then admits from alone.
+     *
+     * @param size               the most requests one lease reserves; other instances can be refused up to this many
+     *                           requests per instance that holds an unused slice
+     * @param syncIntervalMillis how often unused slices of idle keys are returned in one batch, and how long an instance
+     *                           that was refused a lease waits before asking again
+     */
+    public record Lease(
+            int size,
+            long syncIntervalMillis
+    ) {
+
+        public Lease {
+            if (size <= 0) {
+                size = 2;
+            }
+            if (syncIntervalMillis <= 0) {
+                syncIntervalMillis = 1000;
+            }
+        }
+
+        public Duration syncInterval() {
+            return Duration.ofMillis(syncIntervalMillis);
+        }
+    }
 }
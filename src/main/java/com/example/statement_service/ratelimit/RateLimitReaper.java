@@ -0,0 +1,222 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes rate-limit rows that can no longer refuse a request, so the tables only hold recently used keys.
+ * <p>
+ * Every statement runs in autocommit and deletes at most {@code batchSize} rows, and a run stops after
+ * {@code maxBatchesPerRun} statements per table. Expired rows of {@code rate_limit_windows} are found through
+ * {@code idx_rate_limit_windows_updated_at}. The UUID-keyed tables have no index on their timestamps, because it would
+ * have to be updated on every request, so they are walked in primary-key order instead, continuing where the previous
+ * run stopped. Each delete repeats the expiry check, so a row that was used again after it was selected survives.
+ * <p>
+ * Scheduled runs are elected through a PostgreSQL session advisory lock: the instance that takes it reaps, and the
+ * others skip the run instead of walking the same keys.
+ * <p>
+ * A window is expired once {@code windowSeconds} have passed since its last update, or twice that for the sliding
+ * window's counters, which still weigh in the previous window. A GCRA arrival time is expired once it has passed.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitReaperProperties.class)
+public class RateLimitReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitReaper.class);
+    private static final List<String> TABLES = List.of("rate_limit_windows", "rate_limit_counters", "rate_limit_gcra");
+    // "RLREAPER" in ASCII, so the lock is recognisable in pg_locks.
+    static final long LOCK_ID = 0x524C524541504552L;
+
+    private final JdbcTemplate jdbc;
+    private final RateLimitProperties rateLimits;
+    private final RateLimitReaperProperties properties;
+    private final StatementMetrics metrics;
+    private final Clock clock;
+    private final Map<String, UUID> cursors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimitReaper(
+            JdbcTemplate jdbc,
+            RateLimitProperties rateLimits,
+            RateLimitReaperProperties properties,
+            StatementMetrics metrics
+    ) {
+        this(jdbc, rateLimits, properties, metrics, Clock.systemUTC());
+    }
+
+    RateLimitReaper(
+            JdbcTemplate jdbc,
+            RateLimitProperties rateLimits,
+            RateLimitReaperProperties properties,
+            StatementMetrics metrics,
+            Clock clock
+    ) {
+        this.jdbc = jdbc;
+        this.rateLimits = rateLimits;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.ratelimit.reaper.initial-delay-millis:60000}",
+            fixedDelayString = "${app.ratelimit.reaper.fixed-delay-millis:60000}"
+    )
+    public void reapScheduled() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            jdbc.execute((ConnectionCallback<Boolean>) this::reapIfElected);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reap expired rate-limit rows", e);
+        }
+        recordTableSizes();
+    }
+
+    /**
+     * Runs {@link #reap()} while {@code connection} holds the reaper's advisory lock, or returns {@code false} if
+     * another instance holds it. The deletes run on other pooled connections, so each stays in autocommit.
+     */
+    private boolean reapIfElected(Connection connection) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            lock.setLong(1, LOCK_ID);
+            try (ResultSet rs = lock.executeQuery()) {
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    log.debug("Another instance is reaping rate-limit rows, skipping this run");
+                    return false;
+                }
+            }
+        }
+        try {
+            reap();
+            return true;
+        } finally {
+            try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                unlock.setLong(1, LOCK_ID);
+                unlock.execute();
+            }
+        }
+    }
+
+    /**
+     * Deletes up to one run's worth of expired rows from each table.
+     *
+     * @return the number of rows deleted
+     */
+    public long reap() {
+        Instant now = clock.instant();
+        Timestamp windowCutoff = Timestamp.from(now.minusSeconds(rateLimits.windowSeconds()));
+        long windows = reapWindows(windowCutoff);
+        long counters = reapByKey(
+                "rate_limit_counters",
+                "window_started_at",
+                Timestamp.from(now.minusSeconds(2L * rateLimits.windowSeconds()))
+        );
+        long arrivals = reapByKey("rate_limit_gcra", "theoretical_arrival_at", Timestamp.from(now));
+        metrics.rateLimitRowsReaped("rate_limit_windows", windows);
+        metrics.rateLimitRowsReaped("rate_limit_counters", counters);
+        metrics.rateLimitRowsReaped("rate_limit_gcra", arrivals);
+        long reaped = windows + counters + arrivals;
+        if (reaped > 0) {
+            log.info("Reaped expired rate-limit rows windows={} counters={} gcra={}", windows, counters, arrivals);
+        }
+        return reaped;
+    }
+
+    private long reapWindows(Timestamp cutoff) {
+        long reaped = 0;
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            int deleted = jdbc.update(
+                    """
+                    DELETE FROM rate_limit_windows
+                    WHERE rate_limit_key IN (
+                        SELECT rate_limit_key
+                        FROM rate_limit_windows
+                        WHERE updated_at < ?
+                        ORDER BY updated_at
+                        LIMIT ?
+                    )
+                    AND updated_at < ?
+                    """,
+                    cutoff,
+                    properties.batchSize(),
+                    cutoff
+            );
+            reaped += deleted;
+            if (deleted < properties.batchSize()) {
+                break;
+            }
+        }
+        return reaped;
+    }
+
+    /**
+     * Walks the next {@code maxBatchesPerRun} pages of the table's keys and deletes the expired rows of each page
+     * with one range delete on the primary key.
+     */
+    private long reapByKey(String table, String expiresColumn, Timestamp cutoff) {
+        long reaped = 0;
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            UUID after = cursors.get(table);
+            List<UUID> page = after == null
+                    ? jdbc.queryForList(
+                            "SELECT key_id FROM " + table + " ORDER BY key_id LIMIT ?",
+                            UUID.class,
+                            properties.batchSize()
+                    )
+                    : jdbc.queryForList(
+                            "SELECT key_id FROM " + table + " WHERE key_id > ? ORDER BY key_id LIMIT ?",
+                            UUID.class,
+                            after,
+                            properties.batchSize()
+                    );
+            if (!page.isEmpty()) {
+                reaped += jdbc.update(
+                        "DELETE FROM " + table + " WHERE key_id BETWEEN ? AND ? AND " + expiresColumn + " < ?",
+                        page.getFirst(),
+                        page.getLast(),
+                        cutoff
+                );
+            }
+            if (page.size() < properties.batchSize()) {
+                cursors.remove(table);
+                break;
+            }
+            cursors.put(table, page.getLast());
+        }
+        return reaped;
+    }
+
+    private void recordTableSizes() {
+        for (String table : TABLES) {
+            try {
+                Long bytes = jdbc.queryForObject("SELECT pg_total_relation_size(CAST(? AS regclass))", Long.class, table);
+                if (bytes != null) {
+                    metrics.rateLimitTableBytes(table, bytes);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Failed to measure rate-limit table={}", table, e);
+            }
+        }
+    }
+}
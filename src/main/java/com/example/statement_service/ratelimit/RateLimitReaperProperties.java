@@ -0,0 +1,27 @@
+package com.example.statement_service.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Deletion of expired rate-limit rows.
+ *
+ * @param enabled          whether expired rows are deleted
+ * @param batchSize        the most rows one delete statement removes
+ * @param maxBatchesPerRun the most delete statements per table and run, so one run never holds the database for long
+ */
+@ConfigurationProperties("app.ratelimit.reaper")
+public record RateLimitReaperProperties(
+        boolean enabled,
+        int batchSize,
+        int maxBatchesPerRun
+) {
+
+    public RateLimitReaperProperties {
+        if (batchSize <= 0) {
+            batchSize = 1000;
+        }
+        if (maxBatchesPerRun <= 0) {
+            maxBatchesPerRun = 100;
+        }
+    }
+}
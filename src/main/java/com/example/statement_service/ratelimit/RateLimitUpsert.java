@@ -0,0 +1,127 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * The single statement that counts one request against each key's quota in the database, for the configured
+ * algorithm.
+ * <p>
+ * The statement is an {@code INSERT ... ON CONFLICT DO UPDATE} over the keys of a row source, so it runs in autocommit
+ * or as a data-modifying CTE. It returns {@code key_id} and {@code request_count} for each key, and a request was
+ * allowed when its key is returned with a count of at most {@code limit}:
+ * <ul>
+ *     <li>{@code FIXED_WINDOW} counts in {@code rate_limit_counters} and returns every key.</li>
+ *     <li>{@code SLIDING_WINDOW} counts in the same table and weighs in the previous window's count by the share of it
+ *     that still overlaps the sliding window. Refused requests are not counted and their keys are not returned.</li>
+ *     <li>{@code GCRA} keeps one theoretical arrival time per key in {@code rate_limit_gcra}. Refused requests leave it
+ *     unchanged and their keys are not returned.</li>
+ * </ul>
+ * The window and limit are part of the SQL, so the only parameters are the current time and the row source's one.
+ */
+public final class RateLimitUpsert {
+
+    private static final String FIXED_WINDOW_SQL = """
+            INSERT INTO rate_limit_counters AS c (key_id, window_started_at, request_count)
+            SELECT source.key_id, ?, 1 FROM ({source}) AS source
+            ON CONFLICT (key_id) DO UPDATE
+            SET window_started_at = CASE
+                    WHEN c.window_started_at < EXCLUDED.window_started_at - INTERVAL '{window} seconds'
+                        THEN EXCLUDED.window_started_at
+                    ELSE c.window_started_at
+                END,
+                request_count = CASE
+                    WHEN c.window_started_at < EXCLUDED.window_started_at - INTERVAL '{window} seconds' THEN 1
+                    ELSE c.request_count + 1
+                END
+            RETURNING key_id, request_count
+            """;
+
+    private static final String SLIDING_WINDOW_SQL = """
+            INSERT INTO rate_limit_counters AS c (key_id, window_started_at, request_count, previous_count)
+            SELECT source.key_id, ?, 1, 0 FROM ({source}) AS source
+            ON CONFLICT (key_id) DO UPDATE
+            SET window_started_at = CASE
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{window} seconds'
+                        THEN c.window_started_at
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{twoWindows} seconds'
+                        THEN c.window_started_at + INTERVAL '{window} seconds'
+                    ELSE EXCLUDED.window_started_at
+                END,
+                previous_count = CASE
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{window} seconds' THEN c.previous_count
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{twoWindows} seconds' THEN c.request_count
+                    ELSE 0
+                END,
+                request_count = CASE
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{window} seconds' THEN c.request_count + 1
+                    ELSE 1
+                END
+            WHERE CASE
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{window} seconds'
+                        THEN c.previous_count
+                            * (1 - EXTRACT(EPOCH FROM EXCLUDED.window_started_at - c.window_started_at) / {window})
+                            + c.request_count
+                    WHEN c.window_started_at >= EXCLUDED.window_started_at - INTERVAL '{twoWindows} seconds'
+                        THEN c.request_count
+                            * (2 - EXTRACT(EPOCH FROM EXCLUDED.window_started_at - c.window_started_at) / {window})
+                    ELSE 0
+                END + 1 <= {limit}
+            RETURNING key_id, request_count
+            """;
+
+    private static final String GCRA_SQL = """
+            INSERT INTO rate_limit_gcra AS g (key_id, theoretical_arrival_at)
+            SELECT source.key_id, CAST(? AS TIMESTAMPTZ) + INTERVAL '{interval} microseconds' FROM ({source}) AS source
+            ON CONFLICT (key_id) DO UPDATE
+            SET theoretical_arrival_at = GREATEST(
+                    g.theoretical_arrival_at + INTERVAL '{interval} microseconds',
+                    EXCLUDED.theoretical_arrival_at
+                )
+            WHERE GREATEST(g.theoretical_arrival_at + INTERVAL '{interval} microseconds', EXCLUDED.theoretical_arrival_at)
+                <= EXCLUDED.theoretical_arrival_at + INTERVAL '{tolerance} microseconds'
+            RETURNING key_id, 1 AS request_count
+            """;
+
+    private final String template;
+
+    public RateLimitUpsert(RateLimitProperties props) {
+        int window = props.windowSeconds();
+        this.template = switch (props.algorithm()) {
+            case FIXED_WINDOW -> FIXED_WINDOW_SQL.replace("{window}", Integer.toString(window));
+            case SLIDING_WINDOW -> SLIDING_WINDOW_SQL
+                    .replace("{window}", Integer.toString(window))
+                    .replace("{twoWindows}", Long.toString(2L * window))
+                    .replace("{limit}", Integer.toString(props.limit()));
+            case GCRA -> {
+                // A request is due every interval, and may come up to limit - 1 intervals early.
+                long interval = Math.max(1, window * 1_000_000L / props.limit());
+                yield GCRA_SQL
+                        .replace("{interval}", Long.toString(interval))
+                        .replace("{tolerance}", Long.toString(interval * (props.limit() - 1)));
+            }
+        };
+    }
+
+    /**
+     * Returns the statement for the keys of a row source.
+     *
+     * @param keySource a query with exactly one parameter and a {@code key_id} column
+     */
+    public String sql(String keySource) {
+        return template.replace("{source}", keySource);
+    }
+
+    /**
+     * Binds the current time and the row source's parameter, starting at {@code index}.
+     *
+     * @return the index of the next parameter
+     */
+    public int bind(PreparedStatement ps, int index, Instant now, Object keySourceParameter) throws SQLException {
+        ps.setTimestamp(index, Timestamp.from(now));
+        ps.setObject(index + 1, keySourceParameter);
+        return index + 2;
+    }
+}
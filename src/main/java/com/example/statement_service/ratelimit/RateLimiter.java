@@ -1,5 +1,31 @@
 package com.example.statement_service.ratelimit;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public interface RateLimiter {
     boolean tryConsume(String key);
+
+    /**
+     * Consumes one request from each key's quota.
+     *
+     * @return the keys whose request was allowed
+     */
+    default Set<String> tryConsumeAll(Collection<String> keys) {
+        Set<String> allowed = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (tryConsume(key)) {
+                allowed.add(key);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Consumes one request from every key's quota, or from none of them if any key's quota is used up.
+     *
+     * @return whether every key's request was allowed
+     */
+    boolean tryConsumeAllOrNothing(Collection<String> keys);
 }
@@ -0,0 +1,102 @@
+package com.example.statement_service.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded virtual-thread pool that runs accepted asynchronous uploads off the servlet threads.
+ * <p>
+ * At most {@code concurrency} uploads run at once, and at most {@code queueCapacity} are accepted but not yet
+ * finished. Callers reserve a slot before spooling a request body, so a full queue is rejected before any byte is
+ * written to the staging directory.
+ */
+@Component
+public class AsyncUploadExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncUploadExecutor.class);
+    private static final long SHUTDOWN_GRACE_SECONDS = 20;
+
+    private final ExecutorService executor;
+    private final Semaphore running;
+    private final Semaphore accepted;
+
+    @Autowired
+    public AsyncUploadExecutor(UploadProperties properties) {
+        this(properties.async().concurrency(), properties.async().queueCapacity());
+    }
+
+    AsyncUploadExecutor(int concurrency, int queueCapacity) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("statement-upload-", 0).factory());
+        this.running = new Semaphore(concurrency);
+        this.accepted = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Reserves a queue slot for an upload that is about to be accepted.
+     *
+     * @return {@code false} if the queue is full
+     */
+    boolean tryReserve() {
+        return accepted.tryAcquire();
+    }
+
+    /**
+     * Releases a slot reserved with {@link #tryReserve()} for an upload that will not be submitted.
+     */
+    void release() {
+        accepted.release();
+    }
+
+    /**
+     * Runs an upload in a slot reserved with {@link #tryReserve()}. The slot is released when the task ends.
+     */
+    void submitReserved(Runnable upload) {
+        executor.execute(() -> {
+            try {
+                run(upload);
+            } finally {
+                accepted.release();
+            }
+        });
+    }
+
+    /**
+     * Runs an upload that is resumed after a restart. Resumed uploads do not count towards the queue capacity.
+     */
+    void submit(Runnable upload) {
+        executor.execute(() -> run(upload));
+    }
+
+    private void run(Runnable upload) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            upload.run();
+        } catch (RuntimeException e) {
+            log.error("Asynchronous statement upload failed unexpectedly", e);
+        } finally {
+            running.release();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Unfinished uploads stay PENDING with their staged body and are resumed on the next start.
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.statement_service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.http.ContentStreamProvider;
+
+/**
+ * Accepts raw PDF uploads as {@code PENDING} statements and stores them in S3 in the background.
+ * <p>
+ * The request thread only validates the body, spools it to the staging directory and inserts the pending row; the S3
+ * upload and activation run on the {@link AsyncUploadExecutor}. Staged bodies that survive a restart are resumed, and
+ * uploads that stay pending past the configured timeout are failed.
+ */
+@Service
+public class AsyncUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncUploadService.class);
+    private static final String STAGED_SUFFIX = ".pdf";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final StatementRepository statementRepo;
+    private final StatementWriter writer;
+    private final UploadValidator validator;
+    private final AsyncUploadExecutor asyncUploads;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementMetrics metrics;
+    private final UploadProperties.Async properties;
+    private final Instant startedAt = Instant.now();
+
+    AsyncUploadService(
+            StatementRepository statementRepo,
+            StatementWriter writer,
+            UploadValidator validator,
+            AsyncUploadExecutor asyncUploads,
+            TransactionTemplate transactionTemplate,
+            StatementMetrics metrics,
+            UploadProperties uploadProperties
+    ) {
+        this.statementRepo = statementRepo;
+        this.writer = writer;
+        this.validator = validator;
+        this.asyncUploads = asyncUploads;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.properties = uploadProperties.async();
+    }
+
+    /**
+     * Accepts a raw {@code application/pdf} upload for asynchronous storage and returns it as a {@code PENDING}
+     * statement.
+     * <p>
+     * The SHA-256 is computed in the same pass as the spool, so the idempotency key is known before the row is written
+     * and a duplicate upload returns the existing statement without queueing any work. A duplicate whose digest is
+     * declared up front returns before a queue slot is taken or any of the body is read.
+     *
+     * @param contentLength  the declared request body length
+     * @param declaredSha256 the hex-encoded SHA-256 the client declared for the body, or {@code null}
+     * @param body           the request body, which is not closed by this method
+     * @throws TooManyRequestsException if the upload queue is full
+     */
+    public Statement uploadAsync(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String contentType,
+            long contentLength,
+            String declaredSha256,
+            InputStream body
+    ) {
+        String expectedSha256;
+        try {
+            validator.validateStreamUpload(customerId, accountId, periodStart, periodEnd, contentType, contentLength);
+            expectedSha256 = validator.normalizeDeclaredSha256(declaredSha256);
+            var duplicate = writer.findDeclaredDuplicate(customerId, accountId, periodStart, periodEnd, expectedSha256);
+            if (duplicate.isPresent()) {
+                metrics.uploadSuccess();
+                return duplicate.get();
+            }
+        } catch (BadRequestException e) {
+            metrics.uploadFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.uploadFailure();
+            throw new RuntimeException("Failed to accept statement upload", e);
+        }
+
+        if (!asyncUploads.tryReserve()) {
+            metrics.uploadQueueFull();
+            throw new TooManyRequestsException("Upload queue is full, please retry later.");
+        }
+        boolean submitted = false;
+        try {
+            AcceptedUpload accepted = acceptAsyncUpload(
+                    customerId, accountId, periodStart, periodEnd, contentLength, expectedSha256, body
+            );
+            if (accepted.staged() == null) {
+                metrics.uploadSuccess();
+                return accepted.statement();
+            }
+            asyncUploads.submitReserved(() -> completeAsyncUpload(accepted.statement(), accepted.staged()));
+            submitted = true;
+            metrics.uploadAccepted();
+            return accepted.statement();
+        } catch (BadRequestException e) {
+            metrics.uploadFailure();
+            throw e;
+        } catch (Exception e) {
+            metrics.uploadFailure();
+            throw new RuntimeException("Failed to accept statement upload", e);
+        } finally {
+            if (!submitted) {
+                asyncUploads.release();
+            }
+        }
+    }
+
+    private AcceptedUpload acceptAsyncUpload(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            long contentLength,
+            String expectedSha256,
+            InputStream body
+    ) throws IOException {
+        UUID id = UUID.randomUUID();
+        Files.createDirectories(properties.stagingDir());
+        Path partial = properties.stagingDir().resolve(id + PARTIAL_SUFFIX);
+        Path staged = properties.stagingDir().resolve(id + STAGED_SUFFIX);
+        try {
+            PdfUploadStream in = validator.open(body);
+            in.verifyPdfSignature();
+            Files.copy(in, partial);
+            if (in.bytesRead() != contentLength) {
+                throw new BadRequestException("PDF body length does not match Content-Length");
+            }
+            String sha256 = in.sha256Hex();
+            if (expectedSha256 != null && !expectedSha256.equals(sha256)) {
+                throw new BadRequestException(UploadValidator.DECLARED_SHA256_MISMATCH);
+            }
+
+            Statement pending = new Statement(
+                    id, customerId, accountId, periodStart, periodEnd,
+                    StatementWriter.objectKey(customerId, accountId, periodStart, id), "application/pdf",
+                    in.bytesRead(), sha256, Instant.now(), StatementStatus.PENDING
+            );
+            var existing = writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256);
+            if (existing.isPresent()) {
+                return new AcceptedUpload(existing.get(), null);
+            }
+
+            // Only fully written bodies get the staged name, so a restart never resumes a truncated spool.
+            Files.move(partial, staged, StandardCopyOption.ATOMIC_MOVE);
+            try {
+                transactionTemplate.execute(status -> {
+                    Statement saved = statementRepo.saveAndFlush(pending);
+                    writer.publishChange(StatementChange.UPLOADED, List.of(saved.getId()));
+                    return saved;
+                });
+            } catch (DataIntegrityViolationException duplicateUploadRace) {
+                Files.deleteIfExists(staged);
+                Statement existingStatement = writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256)
+                        .orElseThrow(() -> duplicateUploadRace);
+                return new AcceptedUpload(existingStatement, null);
+            } catch (RuntimeException dbFailure) {
+                Files.deleteIfExists(staged);
+                throw dbFailure;
+            }
+            writer.cacheStatement(pending);
+            return new AcceptedUpload(pending, staged);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void completeAsyncUpload(Statement pending, Path staged) {
+        String objectKey = pending.getObjectKey();
+        try {
+            writer.uploadToS3(stagedFile(staged), pending.getSizeBytes(), objectKey);
+        } catch (Exception uploadFailure) {
+            log.warn("Asynchronous statement upload failed statementId={} key={}", pending.getId(), objectKey, uploadFailure);
+            markFailed(pending);
+            metrics.uploadFailure();
+            deleteStaged(staged);
+            return;
+        }
+
+        Integer activated;
+        try {
+            activated = transactionTemplate.execute(
+                    status -> statementRepo.updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.ACTIVE)
+            );
+        } catch (RuntimeException dbFailure) {
+            log.warn("Failed to activate asynchronously uploaded statement statementId={}", pending.getId(), dbFailure);
+            writer.discardUploadedObject(pending);
+            markFailed(pending);
+            metrics.uploadFailure();
+            deleteStaged(staged);
+            return;
+        }
+
+        if (activated == null || activated == 0) {
+            // Revoked or timed out while the upload was running; the stored object must not outlive the row.
+            log.info("Discarding asynchronous upload that is no longer pending statementId={}", pending.getId());
+            writer.discardUploadedObject(pending);
+            metrics.uploadFailure();
+        } else {
+            metrics.uploadSuccess();
+        }
+        deleteStaged(staged);
+    }
+
+    private void markFailed(Statement pending) {
+        try {
+            transactionTemplate.execute(
+                    status -> statementRepo.updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.FAILED)
+            );
+        } catch (RuntimeException e) {
+            // The stale-pending sweep fails the row later.
+            log.warn("Failed to mark asynchronous upload as failed statementId={}", pending.getId(), e);
+        }
+    }
+
+    /**
+     * Resumes asynchronous uploads whose staged body survived a restart.
+     * <p>
+     * Only files staged before this instance started are considered, so bodies spooled by requests that are
+     * already running are left alone. Staged files without a matching {@code PENDING} statement are deleted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeStagedUploads() {
+        Path stagingDir = properties.stagingDir();
+        if (!Files.isDirectory(stagingDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(stagingDir)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(startedAt)) {
+                    resumeStagedUpload(file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to resume staged uploads stagingDir={}", stagingDir, e);
+        }
+    }
+
+    private void resumeStagedUpload(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(PARTIAL_SUFFIX)) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        if (!name.endsWith(STAGED_SUFFIX)) {
+            return;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(name.substring(0, name.length() - STAGED_SUFFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        var pending = statementRepo.findById(id).filter(s -> s.getStatus() == StatementStatus.PENDING);
+        if (pending.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        log.info("Resuming staged asynchronous upload statementId={}", id);
+        asyncUploads.submit(() -> completeAsyncUpload(pending.get(), file));
+    }
+
+    /**
+     * Fails asynchronous uploads that stayed {@code PENDING} longer than the configured timeout, for example
+     * because the instance that accepted them lost its staging directory.
+     */
+    @Scheduled(
+            initialDelayString = "${app.upload.async.stale-sweep-initial-delay-millis:60000}",
+            fixedDelayString = "${app.upload.async.stale-sweep-fixed-delay-millis:300000}"
+    )
+    public void failStalePendingUploads() {
+        Instant cutoff = Instant.now().minus(properties.pendingTimeout());
+        Integer failed = transactionTemplate.execute(status -> statementRepo.failPendingUploadedBefore(cutoff));
+        if (failed != null && failed > 0) {
+            log.warn("Marked stale asynchronous uploads as failed count={} cutoff={}", failed, cutoff);
+        }
+    }
+
+    private void deleteStaged(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged upload path={}", staged, e);
+        }
+    }
+
+    private static ContentStreamProvider stagedFile(Path staged) {
+        return () -> {
+            try {
+                return Files.newInputStream(staged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private record AcceptedUpload(Statement statement, Path staged) {
+    }
+}
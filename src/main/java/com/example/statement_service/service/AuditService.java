@@ -1,6 +1,8 @@
 package com.example.statement_service.service;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import com.example.statement_service.domain.AuditEvent;
@@ -9,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -22,10 +25,12 @@ import org.springframework.transaction.support.TransactionTemplate;
 public class AuditService {
 
     private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+    private static final int INSERT_BATCH_SIZE = 500;
 
     private final AuditEventRepository repo;
     private final AuditProperties properties;
     private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbc;
 
     /**
      * Constructs a new AuditService.
@@ -33,14 +38,25 @@ public class AuditService {
      * @param repo the audit event repository
      */
     @Autowired
-    public AuditService(AuditEventRepository repo, AuditProperties properties, PlatformTransactionManager transactionManager) {
-        this(repo, properties, requiresNew(transactionManager));
+    public AuditService(
+            AuditEventRepository repo,
+            AuditProperties properties,
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbc
+    ) {
+        this(repo, properties, requiresNew(transactionManager), jdbc);
     }
 
-    AuditService(AuditEventRepository repo, AuditProperties properties, TransactionTemplate transactionTemplate) {
+    AuditService(
+            AuditEventRepository repo,
+            AuditProperties properties,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbc
+    ) {
         this.repo = repo;
         this.properties = properties;
         this.transactionTemplate = transactionTemplate;
+        this.jdbc = jdbc;
     }
 
     /**
@@ -63,10 +79,55 @@ public class AuditService {
                 Instant.now()
         );
 
+        write(
+                () -> transactionTemplate.executeWithoutResult(status -> repo.saveAndFlush(event)),
+                action,
+                statementId,
+                customerId
+        );
+    }
+
+    /**
+     * Logs one audit event per entry, written as a single JDBC batch in one transaction.
+     *
+     * @param entries   the audited actions
+     * @param ip        the client's IP address
+     * @param userAgent the client's User-Agent
+     */
+    public void logAll(List<Entry> entries, String ip, String userAgent) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        write(
+                () -> transactionTemplate.executeWithoutResult(status -> jdbc.batchUpdate(
+                        """
+                        INSERT INTO audit_events (id, customer_id, action, statement_id, ip, user_agent, created_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        """,
+                        entries,
+                        INSERT_BATCH_SIZE,
+                        (ps, entry) -> {
+                            ps.setObject(1, UUID.randomUUID());
+                            ps.setString(2, entry.customerId());
+                            ps.setString(3, entry.action());
+                            ps.setObject(4, entry.statementId());
+                            ps.setString(5, ip);
+                            ps.setString(6, userAgent);
+                            ps.setTimestamp(7, createdAt);
+                        }
+                )),
+                "batch of " + entries.size(),
+                null,
+                null
+        );
+    }
+
+    private void write(Runnable insert, String action, UUID statementId, String customerId) {
         RuntimeException lastFailure = null;
         for (int attempt = 1; attempt <= properties.maxAttempts(); attempt++) {
             try {
-                transactionTemplate.executeWithoutResult(status -> repo.saveAndFlush(event));
+                insert.run();
                 return;
             } catch (RuntimeException failure) {
                 lastFailure = failure;
@@ -116,4 +177,14 @@ public class AuditService {
         template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         return template;
     }
+
+    /**
+     * One audited action in a {@link #logAll} batch.
+     *
+     * @param customerId  the ID of the customer
+     * @param action      the action being performed
+     * @param statementId the ID of the statement involved
+     */
+    public record Entry(String customerId, String action, UUID statementId) {
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.statement_service.service;
+
+import java.time.LocalDate;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * One statement in a bulk upload.
+ *
+ * @param file        the name of the multipart part holding the PDF, echoed back in the result
+ * @param customerId  the ID of the customer the statement belongs to
+ * @param accountId   the ID of the account the statement belongs to
+ * @param periodStart the start date of the statement period
+ * @param periodEnd   the end date of the statement period
+ * @param pdf         the PDF part, or {@code null} if the request has no part with that name
+ */
+public record BulkUploadItem(
+        String file,
+        String customerId,
+        String accountId,
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        MultipartFile pdf
+) {
+}
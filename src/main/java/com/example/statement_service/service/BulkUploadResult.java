@@ -0,0 +1,50 @@
+package com.example.statement_service.service;
+
+import com.example.statement_service.domain.Statement;
+
+/**
+ * The outcome of one statement in a bulk upload.
+ *
+ * @param file      the name of the multipart part or the key of the staged object holding the PDF
+ * @param outcome   what happened to the statement
+ * @param statement the created or existing statement, or {@code null} if the item was not stored
+ * @param error     why the item was not stored, or {@code null}
+ */
+public record BulkUploadResult(
+        String file,
+        Outcome outcome,
+        Statement statement,
+        String error
+) {
+
+    public enum Outcome {
+        /** A new statement was stored. */
+        CREATED,
+        /** The statement already existed, so nothing was stored. */
+        EXISTING,
+        /** The item failed validation and can only succeed once corrected. */
+        REJECTED,
+        /** Storing the item failed and may succeed when retried. */
+        FAILED
+    }
+
+    static BulkUploadResult created(String file, Statement statement) {
+        return new BulkUploadResult(file, Outcome.CREATED, statement, null);
+    }
+
+    static BulkUploadResult existing(String file, Statement statement) {
+        return new BulkUploadResult(file, Outcome.EXISTING, statement, null);
+    }
+
+    static BulkUploadResult rejected(String file, String error) {
+        return new BulkUploadResult(file, Outcome.REJECTED, null, error);
+    }
+
+    static BulkUploadResult failed(String file, String error) {
+        return new BulkUploadResult(file, Outcome.FAILED, null, error);
+    }
+
+    public boolean stored() {
+        return statement != null;
+    }
+}
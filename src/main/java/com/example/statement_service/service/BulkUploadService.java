@@ -0,0 +1,387 @@
+package com.example.statement_service.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.StatementBlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Uploads many statements in one call.
+ * <p>
+ * Items are validated and hashed in parallel, checked against existing statements with a single query, stored in S3
+ * concurrently, and inserted with one JDBC batch whose {@code ON CONFLICT DO NOTHING} resolves races with concurrent
+ * uploads. Every item gets its own result; one bad item never fails the others.
+ */
+@Service
+public class BulkUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUploadService.class);
+    private static final int BULK_INSERT_BATCH_SIZE = 500;
+
+    private final StatementRepository statementRepo;
+    private final StatementWriter writer;
+    private final UploadValidator validator;
+    private final StatementBlobStore blobs;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementMetrics metrics;
+    private final UploadProperties.Bulk properties;
+
+    BulkUploadService(
+            StatementRepository statementRepo,
+            StatementWriter writer,
+            UploadValidator validator,
+            StatementBlobStore blobs,
+            JdbcTemplate jdbc,
+            TransactionTemplate transactionTemplate,
+            StatementMetrics metrics,
+            UploadProperties uploadProperties
+    ) {
+        this.statementRepo = statementRepo;
+        this.writer = writer;
+        this.validator = validator;
+        this.blobs = blobs;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.properties = uploadProperties.bulk();
+    }
+
+    /**
+     * Uploads the items and reports the outcome of each.
+     * <p>
+     * In content-addressed mode each distinct digest is stored at most once per batch, digests that are already
+     * referenced are not stored at all, and the blob references are added in the insert transaction.
+     *
+     * @throws BadRequestException if the request lists no items or more than the configured maximum
+     */
+    public List<BulkUploadResult> uploadBulk(List<BulkUploadItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("At least one statement is required");
+        }
+        if (items.size() > properties.maxItems()) {
+            throw new BadRequestException("At most " + properties.maxItems() + " statements can be uploaded at once");
+        }
+
+        BulkUploadResult[] results = new BulkUploadResult[items.size()];
+        Statement[] candidates = new Statement[items.size()];
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(properties.concurrency());
+            runBounded(workers, permits, items.size(), i -> {
+                try {
+                    candidates[i] = prepareBulkItem(items.get(i));
+                } catch (BadRequestException e) {
+                    results[i] = BulkUploadResult.rejected(items.get(i).file(), e.getMessage());
+                } catch (Exception e) {
+                    log.warn("Failed to read bulk upload item file={}", items.get(i).file(), e);
+                    results[i] = BulkUploadResult.failed(items.get(i).file(), "Failed to read PDF file");
+                }
+            });
+
+            // Later items with the same idempotency key as an earlier one reuse its outcome instead of storing twice.
+            Map<IdempotencyKey, Statement> existing = findExistingStatements(candidates);
+            Map<IdempotencyKey, Integer> firstIndexByKey = new HashMap<>();
+            int[] sameAs = new int[items.size()];
+            List<Integer> toStore = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                sameAs[i] = -1;
+                if (candidates[i] == null) {
+                    continue;
+                }
+                IdempotencyKey key = IdempotencyKey.of(candidates[i]);
+                Statement match = existing.get(key);
+                Integer first = firstIndexByKey.putIfAbsent(key, i);
+                if (match != null) {
+                    results[i] = BulkUploadResult.existing(items.get(i).file(), match);
+                } else if (first != null) {
+                    sameAs[i] = first;
+                } else {
+                    toStore.add(i);
+                }
+            }
+
+            // Per-statement keys are unique, so only content-addressed items ever share an upload.
+            Map<String, List<Integer>> byObjectKey = new LinkedHashMap<>();
+            for (int i : toStore) {
+                byObjectKey.computeIfAbsent(candidates[i].getObjectKey(), key -> new ArrayList<>()).add(i);
+            }
+            boolean contentAddressed = writer.contentAddressed();
+            Set<String> referenced = contentAddressed
+                    ? blobs.referenced(toStore.stream().map(i -> candidates[i].getSha256()).toList())
+                    : Set.of();
+            List<List<Integer>> uploads = byObjectKey.values().stream()
+                    .filter(group -> !referenced.contains(candidates[group.get(0)].getSha256()))
+                    .toList();
+            if (contentAddressed) {
+                toStore.stream()
+                        .filter(i -> referenced.contains(candidates[i].getSha256()))
+                        .forEach(i -> metrics.uploadDeduplicated());
+            }
+
+            writer.recordIntents(uploads.stream()
+                    .map(group -> candidates[group.get(0)].getObjectKey())
+                    .filter(objectKey -> !StatementBlobStore.isBlobKey(objectKey))
+                    .toList());
+            runBounded(workers, permits, uploads.size(), n -> {
+                List<Integer> group = uploads.get(n);
+                int i = group.get(0);
+                try {
+                    if (contentAddressed) {
+                        blobs.reserve(candidates[i].getSha256(), candidates[i].getSizeBytes());
+                    }
+                    writer.uploadToS3(
+                            StatementWriter.reopenable(items.get(i).pdf()), candidates[i].getSizeBytes(), candidates[i].getObjectKey()
+                    );
+                } catch (Exception e) {
+                    log.warn("Failed to store bulk upload item file={} key={}", items.get(i).file(), candidates[i].getObjectKey(), e);
+                    group.forEach(member -> results[member] = BulkUploadResult.failed(items.get(member).file(), "Failed to store PDF file"));
+                }
+            });
+
+            List<Integer> stored = toStore.stream().filter(i -> results[i] == null).toList();
+            insertBulkStatements(items, candidates, stored, results);
+
+            for (int i = 0; i < items.size(); i++) {
+                if (sameAs[i] >= 0) {
+                    BulkUploadResult first = results[sameAs[i]];
+                    results[i] = first.stored()
+                            ? BulkUploadResult.existing(items.get(i).file(), first.statement())
+                            : new BulkUploadResult(items.get(i).file(), first.outcome(), null, first.error());
+                }
+            }
+        }
+
+        for (BulkUploadResult result : results) {
+            if (result.stored()) {
+                metrics.uploadSuccess();
+            } else {
+                metrics.uploadFailure();
+            }
+        }
+        return List.of(results);
+    }
+
+    private Statement prepareBulkItem(BulkUploadItem item) throws IOException {
+        validator.validateUpload(item.customerId(), item.accountId(), item.periodStart(), item.periodEnd(), item.pdf());
+        String sha256;
+        long size;
+        try (PdfUploadStream in = validator.open(item.pdf().getInputStream())) {
+            in.verifyPdfSignature();
+            in.transferTo(OutputStream.nullOutputStream());
+            sha256 = in.sha256Hex();
+            size = in.bytesRead();
+        }
+        UUID id = UUID.randomUUID();
+        return new Statement(
+                id, item.customerId(), item.accountId(), item.periodStart(), item.periodEnd(),
+                writer.storageKey(item.customerId(), item.accountId(), item.periodStart(), id, sha256), "application/pdf",
+                size, sha256, Instant.now(), StatementStatus.ACTIVE
+        );
+    }
+
+    private Map<IdempotencyKey, Statement> findExistingStatements(Statement[] candidates) {
+        Set<String> customerIds = new HashSet<>();
+        Set<String> sha256s = new HashSet<>();
+        for (Statement candidate : candidates) {
+            if (candidate != null) {
+                customerIds.add(candidate.getCustomerId());
+                sha256s.add(candidate.getSha256());
+            }
+        }
+        if (customerIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<IdempotencyKey, Statement> existing = new HashMap<>();
+        for (Statement statement : statementRepo.findIdempotencyCandidates(customerIds, sha256s)) {
+            existing.put(IdempotencyKey.of(statement), statement);
+        }
+        return existing;
+    }
+
+    private void insertBulkStatements(
+            List<BulkUploadItem> items,
+            Statement[] candidates,
+            List<Integer> stored,
+            BulkUploadResult[] results
+    ) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[][] inserted = jdbc.batchUpdate(
+                        """
+                        INSERT INTO statements (
+                            id, customer_id, account_id, period_start, period_end, object_key,
+                            content_type, size_bytes, sha256, uploaded_at, status
+                        )
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                        ON CONFLICT DO NOTHING
+                        """,
+                        stored,
+                        BULK_INSERT_BATCH_SIZE,
+                        (ps, i) -> {
+                            Statement s = candidates[i];
+                            ps.setObject(1, s.getId());
+                            ps.setString(2, s.getCustomerId());
+                            ps.setString(3, s.getAccountId());
+                            ps.setObject(4, s.getPeriodStart());
+                            ps.setObject(5, s.getPeriodEnd());
+                            ps.setString(6, s.getObjectKey());
+                            ps.setString(7, s.getContentType());
+                            ps.setLong(8, s.getSizeBytes());
+                            ps.setString(9, s.getSha256());
+                            ps.setTimestamp(10, Timestamp.from(s.getUploadedAt()));
+                            ps.setString(11, s.getStatus().name());
+                        }
+                );
+                List<Statement> insertedStatements = insertedStatements(candidates, stored, inserted);
+                if (writer.contentAddressed()) {
+                    blobs.addReferences(blobReferences(candidates, stored, inserted));
+                } else {
+                    writer.resolveIntents(insertedStatements.stream().map(Statement::getObjectKey).toList());
+                }
+                writer.publishChange(StatementChange.UPLOADED, insertedStatements.stream().map(Statement::getId).toList());
+                return inserted;
+            });
+        } catch (RuntimeException dbFailure) {
+            log.warn("Failed to insert bulk upload statements count={}", stored.size(), dbFailure);
+            for (int i : stored) {
+                writer.discardUploadedObject(candidates[i]);
+                results[i] = BulkUploadResult.failed(items.get(i).file(), "Failed to save statement metadata");
+            }
+            return;
+        }
+
+        List<Integer> conflicts = new ArrayList<>();
+        int n = 0;
+        for (int[] batch : counts == null ? new int[0][] : counts) {
+            for (int count : batch) {
+                int i = stored.get(n++);
+                // SUCCESS_NO_INFO only appears with driver-side batch rewriting, which would also hide conflicts.
+                if (count == 0) {
+                    conflicts.add(i);
+                } else {
+                    results[i] = BulkUploadResult.created(items.get(i).file(), candidates[i]);
+                    writer.cacheStatement(candidates[i]);
+                }
+            }
+        }
+        if (conflicts.isEmpty()) {
+            return;
+        }
+
+        Statement[] conflicting = new Statement[candidates.length];
+        conflicts.forEach(i -> conflicting[i] = candidates[i]);
+        Map<IdempotencyKey, Statement> winners = findExistingStatements(conflicting);
+        for (int i : conflicts) {
+            writer.discardUploadedObject(candidates[i]);
+            Statement winner = winners.get(IdempotencyKey.of(candidates[i]));
+            results[i] = winner == null
+                    ? BulkUploadResult.failed(items.get(i).file(), "Failed to save statement metadata")
+                    : BulkUploadResult.existing(items.get(i).file(), winner);
+        }
+    }
+
+    private static List<Statement> insertedStatements(Statement[] candidates, List<Integer> stored, int[][] counts) {
+        List<Statement> inserted = new ArrayList<>();
+        int n = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Statement s = candidates[stored.get(n++)];
+                if (count != 0) {
+                    inserted.add(s);
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static List<StatementBlobStore.Reference> blobReferences(
+            Statement[] candidates,
+            List<Integer> stored,
+            int[][] counts
+    ) {
+        // Sorted by digest so concurrent batches lock blob rows in the same order and cannot deadlock.
+        Map<String, StatementBlobStore.Reference> references = new TreeMap<>();
+        int n = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Statement s = candidates[stored.get(n++)];
+                if (count != 0) {
+                    references.merge(
+                            s.getSha256(),
+                            new StatementBlobStore.Reference(s.getSha256(), s.getSizeBytes(), 1),
+                            (a, b) -> new StatementBlobStore.Reference(a.sha256(), a.sizeBytes(), a.count() + b.count())
+                    );
+                }
+            }
+        }
+        return List.copyOf(references.values());
+    }
+
+    private static void runBounded(ExecutorService workers, Semaphore permits, int count, IntConsumer task) {
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(workers.submit(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.accept(index);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing bulk upload", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk upload worker failed", e.getCause());
+            }
+        }
+    }
+
+    private record IdempotencyKey(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String sha256
+    ) {
+        static IdempotencyKey of(Statement s) {
+            return new IdempotencyKey(s.getCustomerId(), s.getAccountId(), s.getPeriodStart(), s.getPeriodEnd(), s.getSha256());
+        }
+    }
+}
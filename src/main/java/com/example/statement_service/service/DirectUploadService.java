@@ -0,0 +1,358 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.S3Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+/**
+ * Registers statements whose PDF reaches S3 without passing through the service: objects clients PUT through a
+ * presigned URL, and objects an upstream producer staged in the bucket.
+ * <p>
+ * Both are validated from a HEAD with checksum mode and a ranged read of the PDF signature, so no payload byte is read
+ * by the service.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectUploadService.class);
+    private static final String IMPORT_METADATA_CUSTOMER_ID = "customer-id";
+    private static final String IMPORT_METADATA_ACCOUNT_ID = "account-id";
+    private static final String IMPORT_METADATA_PERIOD_START = "period-start";
+    private static final String IMPORT_METADATA_PERIOD_END = "period-end";
+
+    private final StatementRepository statementRepo;
+    private final StatementWriter writer;
+    private final UploadValidator validator;
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final S3Properties s3Props;
+    private final StatementMetrics metrics;
+
+    DirectUploadService(
+            StatementRepository statementRepo,
+            StatementWriter writer,
+            UploadValidator validator,
+            S3Client s3,
+            S3Presigner presigner,
+            S3Properties s3Props,
+            StatementMetrics metrics
+    ) {
+        this.statementRepo = statementRepo;
+        this.writer = writer;
+        this.validator = validator;
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.s3Props = s3Props;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Issues a presigned S3 PUT for a server-chosen object key so the PDF bytes bypass the application entirely.
+     * <p>
+     * The declared size and SHA-256 are signed into the URL as {@code Content-Length} and
+     * {@code x-amz-checksum-sha256}, so S3 rejects any body that does not match them. The statement row is only
+     * written by {@link #finalizePresignedUpload}.
+     */
+    public PresignedUpload presignUpload(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            long sizeBytes,
+            String sha256,
+            Duration ttl
+    ) {
+        validator.validateMetadata("customerId", customerId);
+        validator.validateMetadata("accountId", accountId);
+        validator.validatePeriod(periodStart, periodEnd);
+        validator.validateDeclaredContent(sizeBytes, sha256);
+
+        UUID uploadId = UUID.randomUUID();
+        String objectKey = StatementWriter.objectKey(customerId, accountId, periodStart, uploadId);
+        // The client writes the object later, so the intent is logged before the URL is handed out.
+        writer.recordIntents(List.of(objectKey));
+        PutObjectRequest put = PutObjectRequest.builder()
+                .bucket(s3Props.bucket())
+                .key(objectKey)
+                .contentType("application/pdf")
+                .contentLength(sizeBytes)
+                .checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256)))
+                .build();
+
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(put)
+                .build());
+
+        // The HTTP client adds Host itself; every other signed header must be sent exactly as signed.
+        Map<String, List<String>> headers = new LinkedHashMap<>(presigned.signedHeaders());
+        headers.keySet().removeIf(name -> name.equalsIgnoreCase("host"));
+        return new PresignedUpload(uploadId, presigned.url().toString(), Map.copyOf(headers), presigned.expiration());
+    }
+
+    /**
+     * Writes the statement row for an object uploaded through {@link #presignUpload}.
+     * <p>
+     * The stored object is checked against the declared size and S3's native SHA-256 checksum, and its first bytes
+     * are read with a ranged GET to confirm the PDF signature. Finalizing the same upload again returns the
+     * statement already written for it; finalizing a duplicate of an existing statement deletes the new object and
+     * returns the existing statement, as a regular upload does.
+     */
+    public Statement finalizePresignedUpload(
+            UUID uploadId,
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            long sizeBytes,
+            String sha256
+    ) {
+        try {
+            validator.validateMetadata("customerId", customerId);
+            validator.validateMetadata("accountId", accountId);
+            validator.validatePeriod(periodStart, periodEnd);
+            validator.validateDeclaredContent(sizeBytes, sha256);
+            return finalizeValidated(
+                    uploadId, customerId, accountId, periodStart, periodEnd, sizeBytes, sha256.toLowerCase(Locale.ROOT)
+            );
+        } catch (BadRequestException | NotFoundException e) {
+            metrics.uploadFailure();
+            throw e;
+        } catch (Exception e) {
+            metrics.uploadFailure();
+            throw new RuntimeException("Failed to finalize statement upload", e);
+        }
+    }
+
+    private Statement finalizeValidated(
+            UUID uploadId,
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            long sizeBytes,
+            String sha256
+    ) {
+        String objectKey = StatementWriter.objectKey(customerId, accountId, periodStart, uploadId);
+
+        var finalized = statementRepo.findById(uploadId);
+        if (finalized.isPresent()) {
+            if (!finalized.get().getObjectKey().equals(objectKey) || !finalized.get().getSha256().equals(sha256)) {
+                throw new BadRequestException("Upload was already finalized with different metadata");
+            }
+            metrics.uploadSuccess();
+            return finalized.get();
+        }
+
+        HeadObjectResponse head = headUploadedObject(objectKey);
+        if (head == null) {
+            // A retried finalize of a duplicate upload finds the object already removed by the first attempt.
+            var existing = writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256);
+            if (existing.isEmpty()) {
+                throw new NotFoundException("Uploaded object not found");
+            }
+            metrics.uploadSuccess();
+            return existing.get();
+        }
+        Statement statement = new Statement(
+                uploadId, customerId, accountId, periodStart, periodEnd,
+                objectKey, "application/pdf", head.contentLength(), sha256,
+                Instant.now(), StatementStatus.ACTIVE
+        );
+
+        if (head.contentLength() > validator.maxUploadBytes()) {
+            writer.discardUploadedObject(statement);
+            throw new BadRequestException(validator.uploadLimitMessage());
+        }
+        if (head.contentLength() != sizeBytes || !sha256.equals(storedSha256Hex(head))) {
+            writer.discardUploadedObject(statement);
+            throw new BadRequestException("Uploaded object does not match the declared size and SHA-256");
+        }
+        if (!PdfUploadStream.hasPdfSignature(readObjectHeader(objectKey, head.eTag()))) {
+            writer.discardUploadedObject(statement);
+            throw new BadRequestException("PDF file is missing a valid PDF signature");
+        }
+
+        var existing = writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256);
+        if (existing.isPresent()) {
+            writer.discardUploadedObject(statement);
+            metrics.uploadSuccess();
+            return existing.get();
+        }
+        Statement saved = writer.persistStatement(statement);
+        metrics.uploadSuccess();
+        return saved;
+    }
+
+    /**
+     * Registers a PDF that an upstream producer already put into the bucket by copying it server-side into the
+     * statement key layout. The source object is left in place.
+     * <p>
+     * The statement metadata comes from the object's {@code customer-id}, {@code account-id}, {@code period-start}
+     * and {@code period-end} user metadata. The copy is conditional on the ETag that was validated, and is skipped in
+     * content-addressed mode when the digest is already referenced.
+     *
+     * @param stagingKey the key of the staged object
+     * @return the outcome; {@code REJECTED} if the object can only be imported once corrected
+     */
+    public BulkUploadResult importStagedObject(String stagingKey) {
+        try {
+            BulkUploadResult result = importValidated(stagingKey);
+            metrics.uploadSuccess();
+            return result;
+        } catch (BadRequestException e) {
+            metrics.uploadFailure();
+            return BulkUploadResult.rejected(stagingKey, e.getMessage());
+        } catch (S3Exception e) {
+            metrics.uploadFailure();
+            if (e.statusCode() == 412) {
+                return BulkUploadResult.failed(stagingKey, "Staged object changed during import");
+            }
+            log.warn("Failed to import staged object key={}", stagingKey, e);
+            return BulkUploadResult.failed(stagingKey, "Failed to import staged object");
+        } catch (RuntimeException e) {
+            metrics.uploadFailure();
+            log.warn("Failed to import staged object key={}", stagingKey, e);
+            return BulkUploadResult.failed(stagingKey, "Failed to import staged object");
+        }
+    }
+
+    private BulkUploadResult importValidated(String stagingKey) {
+        HeadObjectResponse head = headUploadedObject(stagingKey);
+        if (head == null) {
+            throw new BadRequestException("Staged object not found");
+        }
+        Map<String, String> metadata = head.metadata();
+        String customerId = metadata.get(IMPORT_METADATA_CUSTOMER_ID);
+        String accountId = metadata.get(IMPORT_METADATA_ACCOUNT_ID);
+        validator.validateMetadata("customerId", customerId);
+        validator.validateMetadata("accountId", accountId);
+        LocalDate periodStart = importDate(metadata, IMPORT_METADATA_PERIOD_START);
+        LocalDate periodEnd = importDate(metadata, IMPORT_METADATA_PERIOD_END);
+        validator.validatePeriod(periodStart, periodEnd);
+        validator.validateContentType(head.contentType());
+        if (head.contentLength() == null || head.contentLength() <= 0) {
+            throw new BadRequestException("PDF file is required");
+        }
+        validator.validateSize(head.contentLength());
+        String sha256 = storedSha256Hex(head);
+        if (sha256 == null) {
+            throw new BadRequestException("Staged object has no full-object SHA-256 checksum");
+        }
+        if (!PdfUploadStream.hasPdfSignature(readObjectHeader(stagingKey, head.eTag()))) {
+            throw new BadRequestException("PDF file is missing a valid PDF signature");
+        }
+
+        var existing = writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256);
+        if (existing.isPresent()) {
+            return BulkUploadResult.existing(stagingKey, existing.get());
+        }
+
+        UUID id = UUID.randomUUID();
+        String objectKey = writer.storageKey(customerId, accountId, periodStart, id, sha256);
+        if (writer.shouldStore(objectKey, sha256, head.contentLength())) {
+            s3.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(s3Props.bucket())
+                    .sourceKey(stagingKey)
+                    .destinationBucket(s3Props.bucket())
+                    .destinationKey(objectKey)
+                    .copySourceIfMatch(head.eTag())
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType("application/pdf")
+                    .checksumAlgorithm(ChecksumAlgorithm.SHA256)
+                    .build());
+        }
+
+        Statement statement = new Statement(
+                id, customerId, accountId, periodStart, periodEnd,
+                objectKey, "application/pdf", head.contentLength(), sha256,
+                Instant.now(), StatementStatus.ACTIVE
+        );
+        Statement saved = writer.persistStatement(statement);
+        return saved.getId().equals(id)
+                ? BulkUploadResult.created(stagingKey, saved)
+                : BulkUploadResult.existing(stagingKey, saved);
+    }
+
+    private static LocalDate importDate(Map<String, String> metadata, String name) {
+        String value = metadata.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException(name + " must be an ISO date");
+        }
+    }
+
+    private HeadObjectResponse headUploadedObject(String objectKey) {
+        try {
+            return s3.headObject(HeadObjectRequest.builder()
+                    .bucket(s3Props.bucket())
+                    .key(objectKey)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static String storedSha256Hex(HeadObjectResponse head) {
+        String checksum = head.checksumSHA256();
+        // Multipart objects carry a composite "<digest>-<parts>" checksum, which is not the SHA-256 of the content.
+        if (checksum == null || checksum.contains("-")) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(Base64.getDecoder().decode(checksum));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] readObjectHeader(String objectKey, String eTag) {
+        return s3.getObjectAsBytes(GetObjectRequest.builder()
+                .bucket(s3Props.bucket())
+                .key(objectKey)
+                .ifMatch(eTag)
+                .range("bytes=0-" + (PdfUploadStream.signatureLength() - 1))
+                .build()).asByteArray();
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.statement_service.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.ratelimit.RateLimitProperties;
+import com.example.statement_service.ratelimit.RateLimitUpsert;
+import com.example.statement_service.ratelimit.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authorizes a single statement download: checks ownership and status, consumes the statement's download-link quota
+ * and writes the audit event.
+ * <p>
+ * All three happen in one PostgreSQL statement whose data-modifying CTEs share one connection checkout and commit
+ * atomically, so a download link costs one round-trip instead of a lookup, a rate-limit transaction and a separate
+ * audit transaction. The quota is counted where {@link RateLimiter} counts it: in {@code rate_limit_windows}, or by
+ * {@link RateLimitUpsert} under the statement ID in the {@code UPSERT} database mode and for the sliding-window and
+ * GCRA algorithms. If that statement cannot reach the database, the same checks run step by step through
+ * {@link StatementService}, {@link RateLimiter} and {@link AuditService}, which apply the configured rate-limit
+ * failure mode and audit retries. Any other failure is rethrown: the statement runs in autocommit, so once it got as
+ * far as the quota and audit writes, checking again would charge the quota and write the audit event twice.
+ * <p>
+ * With the {@code MEMORY} and {@code LEASED} rate-limit backends the quota is not counted per request in the database,
+ * so the checks always run step by step: the statement usually comes from {@link StatementMetadataCache}, and only the
+ * audit event is written.
+ */
+@Component
+public class DownloadLinkAuthorizer {
+
+    private static final Logger log = LoggerFactory.getLogger(DownloadLinkAuthorizer.class);
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+
+    private static final String AUTHORIZE_SQL = """
+            WITH target AS (
+                SELECT id, customer_id, object_key, size_bytes, sha256, status
+                FROM statements
+                WHERE id = ?%s
+            ),
+            quota AS (%s),
+            audit AS (
+                INSERT INTO audit_events (id, customer_id, action, statement_id, ip, user_agent, created_at)
+                SELECT ?, target.customer_id, ?, target.id, ?, ?, ?
+                FROM target CROSS JOIN quota
+                WHERE quota.request_count <= ?
+                RETURNING id
+            )
+            SELECT target.customer_id, target.object_key, target.size_bytes, target.sha256, target.status, quota.request_count
+            FROM target LEFT JOIN quota ON TRUE
+            """;
+    private static final String WINDOWS_QUOTA_SQL = """
+                INSERT INTO rate_limit_windows (rate_limit_key, window_started_at, request_count)
+                SELECT ?, ?, 1 FROM target WHERE status = 'ACTIVE'
+                ON CONFLICT (rate_limit_key) DO UPDATE
+                SET window_started_at = CASE
+                        WHEN rate_limit_windows.window_started_at < ? THEN EXCLUDED.window_started_at
+                        ELSE rate_limit_windows.window_started_at
+                    END,
+                    request_count = CASE
+                        WHEN rate_limit_windows.window_started_at < ? THEN 1
+                        ELSE rate_limit_windows.request_count + 1
+                    END,
+                    updated_at = CURRENT_TIMESTAMP
+                RETURNING request_count
+            """;
+    private record Row(
+            String customerId,
+            String objectKey,
+            long sizeBytes,
+            String sha256,
+            StatementStatus status,
+            Integer requestCount
+    ) {
+    }
+
+    /**
+     * A download the caller may perform.
+     *
+     * @param statementId the statement being downloaded
+     * @param customerId  the statement's owner
+     * @param objectKey   the S3 key of the statement's PDF
+     * @param sizeBytes   the size of the PDF
+     * @param sha256      the hex SHA-256 of the PDF
+     */
+    public record Grant(UUID statementId, String customerId, String objectKey, long sizeBytes, String sha256) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final RateLimitProperties rateLimits;
+    private final StatementService statements;
+    private final RateLimiter rateLimiter;
+    private final AuditService auditService;
+    private final StatementMetrics metrics;
+    private final StatementIdFilter idFilter;
+    private final Clock clock;
+    private final RateLimitUpsert upsert;
+    private final String adminSql;
+    private final String customerSql;
+
+    @Autowired
+    public DownloadLinkAuthorizer(
+            JdbcTemplate jdbc,
+            RateLimitProperties rateLimits,
+            StatementService statements,
+            RateLimiter rateLimiter,
+            AuditService auditService,
+            StatementMetrics metrics,
+            StatementIdFilter idFilter
+    ) {
+        this(jdbc, rateLimits, statements, rateLimiter, auditService, metrics, idFilter, Clock.systemUTC());
+    }
+
+    DownloadLinkAuthorizer(
+            JdbcTemplate jdbc,
+            RateLimitProperties rateLimits,
+            StatementService statements,
+            RateLimiter rateLimiter,
+            AuditService auditService,
+            StatementMetrics metrics,
+            StatementIdFilter idFilter,
+            Clock clock
+    ) {
+        this.jdbc = jdbc;
+        this.rateLimits = rateLimits;
+        this.statements = statements;
+        this.rateLimiter = rateLimiter;
+        this.auditService = auditService;
+        this.metrics = metrics;
+        this.idFilter = idFilter;
+        this.clock = clock;
+        this.upsert = rateLimits.countsWithUpsert() ? new RateLimitUpsert(rateLimits) : null;
+        String quotaSql = upsert == null
+                ? WINDOWS_QUOTA_SQL
+                : upsert.sql("SELECT CAST(? AS UUID) AS key_id FROM target WHERE status = 'ACTIVE'");
+        this.adminSql = AUTHORIZE_SQL.formatted("", quotaSql);
+        this.customerSql = AUTHORIZE_SQL.formatted(" AND customer_id = ?", quotaSql);
+    }
+
+    /**
+     * The rate-limit key of a statement's download-link quota.
+     */
+    public static String quotaKey(UUID statementId) {
+        return "download-link:" + statementId;
+    }
+
+    /**
+     * Authorizes a download of a statement and records it in the audit log.
+     *
+     * @param statementId the statement to download
+     * @param customerId  the calling customer, or {@code null} for an admin, who may download any statement
+     * @param action      the audit action, such as {@code GENERATE_LINK}
+     * @param ip          the client's IP address
+     * @param userAgent   the client's User-Agent
+     * @return the authorized download
+     * @throws NotFoundException        if the statement does not exist or belongs to another customer
+     * @throws BadRequestException      if the statement is not available for download
+     * @throws TooManyRequestsException if the statement's download-link quota is used up
+     */
+    public Grant authorize(UUID statementId, String customerId, String action, String ip, String userAgent) {
+        if (idFilter.isDefinitelyUnknown(statementId)) {
+            throw new NotFoundException("Statement not found");
+        }
+        if (rateLimits.backend() != RateLimitProperties.Backend.DATABASE) {
+            return authorizeStepByStep(statementId, customerId, action, ip, userAgent);
+        }
+        List<Row> rows;
+        try {
+            rows = authorizeInOneStatement(statementId, customerId, action, ip, userAgent);
+        } catch (TransientDataAccessException | CannotGetJdbcConnectionException e) {
+            log.warn("Single-statement download authorization failed statementId={}, checking step by step", statementId, e);
+            return authorizeStepByStep(statementId, customerId, action, ip, userAgent);
+        }
+
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Statement not found");
+        }
+        Row row = rows.getFirst();
+        if (row.status() != StatementStatus.ACTIVE) {
+            throw new BadRequestException("Statement is not available for download");
+        }
+        if (row.requestCount() == null || row.requestCount() > rateLimits.limit()) {
+            throw rateLimited();
+        }
+        return new Grant(statementId, row.customerId(), row.objectKey(), row.sizeBytes(), row.sha256());
+    }
+
+    private List<Row> authorizeInOneStatement(UUID statementId, String customerId, String action, String ip, String userAgent) {
+        Instant now = clock.instant();
+        Timestamp windowCutoff = Timestamp.from(now.minusSeconds(rateLimits.windowSeconds()));
+        return jdbc.query(
+                customerId == null ? adminSql : customerSql,
+                ps -> {
+                    int i = 1;
+                    ps.setObject(i++, statementId);
+                    if (customerId != null) {
+                        ps.setString(i++, customerId);
+                    }
+                    if (upsert == null) {
+                        ps.setString(i++, quotaKey(statementId));
+                        ps.setTimestamp(i++, Timestamp.from(now));
+                        ps.setTimestamp(i++, windowCutoff);
+                        ps.setTimestamp(i++, windowCutoff);
+                    } else {
+                        i = upsert.bind(ps, i, now, statementId);
+                    }
+                    ps.setObject(i++, UUID.randomUUID());
+                    ps.setString(i++, action);
+                    ps.setString(i++, ip);
+                    ps.setString(i++, truncate(userAgent));
+                    ps.setTimestamp(i++, Timestamp.from(now));
+                    ps.setInt(i, rateLimits.limit());
+                },
+                (rs, rowNum) -> new Row(
+                        rs.getString("customer_id"),
+                        rs.getString("object_key"),
+                        rs.getLong("size_bytes"),
+                        rs.getString("sha256"),
+                        StatementStatus.valueOf(rs.getString("status")),
+                        rs.getObject("request_count", Integer.class)
+                )
+        );
+    }
+
+    private Grant authorizeStepByStep(UUID statementId, String customerId, String action, String ip, String userAgent) {
+        Statement s = customerId == null
+                ? statements.getForAdmin(statementId)
+                : statements.getForCustomer(statementId, customerId);
+        statements.validateDownloadable(s);
+        if (!rateLimiter.tryConsume(quotaKey(statementId))) {
+            throw rateLimited();
+        }
+        auditService.log(s.getCustomerId(), action, s.getId(), ip, userAgent);
+        return new Grant(s.getId(), s.getCustomerId(), s.getObjectKey(), s.getSizeBytes(), s.getSha256());
+    }
+
+    private TooManyRequestsException rateLimited() {
+        metrics.downloadLinkRateLimited();
+        return new TooManyRequestsException("Too many download-link requests, please retry later.");
+    }
+
+    private static String truncate(String userAgent) {
+        return userAgent == null || userAgent.length() <= MAX_USER_AGENT_LENGTH
+                ? userAgent
+                : userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+}
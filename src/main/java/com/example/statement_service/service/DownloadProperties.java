@@ -0,0 +1,134 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.download")
+public record DownloadProperties(
+        UrlCache urlCache,
+        Ticket ticket,
+        Proxy proxy,
+        Archive archive
+) {
+
+    public DownloadProperties {
+        if (urlCache == null) {
+            urlCache = new UrlCache(false, 0, 0, 0);
+        }
+        if (ticket == null) {
+            ticket = new Ticket(false, null, 0);
+        }
+        if (proxy == null) {
+            proxy = new Proxy(false, 0, 0, 0);
+        }
+        if (archive == null) {
+            archive = new Archive(0);
+        }
+    }
+
+    /**
+     * Reuse of presigned download URLs.
+     *
+     * @param enabled              whether presigned URLs are cached
+     * @param maxEntries           the most URLs kept; the least recently used one is evicted beyond that
+     * @param ttlBucketSeconds     the width of the TTL ranges that share a cached URL
+     * @param minRemainingFraction the share of the requested TTL a cached URL must still be valid for
+     */
+    public record UrlCache(
+            boolean enabled,
+            int maxEntries,
+            long ttlBucketSeconds,
+            double minRemainingFraction
+    ) {
+
+        public UrlCache {
+            if (maxEntries <= 0) {
+                maxEntries = 10000;
+            }
+            if (ttlBucketSeconds <= 0) {
+                ttlBucketSeconds = 60;
+            }
+            if (minRemainingFraction <= 0 || minRemainingFraction > 1) {
+                minRemainingFraction = 0.5;
+            }
+        }
+
+        public Duration ttlBucket() {
+            return Duration.ofSeconds(ttlBucketSeconds);
+        }
+    }
+
+    /**
+     * Signed download tickets, which let the redirect endpoint skip the database.
+     *
+     * @param enabled                       whether download links also return a ticket
+     * @param secretBase64                  the HMAC-SHA256 key of at least 32 bytes, shared by all instances
+     * @param maxRevocationStalenessSeconds how old the in-memory revocation set may get before tickets are checked
+     *                                      against the database again
+     */
+    public record Ticket(
+            boolean enabled,
+            String secretBase64,
+            long maxRevocationStalenessSeconds
+    ) {
+
+        public Ticket {
+            if (maxRevocationStalenessSeconds <= 0) {
+                maxRevocationStalenessSeconds = 30;
+            }
+        }
+
+        public Duration maxRevocationStaleness() {
+            return Duration.ofSeconds(maxRevocationStalenessSeconds);
+        }
+    }
+
+    /**
+     * Downloads streamed through the service instead of redirected to S3.
+     *
+     * @param byDefault            whether {@code GET /{id}/download} proxies when the request does not choose
+     * @param maxConcurrent        the most downloads streamed at once, each holding one transfer buffer
+     * @param bufferSizeBytes      the size of each transfer buffer
+     * @param acquireTimeoutMillis how long a download waits for a free buffer before it is rejected with 429
+     */
+    public record Proxy(
+            boolean byDefault,
+            int maxConcurrent,
+            int bufferSizeBytes,
+            long acquireTimeoutMillis
+    ) {
+
+        public Proxy {
+            if (maxConcurrent <= 0) {
+                maxConcurrent = 64;
+            }
+            if (bufferSizeBytes <= 0) {
+                bufferSizeBytes = 64 * 1024;
+            }
+            if (acquireTimeoutMillis < 0) {
+                acquireTimeoutMillis = 0;
+            }
+        }
+
+        public Duration acquireTimeout() {
+            return Duration.ofMillis(acquireTimeoutMillis);
+        }
+    }
+
+    /**
+     * ZIP archives of several statements.
+     *
+     * @param readAhead how many S3 objects after the one being written are already requested
+     */
+    public record Archive(
+            int readAhead
+    ) {
+
+        public Archive {
+            if (readAhead <= 0) {
+                readAhead = 4;
+            }
+        }
+    }
+}
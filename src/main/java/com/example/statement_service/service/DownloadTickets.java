@@ -0,0 +1,171 @@
+package com.example.statement_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues and redeems HMAC-signed download tickets.
+ * <p>
+ * A ticket names a statement, its owner, its object key and an expiry, so the redirect endpoint can presign the
+ * download without loading the statement. Issuing a ticket consumes quota and is audited like any download link;
+ * redeeming one touches no database. Revocation is checked against {@link RevokedStatements}, and a ticket is only
+ * honoured locally while that set is fresh.
+ */
+@Component
+public class DownloadTickets {
+
+    /** The longest a ticket lives, matching the longest download link. */
+    public static final Duration MAX_TTL = Duration.ofSeconds(900);
+
+    private static final String HMAC = "HmacSHA256";
+    private static final String VERSION = "1";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * A verified ticket.
+     *
+     * @param statementId the statement it grants a download of
+     * @param customerId  the statement's owner
+     * @param objectKey   the S3 key of the statement's PDF
+     * @param expiresAt   when the ticket stops being accepted
+     */
+    public record Ticket(UUID statementId, String customerId, String objectKey, Instant expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final Mac prototype;
+    private final RevokedStatements revoked;
+    private final Clock clock;
+
+    @Autowired
+    public DownloadTickets(DownloadProperties downloadProperties, RevokedStatements revoked) {
+        this(downloadProperties.ticket(), revoked, Clock.systemUTC());
+    }
+
+    DownloadTickets(DownloadProperties.Ticket properties, RevokedStatements revoked, Clock clock) {
+        this.enabled = properties.enabled();
+        this.prototype = enabled ? mac(properties.secretBase64()) : null;
+        this.revoked = revoked;
+        this.clock = clock;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Issues a ticket for an authorized download, valid until {@code expiresAt} but no longer than {@link #MAX_TTL}.
+     */
+    public String issue(UUID statementId, String customerId, String objectKey, Instant expiresAt) {
+        Instant latest = clock.instant().plus(MAX_TTL);
+        Instant expiry = expiresAt.isAfter(latest) ? latest : expiresAt;
+        String payload = String.join("\n", VERSION, statementId.toString(), customerId, objectKey,
+                Long.toString(expiry.getEpochSecond()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Redeems a ticket for a download of {@code statementId} by the caller.
+     *
+     * @param customerId the calling customer, or {@code null} for an admin, who may redeem any ticket
+     * @return the ticket, or empty if it cannot be honoured without the database, because it expired or the
+     *         revocation set is stale; callers then authorize the download as if no ticket had been sent
+     * @throws BadRequestException if the ticket is malformed, forged, for another statement or customer, or the
+     *                             statement was revoked
+     */
+    public Optional<Ticket> redeem(String token, UUID statementId, String customerId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Ticket ticket = verify(token);
+        if (!ticket.statementId().equals(statementId)
+                || (customerId != null && !Objects.equals(ticket.customerId(), customerId))) {
+            throw new BadRequestException("Download ticket does not match the statement");
+        }
+        if (!ticket.expiresAt().isAfter(clock.instant()) || !revoked.isFresh()) {
+            return Optional.empty();
+        }
+        if (revoked.isRevoked(statementId)) {
+            throw new BadRequestException("Statement is not available for download");
+        }
+        return Optional.of(ticket);
+    }
+
+    private Ticket verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            throw invalid();
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw invalid();
+        }
+
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 5 || !VERSION.equals(fields[0])) {
+            throw invalid();
+        }
+        try {
+            return new Ticket(UUID.fromString(fields[1]), fields[2], fields[3], Instant.ofEpochSecond(Long.parseLong(fields[4])));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            return ((Mac) prototype.clone()).doFinal(payload);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 does not support cloning", e);
+        }
+    }
+
+    private static BadRequestException invalid() {
+        return new BadRequestException("Invalid download ticket");
+    }
+
+    private static Mac mac(String secretBase64) {
+        byte[] secret;
+        try {
+            secret = secretBase64 == null ? new byte[0] : Base64.getDecoder().decode(secretBase64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("app.download.ticket.secret-base64 is not valid Base64", e);
+        }
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                    "app.download.ticket.secret-base64 must decode to at least " + MIN_SECRET_BYTES + " bytes"
+            );
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
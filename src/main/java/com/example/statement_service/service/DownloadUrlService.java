@@ -0,0 +1,39 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import com.example.statement_service.storage.StatementDownloadPresigner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Presigns statement downloads. Recently presigned URLs are reused from {@link PresignedUrlCache} while they stay
+ * valid for long enough, and new ones are signed locally by {@link StatementDownloadPresigner} with a cached signing
+ * key. No database access is needed, so no transaction is opened.
+ */
+@Service
+public class DownloadUrlService {
+
+    private final PresignedUrlCache downloadUrls;
+    private final StatementDownloadPresigner downloadPresigner;
+
+    public DownloadUrlService(PresignedUrlCache downloadUrls, StatementDownloadPresigner downloadPresigner) {
+        this.downloadUrls = downloadUrls;
+        this.downloadPresigner = downloadPresigner;
+    }
+
+    /**
+     * Presigns a download of a statement whose access was already authorized, for example by
+     * {@link DownloadLinkAuthorizer}.
+     */
+    public PresignedDownload presignDownloadUrl(UUID statementId, String objectKey, Duration ttl) {
+        return downloadUrls.get(statementId, objectKey, ttl, () -> presignDownload(objectKey, ttl));
+    }
+
+    private PresignedDownload presignDownload(String objectKey, Duration ttl) {
+        Instant signedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return new PresignedDownload(downloadPresigner.presignGetObject(objectKey, ttl, signedAt), signedAt.plus(ttl));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.statement_service.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Single-pass view over an uploaded PDF body.
+ * <p>
+ * Enforces the upload size limit and computes the SHA-256 digest while bytes are read, so callers can hand the
+ * stream straight to S3 without spooling it to disk first. The PDF signature can be checked up front with
+ * {@link #verifyPdfSignature()}, which peeks at the header bytes and replays them to the next reader.
+ * <p>
+ * Mark/reset is not supported: replaying bytes would corrupt the running digest.
+ */
+final class PdfUploadStream extends FilterInputStream {
+
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final MessageDigest digest;
+    private final long maxBytes;
+    private final String limitMessage;
+    private long bytesRead;
+    private byte[] sha256;
+    private byte[] peeked = new byte[0];
+    private int peekedPosition;
+
+    PdfUploadStream(InputStream in, long maxBytes, String limitMessage) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.limitMessage = limitMessage;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Reads the PDF header and rejects the upload before any byte leaves the process when it is not a PDF.
+     */
+    void verifyPdfSignature() throws IOException {
+        if (bytesRead > 0) {
+            throw new IllegalStateException("PDF signature must be verified before the body is consumed");
+        }
+        byte[] header = in.readNBytes(PDF_SIGNATURE.length);
+        count(header, 0, header.length);
+        peeked = header;
+        peekedPosition = 0;
+        if (!hasPdfSignature(header)) {
+            throw new BadRequestException("PDF file is missing a valid PDF signature");
+        }
+    }
+
+    static int signatureLength() {
+        return PDF_SIGNATURE.length;
+    }
+
+    static boolean hasPdfSignature(byte[] header) {
+        if (header.length < PDF_SIGNATURE.length) {
+            return false;
+        }
+        for (int i = 0; i < PDF_SIGNATURE.length; i++) {
+            if (header[i] != PDF_SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * The digest of every byte read. Completes the digest on the first call, so read the body fully before calling it.
+     */
+    byte[] sha256() {
+        if (sha256 == null) {
+            sha256 = digest.digest();
+        }
+        return sha256.clone();
+    }
+
+    String sha256Hex() {
+        return HexFormat.of().formatHex(sha256());
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (peekedPosition < peeked.length) {
+            return peeked[peekedPosition++] & 0xFF;
+        }
+        int b = in.read();
+        if (b != -1) {
+            enforceLimit(1);
+            digest.update((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (peekedPosition < peeked.length) {
+            int n = Math.min(len, peeked.length - peekedPosition);
+            System.arraycopy(peeked, peekedPosition, b, off, n);
+            peekedPosition += n;
+            return n;
+        }
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            count(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Skipping would bypass the upload digest");
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (peeked.length - peekedPosition) + in.available();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void count(byte[] b, int off, int len) {
+        enforceLimit(len);
+        digest.update(b, off, len);
+    }
+
+    private void enforceLimit(int len) {
+        if (sha256 != null) {
+            throw new IllegalStateException("PDF body was read after its digest was taken");
+        }
+        bytesRead += len;
+        if (bytesRead > maxBytes) {
+            throw new BadRequestException(limitMessage);
+        }
+    }
+}
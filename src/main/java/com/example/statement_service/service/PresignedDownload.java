@@ -0,0 +1,15 @@
+package com.example.statement_service.service;
+
+import java.time.Instant;
+
+/**
+ * A presigned S3 GET for a statement object.
+ *
+ * @param url       the presigned GET URL
+ * @param expiresAt the instant when the URL expires
+ */
+public record PresignedDownload(
+        String url,
+        Instant expiresAt
+) {
+}
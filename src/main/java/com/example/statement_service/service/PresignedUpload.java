@@ -0,0 +1,22 @@
+package com.example.statement_service.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A presigned S3 PUT issued for a server-chosen statement object key.
+ *
+ * @param uploadId  the ID the statement will have once the upload is finalized
+ * @param url       the presigned PUT URL
+ * @param headers   the signed headers the client must send unchanged with the PUT
+ * @param expiresAt the instant when the URL expires
+ */
+public record PresignedUpload(
+        UUID uploadId,
+        String url,
+        Map<String, List<String>> headers,
+        Instant expiresAt
+) {
+}
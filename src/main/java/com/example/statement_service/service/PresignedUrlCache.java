@@ -0,0 +1,110 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded LRU cache of presigned download URLs, so repeated downloads of a statement skip the SigV4 signing.
+ * <p>
+ * Requests whose TTLs fall into the same {@code ttlBucketSeconds} range share a URL, which is served only while it
+ * stays valid for at least {@code minRemainingFraction} of the requested TTL. The object key is part of the cache key,
+ * so a statement that moves to another object never gets a URL for the old one.
+ * <p>
+ * Revocations on other instances arrive through {@link StatementChangeBus}. Callers still check that the statement is
+ * downloadable before asking for a URL, so a statement whose change notification was missed is refused anyway.
+ */
+@Component
+@EnableConfigurationProperties(DownloadProperties.class)
+public class PresignedUrlCache implements StatementChangeListener {
+
+    private record Key(UUID statementId, String objectKey, long ttlBucket) {
+    }
+
+    private final DownloadProperties.UrlCache properties;
+    private final StatementMetrics metrics;
+    private final Clock clock;
+    private final Map<Key, PresignedDownload> entries;
+
+    @Autowired
+    public PresignedUrlCache(DownloadProperties downloadProperties, StatementMetrics metrics) {
+        this(downloadProperties.urlCache(), metrics, Clock.systemUTC());
+    }
+
+    PresignedUrlCache(DownloadProperties.UrlCache properties, StatementMetrics metrics, Clock clock) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PresignedDownload> eldest) {
+                if (size() <= properties.maxEntries()) {
+                    return false;
+                }
+                metrics.downloadUrlCacheEviction();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached URL for the statement object that is still valid for long enough, or presigns and caches a new
+     * one.
+     *
+     * @param ttl     the requested validity
+     * @param presign presigns a new URL valid for {@code ttl}
+     */
+    public PresignedDownload get(UUID statementId, String objectKey, Duration ttl, Supplier<PresignedDownload> presign) {
+        if (!properties.enabled()) {
+            return presign.get();
+        }
+        Key key = new Key(statementId, objectKey, ttl.toSeconds() / properties.ttlBucketSeconds());
+        Instant validUntil = clock.instant().plusMillis((long) Math.ceil(ttl.toMillis() * properties.minRemainingFraction()));
+        synchronized (entries) {
+            PresignedDownload cached = entries.get(key);
+            if (cached != null && !cached.expiresAt().isBefore(validUntil)) {
+                metrics.downloadUrlCacheHit();
+                return cached;
+            }
+        }
+
+        metrics.downloadUrlCacheMiss();
+        PresignedDownload presigned = presign.get();
+        synchronized (entries) {
+            entries.merge(key, presigned, (current, fresh) -> current.expiresAt().isAfter(fresh.expiresAt()) ? current : fresh);
+        }
+        return presigned;
+    }
+
+    /**
+     * Drops every cached URL of the statement.
+     */
+    public void invalidate(UUID statementId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.statementId().equals(statementId));
+        }
+    }
+
+    @Override
+    public void statementChanged(UUID statementId, StatementChange change) {
+        if (change == StatementChange.REVOKED) {
+            invalidate(statementId);
+        }
+    }
+
+    @Override
+    public void resync() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.statement_service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.example.statement_service.storage.S3Properties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * Streams statement objects from S3 through the service, for clients that cannot reach the S3 endpoint.
+ * <p>
+ * Each transfer borrows one fixed-size buffer from a bounded pool and copies the S3 response body to the client
+ * through it, so a download never holds the PDF on heap and the heap used by downloads is capped at
+ * {@code maxConcurrent * bufferSizeBytes} however many are in flight. Transfers beyond that wait up to
+ * {@code acquireTimeoutMillis} for a buffer and are then rejected.
+ */
+@Component
+public class ProxyDownloads {
+
+    private final S3Client s3;
+    private final S3Properties s3Props;
+    private final DownloadProperties.Proxy properties;
+    private final Semaphore permits;
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public ProxyDownloads(S3Client s3, S3Properties s3Props, DownloadProperties downloadProperties) {
+        this(s3, s3Props, downloadProperties.proxy());
+    }
+
+    ProxyDownloads(S3Client s3, S3Properties s3Props, DownloadProperties.Proxy properties) {
+        this.s3 = s3;
+        this.s3Props = s3Props;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.maxConcurrent());
+    }
+
+    /**
+     * Whether downloads are proxied when the request does not say.
+     */
+    public boolean byDefault() {
+        return properties.byDefault();
+    }
+
+    /**
+     * Reserves a transfer buffer. Close the transfer to return it.
+     *
+     * @throws TooManyRequestsException if no buffer frees up within the acquire timeout
+     */
+    public Transfer begin() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.acquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new TooManyRequestsException("Too many downloads in progress, please retry later.");
+        }
+        byte[] buffer = freeBuffers.poll();
+        return new Transfer(buffer != null ? buffer : new byte[properties.bufferSizeBytes()]);
+    }
+
+    /**
+     * One download holding a pooled buffer and, once opened, the S3 response body.
+     */
+    public final class Transfer implements AutoCloseable {
+
+        private byte[] buffer;
+        private ResponseInputStream<GetObjectResponse> body;
+        private boolean drained;
+
+        private Transfer(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Starts the S3 read of bytes {@code first} to {@code last} inclusive of the object, or all of it when
+         * {@code first} is negative. Call before committing the response, so S3 errors can still become error
+         * responses.
+         */
+        public void open(String objectKey, long first, long last) {
+            GetObjectRequest.Builder get = GetObjectRequest.builder()
+                    .bucket(s3Props.bucket())
+                    .key(objectKey);
+            if (first >= 0) {
+                get.range("bytes=" + first + "-" + last);
+            }
+            body = s3.getObject(get.build());
+        }
+
+        /**
+         * Copies the opened S3 body to {@code out} through the pooled buffer.
+         */
+        public void copyTo(OutputStream out) throws IOException {
+            copy(body, out);
+            drained = true;
+            out.flush();
+        }
+
+        /**
+         * Copies {@code in} to {@code out} through the pooled buffer, for callers that read S3 themselves.
+         */
+        public void copy(InputStream in, OutputStream out) throws IOException {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (buffer == null) {
+                return;
+            }
+            try {
+                if (body != null) {
+                    if (!drained) {
+                        // Drops the connection instead of reading the rest of an object the client no longer wants.
+                        body.abort();
+                    }
+                    body.close();
+                }
+            } catch (IOException ignored) {
+                // The connection is discarded either way.
+            } finally {
+                freeBuffers.offer(buffer);
+                buffer = null;
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.statement_service.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory set of recently revoked statements, so download tickets can be checked for revocation without a query.
+ * <p>
+ * A ticket lives at most {@link DownloadTickets#MAX_TTL}, so only statements revoked within that window (plus the
+ * allowed staleness) need to be remembered. The set is replaced from {@code statements.revoked_at} on a fixed delay;
+ * revocations made on this instance, or announced by {@link StatementChangeBus}, are kept beside it immediately and
+ * dropped once they leave that window. {@link StatementMetadataCache} relies on the latter even when tickets are
+ * disabled, in which case the database is not queried.
+ */
+@Component
+public class RevokedStatements implements StatementChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedStatements.class);
+
+    private record Snapshot(Set<UUID> ids, Instant refreshedAt) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final DownloadProperties.Ticket properties;
+    private final Clock clock;
+    private final Map<UUID, Instant> localRevocations = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(Set.of(), Instant.MIN);
+
+    @Autowired
+    public RevokedStatements(JdbcTemplate jdbc, DownloadProperties downloadProperties) {
+        this(jdbc, downloadProperties.ticket(), Clock.systemUTC());
+    }
+
+    RevokedStatements(JdbcTemplate jdbc, DownloadProperties.Ticket properties, Clock clock) {
+        this.jdbc = jdbc;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Reloads the statements revoked recently enough to still have live tickets.
+     */
+    @Scheduled(
+            initialDelay = 0,
+            fixedDelayString = "${app.download.ticket.revocation-refresh-millis:5000}"
+    )
+    public void refresh() {
+        Instant now = clock.instant();
+        Duration retention = DownloadTickets.MAX_TTL.plus(properties.maxRevocationStaleness().multipliedBy(2));
+        Instant cutoff = now.minus(retention);
+        localRevocations.values().removeIf(revokedAt -> revokedAt.isBefore(cutoff));
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            List<UUID> revoked = jdbc.queryForList(
+                    "SELECT id FROM statements WHERE revoked_at >= ?",
+                    UUID.class,
+                    Timestamp.from(cutoff)
+            );
+            snapshot = new Snapshot(Set.copyOf(revoked), now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh revoked statements, tickets fall back to database checks", e);
+        }
+    }
+
+    /**
+     * Records a revocation made on this instance without waiting for the next refresh. It is also kept past refreshes
+     * whose query started before it committed, until it leaves the retention window.
+     */
+    public void add(UUID statementId) {
+        localRevocations.put(statementId, clock.instant());
+    }
+
+    /**
+     * Whether the set was refreshed within the allowed staleness, so its answers can be trusted.
+     */
+    public boolean isFresh() {
+        return !snapshot.refreshedAt().plus(properties.maxRevocationStaleness()).isBefore(clock.instant());
+    }
+
+    public boolean isRevoked(UUID statementId) {
+        return localRevocations.containsKey(statementId) || snapshot.ids().contains(statementId);
+    }
+
+    @Override
+    public void statementChanged(UUID statementId, StatementChange change) {
+        if (change == StatementChange.REVOKED) {
+            add(statementId);
+        }
+    }
+
+    @Override
+    public void resync() {
+        refresh();
+    }
+}
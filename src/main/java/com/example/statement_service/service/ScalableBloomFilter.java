@@ -0,0 +1,130 @@
+package com.example.statement_service.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe scalable Bloom filter of UUIDs (Almeida et al., 2007).
+ * <p>
+ * Adds go to the newest stage. Once that stage holds its capacity, a stage with twice the capacity and half the
+ * false-positive rate is appended. The first stage gets half the configured rate, so the rates of all stages sum to
+ * at most the configured one however many IDs are added. The two halves of the UUID, mixed, are the two hashes of
+ * double hashing.
+ */
+final class ScalableBloomFilter {
+
+    private final double falsePositiveRate;
+    private volatile Stage[] stages;
+
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.stages = new Stage[] {new Stage(initialCapacity, falsePositiveRate / 2)};
+    }
+
+    /**
+     * Adds the ID unless it already tests positive, so IDs seen again do not use up the newest stage's capacity.
+     */
+    void add(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        if (mightContain(h1, h2)) {
+            return;
+        }
+        Stage[] current = stages;
+        Stage newest = current[current.length - 1];
+        if (newest.add(h1, h2) && newest.isFull()) {
+            grow(newest);
+        }
+    }
+
+    boolean mightContain(UUID id) {
+        return mightContain(mix(id.getMostSignificantBits()), mix(id.getLeastSignificantBits()) | 1);
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long bitCount() {
+        long bits = 0;
+        for (Stage stage : stages) {
+            bits += stage.bits;
+        }
+        return bits;
+    }
+
+    private synchronized void grow(Stage full) {
+        Stage[] current = stages;
+        if (current[current.length - 1] != full) {
+            return;
+        }
+        Stage[] grown = new Stage[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = new Stage(full.capacity * 2, falsePositiveRate / Math.pow(2, grown.length));
+        stages = grown;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLongArray words;
+        private final AtomicLong added = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            this.capacity = capacity;
+            this.bits = Math.max(64, (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2)));
+            this.hashes = Math.max(1, (int) Math.round(bits / (double) capacity * ln2));
+            this.words = new AtomicLongArray(Math.toIntExact((bits + 63) >>> 6));
+        }
+
+        /**
+         * Sets the ID's bits and returns whether any of them was still clear.
+         */
+        private boolean add(long h1, long h2) {
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((words.getAndUpdate(word, w -> w | mask) & mask) == 0) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                added.incrementAndGet();
+            }
+            return changed;
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isFull() {
+            return added.get() >= capacity;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.statement_service.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.storage.S3Properties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * Streams a ZIP archive of statements, one entry per statement in the given order.
+ * <p>
+ * While one entry is copied, the GETs of the next {@code readAhead} objects are already issued, so their round-trips
+ * overlap with the copy. Their bodies are not read until their turn, so TCP flow control holds them back and nothing
+ * is buffered beyond the socket. Each entry is copied through one pooled {@link ProxyDownloads} buffer, which also
+ * counts the archive against the proxy concurrency limit.
+ * <p>
+ * Entries use deflate at level 0, which stores the bytes uncompressed in stored blocks. A true {@code STORED} entry
+ * needs its CRC-32 in the local header before the data, which would mean reading each PDF twice or holding it.
+ */
+@Component
+public class StatementArchives {
+
+    private final S3Client s3;
+    private final S3Properties s3Props;
+    private final ProxyDownloads proxyDownloads;
+    private final DownloadProperties.Archive properties;
+
+    @Autowired
+    public StatementArchives(
+            S3Client s3,
+            S3Properties s3Props,
+            ProxyDownloads proxyDownloads,
+            DownloadProperties downloadProperties
+    ) {
+        this(s3, s3Props, proxyDownloads, downloadProperties.archive());
+    }
+
+    StatementArchives(
+            S3Client s3,
+            S3Properties s3Props,
+            ProxyDownloads proxyDownloads,
+            DownloadProperties.Archive properties
+    ) {
+        this.s3 = s3;
+        this.s3Props = s3Props;
+        this.proxyDownloads = proxyDownloads;
+        this.properties = properties;
+    }
+
+    /**
+     * Reserves a transfer buffer for an archive. Call before committing the response, so a full pool can still
+     * answer 429.
+     *
+     * @throws TooManyRequestsException if no buffer frees up within the acquire timeout
+     */
+    public ProxyDownloads.Transfer begin() {
+        return proxyDownloads.begin();
+    }
+
+    /**
+     * Writes the archive to {@code out}. If an object cannot be read, the archive is left without its central
+     * directory, so clients see a failed download instead of a silently incomplete archive.
+     */
+    public void write(List<Statement> statements, ProxyDownloads.Transfer transfer, OutputStream out) throws IOException {
+        Deque<Future<ResponseInputStream<GetObjectResponse>>> window = new ArrayDeque<>();
+        try (ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                zip.setLevel(Deflater.NO_COMPRESSION);
+                int requested = 0;
+                for (Statement statement : statements) {
+                    while (requested < statements.size() && window.size() <= properties.readAhead()) {
+                        String objectKey = statements.get(requested++).getObjectKey();
+                        window.add(fetchers.submit(() -> s3.getObject(GetObjectRequest.builder()
+                                .bucket(s3Props.bucket())
+                                .key(objectKey)
+                                .build())));
+                    }
+                    ResponseInputStream<GetObjectResponse> body = await(window.poll());
+                    try {
+                        zip.putNextEntry(new ZipEntry(entryName(statement)));
+                        transfer.copy(body, zip);
+                        zip.closeEntry();
+                    } catch (IOException | RuntimeException e) {
+                        body.abort();
+                        throw e;
+                    } finally {
+                        body.close();
+                    }
+                }
+                zip.finish();
+                zip.flush();
+            } finally {
+                for (Future<ResponseInputStream<GetObjectResponse>> pending : window) {
+                    discard(pending);
+                }
+            }
+        }
+    }
+
+    static String entryName(Statement statement) {
+        return statement.getAccountId() + "/" + statement.getPeriodStart() + "_" + statement.getPeriodEnd()
+                + "_" + statement.getId() + ".pdf";
+    }
+
+    private static ResponseInputStream<GetObjectResponse> await(Future<ResponseInputStream<GetObjectResponse>> fetch)
+            throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching a statement for an archive");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to fetch a statement for an archive", e.getCause());
+        }
+    }
+
+    private static void discard(Future<ResponseInputStream<GetObjectResponse>> pending) {
+        if (pending.cancel(true)) {
+            return;
+        }
+        try {
+            ResponseInputStream<GetObjectResponse> body = pending.get();
+            body.abort();
+            body.close();
+        } catch (Exception ignored) {
+            // The fetch failed or its connection is being discarded; either way nothing is left open.
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-process cache of active statement metadata.
+ *
+ * @param enabled       whether statement reads are served from the cache
+ * @param maxEntries    the most statements kept; the least recently used one of a bucket is evicted beyond that
+ * @param slotBytes     the off-heap bytes reserved per statement; statements whose encoding is larger are not cached
+ * @param maxAgeSeconds how long an entry is trusted without rereading it, which bounds how long a revocation made on
+ *                      another instance can go unnoticed
+ */
+@ConfigurationProperties("app.statement-cache")
+public record StatementCacheProperties(
+        boolean enabled,
+        int maxEntries,
+        int slotBytes,
+        long maxAgeSeconds
+) {
+
+    public StatementCacheProperties {
+        if (maxEntries <= 0) {
+            maxEntries = 100000;
+        }
+        if (slotBytes < 128) {
+            slotBytes = 256;
+        }
+        if (maxAgeSeconds <= 0) {
+            maxAgeSeconds = 60;
+        }
+    }
+
+    public Duration maxAge() {
+        return Duration.ofSeconds(maxAgeSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.statement_service.service;
+
+/**
+ * A change to a statement that other instances must apply to their local caches.
+ */
+public enum StatementChange {
+    /**
+     * The statement was stored.
+     */
+    UPLOADED,
+
+    /**
+     * The statement was revoked and must no longer be served from any cache.
+     */
+    REVOKED
+}
@@ -0,0 +1,224 @@
+package com.example.statement_service.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates statement changes to the local caches of every instance over PostgreSQL {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Changes are published with {@code pg_notify} on the caller's connection, so they are delivered only if the
+ * surrounding transaction commits. Each instance listens on one dedicated connection opened outside the pool and hands
+ * every change to all {@link StatementChangeListener}s. Notifications sent while that connection is down are lost, so
+ * listeners are paused when it drops and resynchronized each time it is listening, including the first time.
+ */
+@Component
+@EnableConfigurationProperties(StatementChangeProperties.class)
+public class StatementChangeBus implements DisposableBean {
+
+    static final String CHANNEL = "statement_changes";
+
+    private static final Logger log = LoggerFactory.getLogger(StatementChangeBus.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final JdbcTemplate jdbc;
+    private final DataSource dataSource;
+    private final StatementChangeProperties properties;
+    private final List<StatementChangeListener> listeners;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    @Autowired
+    public StatementChangeBus(
+            JdbcTemplate jdbc,
+            DataSource dataSource,
+            StatementChangeProperties properties,
+            List<StatementChangeListener> listeners
+    ) {
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    /**
+     * Publishes a change of the statements. Call inside the transaction that makes the change.
+     */
+    public void publish(StatementChange change, Collection<UUID> statementIds) {
+        if (!properties.enabled() || statementIds.isEmpty()) {
+            return;
+        }
+        String[] payloads = statementIds.stream().map(id -> change.name() + ":" + id).toArray(String[]::new);
+        jdbc.query(
+                "SELECT pg_notify(?, payload) FROM unnest(?) AS payload",
+                ps -> {
+                    ps.setString(1, CHANNEL);
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", payloads));
+                },
+                (ResultSetExtractor<Void>) rs -> null
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform().daemon().name("statement-change-listener").start(this::listen);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = listenerThread;
+        }
+        if (thread == null) {
+            return;
+        }
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException ignored) {
+                // The listener exits either way.
+            }
+        }
+        thread.interrupt();
+        thread.join(properties.pollTimeoutMillis());
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection c = openConnection()) {
+                connection = c;
+                try (java.sql.Statement listen = c.createStatement()) {
+                    listen.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    log.info("Statement change listener reconnected, resynchronizing local caches");
+                }
+                reconnecting = true;
+                resync();
+                PGConnection pg = c.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) properties.pollTimeoutMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        if (!c.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                            throw new SQLException("Statement change listener connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Statement change listener lost its connection, pausing local caches", e);
+                pause();
+                reconnecting = true;
+                try {
+                    Thread.sleep(properties.reconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return listenerDataSource(dataSource).getConnection();
+    }
+
+    /**
+     * Returns an unpooled data source that connects like the pool does. A pooled connection would be held forever and
+     * could be recycled under the {@code LISTEN}, so Hikari's own driver data source is used, or one built from its JDBC
+     * URL, driver class, credentials and data source properties.
+     */
+    static DataSource listenerDataSource(DataSource dataSource) throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return dataSource;
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        if (hikari.getDataSource() != null) {
+            return hikari.getDataSource();
+        }
+        return new DriverDataSource(
+                hikari.getJdbcUrl(),
+                hikari.getDriverClassName(),
+                hikari.getDataSourceProperties(),
+                hikari.getUsername(),
+                hikari.getPassword()
+        );
+    }
+
+    void dispatch(String payload) {
+        int separator = payload.indexOf(':');
+        StatementChange change;
+        UUID statementId;
+        try {
+            change = StatementChange.valueOf(payload.substring(0, Math.max(separator, 0)));
+            statementId = UUID.fromString(payload.substring(separator + 1));
+        } catch (IllegalArgumentException malformed) {
+            log.warn("Ignoring malformed statement change notification payload={}", payload);
+            return;
+        }
+        for (StatementChangeListener listener : listeners) {
+            try {
+                listener.statementChanged(statementId, change);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply statement change statementId={} change={} listener={}",
+                        statementId, change, listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    void pause() {
+        for (StatementChangeListener listener : listeners) {
+            try {
+                listener.changesPaused();
+            } catch (RuntimeException e) {
+                log.warn("Failed to pause listener={}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    void resync() {
+        for (StatementChangeListener listener : listeners) {
+            try {
+                listener.resync();
+            } catch (RuntimeException e) {
+                log.warn("Failed to resynchronize listener={}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
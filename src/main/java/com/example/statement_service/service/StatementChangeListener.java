@@ -0,0 +1,27 @@
+package com.example.statement_service.service;
+
+import java.util.UUID;
+
+/**
+ * A local cache of statement state that {@link StatementChangeBus} keeps consistent across instances.
+ */
+public interface StatementChangeListener {
+
+    /**
+     * Applies a change made on any instance, including this one.
+     */
+    void statementChanged(UUID statementId, StatementChange change);
+
+    /**
+     * Called once the bus is listening, after startup and after every reconnect. Changes made before may have been
+     * missed, so everything cached has to be treated as stale.
+     */
+    void resync();
+
+    /**
+     * Called when the bus stops receiving changes. {@link #resync()} follows once it listens again.
+     */
+    default void changesPaused() {
+        resync();
+    }
+}
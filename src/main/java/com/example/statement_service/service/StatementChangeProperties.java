@@ -0,0 +1,33 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cross-instance propagation of statement changes over PostgreSQL {@code LISTEN}/{@code NOTIFY}.
+ *
+ * @param enabled              whether changes are published and listened for; requires PostgreSQL
+ * @param pollTimeoutMillis    how long the listener waits for notifications before checking its connection
+ * @param reconnectDelayMillis the pause before reconnecting a lost listener connection
+ */
+@ConfigurationProperties("app.statement-changes")
+public record StatementChangeProperties(
+        boolean enabled,
+        long pollTimeoutMillis,
+        long reconnectDelayMillis
+) {
+
+    public StatementChangeProperties {
+        if (pollTimeoutMillis <= 0) {
+            pollTimeoutMillis = 10000;
+        }
+        if (reconnectDelayMillis <= 0) {
+            reconnectDelayMillis = 1000;
+        }
+    }
+
+    public Duration reconnectDelay() {
+        return Duration.ofMillis(reconnectDelayMillis);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.statement_service.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Negative cache of statement IDs: a {@link ScalableBloomFilter} of every stored statement, so lookups of IDs that
+ * were never stored are answered without a query.
+ * <p>
+ * Statements are never deleted, so the filter only grows. It is rebuilt by streaming {@code statements.id} each time
+ * {@link StatementChangeBus} starts listening, and meanwhile learns uploads made on any instance from the bus. The scan
+ * starts after the bus is listening, so every ID is either in the scan or announced afterwards. Until a rebuild
+ * finishes, and whenever the bus has lost its connection, every ID is treated as possibly stored.
+ * <p>
+ * The filter is only eventually consistent across instances: until another instance's upload notification has been
+ * applied here, that statement is reported as unknown. Clients that upload on one instance and immediately read on
+ * another can therefore get a {@code 404}, which is why the filter is disabled by default.
+ */
+@Component
+@EnableConfigurationProperties(StatementIdFilterProperties.class)
+public class StatementIdFilter implements StatementChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementIdFilter.class);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementIdFilterProperties properties;
+    private final StatementMetrics metrics;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile ScalableBloomFilter current;
+    private volatile ScalableBloomFilter building;
+    private volatile boolean ready;
+
+    @Autowired
+    public StatementIdFilter(
+            JdbcTemplate jdbc,
+            TransactionTemplate transactionTemplate,
+            StatementIdFilterProperties properties,
+            StatementChangeProperties changeProperties,
+            StatementMetrics metrics
+    ) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.enabled = properties.enabled() && changeProperties.enabled();
+    }
+
+    /**
+     * Whether the statement was certainly never stored. A {@code false} answer means it may exist.
+     */
+    public boolean isDefinitelyUnknown(UUID statementId) {
+        if (!ready || current.mightContain(statementId)) {
+            return false;
+        }
+        metrics.statementIdFilterRejected();
+        return true;
+    }
+
+    /**
+     * Records a stored statement. Call after its insert committed.
+     */
+    public void add(UUID statementId) {
+        ScalableBloomFilter next = building;
+        if (next != null) {
+            next.add(statementId);
+        }
+        ScalableBloomFilter filter = current;
+        if (filter != null) {
+            filter.add(statementId);
+        }
+    }
+
+    @Override
+    public void statementChanged(UUID statementId, StatementChange change) {
+        if (change == StatementChange.UPLOADED) {
+            add(statementId);
+        }
+    }
+
+    @Override
+    public void changesPaused() {
+        generation.incrementAndGet();
+        ready = false;
+    }
+
+    @Override
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        long rebuild = generation.incrementAndGet();
+        ready = false;
+        Thread.ofVirtual().name("statement-id-filter-rebuild").start(() -> rebuild(rebuild));
+    }
+
+    void rebuild(long rebuild) {
+        ScalableBloomFilter next = new ScalableBloomFilter(properties.initialCapacity(), properties.falsePositiveRate());
+        building = next;
+        long[] count = {0};
+        try {
+            // Inside a transaction, so the PostgreSQL driver streams the rows with a cursor instead of loading them all.
+            transactionTemplate.executeWithoutResult(status -> jdbc.query(
+                    connection -> {
+                        var select = connection.prepareStatement("SELECT id FROM statements");
+                        select.setFetchSize(properties.rebuildFetchSize());
+                        return select;
+                    },
+                    rs -> {
+                        next.add(rs.getObject(1, UUID.class));
+                        count[0]++;
+                    }
+            ));
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild the statement ID filter, unknown IDs are looked up until the next resync", e);
+            return;
+        }
+        synchronized (this) {
+            if (generation.get() != rebuild) {
+                return;
+            }
+            current = next;
+            building = null;
+            ready = true;
+        }
+        log.info("Rebuilt the statement ID filter statements={} bits={}", count[0], next.bitCount());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.statement_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bloom filter of stored statement IDs, used to answer lookups of unknown IDs without a query.
+ *
+ * @param enabled           whether lookups of IDs the filter has never seen are answered with 404 directly; needs the
+ *                          statement change bus, which announces uploads made on other instances. Off by default,
+ *                          because a statement read on another instance before its upload was announced there is
+ *                          reported as missing
+ * @param initialCapacity   the IDs the first filter stage is sized for; later stages double it
+ * @param falsePositiveRate the share of unknown IDs that still reach the database
+ * @param rebuildFetchSize  the rows fetched per round trip while the filter is rebuilt from the database
+ */
+@ConfigurationProperties("app.statement-id-filter")
+public record StatementIdFilterProperties(
+        boolean enabled,
+        long initialCapacity,
+        double falsePositiveRate,
+        int rebuildFetchSize
+) {
+
+    public StatementIdFilterProperties {
+        if (initialCapacity <= 0) {
+            initialCapacity = 1000000;
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            falsePositiveRate = 0.01;
+        }
+        if (rebuildFetchSize <= 0) {
+            rebuildFetchSize = 10000;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.statement_service.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.import")
+public record StatementImportProperties(
+        int concurrency,
+        int pageSize,
+        long stallTimeoutSeconds
+) {
+
+    public StatementImportProperties {
+        if (concurrency <= 0) {
+            concurrency = 8;
+        }
+        if (pageSize <= 0 || pageSize > 1000) {
+            pageSize = 500;
+        }
+        if (stallTimeoutSeconds <= 0) {
+            stallTimeoutSeconds = 600;
+        }
+    }
+
+    public Duration stallTimeout() {
+        return Duration.ofSeconds(stallTimeoutSeconds);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.example.statement_service.domain.StatementImport;
+import com.example.statement_service.domain.StatementImportStatus;
+import com.example.statement_service.persistence.StatementImportRepository;
+import com.example.statement_service.storage.S3Properties;
+import com.example.statement_service.storage.StatementBlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+/**
+ * Runs server-side imports of PDFs that an upstream producer staged under a prefix of the statements bucket.
+ * <p>
+ * A job lists the prefix one page at a time and registers each object through
+ * {@link DirectUploadService#importStagedObject}, with at most {@code concurrency} objects in flight. After each page it
+ * stores the continuation token and running counters, so a job whose instance stopped is resumed from its last
+ * page by the stalled-import sweep. While a page is in progress the run moves the heartbeat every third of the stall
+ * timeout. A run whose job was claimed by the sweep anyway stops at its next heartbeat or checkpoint, because the
+ * claim changes the job's version. Re-importing a page is harmless because imports are idempotent.
+ */
+@Service
+@EnableConfigurationProperties(StatementImportProperties.class)
+public class StatementImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementImportService.class);
+    private static final List<String> SERVICE_OBJECT_PREFIXES = List.of("customer/", StatementBlobStore.BLOB_PREFIX);
+
+    private final StatementImportRepository importRepo;
+    private final DirectUploadService directUploads;
+    private final AuditService auditService;
+    private final S3Client s3;
+    private final S3Properties s3Props;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementImportProperties properties;
+    private final Clock clock;
+    private final ExecutorService executor;
+
+    @Autowired
+    public StatementImportService(
+            StatementImportRepository importRepo,
+            DirectUploadService directUploads,
+            AuditService auditService,
+            S3Client s3,
+            S3Properties s3Props,
+            TransactionTemplate transactionTemplate,
+            StatementImportProperties properties
+    ) {
+        this(
+                importRepo, directUploads, auditService, s3, s3Props, transactionTemplate, properties,
+                Clock.systemUTC(),
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("statement-import-", 0).factory())
+        );
+    }
+
+    StatementImportService(
+            StatementImportRepository importRepo,
+            DirectUploadService directUploads,
+            AuditService auditService,
+            S3Client s3,
+            S3Properties s3Props,
+            TransactionTemplate transactionTemplate,
+            StatementImportProperties properties,
+            Clock clock,
+            ExecutorService executor
+    ) {
+        this.importRepo = importRepo;
+        this.directUploads = directUploads;
+        this.auditService = auditService;
+        this.s3 = s3;
+        this.s3Props = s3Props;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts importing every object under the given prefix in the background.
+     *
+     * @param prefix the staging prefix; a trailing {@code /} is added if missing
+     * @return the running import
+     * @throws BadRequestException if the prefix is blank or overlaps the statement key layout
+     */
+    public StatementImport start(String prefix) {
+        String normalized = normalizePrefix(prefix);
+        StatementImport job = transactionTemplate.execute(
+                status -> importRepo.saveAndFlush(StatementImport.start(normalized, clock.instant()))
+        );
+        log.info("Starting statement import importId={} prefix={}", job.getId(), normalized);
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public StatementImport get(UUID id) {
+        return importRepo.findById(id).orElseThrow(() -> new NotFoundException("Import not found"));
+    }
+
+    /**
+     * Resumes running imports whose heartbeat is older than the stall timeout, for example because the instance
+     * that ran them stopped. Each import is claimed with a conditional update so only one instance resumes it.
+     */
+    @Scheduled(
+            initialDelayString = "${app.import.stall-sweep-initial-delay-millis:60000}",
+            fixedDelayString = "${app.import.stall-sweep-fixed-delay-millis:60000}"
+    )
+    public void resumeStalledImports() {
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(properties.stallTimeout());
+        for (StatementImport stalled : importRepo.findByStatusAndUpdatedAtBefore(StatementImportStatus.RUNNING, cutoff)) {
+            Integer claimed = transactionTemplate.execute(
+                    status -> importRepo.claimStalled(stalled.getId(), stalled.getUpdatedAt(), now)
+            );
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            importRepo.findById(stalled.getId()).ifPresent(job -> {
+                log.warn("Resuming stalled statement import importId={} prefix={}", job.getId(), job.getPrefix());
+                executor.execute(() -> run(job));
+            });
+        }
+    }
+
+    void run(StatementImport job) {
+        String continuationToken = job.getContinuationToken();
+        try {
+            do {
+                ListObjectsV2Response page = s3.listObjectsV2(ListObjectsV2Request.builder()
+                        .bucket(s3Props.bucket())
+                        .prefix(job.getPrefix())
+                        .maxKeys(properties.pageSize())
+                        .continuationToken(continuationToken)
+                        .build());
+                List<String> keys = page.contents().stream()
+                        .map(S3Object::key)
+                        .filter(key -> !key.endsWith("/"))
+                        .toList();
+                List<BulkUploadResult> results = importPage(job, keys);
+                auditImported(results);
+
+                continuationToken = Boolean.TRUE.equals(page.isTruncated()) ? page.nextContinuationToken() : null;
+                job = checkpoint(job, continuationToken, results);
+                log.info(
+                        "Statement import progress importId={} listed={} imported={} existing={} rejected={} failed={}",
+                        job.getId(),
+                        job.getObjectsListed(),
+                        job.getImported(),
+                        job.getExisting(),
+                        job.getRejected(),
+                        job.getFailed()
+                );
+            } while (continuationToken != null);
+
+            job.markCompleted(clock.instant());
+            importRepo.save(job);
+            log.info("Completed statement import importId={}", job.getId());
+        } catch (OptimisticLockingFailureException e) {
+            // The sweep resumed the job on another run, which now owns its checkpoint and outcome.
+            log.warn("Stopping statement import claimed by another run importId={}", job.getId());
+        } catch (RuntimeException e) {
+            log.error("Statement import failed importId={} prefix={}", job.getId(), job.getPrefix(), e);
+            try {
+                job.markFailed(e.toString(), clock.instant());
+                importRepo.save(job);
+            } catch (RuntimeException saveFailure) {
+                // The stalled-import sweep resumes the job from its last checkpoint.
+                log.warn("Failed to record statement import failure importId={}", job.getId(), saveFailure);
+            }
+        }
+    }
+
+    private List<BulkUploadResult> importPage(StatementImport job, List<String> keys) {
+        Semaphore permits = new Semaphore(properties.concurrency());
+        List<Future<BulkUploadResult>> futures = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            futures.add(executor.submit(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    return directUploads.importStagedObject(key);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        long heartbeatMillis = Math.max(1, properties.stallTimeout().toMillis() / 3);
+        List<BulkUploadResult> results = new ArrayList<>(keys.size());
+        try {
+            for (Future<BulkUploadResult> future : futures) {
+                while (true) {
+                    try {
+                        results.add(future.get(heartbeatMillis, TimeUnit.MILLISECONDS));
+                        break;
+                    } catch (TimeoutException e) {
+                        heartbeat(job);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing statements", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statement import worker failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private void heartbeat(StatementImport job) {
+        Integer beat = transactionTemplate.execute(
+                status -> importRepo.heartbeat(job.getId(), job.getVersion(), clock.instant())
+        );
+        if (beat == null || beat == 0) {
+            throw new OptimisticLockingFailureException("Statement import " + job.getId() + " was claimed by another run");
+        }
+    }
+
+    private void auditImported(List<BulkUploadResult> results) {
+        auditService.logAll(
+                results.stream()
+                        .filter(r -> r.outcome() == BulkUploadResult.Outcome.CREATED)
+                        .map(r -> new AuditService.Entry(r.statement().getCustomerId(), "IMPORT", r.statement().getId()))
+                        .toList(),
+                null,
+                null
+        );
+    }
+
+    private StatementImport checkpoint(StatementImport job, String continuationToken, List<BulkUploadResult> results) {
+        long[] counts = new long[BulkUploadResult.Outcome.values().length];
+        for (BulkUploadResult result : results) {
+            counts[result.outcome().ordinal()]++;
+        }
+        job.checkpoint(
+                continuationToken,
+                results.size(),
+                counts[BulkUploadResult.Outcome.CREATED.ordinal()],
+                counts[BulkUploadResult.Outcome.EXISTING.ordinal()],
+                counts[BulkUploadResult.Outcome.REJECTED.ordinal()],
+                counts[BulkUploadResult.Outcome.FAILED.ordinal()],
+                clock.instant()
+        );
+        return importRepo.save(job);
+    }
+
+    private static String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new BadRequestException("prefix is required");
+        }
+        String normalized = prefix.endsWith("/") ? prefix : prefix + "/";
+        if (normalized.startsWith("/") || normalized.contains("..")) {
+            throw new BadRequestException("prefix contains unsupported characters");
+        }
+        // Imported copies land under customer/ or blobs/sha256/, so the staging prefix must not contain or enclose them.
+        for (String servicePrefix : SERVICE_OBJECT_PREFIXES) {
+            if (normalized.startsWith(servicePrefix) || servicePrefix.startsWith(normalized)) {
+                throw new BadRequestException("prefix must not overlap the statement key layout");
+            }
+        }
+        return normalized;
+    }
+
+    @Override
+    public void destroy() {
+        // Interrupted jobs stay RUNNING and are resumed from their last checkpoint by the stalled-import sweep.
+        executor.shutdownNow();
+    }
+}
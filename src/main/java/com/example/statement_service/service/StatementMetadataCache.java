@@ -0,0 +1,303 @@
+package com.example.statement_service.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of active statements, kept off-heap so that millions of entries add no GC pressure.
+ * <p>
+ * Each statement is encoded into a fixed-size slot of a direct buffer. The ID is stored as two longs, the period as
+ * epoch days, the SHA-256 as 32 raw bytes, and the strings as length-prefixed UTF-8. Slots are grouped into
+ * {@value #WAYS}-way buckets spread over {@value #SEGMENTS} independently locked segments. A bucket that is full evicts
+ * its least recently used slot, so eviction never scans more than one bucket.
+ * <p>
+ * Only {@link StatementStatus#ACTIVE} statements are cached, and revoking is the only way out of that status. A revoke
+ * on this instance drops the entry at once. A revoke on another instance is seen once the entry is older than
+ * {@code maxAgeSeconds}, or earlier when {@link StatementChangeBus} delivers the change or {@link RevokedStatements}
+ * already lists it.
+ */
+@Component
+@EnableConfigurationProperties(StatementCacheProperties.class)
+public class StatementMetadataCache implements StatementChangeListener {
+
+    private static final int SEGMENTS = 64;
+    private static final int WAYS = 8;
+
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int LAST_USED = 16;
+    private static final int LOADED_AT = 24;
+    private static final int PERIOD_START = 32;
+    private static final int PERIOD_END = 36;
+    private static final int SIZE_BYTES = 40;
+    private static final int UPLOADED_SECONDS = 48;
+    private static final int UPLOADED_NANOS = 56;
+    private static final int SHA256 = 60;
+    private static final int STRINGS = SHA256 + 32;
+
+    private final StatementCacheProperties properties;
+    private final RevokedStatements revokedStatements;
+    private final StatementMetrics metrics;
+    private final Clock clock;
+    private final Segment[] segments;
+
+    @Autowired
+    public StatementMetadataCache(
+            StatementCacheProperties properties,
+            RevokedStatements revokedStatements,
+            StatementMetrics metrics
+    ) {
+        this(properties, revokedStatements, metrics, Clock.systemUTC());
+    }
+
+    StatementMetadataCache(
+            StatementCacheProperties properties,
+            RevokedStatements revokedStatements,
+            StatementMetrics metrics,
+            Clock clock
+    ) {
+        this.properties = properties;
+        this.revokedStatements = revokedStatements;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.segments = new Segment[properties.enabled() ? SEGMENTS : 0];
+        int bucketsPerSegment = Math.ceilDiv(Math.ceilDiv(properties.maxEntries(), SEGMENTS), WAYS);
+        long segmentBytes = (long) bucketsPerSegment * WAYS * properties.slotBytes();
+        if (segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("app.statement-cache.max-entries * slot-bytes must stay below 128 GiB");
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(bucketsPerSegment, properties.slotBytes());
+        }
+    }
+
+    /**
+     * Returns the cached active statement, or {@code null} when it has to be read from the database.
+     */
+    public Statement get(UUID statementId) {
+        if (!properties.enabled()) {
+            return null;
+        }
+        if (revokedStatements.isRevoked(statementId)) {
+            invalidate(statementId);
+            metrics.statementCacheMiss();
+            return null;
+        }
+        long msb = statementId.getMostSignificantBits();
+        long lsb = statementId.getLeastSignificantBits();
+        Segment segment = segment(msb, lsb);
+        long staleBefore = clock.millis() - properties.maxAge().toMillis();
+        Statement cached = null;
+        synchronized (segment) {
+            int slot = segment.find(msb, lsb);
+            if (slot >= 0) {
+                if (segment.slots.getLong(slot + LOADED_AT) < staleBefore) {
+                    segment.clear(slot);
+                } else {
+                    segment.slots.putLong(slot + LAST_USED, ++segment.tick);
+                    cached = decode(segment.slots, slot, statementId);
+                }
+            }
+        }
+        if (cached == null) {
+            metrics.statementCacheMiss();
+        } else {
+            metrics.statementCacheHit();
+        }
+        return cached;
+    }
+
+    /**
+     * Caches an active statement. Other statuses, and statements that do not fit a slot, are ignored.
+     */
+    public void put(Statement statement) {
+        if (!properties.enabled() || statement.getStatus() != StatementStatus.ACTIVE) {
+            return;
+        }
+        byte[] encoded = encode(statement, clock.millis());
+        if (encoded == null) {
+            return;
+        }
+        long msb = statement.getId().getMostSignificantBits();
+        long lsb = statement.getId().getLeastSignificantBits();
+        Segment segment = segment(msb, lsb);
+        synchronized (segment) {
+            int slot = segment.find(msb, lsb);
+            if (slot < 0) {
+                slot = segment.victim(msb, lsb);
+                if (segment.slots.getLong(slot + LAST_USED) != 0) {
+                    metrics.statementCacheEviction();
+                }
+            }
+            segment.slots.put(slot, encoded);
+            segment.slots.putLong(slot + LAST_USED, ++segment.tick);
+        }
+    }
+
+    /**
+     * Drops the statement from the cache.
+     */
+    public void invalidate(UUID statementId) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long msb = statementId.getMostSignificantBits();
+        long lsb = statementId.getLeastSignificantBits();
+        Segment segment = segment(msb, lsb);
+        synchronized (segment) {
+            int slot = segment.find(msb, lsb);
+            if (slot >= 0) {
+                segment.clear(slot);
+            }
+        }
+    }
+
+    @Override
+    public void statementChanged(UUID statementId, StatementChange change) {
+        invalidate(statementId);
+    }
+
+    @Override
+    public void resync() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int slot = 0; slot < segment.slots.capacity(); slot += segment.slotBytes) {
+                    segment.clear(slot);
+                }
+            }
+        }
+    }
+
+    private Segment segment(long msb, long lsb) {
+        return segments[(int) (spread(msb, lsb) & (SEGMENTS - 1))];
+    }
+
+    private static long spread(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+
+    private byte[] encode(Statement s, long loadedAt) {
+        if (s.getSha256() == null || s.getSha256().length() != 64) {
+            return null;
+        }
+        byte[] customerId = s.getCustomerId().getBytes(StandardCharsets.UTF_8);
+        byte[] accountId = s.getAccountId().getBytes(StandardCharsets.UTF_8);
+        byte[] objectKey = s.getObjectKey().getBytes(StandardCharsets.UTF_8);
+        byte[] contentType = s.getContentType().getBytes(StandardCharsets.UTF_8);
+        int length = STRINGS + 8 + customerId.length + accountId.length + objectKey.length + contentType.length;
+        if (length > properties.slotBytes()) {
+            return null;
+        }
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.putLong(MSB, s.getId().getMostSignificantBits())
+                .putLong(LSB, s.getId().getLeastSignificantBits())
+                .putLong(LOADED_AT, loadedAt)
+                .putInt(PERIOD_START, (int) s.getPeriodStart().toEpochDay())
+                .putInt(PERIOD_END, (int) s.getPeriodEnd().toEpochDay())
+                .putLong(SIZE_BYTES, s.getSizeBytes())
+                .putLong(UPLOADED_SECONDS, s.getUploadedAt().getEpochSecond())
+                .putInt(UPLOADED_NANOS, s.getUploadedAt().getNano())
+                .put(SHA256, HexFormat.of().parseHex(s.getSha256()))
+                .position(STRINGS);
+        for (byte[] value : new byte[][] {customerId, accountId, objectKey, contentType}) {
+            out.putShort((short) value.length).put(value);
+        }
+        return out.array();
+    }
+
+    private static Statement decode(ByteBuffer slots, int slot, UUID statementId) {
+        byte[] sha256 = new byte[32];
+        slots.get(slot + SHA256, sha256);
+        int[] offset = {slot + STRINGS};
+        return new Statement(
+                statementId,
+                readString(slots, offset),
+                readString(slots, offset),
+                LocalDate.ofEpochDay(slots.getInt(slot + PERIOD_START)),
+                LocalDate.ofEpochDay(slots.getInt(slot + PERIOD_END)),
+                readString(slots, offset),
+                readString(slots, offset),
+                slots.getLong(slot + SIZE_BYTES),
+                HexFormat.of().formatHex(sha256),
+                Instant.ofEpochSecond(slots.getLong(slot + UPLOADED_SECONDS), slots.getInt(slot + UPLOADED_NANOS)),
+                StatementStatus.ACTIVE
+        );
+    }
+
+    private static String readString(ByteBuffer slots, int[] offset) {
+        int length = Short.toUnsignedInt(slots.getShort(offset[0]));
+        byte[] value = new byte[length];
+        slots.get(offset[0] + 2, value);
+        offset[0] += 2 + length;
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One lock's share of the slots. A slot whose last-used tick is zero is empty.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer slots;
+        private final int buckets;
+        private final int slotBytes;
+        private long tick;
+
+        private Segment(int buckets, int slotBytes) {
+            this.slots = ByteBuffer.allocateDirect(buckets * WAYS * slotBytes);
+            this.buckets = buckets;
+            this.slotBytes = slotBytes;
+        }
+
+        private int bucketStart(long msb, long lsb) {
+            return (int) Long.remainderUnsigned(spread(msb, lsb) >>> 6, buckets) * WAYS * slotBytes;
+        }
+
+        private int find(long msb, long lsb) {
+            int start = bucketStart(msb, lsb);
+            for (int way = 0; way < WAYS; way++) {
+                int slot = start + way * slotBytes;
+                if (slots.getLong(slot + LAST_USED) != 0
+                        && slots.getLong(slot + MSB) == msb
+                        && slots.getLong(slot + LSB) == lsb) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int victim(long msb, long lsb) {
+            int start = bucketStart(msb, lsb);
+            int victim = start;
+            for (int way = 0; way < WAYS; way++) {
+                int slot = start + way * slotBytes;
+                long lastUsed = slots.getLong(slot + LAST_USED);
+                if (lastUsed == 0) {
+                    return slot;
+                }
+                if (lastUsed < slots.getLong(victim + LAST_USED)) {
+                    victim = slot;
+                }
+            }
+            return victim;
+        }
+
+        private void clear(int slot) {
+            slots.putLong(slot + LAST_USED, 0);
+        }
+    }
+}
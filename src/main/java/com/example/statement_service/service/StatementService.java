@@ -1,74 +1,65 @@
 package com.example.statement_service.service;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.time.Duration;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HexFormat;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.example.statement_service.domain.Statement;
 import com.example.statement_service.domain.StatementStatus;
 import com.example.statement_service.observability.StatementMetrics;
 import com.example.statement_service.persistence.StatementRepository;
-import com.example.statement_service.storage.OrphanedS3ObjectCandidate;
-import com.example.statement_service.storage.OrphanedS3ObjectCleanupService;
-import com.example.statement_service.storage.S3Properties;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
+/**
+ * Uploads single statements through the service and reads and revokes statements.
+ * <p>
+ * Asynchronous, bulk and direct-to-S3 uploads live in {@link AsyncUploadService}, {@link BulkUploadService} and
+ * {@link DirectUploadService}, and download URLs are presigned by {@link DownloadUrlService}.
+ */
 @Service
 public class StatementService {
 
-    private static final Logger log = LoggerFactory.getLogger(StatementService.class);
-    private static final long MAX_UPLOAD_BYTES = 10L * 1024 * 1024;
-    private static final int MAX_METADATA_LENGTH = 128;
-    private static final Pattern SAFE_METADATA_VALUE = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._@-]{0,127}");
-    private static final Pattern SAFE_FILENAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._ -]{0,254}");
-    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
-
     private final StatementRepository statementRepo;
-    private final S3Client s3;
-    private final S3Presigner presigner;
-    private final S3Properties s3Props;
-    private final TransactionTemplate transactionTemplate;
+    private final StatementWriter writer;
+    private final UploadValidator validator;
+    private final UploadSingleFlight uploadFlights;
+    private final StatementMetadataCache metadataCache;
+    private final StatementIdFilter idFilter;
+    private final PresignedUrlCache downloadUrls;
     private final StatementMetrics metrics;
-    private final OrphanedS3ObjectCleanupService orphanedObjectCleanupService;
 
-    public StatementService(
+    StatementService(
             StatementRepository statementRepo,
-            S3Client s3,
-            S3Presigner presigner,
-            S3Properties s3Props,
-            TransactionTemplate transactionTemplate,
-            StatementMetrics metrics,
-            OrphanedS3ObjectCleanupService orphanedObjectCleanupService
+            StatementWriter writer,
+            UploadValidator validator,
+            UploadSingleFlight uploadFlights,
+            StatementMetadataCache metadataCache,
+            StatementIdFilter idFilter,
+            PresignedUrlCache downloadUrls,
+            StatementMetrics metrics
     ) {
         this.statementRepo = statementRepo;
-        this.s3 = s3;
-        this.presigner = presigner;
-        this.s3Props = s3Props;
-        this.transactionTemplate = transactionTemplate;
+        this.writer = writer;
+        this.validator = validator;
+        this.uploadFlights = uploadFlights;
+        this.metadataCache = metadataCache;
+        this.idFilter = idFilter;
+        this.downloadUrls = downloadUrls;
         this.metrics = metrics;
-        this.orphanedObjectCleanupService = orphanedObjectCleanupService;
     }
 
     public Statement upload(
@@ -79,7 +70,7 @@ public class StatementService {
             MultipartFile pdf
     ) {
         try {
-            validateUpload(customerId, accountId, periodStart, periodEnd, pdf);
+            validator.validateUpload(customerId, accountId, periodStart, periodEnd, pdf);
             return uploadValidated(customerId, accountId, periodStart, periodEnd, pdf);
         } catch (BadRequestException e) {
             metrics.uploadFailure();
@@ -90,179 +81,164 @@ public class StatementService {
         }
     }
 
-    private Statement uploadValidated(
+    /**
+     * Uploads a statement from a raw {@code application/pdf} request body in a single pass.
+     * <p>
+     * The body is read exactly once: the PDF signature is checked before S3 is contacted, and the size limit and
+     * SHA-256 digest are enforced while the bytes stream straight into S3. Because the digest is only known once
+     * the object is stored, a duplicate upload costs a PUT and a compensating DELETE instead of a local hash pass,
+     * unless the client declares the digest up front: a declared duplicate returns the existing statement before
+     * any of the body is read, and any other body must match the declared digest.
+     *
+     * @param contentLength  the declared request body length; required so the S3 PUT can be streamed
+     * @param declaredSha256 the hex-encoded SHA-256 the client declared for the body, or {@code null}
+     * @param body           the request body, which is not closed by this method
+     */
+    public Statement uploadStream(
             String customerId,
             String accountId,
             LocalDate periodStart,
             LocalDate periodEnd,
-            MultipartFile pdf
-    ) throws Exception {
-        Path tmp = Files.createTempFile("statement-", ".pdf");
+            String contentType,
+            long contentLength,
+            String declaredSha256,
+            InputStream body
+    ) {
         try {
-            copyUploadToTempFile(pdf, tmp);
-            validatePdfSignature(tmp);
-
-            String sha256 = sha256Hex(tmp);
-            var existing = statementRepo.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
-                    customerId, accountId, periodStart, periodEnd, sha256
-            );
-            if (existing.isPresent()) {
+            validator.validateStreamUpload(customerId, accountId, periodStart, periodEnd, contentType, contentLength);
+            String expectedSha256 = validator.normalizeDeclaredSha256(declaredSha256);
+            var duplicate = writer.findDeclaredDuplicate(customerId, accountId, periodStart, periodEnd, expectedSha256);
+            if (duplicate.isPresent()) {
                 metrics.uploadSuccess();
-                return existing.get();
+                return duplicate.get();
             }
-
-            UUID id = UUID.randomUUID();
-            String objectKey = "customer/%s/account/%s/%s/%s.pdf"
-                    .formatted(customerId, accountId, periodStart.getYear() + "-" + String.format("%02d", periodStart.getMonthValue()), id);
-            long size = Files.size(tmp);
-
-            uploadToS3(tmp, objectKey);
-
-            Statement statement = new Statement(
-                    id, customerId, accountId, periodStart, periodEnd,
-                    objectKey, "application/pdf", size, sha256,
-                    Instant.now(), StatementStatus.ACTIVE
+            return uploadStreamValidated(
+                    customerId, accountId, periodStart, periodEnd, contentLength, expectedSha256, body
             );
-
-            try {
-                Statement saved = transactionTemplate.execute(status -> statementRepo.saveAndFlush(statement));
-                metrics.uploadSuccess();
-                return saved;
-            } catch (DataIntegrityViolationException duplicateUploadRace) {
-                cleanupUploadedObject(orphanCandidate(statement, objectKey));
-                Statement existingStatement = statementRepo.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
-                        customerId, accountId, periodStart, periodEnd, sha256
-                ).orElseThrow(() -> duplicateUploadRace);
-                metrics.uploadSuccess();
-                return existingStatement;
-            } catch (RuntimeException dbFailure) {
-                cleanupUploadedObject(orphanCandidate(statement, objectKey));
-                throw dbFailure;
-            }
-        } finally {
-            try {
-                Files.deleteIfExists(tmp);
-            } catch (Exception ignored) {
-            }
+        } catch (BadRequestException e) {
+            metrics.uploadFailure();
+            throw e;
+        } catch (Exception e) {
+            metrics.uploadFailure();
+            throw new RuntimeException("Failed to upload statement", e);
         }
     }
 
-    private void validateUpload(String customerId, String accountId, LocalDate periodStart, LocalDate periodEnd, MultipartFile pdf) {
-        validateMetadata("customerId", customerId);
-        validateMetadata("accountId", accountId);
-        if (pdf == null || pdf.isEmpty()) {
-            throw new BadRequestException("PDF file is required");
-        }
-        if (pdf.getSize() > MAX_UPLOAD_BYTES) {
-            throw new BadRequestException("PDF file exceeds the 10MB upload limit");
-        }
-        validateFilename(pdf.getOriginalFilename());
-        if (periodStart == null || periodEnd == null) {
-            throw new BadRequestException("periodStart and periodEnd are required");
-        }
-        if (periodEnd.isBefore(periodStart)) {
-            throw new BadRequestException("periodEnd must be on/after periodStart");
-        }
-        String contentType = (pdf.getContentType() == null) ? "" : pdf.getContentType();
-        if (!contentType.equalsIgnoreCase("application/pdf")) {
-            throw new BadRequestException("Only application/pdf is supported");
+    private Statement uploadValidated(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            MultipartFile pdf
+    ) throws Exception {
+        // One pass over the servlet's spooled part validates the signature, enforces the limit and hashes the
+        // content; the S3 PUT re-opens the part instead of copying it to another temp file first.
+        String sha256;
+        long size;
+        try (PdfUploadStream in = validator.open(pdf.getInputStream())) {
+            in.verifyPdfSignature();
+            in.transferTo(OutputStream.nullOutputStream());
+            sha256 = in.sha256Hex();
+            size = in.bytesRead();
         }
-    }
 
-    private void validateMetadata(String field, String value) {
-        if (value == null || value.isBlank()) {
-            throw new BadRequestException(field + " is required");
-        }
-        if (value.length() > MAX_METADATA_LENGTH || !SAFE_METADATA_VALUE.matcher(value).matches()) {
-            throw new BadRequestException(field + " contains unsupported characters");
+        Supplier<Optional<Statement>> existing = () -> writer.findExisting(customerId, accountId, periodStart, periodEnd, sha256);
+        Optional<Statement> current = existing.get();
+        if (current.isPresent()) {
+            metrics.uploadSuccess();
+            return current.get();
         }
-    }
 
-    private void validateFilename(String filename) {
-        if (filename == null || filename.isBlank()) {
-            throw new BadRequestException("PDF filename is required");
-        }
-        if (filename.contains("/") || filename.contains("\\") || filename.contains("..")
-                || !filename.toLowerCase(java.util.Locale.ROOT).endsWith(".pdf")
-                || !SAFE_FILENAME.matcher(filename).matches()) {
-            throw new BadRequestException("PDF filename is not supported");
-        }
+        // Retries of the same upload share one PUT and insert instead of racing each other to the unique index.
+        Statement statement = uploadFlights.execute(
+                flightKey(customerId, accountId, periodStart, periodEnd, sha256),
+                existing,
+                () -> storeAndPersist(customerId, accountId, periodStart, periodEnd, pdf, size, sha256)
+        );
+        metrics.uploadSuccess();
+        return statement;
     }
 
-    private void copyUploadToTempFile(MultipartFile pdf, Path tmp) throws Exception {
-        try (InputStream in = pdf.getInputStream(); var out = Files.newOutputStream(tmp)) {
-            byte[] buffer = new byte[8192];
-            long total = 0;
-            int read;
-            while ((read = in.read(buffer)) != -1) {
-                total += read;
-                if (total > MAX_UPLOAD_BYTES) {
-                    throw new BadRequestException("PDF file exceeds the 10MB upload limit");
-                }
-                out.write(buffer, 0, read);
+    private Statement storeAndPersist(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            MultipartFile pdf,
+            long size,
+            String sha256
+    ) {
+        UUID id = UUID.randomUUID();
+        String objectKey = writer.storageKey(customerId, accountId, periodStart, id, sha256);
+
+        if (writer.shouldStore(objectKey, sha256, size)) {
+            try {
+                writer.uploadToS3(StatementWriter.reopenable(pdf), size, objectKey);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
+
+        Statement statement = new Statement(
+                id, customerId, accountId, periodStart, periodEnd,
+                objectKey, "application/pdf", size, sha256,
+                Instant.now(), StatementStatus.ACTIVE
+        );
+        return writer.persistStatement(statement);
     }
 
-    private void validatePdfSignature(Path file) throws Exception {
-        byte[] header = new byte[PDF_SIGNATURE.length];
-        try (InputStream in = Files.newInputStream(file)) {
-            int read = in.read(header);
-            if (read < PDF_SIGNATURE.length) {
-                throw new BadRequestException("PDF file is missing a valid PDF signature");
-            }
-        }
-        for (int i = 0; i < PDF_SIGNATURE.length; i++) {
-            if (header[i] != PDF_SIGNATURE[i]) {
-                throw new BadRequestException("PDF file is missing a valid PDF signature");
-            }
-        }
+    private static String flightKey(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String sha256
+    ) {
+        // Metadata values are restricted to characters that cannot contain the separator.
+        return String.join("|", customerId, accountId, periodStart.toString(), periodEnd.toString(), sha256);
     }
 
-    private void uploadToS3(Path file, String objectKey) {
-        PutObjectRequest put = PutObjectRequest.builder()
-                .bucket(s3Props.bucket())
-                .key(objectKey)
-                .contentType("application/pdf")
-                .build();
+    private Statement uploadStreamValidated(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            long contentLength,
+            String expectedSha256,
+            InputStream body
+    ) throws Exception {
+        PdfUploadStream in = validator.open(body);
+        in.verifyPdfSignature();
 
-        s3.putObject(put, RequestBody.fromFile(file));
-    }
+        UUID id = UUID.randomUUID();
+        String objectKey = StatementWriter.objectKey(customerId, accountId, periodStart, id);
 
-    private OrphanedS3ObjectCandidate orphanCandidate(Statement statement, String objectKey) {
-        return new OrphanedS3ObjectCandidate(
-                s3Props.bucket(),
-                objectKey,
-                statement.getId(),
-                statement.getCustomerId(),
-                statement.getAccountId(),
-                statement.getPeriodStart(),
-                statement.getPeriodEnd(),
-                statement.getSizeBytes(),
-                statement.getSha256()
+        writer.recordIntents(List.of(objectKey));
+        writer.uploadToS3(StatementWriter.singleUse(in), contentLength, objectKey);
+
+        Statement statement = new Statement(
+                id, customerId, accountId, periodStart, periodEnd,
+                objectKey, "application/pdf", in.bytesRead(), in.sha256Hex(),
+                Instant.now(), StatementStatus.ACTIVE
         );
-    }
+        if (in.bytesRead() != contentLength) {
+            writer.discardUploadedObject(statement);
+            throw new BadRequestException("PDF body length does not match Content-Length");
+        }
+        if (expectedSha256 != null && !expectedSha256.equals(statement.getSha256())) {
+            writer.discardUploadedObject(statement);
+            throw new BadRequestException(UploadValidator.DECLARED_SHA256_MISMATCH);
+        }
 
-    private void cleanupUploadedObject(OrphanedS3ObjectCandidate candidate) {
-        try {
-            s3.deleteObject(DeleteObjectRequest.builder()
-                    .bucket(candidate.bucket())
-                    .key(candidate.objectKey())
-                    .build());
-        } catch (RuntimeException cleanupFailure) {
-            log.warn(
-                    "Failed to clean up uploaded object after metadata persistence failure statementId={} bucket={} key={} customerId={} accountId={} sha256={}",
-                    candidate.statementId(),
-                    candidate.bucket(),
-                    candidate.objectKey(),
-                    candidate.customerId(),
-                    candidate.accountId(),
-                    candidate.sha256()
-            );
-            if (orphanedObjectCleanupService != null) {
-                orphanedObjectCleanupService.recordFailedUploadCleanup(candidate, cleanupFailure);
-            }
+        var existing = writer.findExisting(customerId, accountId, periodStart, periodEnd, statement.getSha256());
+        if (existing.isPresent()) {
+            writer.discardUploadedObject(statement);
+            metrics.uploadSuccess();
+            return existing.get();
         }
+        Statement saved = writer.persistStatement(statement);
+        metrics.uploadSuccess();
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -275,38 +251,74 @@ public class StatementService {
         return statementRepo.findAll(pageable);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Loads a customer's statement, from the metadata cache when it holds it. No transaction is opened, so a cache hit
+     * or an ID the {@link StatementIdFilter} has never seen needs no connection.
+     */
     public Statement getForCustomer(UUID id, String customerId) {
-        return statementRepo.findByIdAndCustomerId(id, customerId)
+        Statement cached = metadataCache.get(id);
+        if (cached != null) {
+            if (!cached.getCustomerId().equals(customerId)) {
+                throw new NotFoundException("Statement not found");
+            }
+            return cached;
+        }
+        if (!mightExist(id)) {
+            throw new NotFoundException("Statement not found");
+        }
+        Statement s = statementRepo.findByIdAndCustomerId(id, customerId)
                 .orElseThrow(() -> new NotFoundException("Statement not found"));
+        writer.cacheStatement(s);
+        return s;
     }
 
-    @Transactional(readOnly = true)
     public Statement getForAdmin(UUID id) {
-        return statementRepo.findById(id)
+        Statement cached = metadataCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (!mightExist(id)) {
+            throw new NotFoundException("Statement not found");
+        }
+        Statement s = statementRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Statement not found"));
+        writer.cacheStatement(s);
+        return s;
     }
 
-    @Transactional(readOnly = true)
-    public String presignDownloadUrl(Statement s, Duration ttl) {
-        validateDownloadable(s);
-
-        GetObjectRequest get = GetObjectRequest.builder()
-                .bucket(s3Props.bucket())
-                .key(s.getObjectKey())
-                .responseContentType("application/pdf")
-                .build();
+    /**
+     * Whether the statement may exist. {@code false} only for IDs the {@link StatementIdFilter} knows were never
+     * stored, which can be answered with 404 without a query.
+     */
+    public boolean mightExist(UUID id) {
+        return !idFilter.isDefinitelyUnknown(id);
+    }
 
-        GetObjectPresignRequest req = GetObjectPresignRequest.builder()
-                .signatureDuration(ttl)
-                .getObjectRequest(get)
-                .build();
+    /**
+     * Loads the statements a caller may download in a single query: any of {@code ids} for admins, and only the
+     * customer's own otherwise. IDs that are missing from the result do not exist or belong to someone else.
+     *
+     * @param ids        the UUIDs of the statements
+     * @param customerId the ID of the calling customer, or {@code null} for an admin
+     * @return the accessible statements by ID
+     */
+    public Map<UUID, Statement> findForDownload(Collection<UUID> ids, String customerId) {
+        List<UUID> candidates = ids.stream().filter(this::mightExist).toList();
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        List<Statement> statements = customerId == null
+                ? statementRepo.findAllById(candidates)
+                : statementRepo.findByIdInAndCustomerId(candidates, customerId);
+        return statements.stream().collect(Collectors.toMap(Statement::getId, s -> s));
+    }
 
-        return presigner.presignGetObject(req).url().toString();
+    public boolean isDownloadable(Statement s) {
+        return s.getStatus() == StatementStatus.ACTIVE;
     }
 
     public void validateDownloadable(Statement s) {
-        if (s.getStatus() != StatementStatus.ACTIVE) {
+        if (!isDownloadable(s)) {
             throw new BadRequestException("Statement is not available for download");
         }
     }
@@ -317,19 +329,10 @@ public class StatementService {
                 .orElseThrow(() -> new NotFoundException("Statement not found"));
         s.revoke();
         Statement saved = statementRepo.save(s);
+        writer.publishChange(StatementChange.REVOKED, List.of(statementId));
+        metadataCache.invalidate(statementId);
+        downloadUrls.invalidate(statementId);
         metrics.revokeSuccess();
         return saved;
     }
-
-    private static String sha256Hex(Path file) throws Exception {
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        try (InputStream in = Files.newInputStream(file)) {
-            byte[] buf = new byte[8192];
-            int r;
-            while ((r = in.read(buf)) != -1) {
-                md.update(buf, 0, r);
-            }
-        }
-        return HexFormat.of().formatHex(md.digest());
-    }
 }
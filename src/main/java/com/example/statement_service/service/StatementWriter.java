@@ -0,0 +1,302 @@
+package com.example.statement_service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.OrphanedS3ObjectCandidate;
+import com.example.statement_service.storage.OrphanedS3ObjectCleanupService;
+import com.example.statement_service.storage.S3MultipartUploader;
+import com.example.statement_service.storage.S3Properties;
+import com.example.statement_service.storage.StatementBlobStore;
+import com.example.statement_service.storage.UploadIntentLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Stores uploaded statements for every upload path: writes the PDF to S3, inserts the row together with its blob
+ * reference or upload-intent resolution, and keeps the local caches and the other instances in step.
+ * <p>
+ * An object whose row cannot be written is deleted again, unless it is a content-addressed blob that other statements
+ * may share. A delete that fails is handed to {@link OrphanedS3ObjectCleanupService}.
+ */
+@Component
+class StatementWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementWriter.class);
+
+    private final StatementRepository statementRepo;
+    private final S3Client s3;
+    private final S3Properties s3Props;
+    private final TransactionTemplate transactionTemplate;
+    private final StatementMetrics metrics;
+    private final OrphanedS3ObjectCleanupService orphanedObjectCleanupService;
+    private final S3MultipartUploader multipartUploader;
+    private final StatementBlobStore blobs;
+    private final UploadIntentLog intents;
+    private final StatementMetadataCache metadataCache;
+    private final StatementChangeBus changes;
+    private final StatementIdFilter idFilter;
+    private final boolean contentAddressed;
+
+    StatementWriter(
+            StatementRepository statementRepo,
+            S3Client s3,
+            S3Properties s3Props,
+            TransactionTemplate transactionTemplate,
+            StatementMetrics metrics,
+            OrphanedS3ObjectCleanupService orphanedObjectCleanupService,
+            S3MultipartUploader multipartUploader,
+            StatementBlobStore blobs,
+            UploadIntentLog intents,
+            StatementMetadataCache metadataCache,
+            StatementChangeBus changes,
+            StatementIdFilter idFilter,
+            UploadProperties uploadProperties
+    ) {
+        this.statementRepo = statementRepo;
+        this.s3 = s3;
+        this.s3Props = s3Props;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        this.orphanedObjectCleanupService = orphanedObjectCleanupService;
+        this.multipartUploader = multipartUploader;
+        this.blobs = blobs;
+        this.intents = intents;
+        this.metadataCache = metadataCache;
+        this.changes = changes;
+        this.idFilter = idFilter;
+        this.contentAddressed = uploadProperties.storageMode() == UploadProperties.StorageMode.CONTENT_ADDRESSED;
+    }
+
+    boolean contentAddressed() {
+        return contentAddressed;
+    }
+
+    /**
+     * Finds the statement an upload with this metadata and digest is a duplicate of.
+     */
+    Optional<Statement> findExisting(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String sha256
+    ) {
+        return statementRepo.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                customerId, accountId, periodStart, periodEnd, sha256
+        );
+    }
+
+    /**
+     * Looks up the statement a client-declared digest resolves to, so a duplicate upload is answered before its body
+     * is read. Empty if no digest was declared.
+     */
+    Optional<Statement> findDeclaredDuplicate(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String declaredSha256
+    ) {
+        if (declaredSha256 == null) {
+            return Optional.empty();
+        }
+        return findExisting(customerId, accountId, periodStart, periodEnd, declaredSha256);
+    }
+
+    /**
+     * The key a statement whose digest is known before upload is stored under: its content-addressed blob in
+     * content-addressed mode, otherwise its own per-statement key.
+     */
+    String storageKey(String customerId, String accountId, LocalDate periodStart, UUID id, String sha256) {
+        return contentAddressed
+                ? StatementBlobStore.objectKey(sha256)
+                : objectKey(customerId, accountId, periodStart, id);
+    }
+
+    static String objectKey(String customerId, String accountId, LocalDate periodStart, UUID id) {
+        return "customer/%s/account/%s/%s/%s.pdf"
+                .formatted(customerId, accountId, periodStart.getYear() + "-" + String.format("%02d", periodStart.getMonthValue()), id);
+    }
+
+    /**
+     * Returns whether the object still has to be written. A content-addressed blob that is already referenced is
+     * reused as is; otherwise the blob is reserved first so orphan cleanup leaves it alone until it is referenced.
+     * A per-statement object always has to be written, and its upload intent is logged first.
+     */
+    boolean shouldStore(String objectKey, String sha256, long size) {
+        if (!StatementBlobStore.isBlobKey(objectKey)) {
+            intents.record(List.of(objectKey));
+            return true;
+        }
+        if (blobs.referenced(Set.of(sha256)).contains(sha256)) {
+            metrics.uploadDeduplicated();
+            return false;
+        }
+        blobs.reserve(sha256, size);
+        return true;
+    }
+
+    void recordIntents(List<String> objectKeys) {
+        intents.record(objectKeys);
+    }
+
+    void resolveIntents(List<String> objectKeys) {
+        intents.resolve(objectKeys);
+    }
+
+    void uploadToS3(ContentStreamProvider content, long size, String objectKey) throws IOException {
+        if (multipartUploader.shouldUseMultipart(size)) {
+            try (InputStream in = content.newStream()) {
+                multipartUploader.upload(s3Props.bucket(), objectKey, "application/pdf", in);
+            }
+            return;
+        }
+
+        PutObjectRequest put = PutObjectRequest.builder()
+                .bucket(s3Props.bucket())
+                .key(objectKey)
+                .contentType("application/pdf")
+                .build();
+
+        s3.putObject(put, RequestBody.fromContentProvider(content, size, "application/pdf"));
+    }
+
+    static ContentStreamProvider reopenable(MultipartFile pdf) {
+        return () -> {
+            try {
+                return pdf.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    static ContentStreamProvider singleUse(InputStream body) {
+        AtomicBoolean opened = new AtomicBoolean();
+        return () -> {
+            // A request body can only be read once, so an SDK retry of the PUT fails instead of sending a partial body.
+            if (!opened.compareAndSet(false, true)) {
+                throw new IllegalStateException("Streamed upload body cannot be replayed");
+            }
+            return body;
+        };
+    }
+
+    /**
+     * Inserts the row of a statement whose object is stored. A concurrent upload that inserted the same statement
+     * first wins: this object is discarded and that statement returned.
+     */
+    Statement persistStatement(Statement statement) {
+        String objectKey = statement.getObjectKey();
+        try {
+            Statement persisted = transactionTemplate.execute(status -> {
+                Statement saved = statementRepo.saveAndFlush(statement);
+                if (StatementBlobStore.isBlobKey(objectKey)) {
+                    blobs.addReferences(List.of(
+                            new StatementBlobStore.Reference(statement.getSha256(), statement.getSizeBytes(), 1)
+                    ));
+                } else {
+                    intents.resolve(List.of(objectKey));
+                }
+                publishChange(StatementChange.UPLOADED, List.of(saved.getId()));
+                return saved;
+            });
+            if (persisted != null) {
+                cacheStatement(persisted);
+            }
+            return persisted;
+        } catch (DataIntegrityViolationException duplicateUploadRace) {
+            discardUploadedObject(statement);
+            return findExisting(
+                    statement.getCustomerId(),
+                    statement.getAccountId(),
+                    statement.getPeriodStart(),
+                    statement.getPeriodEnd(),
+                    statement.getSha256()
+            ).orElseThrow(() -> duplicateUploadRace);
+        } catch (RuntimeException dbFailure) {
+            discardUploadedObject(statement);
+            throw dbFailure;
+        }
+    }
+
+    /**
+     * Announces a change to the other instances' caches once the surrounding transaction commits.
+     */
+    void publishChange(StatementChange change, List<UUID> statementIds) {
+        changes.publish(change, statementIds);
+    }
+
+    /**
+     * Records a committed statement in this instance's metadata cache and ID filter.
+     */
+    void cacheStatement(Statement s) {
+        metadataCache.put(s);
+        idFilter.add(s.getId());
+    }
+
+    /**
+     * Deletes the object stored for a statement whose row was not written.
+     */
+    void discardUploadedObject(Statement statement) {
+        OrphanedS3ObjectCandidate candidate = new OrphanedS3ObjectCandidate(
+                s3Props.bucket(),
+                statement.getObjectKey(),
+                statement.getId(),
+                statement.getCustomerId(),
+                statement.getAccountId(),
+                statement.getPeriodStart(),
+                statement.getPeriodEnd(),
+                statement.getSizeBytes(),
+                statement.getSha256()
+        );
+        if (StatementBlobStore.isBlobKey(candidate.objectKey())) {
+            // Blobs may be shared; an unreferenced one is reclaimed by orphan cleanup after the grace period.
+            return;
+        }
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(candidate.bucket())
+                    .key(candidate.objectKey())
+                    .build());
+        } catch (RuntimeException cleanupFailure) {
+            log.warn(
+                    "Failed to clean up uploaded object after metadata persistence failure statementId={} bucket={} key={} customerId={} accountId={} sha256={}",
+                    candidate.statementId(),
+                    candidate.bucket(),
+                    candidate.objectKey(),
+                    candidate.customerId(),
+                    candidate.accountId(),
+                    candidate.sha256()
+            );
+            orphanedObjectCleanupService.recordFailedUploadCleanup(candidate, cleanupFailure);
+            return;
+        }
+        try {
+            intents.resolve(List.of(candidate.objectKey()));
+        } catch (RuntimeException resolveFailure) {
+            // The reconciler deletes the object again once the intent is stale and then forgets it.
+            log.warn("Failed to resolve upload intent of deleted object key={}", candidate.objectKey(), resolveFailure);
+        }
+    }
+}
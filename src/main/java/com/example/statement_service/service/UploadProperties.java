@@ -0,0 +1,130 @@
+package com.example.statement_service.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("app.upload")
+public record UploadProperties(
+        DataSize maxSize,
+        Async async,
+        Bulk bulk,
+        StorageMode storageMode,
+        Coalescing coalescing
+) {
+
+    public UploadProperties {
+        if (maxSize == null || maxSize.toBytes() <= 0) {
+            maxSize = DataSize.ofMegabytes(10);
+        }
+        if (async == null) {
+            async = new Async(null, 0, 0, 0);
+        }
+        if (bulk == null) {
+            bulk = new Bulk(0, 0);
+        }
+        if (storageMode == null) {
+            storageMode = StorageMode.PER_STATEMENT;
+        }
+        if (coalescing == null) {
+            coalescing = new Coalescing(false, 0, 0);
+        }
+    }
+
+    public String limitMessage() {
+        long bytes = maxSize.toBytes();
+        String limit = bytes % DataSize.ofMegabytes(1).toBytes() == 0 ? maxSize.toMegabytes() + "MB" : bytes + " bytes";
+        return "PDF file exceeds the " + limit + " upload limit";
+    }
+
+    /**
+     * Where uploaded PDFs are stored.
+     */
+    public enum StorageMode {
+        /**
+         * One object per statement under {@code customer/{customerId}/account/{accountId}/{yyyy-MM}/}.
+         */
+        PER_STATEMENT,
+        /**
+         * One object per distinct SHA-256 under {@code blobs/sha256/}, shared by every statement with that content.
+         */
+        CONTENT_ADDRESSED
+    }
+
+    public record Async(
+            Path stagingDir,
+            int concurrency,
+            int queueCapacity,
+            long pendingTimeoutSeconds
+    ) {
+
+        public Async {
+            if (stagingDir == null) {
+                stagingDir = Path.of(System.getProperty("java.io.tmpdir"), "statement-service-staging");
+            }
+            if (concurrency <= 0) {
+                concurrency = 4;
+            }
+            if (queueCapacity < concurrency) {
+                queueCapacity = Math.max(concurrency, 100);
+            }
+            if (pendingTimeoutSeconds <= 0) {
+                pendingTimeoutSeconds = 3600;
+            }
+        }
+
+        public Duration pendingTimeout() {
+            return Duration.ofSeconds(pendingTimeoutSeconds);
+        }
+    }
+
+    public record Bulk(
+            int maxItems,
+            int concurrency
+    ) {
+
+        public Bulk {
+            if (maxItems <= 0) {
+                maxItems = 100;
+            }
+            if (concurrency <= 0) {
+                concurrency = 8;
+            }
+        }
+    }
+
+    /**
+     * Single-flight coalescing of concurrent identical uploads.
+     *
+     * @param distributed       also coalesce across instances with a lease row in Postgres
+     * @param waitTimeoutMillis how long an upload waits for the same upload running in this instance before it turns
+     *                          to the lease, or without distributed coalescing, uploads anyway
+     * @param leaseTtlMillis    how long a lease lives without renewal; the holder renews it every third of that, so
+     *                          this is how long a lease outlives an instance that crashed while holding it
+     */
+    public record Coalescing(
+            boolean distributed,
+            long waitTimeoutMillis,
+            long leaseTtlMillis
+    ) {
+
+        public Coalescing {
+            if (waitTimeoutMillis <= 0) {
+                waitTimeoutMillis = 10000;
+            }
+            if (leaseTtlMillis <= 0) {
+                leaseTtlMillis = 30000;
+            }
+        }
+
+        public Duration waitTimeout() {
+            return Duration.ofMillis(waitTimeoutMillis);
+        }
+
+        public Duration leaseTtl() {
+            return Duration.ofMillis(leaseTtlMillis);
+        }
+    }
+}
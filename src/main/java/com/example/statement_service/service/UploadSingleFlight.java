@@ -0,0 +1,234 @@
+package com.example.statement_service.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces concurrent uploads of the same statement so only one of them stores the object and inserts the row.
+ * <p>
+ * Within an instance, the first upload of a key becomes the leader and later ones wait for its result. Across
+ * instances, the leader also claims a row in {@code upload_leases} keyed by a hash of the key, and renews it every
+ * third of the lease TTL for as long as the upload runs. The claim, renewals and release are single autocommit
+ * statements, so no pooled connection is held while the object is stored. An upload that finds the lease taken polls
+ * for the statement the other instance is writing for as long as the lease is live, and takes over once it is
+ * released or expires without one, which happens a lease TTL after its holder crashed.
+ * <p>
+ * A follower in the same instance waits for its leader at most the wait timeout. Past it, the follower goes through
+ * the lease like an upload from another instance, or, without distributed coalescing, runs uncoordinated and the
+ * unique index still resolves the race, as it does without coalescing.
+ */
+@Component
+public class UploadSingleFlight implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSingleFlight.class);
+    private static final long MIN_POLL_MILLIS = 25;
+    private static final long MAX_POLL_MILLIS = 500;
+    private static final String CLAIM_LEASE_SQL = """
+            INSERT INTO upload_leases (lease_id, holder, expires_at)
+            VALUES (?, ?, now() + ? * INTERVAL '1 millisecond')
+            ON CONFLICT (lease_id) DO UPDATE
+            SET holder = EXCLUDED.holder, expires_at = EXCLUDED.expires_at
+            WHERE upload_leases.expires_at <= now()
+            """;
+    private static final String RENEW_LEASE_SQL = """
+            UPDATE upload_leases
+            SET expires_at = now() + ? * INTERVAL '1 millisecond'
+            WHERE lease_id = ? AND holder = ?
+            """;
+    // Also drops leases left behind by crashed instances; the table only ever holds uploads in flight.
+    private static final String RELEASE_LEASE_SQL = """
+            DELETE FROM upload_leases
+            WHERE (lease_id = ? AND holder = ?) OR expires_at <= now()
+            """;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbc;
+    private final UploadProperties.Coalescing properties;
+    private final StatementMetrics metrics;
+    private final ScheduledExecutorService renewals = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("upload-lease-renewal").factory()
+    );
+
+    @Autowired
+    public UploadSingleFlight(JdbcTemplate jdbc, UploadProperties uploadProperties, StatementMetrics metrics) {
+        this(jdbc, uploadProperties.coalescing(), metrics);
+    }
+
+    UploadSingleFlight(JdbcTemplate jdbc, UploadProperties.Coalescing properties, StatementMetrics metrics) {
+        this.jdbc = jdbc;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs {@code upload} unless a concurrent upload of the same key is already running, in which case its result is
+     * returned instead.
+     *
+     * @param key      identifies uploads that must produce the same statement
+     * @param existing finds the statement once another instance has written it
+     * @param upload   stores the object and writes the statement; never returns {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<Optional<T>> existing, Supplier<T> upload) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            Optional<T> result = (Optional<T>) await(leader, properties.waitTimeout());
+            if (result.isPresent()) {
+                metrics.uploadCoalesced();
+                return result.get();
+            }
+            log.info("Timed out waiting for a concurrent upload in this instance, continuing without it");
+            return properties.distributed() ? executeLeased(key, true, existing, upload) : upload.get();
+        }
+        try {
+            T result = properties.distributed() ? executeLeased(key, false, existing, upload) : upload.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Leads the upload under the lease, or polls for the statement while another instance holds a live lease.
+     *
+     * @param waited whether the caller already waited for another upload, so a statement written meanwhile is looked
+     *               up before uploading
+     */
+    private <T> T executeLeased(String key, boolean waited, Supplier<Optional<T>> existing, Supplier<T> upload) {
+        long leaseId = leaseId(key);
+        long pollMillis = MIN_POLL_MILLIS;
+        while (true) {
+            Optional<T> led = tryLead(leaseId, waited, existing, upload);
+            if (led.isPresent()) {
+                return led.get();
+            }
+
+            waited = true;
+            Optional<T> written = existing.get();
+            if (written.isPresent()) {
+                metrics.uploadCoalesced();
+                return written.get();
+            }
+            sleep(pollMillis);
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Runs the upload while holding the lease, or returns empty if another instance holds it. After waiting for
+     * another upload, a statement written in the meantime is returned without uploading.
+     * <p>
+     * The lease is renewed while the upload runs, so however long the upload takes, an instance that crashes
+     * mid-upload blocks the key for at most one lease TTL.
+     */
+    private <T> Optional<T> tryLead(long leaseId, boolean waited, Supplier<Optional<T>> existing, Supplier<T> upload) {
+        UUID holder = UUID.randomUUID();
+        long ttlMillis = properties.leaseTtl().toMillis();
+        if (jdbc.update(CLAIM_LEASE_SQL, leaseId, holder, ttlMillis) == 0) {
+            return Optional.empty();
+        }
+        long renewMillis = Math.max(1, ttlMillis / 3);
+        ScheduledFuture<?> renewal = renewals.scheduleWithFixedDelay(
+                () -> renewLease(leaseId, holder, ttlMillis), renewMillis, renewMillis, TimeUnit.MILLISECONDS
+        );
+        try {
+            return Optional.of(waited ? existing.get().orElseGet(upload) : upload.get());
+        } finally {
+            renewal.cancel(false);
+            releaseLease(leaseId, holder);
+        }
+    }
+
+    private void renewLease(long leaseId, UUID holder, long ttlMillis) {
+        try {
+            if (jdbc.update(RENEW_LEASE_SQL, ttlMillis, leaseId, holder) == 0) {
+                log.warn("Upload lease expired before it was renewed, another instance may repeat the upload leaseId={}",
+                        leaseId);
+            }
+        } catch (DataAccessException e) {
+            // The next renewal tries again while the lease is still live.
+            log.warn("Failed to renew upload lease leaseId={}", leaseId, e);
+        }
+    }
+
+    private void releaseLease(long leaseId, UUID holder) {
+        try {
+            jdbc.update(RELEASE_LEASE_SQL, leaseId, holder);
+        } catch (DataAccessException e) {
+            // Followers take over once the lease expires.
+            log.warn("Failed to release upload lease leaseId={}", leaseId, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renewals.shutdownNow();
+    }
+
+    /**
+     * Returns the leader's result, or empty if it did not finish within {@code timeout}.
+     */
+    private static Optional<Object> await(CompletableFuture<Object> leader, Duration timeout) {
+        try {
+            return Optional.of(leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent upload", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Concurrent upload failed", e.getCause());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent upload", e);
+        }
+    }
+
+    static long leaseId(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(("statement-upload:" + key).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.statement_service.service;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Validates upload metadata and enforces the configured upload size limit for every upload path.
+ */
+@Component
+@EnableConfigurationProperties(UploadProperties.class)
+class UploadValidator {
+
+    static final String DECLARED_SHA256_MISMATCH = "PDF body does not match the declared SHA-256";
+
+    private static final int MAX_METADATA_LENGTH = 128;
+    private static final Pattern SAFE_METADATA_VALUE = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._@-]{0,127}");
+    private static final Pattern SAFE_FILENAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._ -]{0,254}");
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9A-Fa-f]{64}");
+
+    private final long maxUploadBytes;
+    private final String uploadLimitMessage;
+
+    UploadValidator(UploadProperties uploadProperties) {
+        this.maxUploadBytes = uploadProperties.maxSize().toBytes();
+        this.uploadLimitMessage = uploadProperties.limitMessage();
+    }
+
+    long maxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    String uploadLimitMessage() {
+        return uploadLimitMessage;
+    }
+
+    /**
+     * Wraps an upload body so the PDF signature can be checked and the size limit and SHA-256 are enforced as it is read.
+     */
+    PdfUploadStream open(InputStream body) {
+        return new PdfUploadStream(body, maxUploadBytes, uploadLimitMessage);
+    }
+
+    void validateUpload(String customerId, String accountId, LocalDate periodStart, LocalDate periodEnd, MultipartFile pdf) {
+        validateMetadata("customerId", customerId);
+        validateMetadata("accountId", accountId);
+        if (pdf == null || pdf.isEmpty()) {
+            throw new BadRequestException("PDF file is required");
+        }
+        if (pdf.getSize() > maxUploadBytes) {
+            throw new BadRequestException(uploadLimitMessage);
+        }
+        validateFilename(pdf.getOriginalFilename());
+        validatePeriod(periodStart, periodEnd);
+        validateContentType(pdf.getContentType());
+    }
+
+    void validateStreamUpload(
+            String customerId,
+            String accountId,
+            LocalDate periodStart,
+            LocalDate periodEnd,
+            String contentType,
+            long contentLength
+    ) {
+        validateMetadata("customerId", customerId);
+        validateMetadata("accountId", accountId);
+        if (contentLength < 0) {
+            throw new BadRequestException("Content-Length is required for streamed uploads");
+        }
+        if (contentLength == 0) {
+            throw new BadRequestException("PDF file is required");
+        }
+        if (contentLength > maxUploadBytes) {
+            throw new BadRequestException(uploadLimitMessage);
+        }
+        validatePeriod(periodStart, periodEnd);
+        validateContentType(contentType);
+    }
+
+    void validateDeclaredContent(long sizeBytes, String sha256) {
+        if (sizeBytes <= 0) {
+            throw new BadRequestException("PDF file is required");
+        }
+        validateSize(sizeBytes);
+        validateSha256(sha256);
+    }
+
+    void validateSize(long sizeBytes) {
+        if (sizeBytes > maxUploadBytes) {
+            throw new BadRequestException(uploadLimitMessage);
+        }
+    }
+
+    /**
+     * Validates an optional client-declared digest and returns it in lower case, or {@code null} if none was declared.
+     */
+    String normalizeDeclaredSha256(String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        validateSha256(sha256);
+        return sha256.toLowerCase(Locale.ROOT);
+    }
+
+    private void validateSha256(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new BadRequestException("sha256 must be a hex-encoded SHA-256 digest");
+        }
+    }
+
+    void validatePeriod(LocalDate periodStart, LocalDate periodEnd) {
+        if (periodStart == null || periodEnd == null) {
+            throw new BadRequestException("periodStart and periodEnd are required");
+        }
+        if (periodEnd.isBefore(periodStart)) {
+            throw new BadRequestException("periodEnd must be on/after periodStart");
+        }
+    }
+
+    void validateContentType(String contentType) {
+        String mediaType = (contentType == null) ? "" : contentType.split(";", 2)[0].trim();
+        if (!mediaType.equalsIgnoreCase("application/pdf")) {
+            throw new BadRequestException("Only application/pdf is supported");
+        }
+    }
+
+    void validateMetadata(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException(field + " is required");
+        }
+        if (value.length() > MAX_METADATA_LENGTH || !SAFE_METADATA_VALUE.matcher(value).matches()) {
+            throw new BadRequestException(field + " contains unsupported characters");
+        }
+    }
+
+    private void validateFilename(String filename) {
+        if (filename == null || filename.isBlank()) {
+            throw new BadRequestException("PDF filename is required");
+        }
+        if (filename.contains("/") || filename.contains("\\") || filename.contains("..")
+                || !filename.toLowerCase(Locale.ROOT).endsWith(".pdf")
+                || !SAFE_FILENAME.matcher(filename).matches()) {
+            throw new BadRequestException("PDF filename is not supported");
+        }
+    }
+}
@@ -8,7 +8,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public record OrphanedObjectCleanupProperties(
         boolean enabled,
         int batchSize,
-        long minObjectAgeSeconds
+        long minObjectAgeSeconds,
+        long scanIntervalSeconds
 ) {
 
     public OrphanedObjectCleanupProperties {
@@ -18,9 +19,16 @@ public record OrphanedObjectCleanupProperties(
         if (minObjectAgeSeconds < 0) {
             minObjectAgeSeconds = 900;
         }
+        if (scanIntervalSeconds < 0) {
+            scanIntervalSeconds = 604800;
+        }
     }
 
     public Duration minObjectAge() {
         return Duration.ofSeconds(minObjectAgeSeconds);
     }
+
+    public Duration scanInterval() {
+        return Duration.ofSeconds(scanIntervalSeconds);
+    }
 }
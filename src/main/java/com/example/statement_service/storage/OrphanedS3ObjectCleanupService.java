@@ -33,6 +33,8 @@ public class OrphanedS3ObjectCleanupService {
     private final StatementRepository statementRepository;
     private final OrphanedS3ObjectRepository orphanedRepository;
     private final OrphanedObjectCleanupProperties cleanupProperties;
+    private final StatementBlobStore blobs;
+    private final UploadIntentLog intents;
     private final Clock clock;
 
     @Autowired
@@ -41,9 +43,14 @@ public class OrphanedS3ObjectCleanupService {
             S3Properties s3Properties,
             StatementRepository statementRepository,
             OrphanedS3ObjectRepository orphanedRepository,
-            OrphanedObjectCleanupProperties cleanupProperties
+            OrphanedObjectCleanupProperties cleanupProperties,
+            StatementBlobStore blobs,
+            UploadIntentLog intents
     ) {
-        this(s3, s3Properties, statementRepository, orphanedRepository, cleanupProperties, Clock.systemUTC());
+        this(
+                s3, s3Properties, statementRepository, orphanedRepository, cleanupProperties, blobs, intents,
+                Clock.systemUTC()
+        );
     }
 
     OrphanedS3ObjectCleanupService(
@@ -52,6 +59,8 @@ public class OrphanedS3ObjectCleanupService {
             StatementRepository statementRepository,
             OrphanedS3ObjectRepository orphanedRepository,
             OrphanedObjectCleanupProperties cleanupProperties,
+            StatementBlobStore blobs,
+            UploadIntentLog intents,
             Clock clock
     ) {
         this.s3 = s3;
@@ -59,6 +68,8 @@ public class OrphanedS3ObjectCleanupService {
         this.statementRepository = statementRepository;
         this.orphanedRepository = orphanedRepository;
         this.cleanupProperties = cleanupProperties;
+        this.blobs = blobs;
+        this.intents = intents;
         this.clock = clock;
     }
 
@@ -72,11 +83,24 @@ public class OrphanedS3ObjectCleanupService {
         }
     }
 
+    /**
+     * Deletes leaked objects, spending at most one batch per run. Queued deletes go first, then objects of stale
+     * upload intents, then unreferenced blobs. Uploads log their intent before writing, so these cover every leak
+     * the service can cause; the full bucket scan only runs once per scan interval across all instances, as a safety
+     * net for objects written outside the service or before intents existed.
+     */
     public CleanupResult reconcile() {
-        int limit = cleanupProperties.batchSize();
-        int recorded = reconcileRecordedObjects(limit);
-        int scanned = recorded >= limit ? 0 : scanForUntrackedObjects(limit - recorded);
-        return new CleanupResult(recorded, scanned);
+        int remaining = cleanupProperties.batchSize();
+        int recorded = reconcileRecordedObjects(remaining);
+        remaining -= recorded;
+        int staleIntents = remaining <= 0 ? 0 : reclaimStaleIntents(remaining);
+        remaining -= staleIntents;
+        int reclaimed = remaining <= 0 ? 0 : reclaimUnreferencedBlobs(remaining);
+        remaining -= reclaimed;
+        int scanned = remaining <= 0 || !intents.claimBucketScan(cleanupProperties.scanInterval())
+                ? 0
+                : scanForUntrackedObjects(remaining);
+        return new CleanupResult(recorded, staleIntents, scanned, reclaimed);
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -180,6 +204,27 @@ public class OrphanedS3ObjectCleanupService {
         return processed;
     }
 
+    private int reclaimStaleIntents(int limit) {
+        Instant cutoff = clock.instant().minus(cleanupProperties.minObjectAge());
+        return intents.reclaimStale(cutoff, limit, this::deleteObject);
+    }
+
+    /**
+     * Content-addressed blobs live outside the {@code customer/} prefix and are owned by the blob table, so they are
+     * only deleted once no statement has referenced them for the whole grace period.
+     */
+    private int reclaimUnreferencedBlobs(int limit) {
+        Instant cutoff = clock.instant().minus(cleanupProperties.minObjectAge());
+        return blobs.reclaimUnreferenced(cutoff, limit, this::deleteObject);
+    }
+
+    private void deleteObject(String objectKey) {
+        s3.deleteObject(DeleteObjectRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(objectKey)
+                .build());
+    }
+
     private boolean isOldEnough(S3Object object, Instant cutoff) {
         return object.lastModified() != null && !object.lastModified().isAfter(cutoff);
     }
@@ -206,6 +251,11 @@ public class OrphanedS3ObjectCleanupService {
         }
     }
 
-    public record CleanupResult(int recordedObjectsProcessed, int scannedObjectsProcessed) {
+    public record CleanupResult(
+            int recordedObjectsProcessed,
+            int staleIntentsProcessed,
+            int scannedObjectsProcessed,
+            int unreferencedBlobsReclaimed
+    ) {
     }
 }
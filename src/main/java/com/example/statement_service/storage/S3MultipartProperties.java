@@ -0,0 +1,41 @@
+package com.example.statement_service.storage;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("app.s3.multipart")
+public record S3MultipartProperties(
+        DataSize threshold,
+        DataSize partSize,
+        int concurrency,
+        int partAttempts,
+        long partTimeoutMillis
+) {
+
+    // S3 rejects multipart uploads whose non-final parts are smaller than 5MiB.
+    private static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+
+    public S3MultipartProperties {
+        if (partSize == null || partSize.compareTo(MIN_PART_SIZE) < 0) {
+            partSize = partSize == null ? DataSize.ofMegabytes(8) : MIN_PART_SIZE;
+        }
+        if (threshold == null || threshold.compareTo(partSize) < 0) {
+            threshold = threshold == null ? DataSize.ofMegabytes(16) : partSize;
+        }
+        if (concurrency <= 0) {
+            concurrency = 4;
+        }
+        if (partAttempts <= 0) {
+            partAttempts = 3;
+        }
+        if (partTimeoutMillis <= 0) {
+            partTimeoutMillis = 60000;
+        }
+    }
+
+    public Duration partTimeout() {
+        return Duration.ofMillis(partTimeoutMillis);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.statement_service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * Uploads large objects to S3 as multipart uploads whose parts are sent in parallel.
+ * <p>
+ * Parts are read sequentially from the source stream, so callers can keep hashing and size checks in-line, and are
+ * uploaded on a shared, bounded worker pool. At most {@code concurrency} part buffers are held in memory across all
+ * uploads of the process, so concurrent uploads wait for a buffer instead of each adding their own.
+ * A part is retried on its own before the whole upload fails, and a failed upload is aborted so S3 does not keep
+ * billing for its stored parts.
+ */
+@Component
+@EnableConfigurationProperties(S3MultipartProperties.class)
+public class S3MultipartUploader implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(S3MultipartUploader.class);
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final S3Client s3;
+    private final S3MultipartProperties properties;
+    private final ExecutorService partExecutor;
+    private final Semaphore buffers;
+
+    @Autowired
+    public S3MultipartUploader(S3Client s3, S3MultipartProperties properties) {
+        this(s3, properties, Executors.newFixedThreadPool(properties.concurrency(), partThreadFactory()));
+    }
+
+    S3MultipartUploader(S3Client s3, S3MultipartProperties properties, ExecutorService partExecutor) {
+        this.s3 = s3;
+        this.properties = properties;
+        this.partExecutor = partExecutor;
+        this.buffers = new Semaphore(properties.concurrency(), true);
+    }
+
+    public boolean shouldUseMultipart(long contentLength) {
+        return contentLength >= properties.threshold().toBytes();
+    }
+
+    /**
+     * Uploads the stream to the given key, reading it until EOF.
+     *
+     * @throws IOException if the source stream cannot be read; the multipart upload is aborted
+     */
+    public void upload(String bucket, String key, String contentType, InputStream body) throws IOException {
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .checksumAlgorithm(ChecksumAlgorithm.SHA256)
+                .build()).uploadId();
+
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            sendParts(bucket, key, uploadId, body, parts);
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            completed.sort(Comparator.comparing(CompletedPart::partNumber));
+
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucket, key, uploadId, parts);
+            throw new InterruptedIOException("Interrupted while uploading parts for " + key);
+        } catch (ExecutionException e) {
+            abort(bucket, key, uploadId, parts);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Multipart upload failed for " + key, e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abort(bucket, key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private void sendParts(
+            String bucket,
+            String key,
+            String uploadId,
+            InputStream body,
+            List<Future<CompletedPart>> parts
+    ) throws IOException, InterruptedException, ExecutionException {
+        int partSize = Math.toIntExact(properties.partSize().toBytes());
+        for (int partNumber = 1; ; partNumber++) {
+            buffers.acquire();
+            byte[] part;
+            try {
+                failFast(parts);
+                part = body.readNBytes(partSize);
+            } catch (IOException | RuntimeException | ExecutionException e) {
+                buffers.release();
+                throw e;
+            }
+            if (part.length == 0 && partNumber > 1) {
+                buffers.release();
+                return;
+            }
+
+            int number = partNumber;
+            // done() also runs when abort() cancels a part that never started, so its buffer is not leaked.
+            FutureTask<CompletedPart> task = new FutureTask<>(() -> uploadPart(bucket, key, uploadId, number, part)) {
+                @Override
+                protected void done() {
+                    buffers.release();
+                }
+            };
+            parts.add(task);
+            partExecutor.execute(task);
+            if (part.length < partSize) {
+                return;
+            }
+        }
+    }
+
+    private static void failFast(List<Future<CompletedPart>> parts) throws InterruptedException, ExecutionException {
+        for (Future<CompletedPart> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    private CompletedPart uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] part)
+            throws InterruptedException {
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) part.length)
+                .checksumAlgorithm(ChecksumAlgorithm.SHA256)
+                .overrideConfiguration(o -> o
+                        .apiCallTimeout(properties.partTimeout())
+                        .apiCallAttemptTimeout(properties.partTimeout()))
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartResponse response = s3.uploadPart(request, RequestBody.fromBytes(part));
+                return CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .checksumSHA256(response.checksumSHA256())
+                        .build();
+            } catch (RuntimeException e) {
+                if (attempt >= properties.partAttempts()) {
+                    throw e;
+                }
+                log.warn("Retrying S3 multipart part key={} partNumber={} attempt={}", key, partNumber, attempt, e);
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            }
+        }
+    }
+
+    private void abort(String bucket, String key, String uploadId, List<Future<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException abortFailure) {
+            log.warn("Failed to abort S3 multipart upload bucket={} key={} uploadId={}", bucket, key, uploadId, abortFailure);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        partExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory partThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "s3-multipart-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
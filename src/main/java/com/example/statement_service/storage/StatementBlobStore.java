@@ -0,0 +1,175 @@
+package com.example.statement_service.storage;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reference-counted index of content-addressed statement objects.
+ * <p>
+ * A blob is stored once under a key derived from its SHA-256 and shared by every statement with that content.
+ * {@code ref_count} is the number of statements that point at the blob and is only changed in the transaction that
+ * inserts those statements, so a failed insert never leaks a reference.
+ * <p>
+ * Every change to a blob row also moves {@code updated_at}, and unreferenced blobs are only reclaimed once
+ * {@code updated_at} is older than the orphan grace period. This gives a writer that saw a referenced blob, or that
+ * {@linkplain #reserve reserved} one before uploading it, the whole grace period to commit its reference.
+ */
+@Component
+public class StatementBlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBlobStore.class);
+    public static final String BLOB_PREFIX = "blobs/sha256/";
+
+    private record Blob(String sha256, String objectKey) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public StatementBlobStore(JdbcTemplate jdbc, TransactionTemplate transactionTemplate) {
+        this(jdbc, transactionTemplate, Clock.systemUTC());
+    }
+
+    StatementBlobStore(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, Clock clock) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    public static String objectKey(String sha256) {
+        return BLOB_PREFIX + sha256.substring(0, 2) + "/" + sha256 + ".pdf";
+    }
+
+    public static boolean isBlobKey(String objectKey) {
+        return objectKey.startsWith(BLOB_PREFIX);
+    }
+
+    /**
+     * Returns the digests whose blob is referenced by at least one statement, so their upload can be skipped.
+     */
+    public Set<String> referenced(Collection<String> sha256s) {
+        if (sha256s.isEmpty()) {
+            return Set.of();
+        }
+        List<String> found = jdbc.queryForList(
+                "SELECT sha256 FROM statement_blobs WHERE ref_count > 0 AND sha256 IN ("
+                        + String.join(", ", Collections.nCopies(sha256s.size(), "?")) + ")",
+                String.class,
+                sha256s.toArray()
+        );
+        return new HashSet<>(found);
+    }
+
+    /**
+     * Records a blob that is about to be uploaded, or refreshes its grace period if it is already known, so it is
+     * not reclaimed while the upload runs. Call this before writing the object.
+     */
+    public void reserve(String sha256, long sizeBytes) {
+        Timestamp now = Timestamp.from(clock.instant());
+        jdbc.update(
+                """
+                INSERT INTO statement_blobs (sha256, object_key, size_bytes, ref_count, created_at, updated_at)
+                VALUES (?, ?, ?, 0, ?, ?)
+                ON CONFLICT (sha256) DO UPDATE SET updated_at = EXCLUDED.updated_at
+                """,
+                sha256, objectKey(sha256), sizeBytes, now, now
+        );
+    }
+
+    /**
+     * Adds references for newly inserted statements. Must run in the transaction that inserts them.
+     */
+    public void addReferences(Collection<Reference> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(clock.instant());
+        jdbc.batchUpdate(
+                """
+                INSERT INTO statement_blobs (sha256, object_key, size_bytes, ref_count, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT (sha256) DO UPDATE
+                SET ref_count = statement_blobs.ref_count + EXCLUDED.ref_count,
+                    updated_at = EXCLUDED.updated_at
+                """,
+                new ArrayList<>(references),
+                references.size(),
+                (ps, reference) -> {
+                    ps.setString(1, reference.sha256());
+                    ps.setString(2, objectKey(reference.sha256()));
+                    ps.setLong(3, reference.sizeBytes());
+                    ps.setInt(4, reference.count());
+                    ps.setTimestamp(5, now);
+                    ps.setTimestamp(6, now);
+                }
+        );
+    }
+
+    /**
+     * Deletes blobs that no statement references and that have not changed since {@code cutoff}.
+     * <p>
+     * Each blob row stays locked while its object is deleted, so a concurrent {@link #reserve} waits and then
+     * recreates the row for the object it is about to write. Rows whose object cannot be deleted are kept for the
+     * next run.
+     *
+     * @param deleteObject deletes the blob object by key
+     * @return the number of blobs reclaimed
+     */
+    public int reclaimUnreferenced(Instant cutoff, int limit, Consumer<String> deleteObject) {
+        Integer reclaimed = transactionTemplate.execute(status -> {
+            List<Blob> blobs = jdbc.query(
+                    """
+                    SELECT sha256, object_key
+                    FROM statement_blobs
+                    WHERE ref_count = 0 AND updated_at < ?
+                    ORDER BY updated_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                    """,
+                    (rs, rowNum) -> new Blob(rs.getString("sha256"), rs.getString("object_key")),
+                    Timestamp.from(cutoff),
+                    limit
+            );
+            int deleted = 0;
+            for (Blob blob : blobs) {
+                try {
+                    deleteObject.accept(blob.objectKey());
+                } catch (RuntimeException deleteFailure) {
+                    log.warn("Failed to delete unreferenced blob sha256={} key={}", blob.sha256(), blob.objectKey(), deleteFailure);
+                    continue;
+                }
+                jdbc.update("DELETE FROM statement_blobs WHERE sha256 = ?", blob.sha256());
+                deleted++;
+            }
+            return deleted;
+        });
+        return reclaimed == null ? 0 : reclaimed;
+    }
+
+    /**
+     * New statements pointing at one blob.
+     *
+     * @param sha256    the digest of the blob
+     * @param sizeBytes the size of the blob
+     * @param count     the number of new statements
+     */
+    public record Reference(String sha256, long sizeBytes, int count) {
+    }
+}
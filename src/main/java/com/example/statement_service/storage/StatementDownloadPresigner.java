@@ -0,0 +1,188 @@
+package com.example.statement_service.storage;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * SigV4 query-string presigner for statement downloads: a path-style {@code GetObject} of a PDF with
+ * {@code response-content-type=application/pdf} from the configured bucket.
+ * <p>
+ * The request shape never changes, so everything except the object key, the expiry and the timestamp is rendered once
+ * at startup, and the derived signing key is computed once per UTC day instead of on every URL. The output is
+ * byte-identical to {@code S3Presigner.presignGetObject} for the same request and signing time. Uploads still use the
+ * SDK presigner, because their signed headers vary per request.
+ */
+@Component
+public class StatementDownloadPresigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String HMAC = "HmacSHA256";
+    private static final String ENCODED_CONTENT_TYPE = "application%2Fpdf";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private record SigningKey(long epochDay, String date, Mac mac) {
+    }
+
+    private final String urlPrefix;
+    private final String canonicalUriPrefix;
+    private final String canonicalRequestSuffix;
+    private final String encodedCredentialPrefix;
+    private final String credentialScopeSuffix;
+    private final String encodedCredentialScopeSuffix;
+    private final byte[] secret;
+    private final String region;
+    private volatile SigningKey signingKey;
+
+    @Autowired
+    public StatementDownloadPresigner(S3Properties props) {
+        this(props.presignEndpoint(), props.region(), props.bucket(), props.accessKey(), props.secretKey());
+    }
+
+    StatementDownloadPresigner(String endpoint, String region, String bucket, String accessKey, String secretKey) {
+        URI uri = URI.create(endpoint);
+        String host = uri.getHost() + (isDefaultPort(uri) ? "" : ":" + uri.getPort());
+        String encodedBucket = uriEncode(bucket, false);
+
+        this.urlPrefix = uri.getScheme() + "://" + host + "/" + encodedBucket + "/";
+        this.canonicalUriPrefix = "GET\n/" + encodedBucket + "/";
+        this.canonicalRequestSuffix = "\nhost:" + host + "\n\nhost\nUNSIGNED-PAYLOAD";
+        this.encodedCredentialPrefix = uriEncode(accessKey, true) + "%2F";
+        this.credentialScopeSuffix = "/" + region + "/s3/aws4_request";
+        this.encodedCredentialScopeSuffix = uriEncode(credentialScopeSuffix, true);
+        this.secret = ("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8);
+        this.region = region;
+    }
+
+    /**
+     * Presigns a download of the object, valid for {@code ttl} from {@code signedAt} truncated to whole seconds.
+     */
+    public String presignGetObject(String objectKey, Duration ttl, Instant signedAt) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(signedAt.getEpochSecond(), 0, ZoneOffset.UTC);
+        SigningKey key = signingKey(time.toLocalDate().toEpochDay());
+        StringBuilder buffer = new StringBuilder(512);
+        appendTwoDigits(appendTwoDigits(appendTwoDigits(buffer.append(key.date()).append('T'),
+                time.getHour()), time.getMinute()), time.getSecond()).append('Z');
+        String amzDate = buffer.toString();
+        String encodedKey = uriEncode(objectKey, false);
+        long expires = ttl.toSeconds();
+
+        buffer.setLength(0);
+        buffer.append(canonicalUriPrefix).append(encodedKey).append('\n')
+                .append("X-Amz-Algorithm=").append(ALGORITHM)
+                .append("&X-Amz-Credential=").append(encodedCredentialPrefix).append(key.date()).append(encodedCredentialScopeSuffix)
+                .append("&X-Amz-Date=").append(amzDate)
+                .append("&X-Amz-Expires=").append(expires)
+                .append("&X-Amz-SignedHeaders=host")
+                .append("&response-content-type=").append(ENCODED_CONTENT_TYPE)
+                .append(canonicalRequestSuffix);
+        String canonicalRequestHash = HEX.formatHex(sha256(buffer));
+
+        buffer.setLength(0);
+        buffer.append(ALGORITHM).append('\n')
+                .append(amzDate).append('\n')
+                .append(key.date()).append(credentialScopeSuffix).append('\n')
+                .append(canonicalRequestHash);
+        String signature = HEX.formatHex(hmac(key.mac(), buffer));
+
+        buffer.setLength(0);
+        return buffer.append(urlPrefix).append(encodedKey)
+                .append("?response-content-type=").append(ENCODED_CONTENT_TYPE)
+                .append("&X-Amz-Algorithm=").append(ALGORITHM)
+                .append("&X-Amz-Date=").append(amzDate)
+                .append("&X-Amz-SignedHeaders=host")
+                .append("&X-Amz-Credential=").append(encodedCredentialPrefix).append(key.date()).append(encodedCredentialScopeSuffix)
+                .append("&X-Amz-Expires=").append(expires)
+                .append("&X-Amz-Signature=").append(signature)
+                .toString();
+    }
+
+    private SigningKey signingKey(long epochDay) {
+        SigningKey current = signingKey;
+        if (current != null && current.epochDay() == epochDay) {
+            return current;
+        }
+        // Racing threads may derive the same key twice around midnight, which is harmless.
+        LocalDate day = LocalDate.ofEpochDay(epochDay);
+        String date = "%04d%02d%02d".formatted(day.getYear(), day.getMonthValue(), day.getDayOfMonth());
+        try {
+            byte[] derived = hmac(secret, date);
+            derived = hmac(derived, region);
+            derived = hmac(derived, "s3");
+            derived = hmac(derived, "aws4_request");
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(derived, HMAC));
+            current = new SigningKey(epochDay, date, mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+        signingKey = current;
+        return current;
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(new SecretKeySpec(key, HMAC));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] hmac(Mac prototype, CharSequence data) {
+        try {
+            // Cloning the keyed prototype skips the key schedule that Mac.init would repeat on every URL.
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(data.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 does not support cloning", e);
+        }
+    }
+
+    private static byte[] sha256(CharSequence data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Percent-encodes everything except RFC 3986 unreserved characters, and {@code /} unless {@code encodeSlash}.
+     */
+    static String uriEncode(String value, boolean encodeSlash) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        StringBuilder encoded = new StringBuilder(bytes.length + 16);
+        for (byte b : bytes) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit((c >> 4) & 0xf, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xf, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static boolean isDefaultPort(URI uri) {
+        return uri.getPort() == -1
+                || ("http".equalsIgnoreCase(uri.getScheme()) && uri.getPort() == 80)
+                || ("https".equalsIgnoreCase(uri.getScheme()) && uri.getPort() == 443);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder buffer, int value) {
+        return buffer.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
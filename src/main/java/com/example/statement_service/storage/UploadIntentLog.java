@@ -0,0 +1,147 @@
+package com.example.statement_service.storage;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-ahead log of objects being stored under per-statement keys.
+ * <p>
+ * An intent is {@linkplain #record recorded} and committed before the object is written, and
+ * {@linkplain #resolve resolved} in the transaction that inserts the statement pointing at it, or once the object has
+ * been deleted again. An intent that outlives the orphan grace period therefore names an object that may exist but
+ * will never get a statement, so the reconciler can find leaked objects without listing the bucket.
+ * <p>
+ * Content-addressed blobs are not logged here; their {@link StatementBlobStore#reserve reservation} plays the same
+ * role.
+ */
+@Component
+public class UploadIntentLog {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadIntentLog.class);
+    private static final String BUCKET_SCAN = "bucket";
+
+    private record Intent(String objectKey, boolean committed) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public UploadIntentLog(JdbcTemplate jdbc, TransactionTemplate transactionTemplate) {
+        this(jdbc, transactionTemplate, Clock.systemUTC());
+    }
+
+    UploadIntentLog(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, Clock clock) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * Records objects that are about to be written. Call this outside any transaction, before writing the objects,
+     * so the intents survive a crash during the upload.
+     */
+    public void record(Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(clock.instant());
+        jdbc.batchUpdate(
+                "INSERT INTO upload_intents (object_key, created_at) VALUES (?, ?) ON CONFLICT (object_key) DO NOTHING",
+                new ArrayList<>(objectKeys),
+                objectKeys.size(),
+                (ps, objectKey) -> {
+                    ps.setString(1, objectKey);
+                    ps.setTimestamp(2, now);
+                }
+        );
+    }
+
+    /**
+     * Forgets objects that are now owned by a statement or have been deleted. When objects got statements, this must
+     * run in the transaction that inserts them.
+     */
+    public void resolve(Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(
+                "DELETE FROM upload_intents WHERE object_key = ?",
+                new ArrayList<>(objectKeys),
+                objectKeys.size(),
+                (ps, objectKey) -> ps.setString(1, objectKey)
+        );
+    }
+
+    /**
+     * Deletes the objects of intents recorded before {@code cutoff} and forgets the intents.
+     * <p>
+     * An intent whose object does have a statement is only forgotten. Intents whose object cannot be deleted are kept
+     * for the next run.
+     *
+     * @param deleteObject deletes the object by key
+     * @return the number of stale intents resolved
+     */
+    public int reclaimStale(Instant cutoff, int limit, Consumer<String> deleteObject) {
+        Integer reclaimed = transactionTemplate.execute(status -> {
+            List<Intent> intents = jdbc.query(
+                    """
+                    SELECT i.object_key,
+                           EXISTS (SELECT 1 FROM statements s WHERE s.object_key = i.object_key) AS committed
+                    FROM upload_intents i
+                    WHERE i.created_at < ?
+                    ORDER BY i.created_at
+                    LIMIT ?
+                    FOR UPDATE OF i SKIP LOCKED
+                    """,
+                    (rs, rowNum) -> new Intent(rs.getString("object_key"), rs.getBoolean("committed")),
+                    Timestamp.from(cutoff),
+                    limit
+            );
+            List<String> resolved = new ArrayList<>();
+            for (Intent intent : intents) {
+                if (!intent.committed()) {
+                    try {
+                        deleteObject.accept(intent.objectKey());
+                    } catch (RuntimeException deleteFailure) {
+                        log.warn("Failed to delete object of stale upload intent key={}", intent.objectKey(), deleteFailure);
+                        continue;
+                    }
+                }
+                resolved.add(intent.objectKey());
+            }
+            resolve(resolved);
+            return resolved.size();
+        });
+        return reclaimed == null ? 0 : reclaimed;
+    }
+
+    /**
+     * Claims the next full bucket scan for this instance if none has started within {@code interval}. Every instance
+     * shares the schedule, so the scan runs once per interval however many instances there are.
+     */
+    public boolean claimBucketScan(Duration interval) {
+        Instant now = clock.instant();
+        int claimed = jdbc.update(
+                "UPDATE orphan_scan_runs SET last_run_at = ? WHERE scan = ? AND last_run_at <= ?",
+                Timestamp.from(now),
+                BUCKET_SCAN,
+                Timestamp.from(now.minus(interval))
+        );
+        return claimed > 0;
+    }
+}
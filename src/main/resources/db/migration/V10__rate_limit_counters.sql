@@ -0,0 +1,5 @@
+CREATE TABLE rate_limit_counters (
+    key_id UUID PRIMARY KEY,
+    window_started_at TIMESTAMPTZ NOT NULL,
+    request_count INTEGER NOT NULL
+);
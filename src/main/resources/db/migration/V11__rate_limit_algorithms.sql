@@ -0,0 +1,6 @@
+ALTER TABLE rate_limit_counters ADD COLUMN previous_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE rate_limit_gcra (
+    key_id UUID PRIMARY KEY,
+    theoretical_arrival_at TIMESTAMPTZ NOT NULL
+);
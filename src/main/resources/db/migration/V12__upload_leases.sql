@@ -0,0 +1,7 @@
+-- Cross-instance claim on an upload, so concurrent identical uploads on different instances store the object once.
+-- The row is deleted when the upload finishes; one left by a crashed instance can be claimed again once it expires.
+CREATE TABLE upload_leases (
+    lease_id BIGINT PRIMARY KEY,
+    holder UUID NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
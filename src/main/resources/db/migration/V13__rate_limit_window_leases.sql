@@ -0,0 +1 @@
+ALTER TABLE rate_limit_windows ADD COLUMN leased_count INTEGER NOT NULL DEFAULT 0;
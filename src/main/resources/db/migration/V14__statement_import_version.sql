@@ -0,0 +1 @@
+ALTER TABLE statement_imports ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
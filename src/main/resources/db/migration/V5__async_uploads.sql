@@ -0,0 +1,10 @@
+-- Failed asynchronous uploads keep their row for status polling but must not block a retry of the same file.
+ALTER TABLE statements DROP CONSTRAINT uk_statement_idempotency;
+
+CREATE UNIQUE INDEX uk_statement_idempotency
+    ON statements(customer_id, account_id, period_start, period_end, sha256)
+    WHERE status <> 'FAILED';
+
+CREATE INDEX idx_statements_pending_uploaded_at
+    ON statements(uploaded_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,19 @@
+CREATE TABLE statement_imports (
+    id UUID PRIMARY KEY,
+    prefix TEXT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    continuation_token TEXT,
+    objects_listed BIGINT NOT NULL,
+    imported BIGINT NOT NULL,
+    existing BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    failed BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    completed_at TIMESTAMPTZ,
+    last_error TEXT
+);
+
+CREATE INDEX idx_statement_imports_running_updated_at
+    ON statement_imports(updated_at)
+    WHERE status = 'RUNNING';
@@ -0,0 +1,14 @@
+-- Content-addressed objects shared by every statement with the same SHA-256.
+CREATE TABLE statement_blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    object_key TEXT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT ck_statement_blobs_ref_count CHECK (ref_count >= 0)
+);
+
+CREATE INDEX idx_statement_blobs_unreferenced_updated_at
+    ON statement_blobs(updated_at)
+    WHERE ref_count = 0;
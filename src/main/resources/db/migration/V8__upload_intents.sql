@@ -0,0 +1,19 @@
+-- Write-ahead record of an object that is about to be stored under a per-statement key. The row is deleted in the
+-- transaction that inserts the statement, so any row older than the orphan grace period marks a leaked object.
+CREATE TABLE upload_intents (
+    object_key TEXT PRIMARY KEY,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_upload_intents_created_at ON upload_intents(created_at);
+
+-- Orphan checks look statements up by object key.
+CREATE INDEX idx_statements_object_key ON statements(object_key);
+
+-- Last run of the full bucket scan, shared by every instance.
+CREATE TABLE orphan_scan_runs (
+    scan VARCHAR(64) PRIMARY KEY,
+    last_run_at TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO orphan_scan_runs (scan, last_run_at) VALUES ('bucket', TIMESTAMPTZ 'epoch');
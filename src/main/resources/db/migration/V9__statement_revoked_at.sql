@@ -0,0 +1,3 @@
+ALTER TABLE statements ADD COLUMN revoked_at TIMESTAMPTZ;
+
+CREATE INDEX idx_statements_revoked_at ON statements(revoked_at) WHERE revoked_at IS NOT NULL;
@@ -7,15 +7,38 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
 import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.ratelimit.RateLimitProperties;
+import com.example.statement_service.ratelimit.RateLimiter;
 import com.example.statement_service.security.JwtConfig;
 import com.example.statement_service.security.JwtValidationProperties;
+import com.example.statement_service.service.AuditService;
+import com.example.statement_service.service.BadRequestException;
+import com.example.statement_service.service.DownloadLinkAuthorizer;
+import com.example.statement_service.service.NotFoundException;
+import com.example.statement_service.service.StatementIdFilter;
+import com.example.statement_service.service.StatementService;
+import com.example.statement_service.service.TooManyRequestsException;
+import com.example.statement_service.service.UploadProperties;
+import com.example.statement_service.service.UploadSingleFlight;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSSigner;
@@ -25,6 +48,8 @@ import com.nimbusds.jwt.SignedJWT;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -34,6 +59,7 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -49,12 +75,16 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Testcontainers
@@ -122,6 +152,24 @@ class StatementServiceIT {
     @Autowired(required = false)
     private WebTestClient webTestClient;
 
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private StatementMetrics metrics;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private StatementIdFilter idFilter;
+
     @org.springframework.boot.test.web.server.LocalServerPort
     private int port;
 
@@ -190,6 +238,268 @@ class StatementServiceIT {
         assertThat(Json.extract(secondBody, "sha256")).isEqualTo(Json.extract(firstBody, "sha256"));
     }
 
+    @Test
+    void identicalUploadsOnTwoInstancesAreCoalescedThroughALeaseRow() throws Exception {
+        UploadProperties properties = new UploadProperties(
+                null, null, null, null, new UploadProperties.Coalescing(true, 5000, 30000)
+        );
+        // Each instance keeps its own in-flight map, so the two only meet in upload_leases.
+        UploadSingleFlight first = new UploadSingleFlight(jdbc, properties, metrics);
+        UploadSingleFlight second = new UploadSingleFlight(jdbc, properties, metrics);
+        String key = "coalesce-" + UUID.randomUUID();
+        AtomicReference<String> written = new AtomicReference<>();
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch finishUpload = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> first.execute(key, () -> Optional.ofNullable(written.get()), () -> {
+                leading.countDown();
+                await(finishUpload);
+                written.set("stored once");
+                return "stored once";
+            }));
+            assertThat(leading.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(jdbc.queryForObject("SELECT count(*) FROM upload_leases", Long.class)).isEqualTo(1L);
+
+            Future<String> follower = executor.submit(
+                    () -> second.execute(key, () -> Optional.ofNullable(written.get()), () -> "stored twice")
+            );
+            Thread.sleep(300);
+            assertThat(follower.isDone()).isFalse();
+            finishUpload.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("stored once");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("stored once");
+        }
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM upload_leases", Long.class)).isZero();
+    }
+
+    @Test
+    void rawPdfUploadStreamsBodyAndIsIdempotentWithMultipartUpload() {
+        String customerId = "cust-stream-" + UUID.randomUUID();
+        String adminToken = devToken("admin", "admin");
+        LocalDate periodStart = LocalDate.of(2025, 4, 1);
+        byte[] pdf = minimalPdfBytes();
+
+        String streamedBody = webTestClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/statements")
+                        .queryParam("customerId", customerId)
+                        .queryParam("accountId", "acc-stream")
+                        .queryParam("periodStart", periodStart.toString())
+                        .queryParam("periodEnd", periodStart.withDayOfMonth(periodStart.lengthOfMonth()).toString())
+                        .build())
+                .headers(h -> h.setBearerAuth(adminToken))
+                .contentType(MediaType.APPLICATION_PDF)
+                .bodyValue(pdf)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String multipartBody = uploadStatement(adminToken, customerId, "acc-stream", periodStart, pdf)
+                .expectStatus().isCreated()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(Json.extract(multipartBody, "id")).isEqualTo(Json.extract(streamedBody, "id"));
+        assertThat(streamedBody).contains("\"sizeBytes\":" + pdf.length);
+    }
+
+    @Test
+    void presignedUploadIsFinalizedIntoStatementAndFinalizeIsIdempotent() throws Exception {
+        String customerId = "cust-presigned-" + UUID.randomUUID();
+        String adminToken = devToken("admin", "admin");
+        byte[] pdf = minimalPdfBytes();
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(pdf);
+        String metadata = ("\"customerId\":\"%s\",\"accountId\":\"acc-presigned\",\"periodStart\":\"2025-05-01\","
+                + "\"periodEnd\":\"2025-05-31\",\"sizeBytes\":%d,\"sha256\":\"%s\"")
+                .formatted(customerId, pdf.length, HexFormat.of().formatHex(digest));
+
+        String presignBody = webTestClient.post()
+                .uri("/api/v1/statements/uploads")
+                .headers(h -> h.setBearerAuth(adminToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{" + metadata + ",\"ttlSeconds\":300}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        String uploadId = Json.extract(presignBody, "uploadId");
+
+        HttpResponse<String> put = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(Json.extract(presignBody, "url")))
+                        .header("Content-Type", "application/pdf")
+                        .header("x-amz-checksum-sha256", Base64.getEncoder().encodeToString(digest))
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(pdf))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertThat(put.statusCode()).isEqualTo(200);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String finalizeBody = webTestClient.post()
+                    .uri("/api/v1/statements/uploads/{uploadId}/finalize", uploadId)
+                    .headers(h -> h.setBearerAuth(adminToken))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{" + metadata + "}")
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectHeader().exists(HttpHeaders.LOCATION)
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertThat(Json.extract(finalizeBody, "id")).isEqualTo(uploadId);
+        }
+
+        String multipartBody = uploadStatement(adminToken, customerId, "acc-presigned", LocalDate.of(2025, 5, 1), pdf)
+                .expectStatus().isCreated()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(Json.extract(multipartBody, "id")).isEqualTo(uploadId);
+    }
+
+    @Test
+    void finalizeWithoutUploadedObjectReturnsNotFound() {
+        String adminToken = devToken("admin", "admin");
+
+        webTestClient.post()
+                .uri("/api/v1/statements/uploads/{uploadId}/finalize", UUID.randomUUID())
+                .headers(h -> h.setBearerAuth(adminToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"customerId":"cust-missing","accountId":"acc-missing","periodStart":"2025-05-01",\
+                        "periodEnd":"2025-05-31","sizeBytes":10,"sha256":"%s"}""".formatted("0".repeat(64)))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void asyncUploadReturnsAcceptedPendingStatementThatBecomesActive() throws Exception {
+        String customerId = "cust-async-" + UUID.randomUUID();
+        String adminToken = devToken("admin", "admin");
+        LocalDate periodStart = LocalDate.of(2025, 6, 1);
+
+        String acceptedBody = webTestClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/statements/async")
+                        .queryParam("customerId", customerId)
+                        .queryParam("accountId", "acc-async")
+                        .queryParam("periodStart", periodStart.toString())
+                        .queryParam("periodEnd", periodStart.withDayOfMonth(periodStart.lengthOfMonth()).toString())
+                        .build())
+                .headers(h -> h.setBearerAuth(adminToken))
+                .contentType(MediaType.APPLICATION_PDF)
+                .bodyValue(minimalPdfBytes())
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        String statementId = Json.extract(acceptedBody, "id");
+
+        String status = Json.extract(acceptedBody, "status");
+        for (int attempt = 0; attempt < 50 && !"ACTIVE".equals(status); attempt++) {
+            Thread.sleep(100);
+            status = Json.extract(webTestClient.get()
+                    .uri("/api/v1/statements/{id}", statementId)
+                    .headers(h -> h.setBearerAuth(adminToken))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody(), "status");
+        }
+        assertThat(status).isEqualTo("ACTIVE");
+
+        webTestClient.post()
+                .uri("/api/v1/statements/{id}/download-link", statementId)
+                .headers(h -> h.setBearerAuth(devToken(customerId, "customer")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ttlSeconds\":300}")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void stagedObjectsAreImportedServerSideIntoStatements() throws Exception {
+        String customerId = "cust-import-" + UUID.randomUUID();
+        String prefix = "staging/" + UUID.randomUUID() + "/";
+        String adminToken = devToken("admin", "admin");
+        byte[] pdf = minimalPdfBytes();
+
+        try (S3Client s3 = S3Client.builder()
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("minio", "minio12345")))
+                .region(Region.of("af-south-1"))
+                .forcePathStyle(true)
+                .build()) {
+            s3.putObject(PutObjectRequest.builder()
+                    .bucket(BUCKET)
+                    .key(prefix + "statement.pdf")
+                    .contentType("application/pdf")
+                    .checksumAlgorithm(ChecksumAlgorithm.SHA256)
+                    .metadata(Map.of(
+                            "customer-id", customerId,
+                            "account-id", "acc-import",
+                            "period-start", "2025-07-01",
+                            "period-end", "2025-07-31"
+                    ))
+                    .build(), RequestBody.fromBytes(pdf));
+            s3.putObject(PutObjectRequest.builder()
+                    .bucket(BUCKET)
+                    .key(prefix + "no-metadata.pdf")
+                    .contentType("application/pdf")
+                    .checksumAlgorithm(ChecksumAlgorithm.SHA256)
+                    .build(), RequestBody.fromBytes(pdf));
+        }
+
+        String startedBody = webTestClient.post()
+                .uri("/api/v1/statements/imports")
+                .headers(h -> h.setBearerAuth(adminToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"prefix\":\"" + prefix + "\"}")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        String importId = Json.extract(startedBody, "id");
+
+        String status = Json.extract(startedBody, "status");
+        String progressBody = startedBody;
+        for (int attempt = 0; attempt < 50 && "RUNNING".equals(status); attempt++) {
+            Thread.sleep(100);
+            progressBody = webTestClient.get()
+                    .uri("/api/v1/statements/imports/{id}", importId)
+                    .headers(h -> h.setBearerAuth(adminToken))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody();
+            status = Json.extract(progressBody, "status");
+        }
+        assertThat(status).isEqualTo("COMPLETED");
+        assertThat(progressBody).contains("\"imported\":1", "\"rejected\":1");
+
+        webTestClient.get()
+                .uri("/api/v1/statements?page=0&size=10")
+                .headers(h -> h.setBearerAuth(devToken(customerId, "customer")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].sha256").isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(pdf)));
+    }
+
     @Test
     void revokedStatementCannotGenerateDownloadLink() {
         String customerId = "cust-revoked-" + UUID.randomUUID();
@@ -218,6 +528,58 @@ class StatementServiceIT {
                 .expectStatus().isBadRequest();
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "TRANSACTION, FIXED_WINDOW",
+            "UPSERT, FIXED_WINDOW",
+            "UPSERT, SLIDING_WINDOW",
+            "UPSERT, GCRA"
+    })
+    void singleStatementAuthorizationChecksOwnerStatusAndQuotaOnPostgres(
+            RateLimitProperties.DatabaseMode databaseMode,
+            RateLimitProperties.Algorithm algorithm
+    ) {
+        String customerId = "cust-authorize-" + UUID.randomUUID();
+        String adminToken = devToken("admin", "admin");
+        UUID statementId = UUID.fromString(
+                uploadedStatementId(adminToken, customerId, "acc-authorize", LocalDate.of(2025, 3, 1))
+        );
+        DownloadLinkAuthorizer authorizer = new DownloadLinkAuthorizer(
+                jdbc,
+                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, databaseMode, algorithm),
+                statementService,
+                rateLimiter,
+                auditService,
+                metrics,
+                idFilter
+        );
+
+        DownloadLinkAuthorizer.Grant owner = authorizer.authorize(statementId, customerId, "GENERATE_LINK", "127.0.0.1", "it");
+        assertThat(owner.customerId()).isEqualTo(customerId);
+        assertThat(owner.objectKey()).startsWith("customer/" + customerId + "/account/acc-authorize/2025-03/");
+        assertThat(owner.sha256()).isEqualTo(sha256Hex(minimalPdfBytes()));
+
+        assertThatThrownBy(() -> authorizer.authorize(statementId, "cust-other", "GENERATE_LINK", "127.0.0.1", "it"))
+                .isInstanceOf(NotFoundException.class);
+
+        DownloadLinkAuthorizer.Grant admin = authorizer.authorize(statementId, null, "DOWNLOAD", "127.0.0.1", "it");
+        assertThat(admin.customerId()).isEqualTo(customerId);
+
+        assertThatThrownBy(() -> authorizer.authorize(statementId, customerId, "GENERATE_LINK", "127.0.0.1", "it"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(downloadAuditEvents(statementId)).isEqualTo(2);
+
+        webTestClient.post()
+                .uri("/api/v1/statements/{id}/revoke", statementId)
+                .headers(h -> h.setBearerAuth(adminToken))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThatThrownBy(() -> authorizer.authorize(statementId, null, "DOWNLOAD", "127.0.0.1", "it"))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(downloadAuditEvents(statementId)).isEqualTo(2);
+    }
+
     @Test
     void metadataReadsDoNotConsumeDownloadQuotaAndDownloadPathsShareRateLimit() {
         String customerId = "cust-rate-" + UUID.randomUUID();
@@ -771,6 +1133,31 @@ class StatementServiceIT {
         };
     }
 
+    private long downloadAuditEvents(UUID statementId) {
+        return jdbc.queryForObject(
+                "SELECT count(*) FROM audit_events WHERE statement_id = ? AND action IN ('GENERATE_LINK', 'DOWNLOAD')",
+                Long.class,
+                statementId
+        );
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
     private byte[] minimalPdfBytes() {
         return ("%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n").getBytes(StandardCharsets.UTF_8);
     }
@@ -0,0 +1,133 @@
+package com.example.statement_service.api;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.service.DownloadLinkAuthorizer;
+import com.example.statement_service.service.DownloadProperties;
+import com.example.statement_service.service.ProxyDownloads;
+import com.example.statement_service.service.TooManyRequestsException;
+import com.example.statement_service.storage.S3Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProxyDownloadWriterTest {
+
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final String SHA256 = "b".repeat(64);
+    private static final DownloadLinkAuthorizer.Grant GRANT = new DownloadLinkAuthorizer.Grant(
+            UUID.randomUUID(), "customer-1", "customer/customer-1/account/account-1/2026-01/statement.pdf", PDF.length, SHA256
+    );
+
+    private S3Client s3;
+    private ProxyDownloadWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        s3 = mock(S3Client.class);
+        S3Properties s3Properties = new S3Properties(
+                "http://localhost:9000", "", "af-south-1", "access-key", "secret-key", "statements",
+                2000, 5000, 10000, 4000, 3
+        );
+        ProxyDownloads proxyDownloads = new ProxyDownloads(
+                s3, s3Properties, new DownloadProperties(null, null, new DownloadProperties.Proxy(false, 1, 8, 0), null)
+        );
+        writer = new ProxyDownloadWriter(proxyDownloads, mock(StatementMetrics.class));
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest get = invocation.getArgument(0);
+            byte[] body = PDF;
+            if (get.range() != null) {
+                String[] bounds = get.range().substring("bytes=".length()).split("-");
+                body = Arrays.copyOfRange(PDF, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+            }
+            return new ResponseInputStream<>(
+                    GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(body))
+            );
+        });
+    }
+
+    @Test
+    void streamsWholeObjectThroughASmallBufferWithStrongEtag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(GRANT, new MockHttpServletRequest(), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(PDF);
+        assertThat(response.getContentLengthLong()).isEqualTo(PDF.length);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + SHA256 + "\"");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    }
+
+    @Test
+    void servesSingleRangesAndIgnoresThemForAStaleIfRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=-6");
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+
+        writer.write(GRANT, request, partial);
+
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes " + (PDF.length - 6) + "-" + (PDF.length - 1) + "/" + PDF.length);
+        assertThat(partial.getContentAsString()).isEqualTo("%%EOF\n");
+        ArgumentCaptor<GetObjectRequest> get = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3).getObject(get.capture());
+        assertThat(get.getValue().range()).isEqualTo("bytes=" + (PDF.length - 6) + "-" + (PDF.length - 1));
+
+        request.addHeader("If-Range", "\"" + "c".repeat(64) + "\"");
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        writer.write(GRANT, request, full);
+        assertThat(full.getStatus()).isEqualTo(200);
+        assertThat(full.getContentAsByteArray()).isEqualTo(PDF);
+    }
+
+    @Test
+    void answersConditionalAndUnsatisfiableRequestsWithoutReadingS3() throws Exception {
+        MockHttpServletRequest cached = new MockHttpServletRequest();
+        cached.addHeader("If-None-Match", "\"" + SHA256 + "\"");
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        writer.write(GRANT, cached, notModified);
+
+        MockHttpServletRequest beyondEnd = new MockHttpServletRequest();
+        beyondEnd.addHeader("Range", "bytes=" + PDF.length + "-");
+        MockHttpServletResponse unsatisfiable = new MockHttpServletResponse();
+        writer.write(GRANT, beyondEnd, unsatisfiable);
+
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader("Content-Range")).isEqualTo("bytes */" + PDF.length);
+        verify(s3, never()).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void rejectsDownloadsBeyondTheBufferPool() {
+        ProxyDownloads pool = new ProxyDownloads(
+                s3, null, new DownloadProperties(null, null, new DownloadProperties.Proxy(false, 1, 8, 0), null)
+        );
+        try (ProxyDownloads.Transfer held = pool.begin()) {
+            assertThatThrownBy(pool::begin).isInstanceOf(TooManyRequestsException.class);
+        }
+        pool.begin().close();
+    }
+}
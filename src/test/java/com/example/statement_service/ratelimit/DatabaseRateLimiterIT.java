@@ -0,0 +1,200 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link RateLimitUpsert} statements of {@link DatabaseRateLimiter} against the migrated schema.
+ */
+@Testcontainers
+class DatabaseRateLimiterIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("statements")
+            .withUsername("statements")
+            .withPassword("statements");
+
+    private MutableClock clock;
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure().dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void upsertCountsSingleKeysAndBatchesAcrossAWindowRollover() {
+        DatabaseRateLimiter limiter = limiter(RateLimitProperties.Algorithm.FIXED_WINDOW);
+        String first = "download-link:" + UUID.randomUUID();
+        String second = "download-link:" + UUID.randomUUID();
+
+        assertTrue(limiter.tryConsume(first));
+        assertThat(limiter.tryConsumeAll(List.of(first, second, second))).containsExactlyInAnyOrder(first, second);
+        assertFalse(limiter.tryConsume(first));
+        assertThat(limiter.tryConsumeAll(List.of(first, second))).containsExactly(second);
+        // A fixed window counts refused requests too.
+        assertThat(requestCount(first)).isEqualTo(4);
+        assertThat(requestCount(second)).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(limiter.tryConsumeAll(List.of(first, second))).containsExactlyInAnyOrder(first, second);
+        assertTrue(limiter.tryConsume(first));
+        assertFalse(limiter.tryConsume(first));
+        assertThat(requestCount(first)).isEqualTo(3);
+        assertThat(windowStartedAt(first)).isEqualTo(clock.instant());
+        assertThat(windowStartedAt(second)).isEqualTo(clock.instant());
+    }
+
+    @Test
+    void slidingWindowWeighsInThePreviousCountAfterTheBoundary() {
+        DatabaseRateLimiter fixed = limiter(RateLimitProperties.Algorithm.FIXED_WINDOW);
+        DatabaseRateLimiter sliding = limiter(RateLimitProperties.Algorithm.SLIDING_WINDOW);
+        String fixedKey = "download-link:" + UUID.randomUUID();
+        String slidingKey = "download-link:" + UUID.randomUUID();
+        Instant firstWindow = clock.instant();
+        for (var limited : List.of(new Limited(fixed, fixedKey), new Limited(sliding, slidingKey))) {
+            assertTrue(limited.limiter().tryConsume(limited.key()));
+            assertTrue(limited.limiter().tryConsume(limited.key()));
+            assertFalse(limited.limiter().tryConsume(limited.key()));
+        }
+
+        // A quarter into the next window: the fixed window starts over, the sliding one still counts 1.5 requests.
+        clock.advance(Duration.ofSeconds(75));
+        assertTrue(fixed.tryConsume(fixedKey));
+        assertFalse(sliding.tryConsume(slidingKey));
+        assertThat(requestCount(slidingKey)).isEqualTo(2);
+        assertThat(windowStartedAt(slidingKey)).isEqualTo(firstWindow);
+
+        // Halfway in, the weighted count of 1 leaves room for one request, which moves the count to previous_count.
+        clock.advance(Duration.ofSeconds(15));
+        assertTrue(sliding.tryConsume(slidingKey));
+        assertFalse(sliding.tryConsume(slidingKey));
+        assertThat(requestCount(slidingKey)).isEqualTo(1);
+        assertThat(previousCount(slidingKey)).isEqualTo(2);
+        assertThat(windowStartedAt(slidingKey)).isEqualTo(firstWindow.plusSeconds(60));
+
+        // At the next boundary the previous window no longer overlaps.
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(sliding.tryConsume(slidingKey));
+        assertFalse(sliding.tryConsume(slidingKey));
+    }
+
+    @Test
+    void gcraAdmitsABurstAndThenSpacesRequestsByTheEmissionInterval() {
+        DatabaseRateLimiter limiter = limiter(RateLimitProperties.Algorithm.GCRA);
+        String key = "download-link:" + UUID.randomUUID();
+
+        assertTrue(limiter.tryConsume(key));
+        assertTrue(limiter.tryConsume(key));
+        assertFalse(limiter.tryConsume(key));
+        assertThat(theoreticalArrivalAt(key)).isEqualTo(clock.instant().plusSeconds(60));
+
+        // With a limit of 2 per 60 seconds, one request is due every 30 seconds.
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofSeconds(29));
+            assertFalse(limiter.tryConsume(key));
+            clock.advance(Duration.ofSeconds(1));
+            assertTrue(limiter.tryConsume(key));
+            assertFalse(limiter.tryConsume(key));
+        }
+    }
+
+    private DatabaseRateLimiter limiter(RateLimitProperties.Algorithm algorithm) {
+        return new DatabaseRateLimiter(
+                jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new RateLimitProperties(
+                        2, 60, RateLimitProperties.FailureMode.DENY, RateLimitProperties.Backend.DATABASE, 0, null,
+                        RateLimitProperties.DatabaseMode.UPSERT, algorithm
+                ),
+                clock
+        );
+    }
+
+    private int requestCount(String key) {
+        return jdbc.queryForObject(
+                "SELECT request_count FROM rate_limit_counters WHERE key_id = ?", Integer.class, RateLimitKeys.idOf(key)
+        );
+    }
+
+    private Instant windowStartedAt(String key) {
+        return jdbc.queryForObject(
+                "SELECT window_started_at FROM rate_limit_counters WHERE key_id = ?", Timestamp.class, RateLimitKeys.idOf(key)
+        ).toInstant();
+    }
+
+    private int previousCount(String key) {
+        return jdbc.queryForObject(
+                "SELECT previous_count FROM rate_limit_counters WHERE key_id = ?", Integer.class, RateLimitKeys.idOf(key)
+        );
+    }
+
+    private Instant theoreticalArrivalAt(String key) {
+        return jdbc.queryForObject(
+                "SELECT theoretical_arrival_at FROM rate_limit_gcra WHERE key_id = ?", Timestamp.class, RateLimitKeys.idOf(key)
+        ).toInstant();
+    }
+
+    private record Limited(DatabaseRateLimiter limiter, String key) {
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+    }
+}
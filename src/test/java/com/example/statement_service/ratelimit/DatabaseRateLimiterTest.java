@@ -1,21 +1,35 @@
 package com.example.statement_service.ratelimit;
 
+import java.sql.ResultSet;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 class DatabaseRateLimiterTest {
 
@@ -43,7 +57,7 @@ class DatabaseRateLimiterTest {
         rateLimiter = new DatabaseRateLimiter(
                 jdbc,
                 new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
-                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY),
+                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, null, null),
                 clock
         );
     }
@@ -83,6 +97,40 @@ class DatabaseRateLimiterTest {
         assertTrue(rateLimiter.tryConsume("user1"));
     }
 
+    @Test
+    void shouldConsumeBatchOfKeysSharingWindowsWithSingleConsumption() {
+        assertTrue(rateLimiter.tryConsume("user1"));
+        assertTrue(rateLimiter.tryConsume("user1"));
+        assertTrue(rateLimiter.tryConsume("user2"));
+
+        assertThat(rateLimiter.tryConsumeAll(List.of("user3", "user1", "user2"))).containsExactlyInAnyOrder("user2", "user3");
+        assertThat(rateLimiter.tryConsumeAll(List.of("user1", "user2", "user3"))).containsExactly("user3");
+        assertFalse(rateLimiter.tryConsume("user3"));
+
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(rateLimiter.tryConsumeAll(List.of("user1", "user2", "user3"))).containsExactlyInAnyOrder("user1", "user2", "user3");
+    }
+
+    @Test
+    void shouldConsumeNothingFromABatchWithAnExhaustedKey() {
+        assertTrue(rateLimiter.tryConsume("user1"));
+        assertTrue(rateLimiter.tryConsume("user1"));
+
+        assertFalse(rateLimiter.tryConsumeAllOrNothing(List.of("user2", "user1", "user3")));
+        assertThat(rateLimiter.tryConsumeAll(List.of("user2", "user3", "user2", "user3")))
+                .containsExactlyInAnyOrder("user2", "user3");
+        assertTrue(rateLimiter.tryConsumeAllOrNothing(List.of("user2", "user3")));
+        assertFalse(rateLimiter.tryConsume("user2"));
+    }
+
+    @Test
+    void shouldApplyFailureModeToWholeBatchWhenStorageFails() {
+        assertThat(limiterWithoutSchema(RateLimitProperties.FailureMode.DENY).tryConsumeAll(List.of("user1", "user2"))).isEmpty();
+        assertThat(limiterWithoutSchema(RateLimitProperties.FailureMode.ALLOW).tryConsumeAll(List.of("user1", "user2")))
+                .containsExactlyInAnyOrder("user1", "user2");
+    }
+
     @Test
     void shouldDenyWhenStorageFailsAndFailureModeIsDeny() {
         DatabaseRateLimiter brokenLimiter = limiterWithoutSchema(RateLimitProperties.FailureMode.DENY);
@@ -97,6 +145,57 @@ class DatabaseRateLimiterTest {
         assertTrue(brokenLimiter.tryConsume("user1"));
     }
 
+    @Test
+    void upsertModeCountsABatchWithOneAutocommitStatement() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        UUID allowedId = UUID.randomUUID();
+        UUID exhaustedId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(counterRow(allowedId, 2));
+            handler.processRow(counterRow(exhaustedId, 3));
+            return null;
+        }).when(jdbc).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        DatabaseRateLimiter upsertLimiter = new DatabaseRateLimiter(
+                jdbc,
+                transactionTemplate,
+                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, RateLimitProperties.DatabaseMode.UPSERT, null),
+                clock
+        );
+
+        assertThat(upsertLimiter.tryConsumeAll(List.of("download-link:" + allowedId, "download-link:" + exhaustedId)))
+                .containsExactly("download-link:" + allowedId);
+        verify(jdbc).query(contains("ON CONFLICT (key_id)"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void gcraAlwaysCountsWithTheUpsertAndRefusesKeysItDoesNotReturn() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        DatabaseRateLimiter gcraLimiter = new DatabaseRateLimiter(
+                jdbc,
+                transactionTemplate,
+                new RateLimitProperties(
+                        2, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, RateLimitProperties.DatabaseMode.TRANSACTION,
+                        RateLimitProperties.Algorithm.GCRA
+                ),
+                clock
+        );
+
+        assertFalse(gcraLimiter.tryConsume("download-link:" + UUID.randomUUID()));
+        verify(jdbc).query(contains("INSERT INTO rate_limit_gcra"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private static ResultSet counterRow(UUID keyId, int requestCount) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("key_id", UUID.class)).thenReturn(keyId);
+        when(rs.getInt("request_count")).thenReturn(requestCount);
+        return rs;
+    }
+
     private DatabaseRateLimiter limiterWithoutSchema(RateLimitProperties.FailureMode failureMode) {
         DataSource dataSource = new DriverManagerDataSource(
                 "jdbc:h2:mem:rate-limit-broken-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
@@ -106,7 +205,7 @@ class DatabaseRateLimiterTest {
         return new DatabaseRateLimiter(
                 new JdbcTemplate(dataSource),
                 new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
-                new RateLimitProperties(2, 60, failureMode),
+                new RateLimitProperties(2, 60, failureMode, null, 0, null, null, null),
                 clock
         );
     }
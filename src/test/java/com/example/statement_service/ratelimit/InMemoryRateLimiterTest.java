@@ -0,0 +1,170 @@
+package com.example.statement_service.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimiterTest {
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void refillsOneTokenPerIntervalUpToTheLimit() {
+        InMemoryRateLimiter limiter = limiter(100, RateLimitProperties.Algorithm.GCRA);
+        String key = "download-link:" + UUID.randomUUID();
+
+        assertTrue(limiter.tryConsume(key));
+        assertTrue(limiter.tryConsume(key));
+        assertFalse(limiter.tryConsume(key));
+        assertTrue(limiter.tryConsume("download-link:" + UUID.randomUUID()));
+        assertTrue(limiter.tryConsume("user1"));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(limiter.tryConsume(key));
+        assertFalse(limiter.tryConsume(key));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertTrue(limiter.tryConsume(key));
+        assertTrue(limiter.tryConsume(key));
+        assertFalse(limiter.tryConsume(key));
+    }
+
+    @Test
+    void carriesBucketsIntoTheNextGenerationAndDropsIdleOnesAfterAWindow() {
+        InMemoryRateLimiter limiter = limiter(2, RateLimitProperties.Algorithm.GCRA);
+        String exhausted = "download-link:" + UUID.randomUUID();
+        assertTrue(limiter.tryConsume(exhausted));
+        assertTrue(limiter.tryConsume(exhausted));
+        assertTrue(limiter.tryConsume("download-link:" + UUID.randomUUID()));
+
+        // The table is full, so this key starts a new generation and the exhausted bucket moves over when used.
+        assertTrue(limiter.tryConsume("download-link:" + UUID.randomUUID()));
+        assertFalse(limiter.tryConsume(exhausted));
+
+        // Both generations are in use until a window has passed.
+        assertFalse(limiter.tryConsume("download-link:" + UUID.randomUUID()));
+        clock.advance(Duration.ofSeconds(60));
+        assertTrue(limiter.tryConsume("download-link:" + UUID.randomUUID()));
+    }
+
+    @Test
+    void neverAllowsMoreThanTheLimitUnderContention() throws Exception {
+        InMemoryRateLimiter limiter = limiter(100, RateLimitProperties.Algorithm.SLIDING_WINDOW);
+        String key = "download-link:" + UUID.randomUUID();
+        AtomicInteger allowed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            Future<?>[] workers = new Future<?>[8];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        if (limiter.tryConsume(key)) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        assertThat(allowed).hasValue(2);
+    }
+
+    @Test
+    void weighsInThePreviousWindowWhenSliding() {
+        InMemoryRateLimiter fixed = limiter(100, RateLimitProperties.Algorithm.FIXED_WINDOW);
+        InMemoryRateLimiter sliding = limiter(100, RateLimitProperties.Algorithm.SLIDING_WINDOW);
+        String key = "download-link:" + UUID.randomUUID();
+        clock.advance(Duration.ofSeconds(50));
+        for (InMemoryRateLimiter limiter : List.of(fixed, sliding)) {
+            assertTrue(limiter.tryConsume(key));
+            assertTrue(limiter.tryConsume(key));
+            assertFalse(limiter.tryConsume(key));
+        }
+
+        // A quarter into the next window: the fixed window starts over, the sliding one still counts 1.5 requests.
+        clock.advance(Duration.ofSeconds(25));
+        assertTrue(fixed.tryConsume(key));
+        assertTrue(fixed.tryConsume(key));
+        assertFalse(sliding.tryConsume(key));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(sliding.tryConsume(key));
+        assertFalse(sliding.tryConsume(key));
+    }
+
+    @Test
+    void consumesNothingFromABatchWithAnExhaustedKey() {
+        for (RateLimitProperties.Algorithm algorithm : RateLimitProperties.Algorithm.values()) {
+            InMemoryRateLimiter limiter = limiter(100, algorithm);
+            String exhausted = "download-link:" + UUID.randomUUID();
+            String fresh = "download-link:" + UUID.randomUUID();
+            assertTrue(limiter.tryConsume(exhausted));
+            assertTrue(limiter.tryConsume(exhausted));
+
+            assertFalse(limiter.tryConsumeAllOrNothing(List.of(fresh, exhausted)));
+            assertTrue(limiter.tryConsumeAllOrNothing(List.of(fresh, fresh)));
+            assertTrue(limiter.tryConsume(fresh));
+            assertFalse(limiter.tryConsume(fresh));
+        }
+    }
+
+    private InMemoryRateLimiter limiter(int maxKeys, RateLimitProperties.Algorithm algorithm) {
+        return new InMemoryRateLimiter(
+                new RateLimitProperties(
+                        2, 60, RateLimitProperties.FailureMode.DENY, RateLimitProperties.Backend.MEMORY, maxKeys, null, null,
+                        algorithm
+                ),
+                clock
+        );
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.statement_service.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers
+class LeasedRateLimiterIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("statements")
+            .withUsername("statements")
+            .withPassword("statements");
+
+    private MutableClock clock;
+    private JdbcTemplate jdbc;
+    private LeasedRateLimiter first;
+    private LeasedRateLimiter second;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure().dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbc.execute("TRUNCATE rate_limit_windows");
+
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        RateLimitProperties props = new RateLimitProperties(
+                4, 60, RateLimitProperties.FailureMode.DENY, RateLimitProperties.Backend.LEASED, 0,
+                new RateLimitProperties.Lease(2, 1000), null, null
+        );
+        first = new LeasedRateLimiter(jdbc, props, clock);
+        second = new LeasedRateLimiter(jdbc, props, clock);
+    }
+
+    @Test
+    void sharesTheLimitBetweenInstancesWithOneWritePerLease() {
+        assertTrue(first.tryConsume("user1"));
+        assertThat(requestCount("user1")).isEqualTo(2);
+        assertTrue(first.tryConsume("user1"));
+        assertThat(requestCount("user1")).isEqualTo(2);
+
+        assertThat(second.tryConsumeAll(List.of("user1", "user2", "user1"))).containsExactly("user1", "user2");
+        assertTrue(second.tryConsume("user1"));
+        assertThat(requestCount("user1")).isEqualTo(4);
+
+        assertFalse(first.tryConsume("user1"));
+        assertFalse(second.tryConsume("user1"));
+
+        clock.advance(Duration.ofSeconds(61));
+        assertTrue(first.tryConsume("user1"));
+    }
+
+    @Test
+    void returnsUnusedSlicesOfIdleKeysToTheOtherInstances() {
+        assertTrue(first.tryConsume("user1"));
+        assertTrue(second.tryConsume("user1"));
+        assertTrue(second.tryConsume("user1"));
+        // The first instance still holds one request of its slice.
+        assertFalse(second.tryConsume("user1"));
+
+        clock.advance(Duration.ofSeconds(2));
+        first.releaseIdleLeases();
+        assertThat(requestCount("user1")).isEqualTo(3);
+
+        assertTrue(second.tryConsume("user1"));
+        assertFalse(second.tryConsume("user1"));
+    }
+
+    @Test
+    void returnsTheSlicesOfABatchWithAnExhaustedKey() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(second.tryConsume("user1"));
+        }
+
+        assertFalse(first.tryConsumeAllOrNothing(List.of("user2", "user1")));
+        assertThat(requestCount("user2")).isEqualTo(2);
+        assertTrue(first.tryConsume("user2"));
+        assertTrue(first.tryConsume("user2"));
+        assertThat(requestCount("user2")).isEqualTo(2);
+    }
+
+    private int requestCount(String key) {
+        return jdbc.queryForObject("SELECT request_count FROM rate_limit_windows WHERE rate_limit_key = ?", Integer.class, key);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+    }
+}
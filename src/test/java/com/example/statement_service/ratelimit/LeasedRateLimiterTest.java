@@ -0,0 +1,85 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Local admission of {@link LeasedRateLimiter} over stubbed lease grants. Sharing the windows through PostgreSQL is
+ * covered by {@code LeasedRateLimiterIT}.
+ */
+class LeasedRateLimiterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final LeasedRateLimiter limiter = new LeasedRateLimiter(
+            jdbc,
+            new RateLimitProperties(
+                    4, 60, RateLimitProperties.FailureMode.DENY, RateLimitProperties.Backend.LEASED, 0,
+                    new RateLimitProperties.Lease(2, 1000), null, null
+            ),
+            Clock.fixed(NOW, ZoneId.of("UTC"))
+    );
+
+    @Test
+    void leasesAllKeysOfABatchWithOneUpsertAndAdmitsTheSliceFromMemory() throws Exception {
+        grant(Map.of("user1", 2, "user2", 0));
+
+        assertTrue(limiter.tryConsume("user1"));
+        assertTrue(limiter.tryConsume("user1"));
+        verify(jdbc).query(contains("ON CONFLICT (rate_limit_key) DO UPDATE"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        assertFalse(limiter.tryConsumeAllOrNothing(List.of("user2")));
+        // A refused key is not leased again before the sync interval has passed.
+        assertFalse(limiter.tryConsume("user2"));
+        verify(jdbc, times(2)).query(any(String.class), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void returnsTheSlicesOfABatchWithAnExhaustedKey() throws Exception {
+        grant(Map.of("user1", 0, "user2", 2));
+
+        assertFalse(limiter.tryConsumeAllOrNothing(List.of("user2", "user1")));
+        assertTrue(limiter.tryConsume("user2"));
+        assertTrue(limiter.tryConsume("user2"));
+        verify(jdbc).query(any(String.class), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    private void grant(Map<String, Integer> granted) throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Map.Entry<String, Integer> grant : granted.entrySet()) {
+                handler.processRow(grantRow(grant.getKey(), grant.getValue()));
+            }
+            return null;
+        }).when(jdbc).query(any(String.class), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet grantRow(String key, int granted) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("rate_limit_key")).thenReturn(key);
+        when(rs.getTimestamp("window_started_at")).thenReturn(Timestamp.from(NOW));
+        when(rs.getInt("leased_count")).thenReturn(granted);
+        return rs;
+    }
+}
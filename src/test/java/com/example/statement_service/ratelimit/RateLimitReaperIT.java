@@ -0,0 +1,137 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@Testcontainers
+class RateLimitReaperIT {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:10:00Z");
+    private static final UUID LAST_KEY = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("statements")
+            .withUsername("statements")
+            .withPassword("statements");
+
+    private JdbcTemplate jdbc;
+    private StatementMetrics metrics;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure().dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbc.execute("TRUNCATE rate_limit_windows, rate_limit_counters, rate_limit_gcra");
+        metrics = mock(StatementMetrics.class);
+    }
+
+    @Test
+    void deletesExpiredRowsInBatchesAndResumesOnTheNextRun() {
+        for (int i = 0; i < 5; i++) {
+            insertWindow("expired" + i, NOW.minusSeconds(61 + i));
+            insertCounter(UUID.randomUUID(), NOW.minusSeconds(121));
+            insertArrival(UUID.randomUUID(), NOW.minusSeconds(1));
+        }
+        insertWindow("live", NOW.minusSeconds(30));
+        // The live rows sort last, so every page of the key walk is deterministic.
+        insertCounter(LAST_KEY, NOW.minusSeconds(90));
+        insertArrival(LAST_KEY, NOW.plusSeconds(5));
+
+        RateLimitReaper reaper = reaper(new RateLimitReaperProperties(true, 2, 1));
+
+        assertThat(reaper.reap()).isEqualTo(6);
+        // The oldest windows go first.
+        assertThat(jdbc.queryForList("SELECT rate_limit_key FROM rate_limit_windows ORDER BY rate_limit_key", String.class))
+                .containsExactly("expired0", "expired1", "expired2", "live");
+
+        assertThat(reaper.reap() + reaper.reap() + reaper.reap()).isEqualTo(9);
+        assertThat(jdbc.queryForList("SELECT rate_limit_key FROM rate_limit_windows", String.class)).containsExactly("live");
+        assertThat(jdbc.queryForList("SELECT key_id FROM rate_limit_counters", UUID.class)).containsExactly(LAST_KEY);
+        assertThat(jdbc.queryForList("SELECT key_id FROM rate_limit_gcra", UUID.class)).containsExactly(LAST_KEY);
+    }
+
+    @Test
+    void onlyTheInstanceHoldingTheReaperLockReaps() throws Exception {
+        insertWindow("expired", NOW.minusSeconds(61));
+        insertCounter(UUID.randomUUID(), NOW.minusSeconds(121));
+        RateLimitReaper reaper = reaper(new RateLimitReaperProperties(true, 100, 10));
+
+        try (Connection otherInstance = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+            try (PreparedStatement lock = otherInstance.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                lock.setLong(1, RateLimitReaper.LOCK_ID);
+                lock.execute();
+            }
+            reaper.reapScheduled();
+            verify(metrics, never()).rateLimitRowsReaped(anyString(), anyLong());
+            assertThat(count("rate_limit_windows") + count("rate_limit_counters")).isEqualTo(2);
+        }
+
+        reaper.reapScheduled();
+        verify(metrics).rateLimitRowsReaped("rate_limit_windows", 1);
+        verify(metrics).rateLimitRowsReaped("rate_limit_counters", 1);
+        assertThat(count("rate_limit_windows") + count("rate_limit_counters")).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM pg_locks WHERE locktype = 'advisory'", Integer.class)).isZero();
+    }
+
+    private RateLimitReaper reaper(RateLimitReaperProperties properties) {
+        RateLimitProperties rateLimits = new RateLimitProperties(
+                5, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, null, null
+        );
+        return new RateLimitReaper(jdbc, rateLimits, properties, metrics, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void insertWindow(String key, Instant updatedAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_windows (rate_limit_key, window_started_at, request_count, updated_at) VALUES (?, ?, 1, ?)",
+                key, Timestamp.from(updatedAt), Timestamp.from(updatedAt)
+        );
+    }
+
+    private void insertCounter(UUID keyId, Instant windowStartedAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_counters (key_id, window_started_at, request_count) VALUES (?, ?, 1)",
+                keyId, Timestamp.from(windowStartedAt)
+        );
+    }
+
+    private void insertArrival(UUID keyId, Instant theoreticalArrivalAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_gcra (key_id, theoretical_arrival_at) VALUES (?, ?)",
+                keyId, Timestamp.from(theoreticalArrivalAt)
+        );
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
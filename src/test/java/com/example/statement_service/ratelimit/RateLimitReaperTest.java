@@ -0,0 +1,138 @@
+package com.example.statement_service.ratelimit;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RateLimitReaperTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:10:00Z");
+
+    private JdbcTemplate jdbc;
+    private StatementMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:rate-limit-reaper-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "sa",
+                ""
+        ));
+        jdbc.execute("""
+                CREATE TABLE rate_limit_windows (
+                    rate_limit_key VARCHAR(256) PRIMARY KEY,
+                    window_started_at TIMESTAMP NOT NULL,
+                    request_count INTEGER NOT NULL,
+                    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE rate_limit_counters (
+                    key_id UUID PRIMARY KEY,
+                    window_started_at TIMESTAMP NOT NULL,
+                    request_count INTEGER NOT NULL,
+                    previous_count INTEGER NOT NULL DEFAULT 0
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE rate_limit_gcra (
+                    key_id UUID PRIMARY KEY,
+                    theoretical_arrival_at TIMESTAMP NOT NULL
+                )
+                """);
+        metrics = mock(StatementMetrics.class);
+    }
+
+    @Test
+    void deletesOnlyExpiredRowsInBatches() {
+        for (int i = 0; i < 5; i++) {
+            insertWindow("expired" + i, NOW.minusSeconds(61));
+        }
+        insertWindow("live", NOW.minusSeconds(30));
+        for (int i = 0; i < 5; i++) {
+            insertCounter(UUID.randomUUID(), NOW.minusSeconds(121));
+            insertArrival(UUID.randomUUID(), NOW.minusSeconds(1));
+        }
+        UUID liveCounter = UUID.randomUUID();
+        insertCounter(liveCounter, NOW.minusSeconds(90));
+        UUID liveArrival = UUID.randomUUID();
+        insertArrival(liveArrival, NOW.plusSeconds(5));
+
+        RateLimitReaper reaper = reaper(new RateLimitReaperProperties(true, 2, 100));
+
+        assertThat(reaper.reap()).isEqualTo(15);
+        assertThat(jdbc.queryForList("SELECT rate_limit_key FROM rate_limit_windows", String.class))
+                .containsExactly("live");
+        assertThat(jdbc.queryForList("SELECT key_id FROM rate_limit_counters", UUID.class)).containsExactly(liveCounter);
+        assertThat(jdbc.queryForList("SELECT key_id FROM rate_limit_gcra", UUID.class)).containsExactly(liveArrival);
+        verify(metrics).rateLimitRowsReaped("rate_limit_windows", 5);
+        verify(metrics).rateLimitRowsReaped("rate_limit_counters", 5);
+        verify(metrics).rateLimitRowsReaped("rate_limit_gcra", 5);
+    }
+
+    @Test
+    void stopsAfterMaxBatchesAndContinuesOnTheNextRun() {
+        for (int i = 0; i < 5; i++) {
+            insertWindow("expired" + i, NOW.minusSeconds(61 + i));
+            insertCounter(UUID.randomUUID(), NOW.minusSeconds(121));
+        }
+
+        RateLimitReaper reaper = reaper(new RateLimitReaperProperties(true, 2, 1));
+
+        assertThat(reaper.reap()).isEqualTo(4);
+        // The oldest windows go first.
+        assertThat(jdbc.queryForList("SELECT rate_limit_key FROM rate_limit_windows ORDER BY rate_limit_key", String.class))
+                .containsExactly("expired0", "expired1", "expired2");
+        assertThat(count("rate_limit_counters")).isEqualTo(3);
+
+        reaper.reap();
+        reaper.reap();
+
+        assertThat(count("rate_limit_windows")).isZero();
+        assertThat(count("rate_limit_counters")).isZero();
+    }
+
+    private RateLimitReaper reaper(RateLimitReaperProperties properties) {
+        RateLimitProperties rateLimits = new RateLimitProperties(
+                5, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, null, null
+        );
+        return new RateLimitReaper(jdbc, rateLimits, properties, metrics, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void insertWindow(String key, Instant updatedAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_windows (rate_limit_key, window_started_at, request_count, updated_at) VALUES (?, ?, 1, ?)",
+                key, Timestamp.from(updatedAt), Timestamp.from(updatedAt)
+        );
+    }
+
+    private void insertCounter(UUID keyId, Instant windowStartedAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_counters (key_id, window_started_at, request_count) VALUES (?, ?, 1)",
+                keyId, Timestamp.from(windowStartedAt)
+        );
+    }
+
+    private void insertArrival(UUID keyId, Instant theoreticalArrivalAt) {
+        jdbc.update(
+                "INSERT INTO rate_limit_gcra (key_id, theoretical_arrival_at) VALUES (?, ?)",
+                keyId, Timestamp.from(theoreticalArrivalAt)
+        );
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.statement_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AsyncUploadServiceTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path stagingDir;
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private AsyncUploadExecutor asyncUploads;
+    private StatementMetrics metrics;
+    private AsyncUploadService service;
+    private byte[] storedBytes;
+
+    @BeforeEach
+    void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture().uploadProperties(
+                new UploadProperties(DataSize.ofMegabytes(10), new UploadProperties.Async(stagingDir, 2, 10, 3600), null, null, null)
+        );
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        asyncUploads = fixture.asyncUploads;
+        metrics = fixture.metrics;
+        service = fixture.asyncUploadService();
+
+        when(asyncUploads.tryReserve()).thenReturn(true);
+        when(statementRepository.saveAndFlush(any(Statement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                storedBytes = in.readAllBytes();
+            }
+            return PutObjectResponse.builder().build();
+        });
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+    }
+
+    @Test
+    void acceptsPendingStatementThenUploadsAndActivatesInBackground() throws Exception {
+        Statement pending = uploadAsync();
+
+        assertThat(pending.getStatus()).isEqualTo(StatementStatus.PENDING);
+        assertThat(pending.getSha256()).isEqualTo(sha256Hex(PDF));
+        assertThat(stagingDir.resolve(pending.getId() + ".pdf")).hasBinaryContent(PDF);
+        verifyNoInteractions(s3);
+        verify(metrics).uploadAccepted();
+
+        when(statementRepository.updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.ACTIVE)).thenReturn(1);
+        runSubmittedUpload();
+
+        assertThat(storedBytes).isEqualTo(PDF);
+        assertThat(stagingDir).isEmptyDirectory();
+        verify(metrics).uploadSuccess();
+        verify(s3, never()).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    @Test
+    void duplicateUploadReturnsExistingStatementWithoutQueueingWork() {
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+
+        assertThat(uploadAsync()).isSameAs(existing);
+
+        assertThat(stagingDir).isEmptyDirectory();
+        verify(asyncUploads, never()).submitReserved(any());
+        verify(asyncUploads).release();
+        verify(statementRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void rejectsUploadWhenQueueIsFullBeforeReadingBody() {
+        when(asyncUploads.tryReserve()).thenReturn(false);
+        InputStream body = mock(InputStream.class);
+
+        assertThatThrownBy(() -> service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, "application/pdf", PDF.length, null, body
+        )).isInstanceOf(TooManyRequestsException.class);
+
+        verifyNoInteractions(body);
+        verify(metrics).uploadQueueFull();
+        verify(asyncUploads, never()).release();
+    }
+
+    @Test
+    void declaredDigestOfExistingStatementIsAnsweredWithoutReservingASlot() {
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+        InputStream body = mock(InputStream.class);
+
+        assertThat(service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, "application/pdf", PDF.length, sha256Hex(PDF), body
+        )).isSameAs(existing);
+
+        verifyNoInteractions(body);
+        verify(asyncUploads, never()).tryReserve();
+    }
+
+    @Test
+    void declaredDigestIsVerifiedAndStoredAsTheStatementDigest() {
+        Statement pending = service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, sha256Hex(PDF).toUpperCase(), new ByteArrayInputStream(PDF)
+        );
+
+        assertThat(pending.getSha256()).isEqualTo(sha256Hex(PDF));
+        ArgumentCaptor<Statement> saved = ArgumentCaptor.forClass(Statement.class);
+        verify(statementRepository).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getSha256()).isEqualTo(sha256Hex(PDF));
+        verify(asyncUploads).submitReserved(any());
+    }
+
+    @Test
+    void malformedDeclaredDigestIsRejected() {
+        assertThatThrownBy(() -> service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, "not-a-digest", new ByteArrayInputStream(PDF)
+        )).isInstanceOf(BadRequestException.class);
+
+        verify(asyncUploads, never()).tryReserve();
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void invalidBodyIsRejectedAndReleasesReservedSlot() {
+        byte[] notPdf = "not a pdf".getBytes(StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", notPdf.length, null, new ByteArrayInputStream(notPdf)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("valid PDF signature");
+
+        assertThat(stagingDir).isEmptyDirectory();
+        verify(asyncUploads).release();
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void failedBackgroundUploadMarksStatementFailed() {
+        Statement pending = uploadAsync();
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("unavailable").build());
+
+        runSubmittedUpload();
+
+        verify(statementRepository).updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.FAILED);
+        verify(statementRepository, never()).updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.ACTIVE);
+        assertThat(stagingDir).isEmptyDirectory();
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void statementRevokedDuringUploadDeletesStoredObject() {
+        Statement pending = uploadAsync();
+        when(statementRepository.updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.ACTIVE)).thenReturn(0);
+
+        runSubmittedUpload();
+
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().key()).isEqualTo(pending.getObjectKey());
+        verify(metrics, never()).uploadSuccess();
+    }
+
+    @Test
+    void resumesStagedUploadsOfPendingStatementsAndDropsTheRest() throws Exception {
+        Statement pending = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/pending.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.PENDING
+        );
+        UUID unknownId = UUID.randomUUID();
+        Path resumable = staged(pending.getId() + ".pdf");
+        Path unknown = staged(unknownId + ".pdf");
+        Path partial = staged(UUID.randomUUID() + ".part");
+        when(statementRepository.findById(pending.getId())).thenReturn(Optional.of(pending));
+        when(statementRepository.findById(unknownId)).thenReturn(Optional.empty());
+
+        service.resumeStagedUploads();
+
+        ArgumentCaptor<Runnable> resumed = ArgumentCaptor.forClass(Runnable.class);
+        verify(asyncUploads).submit(resumed.capture());
+        assertThat(resumable).exists();
+        assertThat(unknown).doesNotExist();
+        assertThat(partial).doesNotExist();
+
+        when(statementRepository.updateStatus(pending.getId(), StatementStatus.PENDING, StatementStatus.ACTIVE)).thenReturn(1);
+        resumed.getValue().run();
+        assertThat(storedBytes).isEqualTo(PDF);
+        assertThat(resumable).doesNotExist();
+    }
+
+    private Statement uploadAsync() {
+        return service.uploadAsync(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, null, new ByteArrayInputStream(PDF)
+        );
+    }
+
+    private void runSubmittedUpload() {
+        ArgumentCaptor<Runnable> upload = ArgumentCaptor.forClass(Runnable.class);
+        verify(asyncUploads).submitReserved(upload.capture());
+        upload.getValue().run();
+    }
+
+    private Path staged(String name) throws Exception {
+        Path file = Files.write(stagingDir.resolve(name), PDF);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+        return file;
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.statement_service.service;
 
+import java.util.List;
 import java.util.UUID;
 
 import com.example.statement_service.domain.AuditEvent;
 import com.example.statement_service.persistence.AuditEventRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.AbstractPlatformTransactionManager;
 import org.springframework.transaction.support.DefaultTransactionStatus;
@@ -15,7 +18,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -82,10 +90,38 @@ class AuditServiceTest {
         verify(repository, times(2)).saveAndFlush(any(AuditEvent.class));
     }
 
+    @Test
+    void writesAuditBatchWithSingleJdbcBatchAndRetries() {
+        AuditEventRepository repository = mock(AuditEventRepository.class);
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("temporary database failure"))
+                .thenReturn(new int[][]{{1, 1}});
+        AuditService service = service(repository, new AuditProperties(true, 3, 0), jdbc);
+        List<AuditService.Entry> entries = List.of(
+                new AuditService.Entry("customer-1", "UPLOAD", UUID.randomUUID()),
+                new AuditService.Entry("customer-2", "UPLOAD", UUID.randomUUID())
+        );
+
+        service.logAll(entries, "127.0.0.1", "test-agent");
+
+        verify(jdbc, times(2)).batchUpdate(
+                contains("INSERT INTO audit_events"),
+                eq(entries),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        );
+        verify(repository, never()).saveAndFlush(any(AuditEvent.class));
+    }
+
     private AuditService service(AuditEventRepository repository, AuditProperties properties) {
+        return service(repository, properties, mock(JdbcTemplate.class));
+    }
+
+    private AuditService service(AuditEventRepository repository, AuditProperties properties, JdbcTemplate jdbc) {
         TransactionTemplate template = new TransactionTemplate(new NoOpTransactionManager());
         template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-        return new AuditService(repository, properties, template);
+        return new AuditService(repository, properties, template, jdbc);
     }
 
     private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
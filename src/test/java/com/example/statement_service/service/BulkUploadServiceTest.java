@@ -0,0 +1,214 @@
+package com.example.statement_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.UploadIntentLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BulkUploadServiceTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OTHER_PDF = "%PDF-1.4\n2 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private JdbcTemplate jdbc;
+    private UploadIntentLog intents;
+    private StatementMetrics metrics;
+    private BulkUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture().uploadProperties(
+                new UploadProperties(DataSize.ofMegabytes(10), null, new UploadProperties.Bulk(4, 2), null, null)
+        );
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        jdbc = fixture.jdbc;
+        intents = fixture.intents;
+        metrics = fixture.metrics;
+        service = fixture.bulkUploadService();
+
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+        when(statementRepository.findIdempotencyCandidates(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void storesNewItemsAndInsertsThemWithOneJdbcBatch() {
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 1}});
+
+        List<BulkUploadResult> results = service.uploadBulk(List.of(
+                item("jan", "account-1", PDF),
+                item("feb", "account-2", OTHER_PDF)
+        ));
+
+        assertThat(results).extracting(BulkUploadResult::file).containsExactly("jan", "feb");
+        assertThat(results).extracting(BulkUploadResult::outcome)
+                .containsOnly(BulkUploadResult.Outcome.CREATED);
+        assertThat(results.get(0).statement().getSha256()).isEqualTo(sha256Hex(PDF));
+        assertThat(results.get(1).statement().getObjectKey()).startsWith("customer/customer-1/account/account-2/2026-01/");
+        verify(s3, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(statementRepository).findIdempotencyCandidates(any(), any());
+        verify(jdbc).batchUpdate(
+                org.mockito.ArgumentMatchers.contains("ON CONFLICT DO NOTHING"),
+                any(List.class),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        );
+        verify(statementRepository, never()).saveAndFlush(any());
+        verify(metrics, times(2)).uploadSuccess();
+
+        List<String> objectKeys = results.stream().map(result -> result.statement().getObjectKey()).toList();
+        InOrder order = inOrder(intents, s3, jdbc);
+        order.verify(intents).record(objectKeys);
+        order.verify(s3, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        order.verify(jdbc).batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        order.verify(intents).resolve(objectKeys);
+    }
+
+    @Test
+    void reportsExistingRejectedAndInBatchDuplicatesPerItem() {
+        Statement existing = statement("account-1", sha256Hex(PDF));
+        when(statementRepository.findIdempotencyCandidates(any(), any())).thenReturn(List.of(existing));
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1}});
+
+        List<BulkUploadResult> results = service.uploadBulk(List.of(
+                item("existing", "account-1", PDF),
+                item("not-pdf", "account-1", "not a pdf".getBytes(StandardCharsets.US_ASCII)),
+                item("first", "account-2", OTHER_PDF),
+                item("again", "account-2", OTHER_PDF)
+        ));
+
+        assertThat(results).extracting(BulkUploadResult::outcome).containsExactly(
+                BulkUploadResult.Outcome.EXISTING,
+                BulkUploadResult.Outcome.REJECTED,
+                BulkUploadResult.Outcome.CREATED,
+                BulkUploadResult.Outcome.EXISTING
+        );
+        assertThat(results.get(0).statement()).isSameAs(existing);
+        assertThat(results.get(1).error()).contains("valid PDF signature");
+        assertThat(results.get(3).statement()).isSameAs(results.get(2).statement());
+        verify(s3, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(metrics, times(3)).uploadSuccess();
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void insertConflictDeletesNewObjectAndReportsWinningStatement() {
+        Statement winner = statement("account-1", sha256Hex(PDF));
+        when(statementRepository.findIdempotencyCandidates(any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(winner));
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+
+        List<BulkUploadResult> results = service.uploadBulk(List.of(item("jan", "account-1", PDF)));
+
+        assertThat(results.get(0).outcome()).isEqualTo(BulkUploadResult.Outcome.EXISTING);
+        assertThat(results.get(0).statement()).isSameAs(winner);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().key()).isNotEqualTo(winner.getObjectKey());
+        verify(intents).resolve(List.of());
+        verify(intents).resolve(List.of(deleteCaptor.getValue().key()));
+    }
+
+    @Test
+    void failedBatchInsertDeletesStoredObjectsAndFailsTheirItems() {
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("database unavailable"));
+
+        List<BulkUploadResult> results = service.uploadBulk(List.of(
+                item("jan", "account-1", PDF),
+                item("feb", "account-2", OTHER_PDF)
+        ));
+
+        assertThat(results).extracting(BulkUploadResult::outcome)
+                .containsOnly(BulkUploadResult.Outcome.FAILED);
+        verify(s3, times(2)).deleteObject(any(DeleteObjectRequest.class));
+        verify(metrics, times(2)).uploadFailure();
+    }
+
+    @Test
+    void rejectsEmptyOrOversizedBatchBeforeReadingAnyItem() {
+        assertThatThrownBy(() -> service.uploadBulk(List.of()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("At least one statement");
+
+        List<BulkUploadItem> tooMany = List.of(
+                item("a", "account-1", PDF), item("b", "account-1", PDF), item("c", "account-1", PDF),
+                item("d", "account-1", PDF), item("e", "account-1", PDF)
+        );
+        assertThatThrownBy(() -> service.uploadBulk(tooMany))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("At most 4 statements");
+
+        verifyNoInteractions(s3, statementRepository, jdbc);
+    }
+
+    private static BulkUploadItem item(String file, String accountId, byte[] content) {
+        return new BulkUploadItem(
+                file, "customer-1", accountId, PERIOD_START, PERIOD_END,
+                new MockMultipartFile(file, file + ".pdf", "application/pdf", content)
+        );
+    }
+
+    private static Statement statement(String accountId, String sha256) {
+        return new Statement(
+                UUID.randomUUID(), "customer-1", accountId, PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/" + accountId + "/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256, Instant.now(), StatementStatus.ACTIVE
+        );
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.statement_service.service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectUploadServicePresignedUploadTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private S3Presigner presigner;
+    private StatementMetrics metrics;
+    private DirectUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        presigner = S3Presigner.builder()
+                .endpointOverride(URI.create("http://localhost:9000"))
+                .region(Region.of("af-south-1"))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access-key", "secret-key")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        StatementServiceFixture fixture = new StatementServiceFixture().presigner(presigner);
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        metrics = fixture.metrics;
+        service = fixture.directUploadService();
+
+        when(statementRepository.saveAndFlush(any(Statement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(statementRepository.findById(any())).thenReturn(Optional.empty());
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        presigner.close();
+    }
+
+    @Test
+    void presignSignsServerChosenKeySizeAndChecksum() {
+        PresignedUpload upload = service.presignUpload(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, sha256Hex(PDF), Duration.ofMinutes(5)
+        );
+
+        assertThat(upload.url())
+                .contains("/statements/customer/customer-1/account/account-1/2026-01/" + upload.uploadId() + ".pdf")
+                .contains("X-Amz-SignedHeaders=content-length%3Bcontent-type%3Bhost%3Bx-amz-checksum-sha256");
+        assertThat(upload.headers())
+                .doesNotContainKey("host")
+                .containsEntry("content-length", List.of(String.valueOf(PDF.length)))
+                .containsEntry("content-type", List.of("application/pdf"))
+                .containsEntry("x-amz-checksum-sha256", List.of(sha256Base64(PDF)));
+        assertThat(upload.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void presignRejectsOversizedOrMalformedDeclarations() {
+        assertThatThrownBy(() -> service.presignUpload(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, (10L * 1024 * 1024) + 1, sha256Hex(PDF), Duration.ofMinutes(5)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("exceeds the 10MB upload limit");
+
+        assertThatThrownBy(() -> service.presignUpload(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, "not-a-digest", Duration.ofMinutes(5)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("sha256");
+    }
+
+    @Test
+    void finalizeVerifiesStoredObjectAndPersistsStatementUnderUploadId() {
+        UUID uploadId = UUID.randomUUID();
+        storedObject(PDF.length, sha256Base64(PDF), PDF);
+
+        Statement saved = service.finalizePresignedUpload(
+                uploadId, "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, sha256Hex(PDF).toUpperCase()
+        );
+
+        assertThat(saved.getId()).isEqualTo(uploadId);
+        assertThat(saved.getObjectKey()).isEqualTo("customer/customer-1/account/account-1/2026-01/" + uploadId + ".pdf");
+        assertThat(saved.getSha256()).isEqualTo(sha256Hex(PDF));
+        assertThat(saved.getSizeBytes()).isEqualTo(PDF.length);
+
+        ArgumentCaptor<HeadObjectRequest> headCaptor = ArgumentCaptor.forClass(HeadObjectRequest.class);
+        verify(s3).headObject(headCaptor.capture());
+        assertThat(headCaptor.getValue().checksumMode()).isEqualTo(ChecksumMode.ENABLED);
+        ArgumentCaptor<GetObjectRequest> getCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3).getObjectAsBytes(getCaptor.capture());
+        assertThat(getCaptor.getValue().range()).isEqualTo("bytes=0-4");
+        verify(s3, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(metrics).uploadSuccess();
+    }
+
+    @Test
+    void finalizeDeletesObjectWhoseChecksumDoesNotMatchDeclaration() {
+        storedObject(PDF.length, null, PDF);
+
+        assertThatThrownBy(() -> service.finalizePresignedUpload(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, sha256Hex(PDF)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("does not match");
+
+        verify(s3).deleteObject(any(DeleteObjectRequest.class));
+        verify(statementRepository, never()).saveAndFlush(any());
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void finalizeDeletesObjectWithoutPdfSignature() {
+        byte[] notPdf = "not a pdf at all".getBytes(StandardCharsets.US_ASCII);
+        storedObject(notPdf.length, sha256Base64(notPdf), notPdf);
+
+        assertThatThrownBy(() -> service.finalizePresignedUpload(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END, notPdf.length, sha256Hex(notPdf)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("valid PDF signature");
+
+        verify(s3).deleteObject(any(DeleteObjectRequest.class));
+        verify(statementRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void finalizeOfDuplicateDeletesNewObjectAndReturnsExistingStatement() {
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+        storedObject(PDF.length, sha256Base64(PDF), PDF);
+
+        Statement result = service.finalizePresignedUpload(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, sha256Hex(PDF)
+        );
+
+        assertThat(result).isSameAs(existing);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().key()).isNotEqualTo(existing.getObjectKey());
+        verify(statementRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void finalizeWithoutUploadedObjectIsNotFound() {
+        when(s3.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().statusCode(404).build());
+
+        assertThatThrownBy(() -> service.finalizePresignedUpload(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END, PDF.length, sha256Hex(PDF)
+        )).isInstanceOf(NotFoundException.class);
+
+        verify(metrics).uploadFailure();
+    }
+
+    private void storedObject(long contentLength, String checksumSha256, byte[] content) {
+        when(s3.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(contentLength)
+                .checksumSHA256(checksumSha256)
+                .build());
+        when(s3.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(ResponseBytes.fromByteArray(
+                GetObjectResponse.builder().build(),
+                Arrays.copyOf(content, Math.min(content.length, 5))
+        ));
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256(bytes));
+    }
+
+    private static String sha256Base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(sha256(bytes));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.statement_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectUploadServiceStagedImportTest {
+
+    private static final String STAGING_KEY = "staging/2026-01/statement.pdf";
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final Map<String, String> METADATA = Map.of(
+            "customer-id", "customer-1",
+            "account-id", "account-1",
+            "period-start", "2026-01-01",
+            "period-end", "2026-01-31"
+    );
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private StatementMetrics metrics;
+    private DirectUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture();
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        metrics = fixture.metrics;
+        service = fixture.directUploadService();
+
+        when(statementRepository.saveAndFlush(any(Statement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+        when(s3.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(ResponseBytes.fromByteArray(
+                GetObjectResponse.builder().build(), "%PDF-".getBytes(StandardCharsets.US_ASCII)
+        ));
+        when(s3.copyObject(any(CopyObjectRequest.class))).thenReturn(CopyObjectResponse.builder().build());
+    }
+
+    @Test
+    void copiesValidatedObjectServerSideAndRegistersStatement() {
+        stagedObject(METADATA, sha256Base64(PDF));
+
+        BulkUploadResult result = service.importStagedObject(STAGING_KEY);
+
+        assertThat(result.outcome()).isEqualTo(BulkUploadResult.Outcome.CREATED);
+        Statement saved = result.statement();
+        assertThat(saved.getSha256()).isEqualTo(sha256Hex(PDF));
+        assertThat(saved.getSizeBytes()).isEqualTo(PDF.length);
+        assertThat(saved.getPeriodStart()).isEqualTo(PERIOD_START);
+        assertThat(saved.getPeriodEnd()).isEqualTo(PERIOD_END);
+
+        ArgumentCaptor<GetObjectRequest> getCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3).getObjectAsBytes(getCaptor.capture());
+        assertThat(getCaptor.getValue().range()).isEqualTo("bytes=0-4");
+        assertThat(getCaptor.getValue().ifMatch()).isEqualTo("\"etag-1\"");
+
+        ArgumentCaptor<CopyObjectRequest> copyCaptor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+        verify(s3).copyObject(copyCaptor.capture());
+        CopyObjectRequest copy = copyCaptor.getValue();
+        assertThat(copy.sourceKey()).isEqualTo(STAGING_KEY);
+        assertThat(copy.destinationKey()).isEqualTo(saved.getObjectKey());
+        assertThat(copy.destinationKey()).startsWith("customer/customer-1/account/account-1/2026-01/");
+        assertThat(copy.copySourceIfMatch()).isEqualTo("\"etag-1\"");
+        assertThat(copy.metadataDirective()).isEqualTo(MetadataDirective.REPLACE);
+        verify(metrics).uploadSuccess();
+    }
+
+    @Test
+    void rejectsObjectWithoutStatementMetadataOrFullObjectChecksum() {
+        stagedObject(Map.of("customer-id", "customer-1"), sha256Base64(PDF));
+        assertThat(service.importStagedObject(STAGING_KEY).error()).isEqualTo("accountId is required");
+
+        stagedObject(METADATA, sha256Base64(PDF) + "-3");
+        BulkUploadResult composite = service.importStagedObject(STAGING_KEY);
+        assertThat(composite.outcome()).isEqualTo(BulkUploadResult.Outcome.REJECTED);
+        assertThat(composite.error()).contains("full-object SHA-256");
+
+        verify(s3, never()).copyObject(any(CopyObjectRequest.class));
+        verify(metrics, times(2)).uploadFailure();
+    }
+
+    @Test
+    void existingStatementIsReportedWithoutCopying() {
+        stagedObject(METADATA, sha256Base64(PDF));
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+
+        BulkUploadResult result = service.importStagedObject(STAGING_KEY);
+
+        assertThat(result.outcome()).isEqualTo(BulkUploadResult.Outcome.EXISTING);
+        assertThat(result.statement()).isSameAs(existing);
+        verify(s3, never()).copyObject(any(CopyObjectRequest.class));
+        verify(statementRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void objectReplacedAfterValidationFailsWithoutRegisteringStatement() {
+        stagedObject(METADATA, sha256Base64(PDF));
+        when(s3.copyObject(any(CopyObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(412).message("PreconditionFailed").build());
+
+        BulkUploadResult result = service.importStagedObject(STAGING_KEY);
+
+        assertThat(result.outcome()).isEqualTo(BulkUploadResult.Outcome.FAILED);
+        assertThat(result.error()).contains("changed during import");
+        verify(statementRepository, never()).saveAndFlush(any());
+        verify(metrics).uploadFailure();
+    }
+
+    private void stagedObject(Map<String, String> metadata, String checksum) {
+        when(s3.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength((long) PDF.length)
+                .contentType("application/pdf")
+                .eTag("\"etag-1\"")
+                .checksumSHA256(checksum)
+                .metadata(metadata)
+                .build());
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256(bytes));
+    }
+
+    private static String sha256Base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(sha256(bytes));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.statement_service.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.ratelimit.RateLimitProperties;
+import com.example.statement_service.ratelimit.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DownloadLinkAuthorizerTest {
+
+    private static final UUID STATEMENT_ID = UUID.randomUUID();
+    private static final String OBJECT_KEY = "customer/customer-1/account/account-1/2026-01/statement.pdf";
+    private static final String SHA256 = "a".repeat(64);
+
+    private JdbcTemplate jdbc;
+    private StatementService statements;
+    private RateLimiter rateLimiter;
+    private AuditService auditService;
+    private StatementMetrics metrics;
+    private StatementIdFilter idFilter;
+    private DownloadLinkAuthorizer authorizer;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        statements = mock(StatementService.class);
+        rateLimiter = mock(RateLimiter.class);
+        auditService = mock(AuditService.class);
+        metrics = mock(StatementMetrics.class);
+        idFilter = mock(StatementIdFilter.class);
+        authorizer = new DownloadLinkAuthorizer(
+                jdbc,
+                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY, null, 0, null, null, null),
+                statements,
+                rateLimiter,
+                auditService,
+                metrics,
+                idFilter,
+                Clock.fixed(Instant.parse("2026-02-01T10:00:00Z"), ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void grantsDownloadFromTheSingleStatementAlone() throws Exception {
+        returnsRow("ACTIVE", 2);
+
+        DownloadLinkAuthorizer.Grant grant = authorizer.authorize(STATEMENT_ID, "customer-1", "GENERATE_LINK", "127.0.0.1", "agent");
+
+        assertThat(grant).isEqualTo(new DownloadLinkAuthorizer.Grant(STATEMENT_ID, "customer-1", OBJECT_KEY, 10, SHA256));
+        verify(jdbc).query(contains("AND customer_id = ?"), any(PreparedStatementSetter.class), any(RowMapper.class));
+        verifyNoInteractions(statements, rateLimiter, auditService);
+    }
+
+    @Test
+    void mapsMissingInactiveAndExhaustedStatementsToErrors() throws Exception {
+        when(jdbc.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class))).thenReturn(List.of());
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, "customer-2", "GENERATE_LINK", null, null))
+                .isInstanceOf(NotFoundException.class);
+
+        returnsRow("REVOKED", null);
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, null, "DOWNLOAD", null, null))
+                .isInstanceOf(BadRequestException.class);
+
+        returnsRow("ACTIVE", 3);
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, null, "DOWNLOAD", null, null))
+                .isInstanceOf(TooManyRequestsException.class);
+        verify(metrics).downloadLinkRateLimited();
+        verifyNoInteractions(statements, rateLimiter, auditService);
+    }
+
+    @Test
+    void fallsBackToStepByStepChecksWhenNoConnectionIsAvailable() {
+        when(jdbc.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("unavailable"));
+        Statement statement = new Statement(
+                STATEMENT_ID, "customer-1", "account-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                OBJECT_KEY, "application/pdf", 10, "0".repeat(64), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statements.getForAdmin(STATEMENT_ID)).thenReturn(statement);
+        when(rateLimiter.tryConsume(DownloadLinkAuthorizer.quotaKey(STATEMENT_ID))).thenReturn(true);
+
+        DownloadLinkAuthorizer.Grant grant = authorizer.authorize(STATEMENT_ID, null, "DOWNLOAD", "127.0.0.1", "agent");
+
+        assertThat(grant.objectKey()).isEqualTo(OBJECT_KEY);
+        verify(statements).validateDownloadable(statement);
+        verify(auditService).log("customer-1", "DOWNLOAD", STATEMENT_ID, "127.0.0.1", "agent");
+    }
+
+    @Test
+    void failuresAfterTheStatementMayHaveWrittenAreNotRetriedStepByStep() throws Exception {
+        returnsRow("ARCHIVED", 1);
+
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, null, "DOWNLOAD", null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(jdbc.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenThrow(new BadSqlGrammarException("authorize", "WITH target AS ...", new SQLException("syntax error")));
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, null, "DOWNLOAD", null, null))
+                .isInstanceOf(BadSqlGrammarException.class);
+        verifyNoInteractions(statements, rateLimiter, auditService);
+    }
+
+    @Test
+    void consumesTheInMemoryQuotaInsteadOfTheSingleStatement() {
+        DownloadLinkAuthorizer inMemory = new DownloadLinkAuthorizer(
+                jdbc,
+                new RateLimitProperties(2, 60, RateLimitProperties.FailureMode.DENY, RateLimitProperties.Backend.MEMORY, 0, null, null, null),
+                statements,
+                rateLimiter,
+                auditService,
+                metrics,
+                idFilter
+        );
+        Statement statement = new Statement(
+                STATEMENT_ID, "customer-1", "account-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                OBJECT_KEY, "application/pdf", 10, SHA256, Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statements.getForCustomer(STATEMENT_ID, "customer-1")).thenReturn(statement);
+        when(rateLimiter.tryConsume(DownloadLinkAuthorizer.quotaKey(STATEMENT_ID))).thenReturn(false);
+
+        assertThatThrownBy(() -> inMemory.authorize(STATEMENT_ID, "customer-1", "GENERATE_LINK", null, null))
+                .isInstanceOf(TooManyRequestsException.class);
+        verifyNoInteractions(jdbc, auditService);
+    }
+
+    @Test
+    void rejectsIdsTheFilterHasNeverSeenWithoutAQuery() {
+        when(idFilter.isDefinitelyUnknown(STATEMENT_ID)).thenReturn(true);
+
+        assertThatThrownBy(() -> authorizer.authorize(STATEMENT_ID, "customer-1", "GENERATE_LINK", null, null))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(jdbc, statements, rateLimiter, auditService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returnsRow(String status, Integer requestCount) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("customer_id")).thenReturn("customer-1");
+        when(rs.getString("object_key")).thenReturn(OBJECT_KEY);
+        when(rs.getLong("size_bytes")).thenReturn(10L);
+        when(rs.getString("sha256")).thenReturn(SHA256);
+        when(rs.getString("status")).thenReturn(status);
+        when(rs.getObject("request_count", Integer.class)).thenReturn(requestCount);
+        when(jdbc.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class))).thenAnswer(
+                invocation -> List.of(invocation.<RowMapper<Object>>getArgument(2).mapRow(rs, 0))
+        );
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DownloadTicketsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final UUID STATEMENT_ID = UUID.randomUUID();
+    private static final String OBJECT_KEY = "customer/customer-1/account/account-1/2026-02/statement.pdf";
+
+    private RevokedStatements revoked;
+    private DownloadTickets tickets;
+
+    @BeforeEach
+    void setUp() {
+        revoked = mock(RevokedStatements.class);
+        when(revoked.isFresh()).thenReturn(true);
+        tickets = tickets(NOW);
+    }
+
+    @Test
+    void redeemsTicketForItsOwnerAndForAdmins() {
+        String ticket = tickets.issue(STATEMENT_ID, "customer-1", OBJECT_KEY, NOW.plusSeconds(300));
+
+        DownloadTickets.Ticket expected = new DownloadTickets.Ticket(STATEMENT_ID, "customer-1", OBJECT_KEY, NOW.plusSeconds(300));
+        assertThat(tickets.redeem(ticket, STATEMENT_ID, "customer-1")).contains(expected);
+        assertThat(tickets.redeem(ticket, STATEMENT_ID, null)).contains(expected);
+    }
+
+    @Test
+    void rejectsForgedOrMismatchedTickets() {
+        String ticket = tickets.issue(STATEMENT_ID, "customer-1", OBJECT_KEY, NOW.plusSeconds(300));
+        String forged = ticket.substring(0, ticket.length() - 2) + (ticket.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> tickets.redeem(forged, STATEMENT_ID, "customer-1")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tickets.redeem("not-a-ticket", STATEMENT_ID, "customer-1")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tickets.redeem(ticket, STATEMENT_ID, "customer-2")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tickets.redeem(ticket, UUID.randomUUID(), "customer-1")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsRevokedStatementsAndDefersWhenTheTicketCannotBeCheckedLocally() {
+        String ticket = tickets.issue(STATEMENT_ID, "customer-1", OBJECT_KEY, NOW.plus(Duration.ofHours(1)));
+
+        assertThat(tickets(NOW.plus(DownloadTickets.MAX_TTL)).redeem(ticket, STATEMENT_ID, "customer-1")).isEmpty();
+
+        when(revoked.isFresh()).thenReturn(false);
+        assertThat(tickets.redeem(ticket, STATEMENT_ID, "customer-1")).isEmpty();
+
+        when(revoked.isFresh()).thenReturn(true);
+        when(revoked.isRevoked(STATEMENT_ID)).thenReturn(true);
+        assertThatThrownBy(() -> tickets.redeem(ticket, STATEMENT_ID, "customer-1"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("not available for download");
+    }
+
+    @Test
+    void refusesToStartWithAShortSecret() {
+        assertThatThrownBy(() -> new DownloadTickets(
+                new DownloadProperties.Ticket(true, Base64.getEncoder().encodeToString(new byte[16]), 0),
+                revoked,
+                Clock.systemUTC()
+        )).isInstanceOf(IllegalStateException.class);
+    }
+
+    private DownloadTickets tickets(Instant now) {
+        return new DownloadTickets(new DownloadProperties.Ticket(true, SECRET, 0), revoked, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PresignedUrlCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-07-25T12:00:00Z");
+    private static final String OBJECT_KEY = "customer/customer-1/account/account-1/2026-01/statement.pdf";
+
+    private final StatementMetrics metrics = mock(StatementMetrics.class);
+    private final MutableClock clock = new MutableClock(NOW);
+    private final AtomicInteger signed = new AtomicInteger();
+
+    @Test
+    void reusesUrlWhileItIsValidForEnoughOfTheRequestedTtl() {
+        PresignedUrlCache cache = cache(100);
+        UUID id = UUID.randomUUID();
+
+        PresignedDownload first = cache.get(id, OBJECT_KEY, Duration.ofSeconds(300), presign(Duration.ofSeconds(300)));
+        clock.advance(Duration.ofSeconds(150));
+        PresignedDownload reused = cache.get(id, OBJECT_KEY, Duration.ofSeconds(300), presign(Duration.ofSeconds(300)));
+        clock.advance(Duration.ofSeconds(1));
+        PresignedDownload renewed = cache.get(id, OBJECT_KEY, Duration.ofSeconds(300), presign(Duration.ofSeconds(300)));
+
+        assertThat(reused).isSameAs(first);
+        assertThat(renewed).isNotSameAs(first);
+        assertThat(renewed.expiresAt()).isEqualTo(NOW.plusSeconds(451));
+        assertThat(signed).hasValue(2);
+        verify(metrics).downloadUrlCacheHit();
+        verify(metrics, times(2)).downloadUrlCacheMiss();
+    }
+
+    @Test
+    void separatesTtlBucketsAndObjectKeys() {
+        PresignedUrlCache cache = cache(100);
+        UUID id = UUID.randomUUID();
+
+        PresignedDownload link = cache.get(id, OBJECT_KEY, Duration.ofSeconds(300), presign(Duration.ofSeconds(300)));
+        assertThat(cache.get(id, OBJECT_KEY, Duration.ofSeconds(330), presign(Duration.ofSeconds(330)))).isSameAs(link);
+        assertThat(cache.get(id, OBJECT_KEY, Duration.ofSeconds(60), presign(Duration.ofSeconds(60)))).isNotSameAs(link);
+        assertThat(cache.get(id, "blobs/sha256/ab/other.pdf", Duration.ofSeconds(300), presign(Duration.ofSeconds(300))))
+                .isNotSameAs(link);
+        assertThat(signed).hasValue(3);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUrlBeyondCapacity() {
+        PresignedUrlCache cache = cache(2);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        Duration ttl = Duration.ofSeconds(300);
+
+        PresignedDownload linkA = cache.get(a, OBJECT_KEY, ttl, presign(ttl));
+        cache.get(b, OBJECT_KEY, ttl, presign(ttl));
+        cache.get(a, OBJECT_KEY, ttl, presign(ttl));
+        cache.get(c, OBJECT_KEY, ttl, presign(ttl));
+
+        assertThat(cache.get(a, OBJECT_KEY, ttl, presign(ttl))).isSameAs(linkA);
+        cache.get(b, OBJECT_KEY, ttl, presign(ttl));
+        assertThat(signed).hasValue(4);
+        verify(metrics, times(2)).downloadUrlCacheEviction();
+    }
+
+    @Test
+    void invalidateDropsEveryUrlOfTheStatement() {
+        PresignedUrlCache cache = cache(100);
+        UUID id = UUID.randomUUID();
+        Duration ttl = Duration.ofSeconds(300);
+        PresignedDownload link = cache.get(id, OBJECT_KEY, ttl, presign(ttl));
+
+        cache.invalidate(id);
+
+        assertThat(cache.get(id, OBJECT_KEY, ttl, presign(ttl))).isNotSameAs(link);
+        assertThat(signed).hasValue(2);
+    }
+
+    private PresignedUrlCache cache(int maxEntries) {
+        return new PresignedUrlCache(new DownloadProperties.UrlCache(true, maxEntries, 60, 0.5), metrics, clock);
+    }
+
+    private Supplier<PresignedDownload> presign(Duration ttl) {
+        return () -> new PresignedDownload(
+                "https://s3.example/statement.pdf?sig=" + signed.incrementAndGet(), clock.instant().plus(ttl)
+        );
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RevokedStatementsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T00:00:00Z");
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final Clock clock = mock(Clock.class);
+
+    @Test
+    void localRevocationsArePrunedAfterTheRetentionWindowWhenTicketsAreDisabled() {
+        RevokedStatements revoked = new RevokedStatements(jdbc, new DownloadProperties.Ticket(false, null, 30), clock);
+        UUID statementId = UUID.randomUUID();
+        when(clock.instant()).thenReturn(NOW);
+        revoked.add(statementId);
+
+        revoked.refresh();
+        assertThat(revoked.isRevoked(statementId)).isTrue();
+
+        when(clock.instant()).thenReturn(NOW.plus(DownloadTickets.MAX_TTL).plusSeconds(61));
+        revoked.refresh();
+        assertThat(revoked.isRevoked(statementId)).isFalse();
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void localRevocationsSurviveARefreshThatMissedThem() {
+        RevokedStatements revoked = new RevokedStatements(jdbc, new DownloadProperties.Ticket(true, null, 30), clock);
+        UUID committedEarlier = UUID.randomUUID();
+        UUID committedDuringRefresh = UUID.randomUUID();
+        when(clock.instant()).thenReturn(NOW);
+        when(jdbc.queryForList(anyString(), eq(UUID.class), any())).thenReturn(List.of(committedEarlier));
+        revoked.add(committedDuringRefresh);
+
+        revoked.refresh();
+
+        assertThat(revoked.isFresh()).isTrue();
+        assertThat(revoked.isRevoked(committedEarlier)).isTrue();
+        assertThat(revoked.isRevoked(committedDuringRefresh)).isTrue();
+        assertThat(revoked.isRevoked(UUID.randomUUID())).isFalse();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.statement_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void growsPastItsInitialCapacityWithoutFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        long initialBits = filter.bitCount();
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            UUID id = UUID.randomUUID();
+            added.add(id);
+            filter.add(id);
+        }
+
+        assertThat(added).allMatch(filter::mightContain);
+        assertThat(filter.bitCount()).isGreaterThan(initialBits * 16);
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateNearTheConfiguredOne() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 20000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+
+        long falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(2000);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.statement_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.storage.S3Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatementArchivesTest {
+
+    private S3Client s3;
+    private ProxyDownloads proxyDownloads;
+    private StatementArchives archives;
+
+    @BeforeEach
+    void setUp() {
+        s3 = mock(S3Client.class);
+        S3Properties s3Properties = new S3Properties(
+                "http://localhost:9000", "", "af-south-1", "access-key", "secret-key", "statements",
+                2000, 5000, 10000, 4000, 3
+        );
+        proxyDownloads = new ProxyDownloads(s3, s3Properties, new DownloadProperties.Proxy(false, 1, 8, 0));
+        archives = new StatementArchives(s3, s3Properties, proxyDownloads, new DownloadProperties.Archive(1));
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest get = invocation.getArgument(0);
+            if (get.key().contains("missing")) {
+                throw NoSuchKeyException.builder().message("missing").build();
+            }
+            return new ResponseInputStream<>(
+                    GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(pdf(get.key())))
+            );
+        });
+    }
+
+    @Test
+    void writesOneUncompressedEntryPerStatementInRequestOrder() throws Exception {
+        List<Statement> statements = List.of(statement("a"), statement("b"), statement("c"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ProxyDownloads.Transfer transfer = archives.begin()) {
+            archives.write(statements, transfer, out);
+        }
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Statement expected = statements.get(names.size());
+                names.add(entry.getName());
+                assertThat(zip.readAllBytes()).isEqualTo(pdf(expected.getObjectKey()));
+                assertThat(entry.getCompressedSize()).isGreaterThanOrEqualTo(entry.getSize());
+            }
+        }
+        assertThat(names).containsExactlyElementsOf(statements.stream().map(StatementArchives::entryName).toList());
+        proxyDownloads.begin().close();
+    }
+
+    @Test
+    void leavesTheArchiveUnfinishedWhenAnObjectCannotBeRead() {
+        List<Statement> statements = List.of(statement("a"), statement("missing"), statement("c"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ProxyDownloads.Transfer transfer = archives.begin()) {
+            assertThatThrownBy(() -> archives.write(statements, transfer, out))
+                    .isInstanceOf(IOException.class)
+                    .hasCauseInstanceOf(NoSuchKeyException.class);
+        }
+
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).doesNotContain("PK\u0005\u0006");
+        proxyDownloads.begin().close();
+    }
+
+    private static Statement statement(String name) {
+        return new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                "customer/customer-1/account/account-1/" + name + ".pdf", "application/pdf", 0, "a".repeat(64),
+                Instant.parse("2026-02-01T00:00:00Z"), StatementStatus.ACTIVE
+        );
+    }
+
+    private static byte[] pdf(String objectKey) {
+        return ("%PDF-1.4\n% " + objectKey + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
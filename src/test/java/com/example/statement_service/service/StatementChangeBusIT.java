@@ -0,0 +1,116 @@
+package com.example.statement_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class StatementChangeBusIT {
+
+    private static final String APPLICATION_NAME = "statement-change-bus-it";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("statements")
+            .withUsername("statements")
+            .withPassword("statements");
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final List<StatementChangeBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (StatementChangeBus bus : buses) {
+            bus.destroy();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void committedChangesReachTheListenersOfEveryInstance() throws Exception {
+        RecordingListener firstListener = new RecordingListener();
+        RecordingListener secondListener = new RecordingListener();
+        HikariDataSource firstPool = pool();
+        StatementChangeBus first = bus(firstPool, firstListener);
+        bus(pool(), secondListener);
+
+        firstListener.awaitListening();
+        secondListener.awaitListening();
+        // The listener connections are opened with the pool's data source properties.
+        assertThat(new JdbcTemplate(firstPool).queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE application_name = ? AND query = ?",
+                Integer.class,
+                APPLICATION_NAME,
+                "LISTEN " + StatementChangeBus.CHANNEL
+        )).isEqualTo(2);
+
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(firstPool));
+        UUID rolledBack = UUID.randomUUID();
+        UUID committed = UUID.randomUUID();
+        transactions.executeWithoutResult(status -> {
+            first.publish(StatementChange.UPLOADED, List.of(rolledBack));
+            status.setRollbackOnly();
+        });
+        transactions.executeWithoutResult(status -> first.publish(StatementChange.REVOKED, List.of(committed)));
+
+        for (RecordingListener listener : List.of(firstListener, secondListener)) {
+            assertThat(listener.changes.poll(10, TimeUnit.SECONDS)).isEqualTo("REVOKED:" + committed);
+            assertThat(listener.changes).isEmpty();
+        }
+    }
+
+    private HikariDataSource pool() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(postgres.getJdbcUrl());
+        pool.setUsername(postgres.getUsername());
+        pool.setPassword(postgres.getPassword());
+        pool.addDataSourceProperty("ApplicationName", APPLICATION_NAME);
+        pools.add(pool);
+        return pool;
+    }
+
+    private StatementChangeBus bus(HikariDataSource pool, StatementChangeListener listener) {
+        StatementChangeBus bus = new StatementChangeBus(
+                new JdbcTemplate(pool), pool, new StatementChangeProperties(true, 60000, 100), List.of(listener)
+        );
+        buses.add(bus);
+        bus.start();
+        return bus;
+    }
+
+    private static final class RecordingListener implements StatementChangeListener {
+
+        private final CountDownLatch listening = new CountDownLatch(1);
+        private final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void statementChanged(UUID statementId, StatementChange change) {
+            changes.add(change + ":" + statementId);
+        }
+
+        @Override
+        public void resync() {
+            listening.countDown();
+        }
+
+        void awaitListening() throws InterruptedException {
+            assertThat(listening.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.statement_service.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class StatementChangeBusTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final StatementChangeListener failing = mock(StatementChangeListener.class);
+    private final StatementChangeListener cache = mock(StatementChangeListener.class);
+
+    @Test
+    void fansChangesOutToEveryListenerAndIgnoresMalformedPayloads() {
+        StatementChangeBus bus = bus(true);
+        UUID id = UUID.randomUUID();
+        doThrow(new IllegalStateException("boom")).when(failing).statementChanged(id, StatementChange.REVOKED);
+        doThrow(new IllegalStateException("boom")).when(failing).resync();
+
+        bus.dispatch("REVOKED:" + id);
+        bus.dispatch("REVOKED:not-a-uuid");
+        bus.dispatch("EXPLODED:" + id);
+        bus.dispatch(id.toString());
+        bus.resync();
+
+        verify(cache).statementChanged(id, StatementChange.REVOKED);
+        verify(cache, never()).statementChanged(any(), eq(StatementChange.UPLOADED));
+        verify(cache).resync();
+    }
+
+    @Test
+    void publishesOnlyWhenEnabled() {
+        UUID id = UUID.randomUUID();
+
+        bus(false).publish(StatementChange.REVOKED, List.of(id));
+        verifyNoInteractions(jdbc);
+
+        bus(true).publish(StatementChange.UPLOADED, List.of());
+        verifyNoInteractions(jdbc);
+
+        bus(true).publish(StatementChange.REVOKED, List.of(id));
+        verify(jdbc).query(anyString(), any(PreparedStatementSetter.class), any(ResultSetExtractor.class));
+    }
+
+    private StatementChangeBus bus(boolean enabled) {
+        return new StatementChangeBus(
+                jdbc, null, new StatementChangeProperties(enabled, 0, 0), List.of(failing, cache)
+        );
+    }
+}
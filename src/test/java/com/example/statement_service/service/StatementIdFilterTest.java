@@ -0,0 +1,64 @@
+package com.example.statement_service.service;
+
+import java.sql.ResultSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatementIdFilterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final StatementMetrics metrics = mock(StatementMetrics.class);
+    private final StatementIdFilter filter = new StatementIdFilter(
+            jdbc, transactionTemplate, new StatementIdFilterProperties(true, 1000, 0.001, 0),
+            new StatementChangeProperties(true, 0, 0), metrics
+    );
+
+    @Test
+    void answersOnlyAfterARebuildAndWhileChangesAreReceived() throws Exception {
+        UUID stored = UUID.randomUUID();
+        UUID uploadedDuringRebuild = UUID.randomUUID();
+        UUID uploadedElsewhere = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(stored);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            filter.add(uploadedDuringRebuild);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        assertThat(filter.isDefinitelyUnknown(unknown)).isFalse();
+
+        filter.rebuild(0);
+        filter.statementChanged(uploadedElsewhere, StatementChange.UPLOADED);
+
+        assertThat(filter.isDefinitelyUnknown(stored)).isFalse();
+        assertThat(filter.isDefinitelyUnknown(uploadedDuringRebuild)).isFalse();
+        assertThat(filter.isDefinitelyUnknown(uploadedElsewhere)).isFalse();
+        assertThat(filter.isDefinitelyUnknown(unknown)).isTrue();
+        verify(metrics).statementIdFilterRejected();
+
+        filter.changesPaused();
+        assertThat(filter.isDefinitelyUnknown(unknown)).isFalse();
+    }
+}
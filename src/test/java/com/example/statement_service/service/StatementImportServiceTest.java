@@ -0,0 +1,250 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementImport;
+import com.example.statement_service.domain.StatementImportStatus;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.persistence.StatementImportRepository;
+import com.example.statement_service.storage.S3Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StatementImportServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-02-01T00:00:00Z");
+
+    private StatementImportRepository importRepository;
+    private DirectUploadService directUploads;
+    private AuditService auditService;
+    private S3Client s3;
+    private TransactionTemplate transactionTemplate;
+    private S3Properties s3Properties;
+    private ExecutorService executor;
+    private StatementImportService service;
+
+    @BeforeEach
+    void setUp() {
+        importRepository = mock(StatementImportRepository.class);
+        directUploads = mock(DirectUploadService.class);
+        auditService = mock(AuditService.class);
+        s3 = mock(S3Client.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        transactionTemplate = mock(TransactionTemplate.class);
+        s3Properties = new S3Properties(
+                "http://localhost:9000",
+                "",
+                "af-south-1",
+                "access-key",
+                "secret-key",
+                "statements",
+                2000,
+                5000,
+                10000,
+                4000,
+                3
+        );
+        service = service(new StatementImportProperties(2, 2, 600));
+
+        when(importRepository.save(any(StatementImport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void importsEveryPageAndCheckpointsAfterEach() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class)))
+                .thenReturn(page(true, "token-1", "staging/a.pdf", "staging/nested/"))
+                .thenReturn(page(false, null, "staging/b.pdf"));
+        Statement created = statement();
+        when(directUploads.importStagedObject("staging/a.pdf"))
+                .thenReturn(BulkUploadResult.created("staging/a.pdf", created));
+        when(directUploads.importStagedObject("staging/b.pdf"))
+                .thenReturn(BulkUploadResult.rejected("staging/b.pdf", "accountId is required"));
+
+        StatementImport job = StatementImport.start("staging/", NOW);
+        service.run(job);
+
+        ArgumentCaptor<ListObjectsV2Request> listCaptor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3, times(2)).listObjectsV2(listCaptor.capture());
+        assertThat(listCaptor.getAllValues()).extracting(ListObjectsV2Request::continuationToken)
+                .containsExactly(null, "token-1");
+        assertThat(listCaptor.getAllValues()).extracting(ListObjectsV2Request::prefix).containsOnly("staging/");
+        verify(importRepository, times(3)).save(job);
+
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.COMPLETED);
+        assertThat(job.getObjectsListed()).isEqualTo(2);
+        assertThat(job.getImported()).isEqualTo(1);
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(job.getContinuationToken()).isNull();
+        verify(auditService).logAll(List.of(new AuditService.Entry("customer-1", "IMPORT", created.getId())), null, null);
+    }
+
+    @Test
+    void resumedImportContinuesFromLastCheckpoint() {
+        StatementImport job = StatementImport.start("staging/", NOW);
+        job.checkpoint("token-7", 14, 10, 2, 1, 1, NOW);
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page(false, null));
+
+        service.run(job);
+
+        ArgumentCaptor<ListObjectsV2Request> listCaptor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3).listObjectsV2(listCaptor.capture());
+        assertThat(listCaptor.getValue().continuationToken()).isEqualTo("token-7");
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(10);
+    }
+
+    @Test
+    void listingFailureMarksImportFailedAndKeepsCheckpoint() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class)))
+                .thenReturn(page(true, "token-1", "staging/a.pdf"))
+                .thenThrow(S3Exception.builder().statusCode(403).message("AccessDenied").build());
+        when(directUploads.importStagedObject("staging/a.pdf"))
+                .thenReturn(BulkUploadResult.failed("staging/a.pdf", "Failed to import staged object"));
+
+        StatementImport job = StatementImport.start("staging/", NOW);
+        service.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.FAILED);
+        assertThat(job.getLastError()).contains("AccessDenied");
+        assertThat(job.getContinuationToken()).isEqualTo("token-1");
+        assertThat(job.getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void slowPageMovesTheHeartbeatUntilItsObjectsAreImported() {
+        StatementImportService service = service(new StatementImportProperties(2, 2, 1));
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page(false, null, "staging/a.pdf"));
+        when(directUploads.importStagedObject("staging/a.pdf")).thenAnswer(invocation -> {
+            Thread.sleep(800);
+            return BulkUploadResult.existing("staging/a.pdf", statement());
+        });
+        when(importRepository.heartbeat(any(), any(), any())).thenReturn(1);
+
+        StatementImport job = StatementImport.start("staging/", NOW);
+        service.run(job);
+
+        verify(importRepository, atLeast(1)).heartbeat(job.getId(), job.getVersion(), NOW);
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.COMPLETED);
+        assertThat(job.getExisting()).isEqualTo(1);
+    }
+
+    @Test
+    void runStopsOnceTheSweepClaimedItsImport() {
+        StatementImportService service = service(new StatementImportProperties(2, 2, 1));
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page(true, "token-1", "staging/a.pdf"));
+        when(directUploads.importStagedObject("staging/a.pdf")).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return BulkUploadResult.existing("staging/a.pdf", statement());
+        });
+        when(importRepository.heartbeat(any(), any(), any())).thenReturn(0);
+
+        StatementImport job = StatementImport.start("staging/", NOW);
+        service.run(job);
+
+        verify(s3).listObjectsV2(any(ListObjectsV2Request.class));
+        verify(importRepository, never()).save(any(StatementImport.class));
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.RUNNING);
+    }
+
+    @Test
+    void staleCheckpointDoesNotMarkTheClaimedImportFailed() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page(true, "token-1"));
+        when(importRepository.save(any(StatementImport.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(StatementImport.class, UUID.randomUUID()));
+
+        StatementImport job = StatementImport.start("staging/", NOW);
+        service.run(job);
+
+        verify(s3).listObjectsV2(any(ListObjectsV2Request.class));
+        verify(importRepository).save(job);
+        assertThat(job.getStatus()).isEqualTo(StatementImportStatus.RUNNING);
+        assertThat(job.getLastError()).isNull();
+    }
+
+    @Test
+    void rejectsPrefixesThatOverlapStatementKeyLayout() {
+        assertThatThrownBy(() -> service.start(" "))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("prefix is required");
+        assertThatThrownBy(() -> service.start("customer/customer-1"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("must not overlap");
+        assertThatThrownBy(() -> service.start("customer"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("must not overlap");
+        assertThatThrownBy(() -> service.start("blobs"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("must not overlap");
+
+        verifyNoInteractions(importRepository, s3);
+        verify(auditService, times(0)).logAll(anyList(), any(), any());
+    }
+
+    private StatementImportService service(StatementImportProperties properties) {
+        return new StatementImportService(
+                importRepository,
+                directUploads,
+                auditService,
+                s3,
+                s3Properties,
+                transactionTemplate,
+                properties,
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                executor
+        );
+    }
+
+    private static ListObjectsV2Response page(boolean truncated, String nextToken, String... keys) {
+        return ListObjectsV2Response.builder()
+                .isTruncated(truncated)
+                .nextContinuationToken(nextToken)
+                .contents(Arrays.stream(keys).map(key -> S3Object.builder().key(key).build()).toList())
+                .build();
+    }
+
+    private static Statement statement() {
+        return new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                "customer/customer-1/account/account-1/2026-01/imported.pdf", "application/pdf",
+                42, "0".repeat(64), NOW, StatementStatus.ACTIVE
+        );
+    }
+}
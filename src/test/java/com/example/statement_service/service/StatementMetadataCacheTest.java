@@ -0,0 +1,138 @@
+package com.example.statement_service.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatementMetadataCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-07-25T12:00:00Z");
+
+    private final StatementMetrics metrics = mock(StatementMetrics.class);
+    private final RevokedStatements revoked = mock(RevokedStatements.class);
+    private final MutableClock clock = new MutableClock(NOW);
+
+    @Test
+    void decodesEveryFieldOfACachedStatement() {
+        StatementMetadataCache cache = cache(100, 60);
+        Statement statement = statement("customer-ü", StatementStatus.ACTIVE);
+
+        cache.put(statement);
+        Statement cached = cache.get(statement.getId());
+
+        assertThat(cached).usingRecursiveComparison().isEqualTo(statement);
+        assertThat(cached).isNotSameAs(statement);
+        verify(metrics).statementCacheHit();
+    }
+
+    @Test
+    void skipsStatementsThatAreNotActiveOrDoNotFitASlot() {
+        StatementMetadataCache cache = cache(100, 60);
+        Statement pending = statement("customer-1", StatementStatus.PENDING);
+        Statement oversized = statement("c".repeat(200), StatementStatus.ACTIVE);
+
+        cache.put(pending);
+        cache.put(oversized);
+
+        assertThat(cache.get(pending.getId())).isNull();
+        assertThat(cache.get(oversized.getId())).isNull();
+        verify(metrics, times(2)).statementCacheMiss();
+    }
+
+    @Test
+    void dropsRevokedInvalidatedAndStaleEntries() {
+        StatementMetadataCache cache = cache(100, 60);
+        Statement invalidated = statement("customer-1", StatementStatus.ACTIVE);
+        Statement revokedElsewhere = statement("customer-1", StatementStatus.ACTIVE);
+        Statement stale = statement("customer-1", StatementStatus.ACTIVE);
+        when(revoked.isRevoked(revokedElsewhere.getId())).thenReturn(true);
+        cache.put(invalidated);
+        cache.put(revokedElsewhere);
+
+        cache.invalidate(invalidated.getId());
+        clock.advance(Duration.ofSeconds(30));
+        cache.put(stale);
+        assertThat(cache.get(stale.getId())).isNotNull();
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(cache.get(invalidated.getId())).isNull();
+        assertThat(cache.get(revokedElsewhere.getId())).isNull();
+        assertThat(cache.get(stale.getId())).isNull();
+    }
+
+    @Test
+    void staysWithinCapacityByEvictingPerBucket() {
+        StatementMetadataCache cache = cache(512, 60);
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Statement statement = statement("customer-1", StatementStatus.ACTIVE);
+            statements.add(statement);
+            cache.put(statement);
+        }
+
+        long cached = statements.stream().filter(s -> cache.get(s.getId()) != null).count();
+
+        assertThat(cached).isEqualTo(512);
+        verify(metrics, times(5000 - 512)).statementCacheEviction();
+    }
+
+    private StatementMetadataCache cache(int maxEntries, long maxAgeSeconds) {
+        return new StatementMetadataCache(
+                new StatementCacheProperties(true, maxEntries, 256, maxAgeSeconds), revoked, metrics, clock
+        );
+    }
+
+    private static Statement statement(String customerId, StatementStatus status) {
+        UUID id = UUID.randomUUID();
+        return new Statement(
+                id, customerId, "account-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                "customer/" + customerId + "/account/account-1/2026-01/" + id + ".pdf", "application/pdf", 48213,
+                "0123456789abcdef".repeat(4), Instant.parse("2026-02-01T08:15:30.123456Z"), status
+        );
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
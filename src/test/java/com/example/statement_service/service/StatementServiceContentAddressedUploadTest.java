@@ -0,0 +1,160 @@
+package com.example.statement_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.StatementBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatementServiceContentAddressedUploadTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final String SHA256 = sha256Hex(PDF);
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private JdbcTemplate jdbc;
+    private StatementBlobStore blobs;
+    private StatementMetrics metrics;
+    private StatementService service;
+    private BulkUploadService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture().uploadProperties(new UploadProperties(
+                DataSize.ofMegabytes(10), null, null, UploadProperties.StorageMode.CONTENT_ADDRESSED, null
+        ));
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        jdbc = fixture.jdbc;
+        blobs = fixture.blobs;
+        metrics = fixture.metrics;
+        service = fixture.statementService();
+        bulkService = fixture.bulkUploadService();
+
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+        when(statementRepository.saveAndFlush(any(Statement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+        when(statementRepository.findIdempotencyCandidates(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void newDigestIsReservedStoredUnderItsBlobKeyAndReferenced() {
+        when(blobs.referenced(anyCollection())).thenReturn(Set.of());
+
+        Statement statement = service.upload("customer-1", "account-1", PERIOD_START, PERIOD_END, pdf());
+
+        String blobKey = StatementBlobStore.objectKey(SHA256);
+        assertThat(statement.getObjectKey()).isEqualTo(blobKey);
+        InOrder order = inOrder(blobs, s3, statementRepository);
+        order.verify(blobs).reserve(SHA256, PDF.length);
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        order.verify(s3).putObject(putCaptor.capture(), any(RequestBody.class));
+        order.verify(statementRepository).saveAndFlush(any(Statement.class));
+        order.verify(blobs).addReferences(List.of(new StatementBlobStore.Reference(SHA256, PDF.length, 1)));
+        assertThat(putCaptor.getValue().key()).isEqualTo(blobKey);
+        verify(metrics).uploadSuccess();
+    }
+
+    @Test
+    void knownDigestSkipsThePutAndOnlyAddsAReference() {
+        when(blobs.referenced(anyCollection())).thenReturn(Set.of(SHA256));
+
+        Statement statement = service.upload("customer-1", "account-2", PERIOD_START, PERIOD_END, pdf());
+
+        assertThat(statement.getObjectKey()).isEqualTo(StatementBlobStore.objectKey(SHA256));
+        verify(s3, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(blobs, never()).reserve(anyString(), org.mockito.ArgumentMatchers.anyLong());
+        verify(blobs).addReferences(List.of(new StatementBlobStore.Reference(SHA256, PDF.length, 1)));
+        verify(metrics).uploadDeduplicated();
+    }
+
+    @Test
+    void failedInsertNeverDeletesASharedBlob() {
+        when(blobs.referenced(anyCollection())).thenReturn(Set.of(SHA256));
+        when(statementRepository.saveAndFlush(any(Statement.class)))
+                .thenThrow(new DataIntegrityViolationException("constraint failed"));
+
+        assertThatThrownBy(() -> service.upload("customer-1", "account-1", PERIOD_START, PERIOD_END, pdf()))
+                .isInstanceOf(RuntimeException.class);
+
+        verify(s3, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(blobs, never()).addReferences(anyCollection());
+    }
+
+    @Test
+    void bulkStoresEachDigestOnceAndReferencesEveryInsertedStatement() {
+        when(blobs.referenced(anyCollection())).thenReturn(Set.of());
+        when(jdbc.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 1, 1}});
+
+        List<BulkUploadResult> results = bulkService.uploadBulk(List.of(
+                item("account-1"),
+                item("account-2"),
+                item("account-3")
+        ));
+
+        assertThat(results).extracting(BulkUploadResult::outcome)
+                .containsOnly(BulkUploadResult.Outcome.CREATED);
+        assertThat(results).extracting(result -> result.statement().getObjectKey())
+                .containsOnly(StatementBlobStore.objectKey(SHA256));
+        verify(blobs, times(1)).reserve(SHA256, PDF.length);
+        verify(s3, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(blobs).addReferences(List.of(new StatementBlobStore.Reference(SHA256, PDF.length, 3)));
+    }
+
+    private static MockMultipartFile pdf() {
+        return new MockMultipartFile("file", "statement.pdf", "application/pdf", PDF);
+    }
+
+    private static BulkUploadItem item(String accountId) {
+        return new BulkUploadItem(accountId, "customer-1", accountId, PERIOD_START, PERIOD_END, pdf());
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
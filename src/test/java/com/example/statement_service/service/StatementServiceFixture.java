@@ -0,0 +1,129 @@
+package com.example.statement_service.service;
+
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import com.example.statement_service.storage.OrphanedS3ObjectCleanupService;
+import com.example.statement_service.storage.S3MultipartUploader;
+import com.example.statement_service.storage.S3Properties;
+import com.example.statement_service.storage.StatementBlobStore;
+import com.example.statement_service.storage.UploadIntentLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the statement services over mocked collaborators, so a test only stubs what it exercises.
+ * <p>
+ * Transactions run their callback inline and uploads are coalesced within the instance only. Every other collaborator
+ * is a plain mock, so caches miss, the ID filter never short-circuits, multipart uploads are never chosen and change
+ * notifications go nowhere unless a test stubs them.
+ */
+final class StatementServiceFixture {
+
+    static final S3Properties S3_PROPERTIES = new S3Properties(
+            "http://localhost:9000",
+            "",
+            "af-south-1",
+            "access-key",
+            "secret-key",
+            "statements",
+            2000,
+            5000,
+            10000,
+            4000,
+            3
+    );
+
+    final StatementRepository statementRepository = mock(StatementRepository.class);
+    final S3Client s3 = mock(S3Client.class);
+    final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    final StatementMetrics metrics = mock(StatementMetrics.class);
+    final OrphanedS3ObjectCleanupService orphanedObjectCleanupService = mock(OrphanedS3ObjectCleanupService.class);
+    final S3MultipartUploader multipartUploader = mock(S3MultipartUploader.class);
+    final AsyncUploadExecutor asyncUploads = mock(AsyncUploadExecutor.class);
+    final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    final StatementBlobStore blobs = mock(StatementBlobStore.class);
+    final UploadIntentLog intents = mock(UploadIntentLog.class);
+    final StatementMetadataCache metadataCache = mock(StatementMetadataCache.class);
+    final StatementChangeBus changes = mock(StatementChangeBus.class);
+    final StatementIdFilter idFilter = mock(StatementIdFilter.class);
+    final PresignedUrlCache downloadUrls = mock(PresignedUrlCache.class);
+
+    private S3Presigner presigner = mock(S3Presigner.class);
+    private UploadProperties uploadProperties = new UploadProperties(null, null, null, null, null);
+
+    StatementServiceFixture() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+    }
+
+    StatementServiceFixture uploadProperties(UploadProperties uploadProperties) {
+        this.uploadProperties = uploadProperties;
+        return this;
+    }
+
+    StatementServiceFixture presigner(S3Presigner presigner) {
+        this.presigner = presigner;
+        return this;
+    }
+
+    StatementService statementService() {
+        return new StatementService(
+                statementRepository,
+                writer(),
+                validator(),
+                new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(false, 0, 0), metrics),
+                metadataCache,
+                idFilter,
+                downloadUrls,
+                metrics
+        );
+    }
+
+    AsyncUploadService asyncUploadService() {
+        return new AsyncUploadService(
+                statementRepository, writer(), validator(), asyncUploads, transactionTemplate, metrics, uploadProperties
+        );
+    }
+
+    BulkUploadService bulkUploadService() {
+        return new BulkUploadService(
+                statementRepository, writer(), validator(), blobs, jdbc, transactionTemplate, metrics, uploadProperties
+        );
+    }
+
+    DirectUploadService directUploadService() {
+        return new DirectUploadService(
+                statementRepository, writer(), validator(), s3, presigner, S3_PROPERTIES, metrics
+        );
+    }
+
+    private UploadValidator validator() {
+        return new UploadValidator(uploadProperties);
+    }
+
+    private StatementWriter writer() {
+        return new StatementWriter(
+                statementRepository,
+                s3,
+                S3_PROPERTIES,
+                transactionTemplate,
+                metrics,
+                orphanedObjectCleanupService,
+                multipartUploader,
+                blobs,
+                intents,
+                metadataCache,
+                changes,
+                idFilter,
+                uploadProperties
+        );
+    }
+}
@@ -3,17 +3,14 @@ package com.example.statement_service.service;
 import java.time.LocalDate;
 import java.util.Optional;
 
-import com.example.statement_service.domain.Statement;
 import com.example.statement_service.observability.StatementMetrics;
 import com.example.statement_service.persistence.StatementRepository;
 import com.example.statement_service.storage.OrphanedS3ObjectCandidate;
 import com.example.statement_service.storage.OrphanedS3ObjectCleanupService;
-import com.example.statement_service.storage.S3Properties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockMultipartFile;
-import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -21,12 +18,11 @@ import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,34 +38,13 @@ class StatementServiceOrphanCleanupTest {
 
     @BeforeEach
     void setUp() {
-        statementRepository = mock(StatementRepository.class);
-        s3 = mock(S3Client.class);
-        S3Presigner presigner = mock(S3Presigner.class);
-        transactionTemplate = mock(TransactionTemplate.class);
-        metrics = mock(StatementMetrics.class);
-        orphanedCleanupService = mock(OrphanedS3ObjectCleanupService.class);
-        S3Properties s3Properties = new S3Properties(
-                "http://localhost:9000",
-                "",
-                "af-south-1",
-                "access-key",
-                "secret-key",
-                "statements",
-                2000,
-                5000,
-                10000,
-                4000,
-                3
-        );
-        service = new StatementService(
-                statementRepository,
-                s3,
-                presigner,
-                s3Properties,
-                transactionTemplate,
-                metrics,
-                orphanedCleanupService
-        );
+        StatementServiceFixture fixture = new StatementServiceFixture();
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        transactionTemplate = fixture.transactionTemplate;
+        metrics = fixture.metrics;
+        orphanedCleanupService = fixture.orphanedObjectCleanupService;
+        service = fixture.statementService();
     }
 
     @Test
@@ -141,8 +116,7 @@ class StatementServiceOrphanCleanupTest {
         )).thenReturn(Optional.empty());
         when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
-        when(transactionTemplate.execute(org.mockito.ArgumentMatchers.<TransactionCallback<Statement>>any()))
-                .thenThrow(databaseFailure);
+        doThrow(databaseFailure).when(transactionTemplate).execute(any());
     }
 
     private MockMultipartFile pdf() {
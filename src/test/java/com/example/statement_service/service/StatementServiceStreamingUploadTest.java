@@ -0,0 +1,198 @@
+package com.example.statement_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.statement_service.domain.Statement;
+import com.example.statement_service.domain.StatementStatus;
+import com.example.statement_service.observability.StatementMetrics;
+import com.example.statement_service.persistence.StatementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StatementServiceStreamingUploadTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
+    private static final byte[] PDF = "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private StatementRepository statementRepository;
+    private S3Client s3;
+    private StatementMetrics metrics;
+    private StatementService service;
+    private byte[] storedBytes;
+
+    @BeforeEach
+    void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture();
+        statementRepository = fixture.statementRepository;
+        s3 = fixture.s3;
+        metrics = fixture.metrics;
+        service = fixture.statementService();
+
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                storedBytes = in.readAllBytes();
+            }
+            return PutObjectResponse.builder().build();
+        });
+        when(statementRepository.saveAndFlush(any(Statement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void streamsBodyToS3OnceAndPersistsInlineDigest() throws Exception {
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+
+        Statement saved = service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, null, new ByteArrayInputStream(PDF)
+        );
+
+        ArgumentCaptor<RequestBody> bodyCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3).putObject(any(PutObjectRequest.class), bodyCaptor.capture());
+        assertThat(bodyCaptor.getValue().optionalContentLength()).contains((long) PDF.length);
+        assertThat(storedBytes).isEqualTo(PDF);
+        assertThat(saved.getSizeBytes()).isEqualTo(PDF.length);
+        assertThat(saved.getSha256()).isEqualTo(sha256Hex(PDF));
+        assertThat(saved.getObjectKey()).startsWith("customer/customer-1/account/account-1/2026-01/");
+        assertThatThrownBy(() -> bodyCaptor.getValue().contentStreamProvider().newStream())
+                .isInstanceOf(IllegalStateException.class);
+        verify(metrics).uploadSuccess();
+    }
+
+    @Test
+    void rejectsBodyWithoutPdfSignatureBeforeContactingS3() {
+        byte[] notPdf = "not a pdf".getBytes(StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", notPdf.length, null, new ByteArrayInputStream(notPdf)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("valid PDF signature");
+
+        verifyNoInteractions(s3);
+        verify(metrics).uploadFailure();
+    }
+
+    @Test
+    void rejectsMissingOrOversizedContentLength() {
+        assertThatThrownBy(() -> service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", -1, null, new ByteArrayInputStream(PDF)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Content-Length is required");
+
+        assertThatThrownBy(() -> service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", (10L * 1024 * 1024) + 1, null, new ByteArrayInputStream(PDF)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("exceeds the 10MB upload limit");
+
+        verifyNoInteractions(s3);
+        verify(metrics, times(2)).uploadFailure();
+    }
+
+    @Test
+    void duplicateStreamedUploadDeletesNewObjectAndReturnsExistingStatement() {
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+
+        Statement result = service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, null, new ByteArrayInputStream(PDF)
+        );
+
+        assertThat(result).isSameAs(existing);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().key()).isNotEqualTo(existing.getObjectKey());
+        verify(statementRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void declaredDigestOfExistingStatementIsAnsweredWithoutReadingBody() {
+        Statement existing = new Statement(
+                UUID.randomUUID(), "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "customer/customer-1/account/account-1/2026-01/existing.pdf", "application/pdf",
+                PDF.length, sha256Hex(PDF), Instant.now(), StatementStatus.ACTIVE
+        );
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END, sha256Hex(PDF)
+        )).thenReturn(Optional.of(existing));
+        InputStream body = mock(InputStream.class);
+
+        Statement result = service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, sha256Hex(PDF).toUpperCase(), body
+        );
+
+        assertThat(result).isSameAs(existing);
+        verifyNoInteractions(body, s3);
+        verify(metrics).uploadSuccess();
+    }
+
+    @Test
+    void bodyNotMatchingDeclaredDigestIsRejectedAndItsObjectDeleted() {
+        when(statementRepository.findByCustomerIdAndAccountIdAndPeriodStartAndPeriodEndAndSha256(
+                any(), any(), any(), any(), any()
+        )).thenReturn(Optional.empty());
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+
+        assertThatThrownBy(() -> service.uploadStream(
+                "customer-1", "account-1", PERIOD_START, PERIOD_END,
+                "application/pdf", PDF.length, "0".repeat(64), new ByteArrayInputStream(PDF)
+        ))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("does not match the declared SHA-256");
+
+        verify(s3).deleteObject(any(DeleteObjectRequest.class));
+        verify(statementRepository, never()).saveAndFlush(any());
+        verify(metrics).uploadFailure();
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
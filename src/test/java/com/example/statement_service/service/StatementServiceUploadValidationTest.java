@@ -5,9 +5,9 @@ import java.time.LocalDate;
 import com.example.statement_service.observability.StatementMetrics;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 class StatementServiceUploadValidationTest {
@@ -15,8 +15,9 @@ class StatementServiceUploadValidationTest {
     private static final LocalDate PERIOD_START = LocalDate.of(2026, 1, 1);
     private static final LocalDate PERIOD_END = LocalDate.of(2026, 1, 31);
 
-    private final StatementMetrics metrics = mock(StatementMetrics.class);
-    private final StatementService service = new StatementService(null, null, null, null, null, metrics, null);
+    private final StatementServiceFixture fixture = new StatementServiceFixture();
+    private final StatementMetrics metrics = fixture.metrics;
+    private final StatementService service = fixture.statementService();
 
     @Test
     void rejectsEmptyFile() {
@@ -31,6 +32,18 @@ class StatementServiceUploadValidationTest {
         );
     }
 
+    @Test
+    void enforcesConfiguredUploadLimit() {
+        StatementService limited = fixture
+                .uploadProperties(new UploadProperties(DataSize.ofKilobytes(1), null, null, null, null))
+                .statementService();
+
+        assertThatThrownBy(() -> limited.upload("customer-1", "account-1", PERIOD_START, PERIOD_END,
+                pdf("statement.pdf", "application/pdf", new byte[1025])))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("exceeds the 1024 bytes upload limit");
+    }
+
     @Test
     void rejectsWrongContentType() {
         assertInvalidUpload(
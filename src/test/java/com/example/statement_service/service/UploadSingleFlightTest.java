@@ -0,0 +1,202 @@
+package com.example.statement_service.service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.statement_service.observability.StatementMetrics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSingleFlightTest {
+
+    private final StatementMetrics metrics = mock(StatementMetrics.class);
+
+    @Test
+    void followerReceivesTheLeadersResultWhileItIsRunning() throws Exception {
+        UploadSingleFlight flights = new UploadSingleFlight(
+                mock(JdbcTemplate.class), new UploadProperties.Coalescing(false, 0, 0), metrics
+        );
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flights.execute("key", Optional::empty, () -> {
+                leaderStarted.countDown();
+                await(releaseLeader);
+                return "statement";
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // The leader is blocked inside its upload, so this call can only join the running flight.
+            Future<String> follower = executor.submit(() -> flights.execute("key", Optional::empty, () -> "duplicate"));
+            Thread.sleep(200);
+            releaseLeader.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("statement");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("statement");
+        }
+        verify(metrics).uploadCoalesced();
+    }
+
+    @Test
+    void failedUploadReleasesTheKeyForTheNextAttempt() {
+        UploadSingleFlight flights = new UploadSingleFlight(
+                mock(JdbcTemplate.class), new UploadProperties.Coalescing(false, 0, 0), metrics
+        );
+
+        assertThatThrownBy(() -> flights.execute("key", Optional::empty, () -> {
+            throw new IllegalStateException("s3 unavailable");
+        })).hasMessage("s3 unavailable");
+
+        assertThat(flights.execute("key", Optional::empty, () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void uploadOnAnotherInstanceIsAwaitedInsteadOfRepeated() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.update(contains("INSERT INTO upload_leases"), any(), any(), any())).thenReturn(0);
+        UploadSingleFlight flights = new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(true, 5000, 30000), metrics);
+        AtomicInteger lookups = new AtomicInteger();
+
+        String result = flights.execute(
+                "key",
+                () -> lookups.incrementAndGet() < 2 ? Optional.empty() : Optional.of("written elsewhere"),
+                () -> {
+                    throw new AssertionError("must not upload while another instance holds the lease");
+                }
+        );
+
+        assertThat(result).isEqualTo("written elsewhere");
+        verify(jdbc, times(2)).update(
+                contains("INSERT INTO upload_leases"), eq(UploadSingleFlight.leaseId("key")), any(UUID.class), eq(30000L)
+        );
+        verify(jdbc, never()).update(contains("DELETE FROM upload_leases"), any(), any());
+        verify(metrics).uploadCoalesced();
+    }
+
+    @Test
+    void uploadRunsUnderTheLeaseAndReleasesIt() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.update(contains("INSERT INTO upload_leases"), any(), any(), any())).thenReturn(1);
+        UploadSingleFlight flights = new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(true, 5000, 30000), metrics);
+
+        assertThat(flights.execute("key", Optional::empty, () -> "uploaded")).isEqualTo("uploaded");
+
+        ArgumentCaptor<Object> claimedBy = ArgumentCaptor.forClass(Object.class);
+        verify(jdbc).update(
+                contains("INSERT INTO upload_leases"), eq(UploadSingleFlight.leaseId("key")), claimedBy.capture(), eq(30000L)
+        );
+        verify(jdbc).update(contains("DELETE FROM upload_leases"), eq(UploadSingleFlight.leaseId("key")), eq(claimedBy.getValue()));
+    }
+
+    @Test
+    void leaseIsReleasedWhenTheUploadFails() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.update(contains("INSERT INTO upload_leases"), any(), any(), any())).thenReturn(1);
+        UploadSingleFlight flights = new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(true, 5000, 30000), metrics);
+
+        assertThatThrownBy(() -> flights.execute("key", Optional::empty, () -> {
+            throw new IllegalStateException("s3 unavailable");
+        })).hasMessage("s3 unavailable");
+
+        verify(jdbc).update(contains("DELETE FROM upload_leases"), eq(UploadSingleFlight.leaseId("key")), any(UUID.class));
+    }
+
+    @Test
+    void followerInTheSameInstanceStopsWaitingAfterTheTimeout() throws Exception {
+        UploadSingleFlight flights = new UploadSingleFlight(
+                mock(JdbcTemplate.class), new UploadProperties.Coalescing(false, 50, 0), metrics
+        );
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flights.execute("key", Optional::empty, () -> {
+                leaderStarted.countDown();
+                await(releaseLeader);
+                return "statement";
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(flights.execute("key", Optional::empty, () -> "uncoordinated")).isEqualTo("uncoordinated");
+            releaseLeader.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("statement");
+        }
+        verify(metrics, never()).uploadCoalesced();
+    }
+
+    @Test
+    void followerKeepsPollingPastTheWaitTimeoutWhileTheLeaseIsLive() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.update(contains("INSERT INTO upload_leases"), any(), any(), any())).thenReturn(0);
+        UploadSingleFlight flights = new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(true, 1, 30000), metrics);
+        AtomicInteger lookups = new AtomicInteger();
+
+        String result = flights.execute(
+                "key",
+                () -> lookups.incrementAndGet() < 5 ? Optional.empty() : Optional.of("written elsewhere"),
+                () -> {
+                    throw new AssertionError("must not upload while another instance holds the lease");
+                }
+        );
+
+        assertThat(result).isEqualTo("written elsewhere");
+        verify(jdbc, times(5)).update(contains("INSERT INTO upload_leases"), any(), any(), any());
+    }
+
+    @Test
+    void leaseIsRenewedWhileTheUploadRuns() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.update(contains("INSERT INTO upload_leases"), any(), any(), any())).thenReturn(1);
+        when(jdbc.update(contains("UPDATE upload_leases"), any(), any(), any())).thenReturn(1);
+        UploadSingleFlight flights = new UploadSingleFlight(jdbc, new UploadProperties.Coalescing(true, 5000, 30), metrics);
+
+        assertThat(flights.execute("key", Optional::empty, () -> {
+            sleep(200);
+            return "uploaded";
+        })).isEqualTo("uploaded");
+
+        ArgumentCaptor<Object> claimedBy = ArgumentCaptor.forClass(Object.class);
+        verify(jdbc).update(contains("INSERT INTO upload_leases"), eq(UploadSingleFlight.leaseId("key")), claimedBy.capture(), eq(30L));
+        verify(jdbc, atLeast(2)).update(
+                contains("UPDATE upload_leases"), eq(30L), eq(UploadSingleFlight.leaseId("key")), eq(claimedBy.getValue())
+        );
+        flights.destroy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
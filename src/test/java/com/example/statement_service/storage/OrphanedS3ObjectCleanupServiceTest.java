@@ -1,12 +1,14 @@
 package com.example.statement_service.storage;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.example.statement_service.domain.OrphanedS3Object;
 import com.example.statement_service.domain.OrphanedS3ObjectStatus;
@@ -38,6 +40,8 @@ class OrphanedS3ObjectCleanupServiceTest {
     private S3Client s3;
     private StatementRepository statementRepository;
     private OrphanedS3ObjectRepository orphanedRepository;
+    private StatementBlobStore blobs;
+    private UploadIntentLog intents;
     private OrphanedS3ObjectCleanupService service;
 
     @BeforeEach
@@ -45,14 +49,19 @@ class OrphanedS3ObjectCleanupServiceTest {
         s3 = mock(S3Client.class);
         statementRepository = mock(StatementRepository.class);
         orphanedRepository = mock(OrphanedS3ObjectRepository.class);
+        blobs = mock(StatementBlobStore.class);
+        intents = mock(UploadIntentLog.class);
         service = new OrphanedS3ObjectCleanupService(
                 s3,
                 s3Properties(),
                 statementRepository,
                 orphanedRepository,
-                new OrphanedObjectCleanupProperties(true, 10, 900),
+                new OrphanedObjectCleanupProperties(true, 10, 900, 604800),
+                blobs,
+                intents,
                 Clock.fixed(NOW, ZoneOffset.UTC)
         );
+        when(intents.claimBucketScan(Duration.ofDays(7))).thenReturn(true);
     }
 
     @Test
@@ -186,6 +195,63 @@ class OrphanedS3ObjectCleanupServiceTest {
         verify(orphanedRepository, never()).save(any(OrphanedS3Object.class));
     }
 
+    @Test
+    void reclaimsUnreferencedBlobsOlderThanTheGracePeriodWithRemainingBudget() {
+        String blobKey = StatementBlobStore.objectKey("b".repeat(64));
+        when(orphanedRepository.findByStatusOrderByFirstDetectedAtAsc(eq(OrphanedS3ObjectStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(List.of())
+                .build());
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+        when(blobs.reclaimUnreferenced(eq(NOW.minusSeconds(900)), eq(10), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(2).accept(blobKey);
+            return 1;
+        });
+
+        OrphanedS3ObjectCleanupService.CleanupResult result = service.reconcile();
+
+        assertThat(result.unreferencedBlobsReclaimed()).isEqualTo(1);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().bucket()).isEqualTo("statements");
+        assertThat(deleteCaptor.getValue().key()).isEqualTo(blobKey);
+    }
+
+    @Test
+    void deletesObjectsOfStaleUploadIntentsBeforeScanningTheBucket() {
+        String objectKey = "customer/customer-4/account/account-4/2026-01/abandoned.pdf";
+        when(orphanedRepository.findByStatusOrderByFirstDetectedAtAsc(eq(OrphanedS3ObjectStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenReturn(DeleteObjectResponse.builder().build());
+        when(intents.reclaimStale(eq(NOW.minusSeconds(900)), eq(10), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(2).accept(objectKey);
+            return 10;
+        });
+
+        OrphanedS3ObjectCleanupService.CleanupResult result = service.reconcile();
+
+        assertThat(result.staleIntentsProcessed()).isEqualTo(10);
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3).deleteObject(deleteCaptor.capture());
+        assertThat(deleteCaptor.getValue().bucket()).isEqualTo("statements");
+        assertThat(deleteCaptor.getValue().key()).isEqualTo(objectKey);
+        verify(intents, never()).claimBucketScan(any());
+        verify(s3, never()).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    void skipsTheBucketScanWhenAnotherRunClaimedItWithinTheInterval() {
+        when(orphanedRepository.findByStatusOrderByFirstDetectedAtAsc(eq(OrphanedS3ObjectStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(intents.claimBucketScan(Duration.ofDays(7))).thenReturn(false);
+
+        OrphanedS3ObjectCleanupService.CleanupResult result = service.reconcile();
+
+        assertThat(result.scannedObjectsProcessed()).isZero();
+        verify(s3, never()).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
     private S3Properties s3Properties() {
         return new S3Properties(
                 "http://localhost:9000",
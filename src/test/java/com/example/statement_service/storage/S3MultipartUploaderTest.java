@@ -0,0 +1,208 @@
+package com.example.statement_service.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    private S3Client s3;
+    private ExecutorService executor;
+    private S3MultipartUploader uploader;
+    private final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        s3 = mock(S3Client.class);
+        executor = Executors.newFixedThreadPool(2);
+        uploader = new S3MultipartUploader(
+                s3,
+                new S3MultipartProperties(DataSize.ofMegabytes(5), DataSize.ofMegabytes(5), 2, 3, 1000),
+                executor
+        );
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.destroy();
+    }
+
+    @Test
+    void splitsBodyIntoPartsAndCompletesInPartOrder() throws Exception {
+        byte[] content = randomBytes((2 * PART_SIZE) + 123);
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            uploadedParts.put(request.partNumber(), read(invocation.getArgument(1)));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+
+        uploader.upload("statements", "customer/c/statement.pdf", "application/pdf", new ByteArrayInputStream(content));
+
+        ArgumentCaptor<CreateMultipartUploadRequest> createCaptor = ArgumentCaptor.forClass(CreateMultipartUploadRequest.class);
+        verify(s3).createMultipartUpload(createCaptor.capture());
+        assertThat(createCaptor.getValue().checksumAlgorithm()).isEqualTo(ChecksumAlgorithm.SHA256);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(completeCaptor.capture());
+        assertThat(completeCaptor.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag-1"),
+                        tuple(2, "etag-2"),
+                        tuple(3, "etag-3")
+                );
+
+        ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+        for (int part = 1; part <= 3; part++) {
+            reassembled.write(uploadedParts.get(part));
+        }
+        assertThat(reassembled.toByteArray()).isEqualTo(content);
+        verify(s3, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void retriesFailedPartWithoutFailingUpload() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                throw S3Exception.builder().statusCode(500).message("slow part").build();
+            }
+            UploadPartRequest request = invocation.getArgument(0);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+
+        uploader.upload("statements", "key", "application/pdf", new ByteArrayInputStream(randomBytes(PART_SIZE + 1)));
+
+        assertThat(calls).hasValue(3);
+        verify(s3).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(s3, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsUploadWhenPartExhaustsAttempts() {
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("part failed").build());
+
+        assertThatThrownBy(() -> uploader.upload(
+                "statements", "key", "application/pdf", new ByteArrayInputStream(randomBytes(PART_SIZE + 1))
+        ))
+                .isInstanceOf(S3Exception.class)
+                .hasMessageContaining("part failed");
+
+        ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3).abortMultipartUpload(abortCaptor.capture());
+        assertThat(abortCaptor.getValue().uploadId()).isEqualTo("upload-1");
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsUploadWhenSourceStreamFails() {
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(randomBytes(PART_SIZE)), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("client disconnected");
+            }
+        });
+
+        assertThatThrownBy(() -> uploader.upload("statements", "key", "application/pdf", failing))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("client disconnected");
+
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void concurrentUploadsShareThePartBufferBudget() throws Exception {
+        ExecutorService partExecutor = Executors.newFixedThreadPool(4);
+        S3MultipartUploader shared = new S3MultipartUploader(
+                s3,
+                new S3MultipartProperties(DataSize.ofMegabytes(5), DataSize.ofMegabytes(5), 2, 3, 1000),
+                partExecutor
+        );
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return UploadPartResponse.builder().eTag("etag").build();
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2; i++) {
+                callers.submit(() -> {
+                    shared.upload("statements", "key", "application/pdf", new ByteArrayInputStream(randomBytes(3 * PART_SIZE)));
+                    return null;
+                });
+            }
+        } finally {
+            shared.destroy();
+        }
+
+        assertThat(maxInFlight).hasValueLessThanOrEqualTo(2);
+        verify(s3, times(2)).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void usesMultipartOnlyFromThreshold() {
+        assertThat(uploader.shouldUseMultipart(PART_SIZE - 1)).isFalse();
+        assertThat(uploader.shouldUseMultipart(PART_SIZE)).isTrue();
+    }
+
+    private static byte[] read(RequestBody body) {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
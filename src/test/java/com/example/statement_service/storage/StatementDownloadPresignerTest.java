@@ -0,0 +1,86 @@
+package com.example.statement_service.storage;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementDownloadPresignerTest {
+
+    private static final Pattern AMZ_DATE = Pattern.compile("X-Amz-Date=(\\d{8}T\\d{6}Z)");
+    private static final DateTimeFormatter AMZ_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    @ParameterizedTest
+    @CsvSource({
+            "http://localhost:9000, customer/customer-1/account/account-1/2026-01/6f1c0a52-1f4e-4a57-9a53-1f0c3f0f8e11.pdf, 300",
+            "https://s3.af-south-1.amazonaws.com, blobs/sha256/ab/abcdef.pdf, 60",
+            "https://minio.example.com:443, customer/a@b.c/account/x_y-z~1/2026-12/odd name+plus.pdf, 900"
+    })
+    void producesTheSameUrlAsTheSdkPresigner(String endpoint, String objectKey, long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        String expected;
+        try (S3Presigner sdk = S3Presigner.builder()
+                .endpointOverride(URI.create(endpoint))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create("access-key", "secret/key+value")
+                ))
+                .region(Region.of("af-south-1"))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build()) {
+            expected = sdk.presignGetObject(GetObjectPresignRequest.builder()
+                    .signatureDuration(ttl)
+                    .getObjectRequest(GetObjectRequest.builder()
+                            .bucket("statements")
+                            .key(objectKey)
+                            .responseContentType("application/pdf")
+                            .build())
+                    .build()).url().toString();
+        }
+        StatementDownloadPresigner presigner = new StatementDownloadPresigner(
+                endpoint, "af-south-1", "statements", "access-key", "secret/key+value"
+        );
+
+        assertThat(presigner.presignGetObject(objectKey, ttl, signingTime(expected))).isEqualTo(expected);
+    }
+
+    @Test
+    void derivesANewSigningKeyWhenTheDayChanges() {
+        StatementDownloadPresigner cached = presigner();
+        Instant beforeMidnight = Instant.parse("2026-07-25T23:59:59Z");
+        Instant afterMidnight = Instant.parse("2026-07-26T00:00:01Z");
+        String key = "customer/customer-1/account/account-1/2026-07/statement.pdf";
+
+        cached.presignGetObject(key, Duration.ofMinutes(1), beforeMidnight);
+        String url = cached.presignGetObject(key, Duration.ofMinutes(1), afterMidnight);
+
+        assertThat(url).isEqualTo(presigner().presignGetObject(key, Duration.ofMinutes(1), afterMidnight));
+        assertThat(url).contains("X-Amz-Credential=access-key%2F20260726%2Faf-south-1%2Fs3%2Faws4_request");
+    }
+
+    private static StatementDownloadPresigner presigner() {
+        return new StatementDownloadPresigner("http://localhost:9000", "af-south-1", "statements", "access-key", "secret-key");
+    }
+
+    private static Instant signingTime(String url) {
+        Matcher matcher = AMZ_DATE.matcher(url);
+        assertThat(matcher.find()).isTrue();
+        return LocalDateTime.parse(matcher.group(1), AMZ_DATE_FORMAT).toInstant(ZoneOffset.UTC);
+    }
+}